@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Operation requests collected between {@code /batch} and {@code /run-batch}, to be sent to
+ * the controller as the steps of a single composite operation.
+ */
+public class Batch {
+
+    private final List<ModelNode> requests = new ArrayList<ModelNode>();
+
+    public void add(ModelNode request) {
+        if(request == null) {
+            throw new IllegalArgumentException("Null request");
+        }
+        requests.add(request);
+    }
+
+    public int size() {
+        return requests.size();
+    }
+
+    public boolean isEmpty() {
+        return requests.isEmpty();
+    }
+
+    /**
+     * Builds the composite operation request which executes the collected requests as its steps.
+     * The steps are applied to the model as a unit and the configuration is persisted once.
+     * @return the composite operation request
+     */
+    public ModelNode toCompositeRequest() {
+        ModelNode composite = new ModelNode();
+        composite.get("operation").set("composite");
+        composite.get("address").setEmptyList();
+        ModelNode steps = composite.get("steps").setEmptyList();
+        for(ModelNode request : requests) {
+            steps.add(request);
+        }
+        return composite;
+    }
+}
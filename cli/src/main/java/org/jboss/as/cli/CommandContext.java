@@ -99,4 +99,24 @@ public interface CommandContext {
      * @return the prefix formatter.
      */
     PrefixFormatter getPrefixFormatter();
+
+    /**
+     * Returns the batch operation requests are currently being added to
+     * or null if the batch mode is off.
+     * @return the current batch or null if the batch mode is off.
+     */
+    Batch getBatch();
+
+    /**
+     * Sets the batch subsequent operation requests should be added to instead of being executed.
+     * @param batch the batch or null to switch the batch mode off.
+     */
+    void setBatch(Batch batch);
+
+    /**
+     * Returns the pipeline operation requests are submitted to asynchronously
+     * or null if operation requests are executed synchronously.
+     * @return the operation pipeline or null if operation requests are executed synchronously.
+     */
+    OperationPipeline getOperationPipeline();
 }
@@ -21,15 +21,21 @@
  */
 package org.jboss.as.cli;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.as.cli.handlers.BatchHandler;
+import org.jboss.as.cli.handlers.DiscardBatchHandler;
 import org.jboss.as.cli.handlers.PrefixHandler;
 import org.jboss.as.cli.handlers.ConnectHandler;
 import org.jboss.as.cli.handlers.HelpHandler;
 import org.jboss.as.cli.handlers.OperationRequestHandler;
 import org.jboss.as.cli.handlers.QuitHandler;
+import org.jboss.as.cli.handlers.RunBatchHandler;
 import org.jboss.as.cli.impl.DefaultOperationRequestParser;
 import org.jboss.as.cli.impl.DefaultPrefix;
 import org.jboss.as.cli.impl.DefaultPrefixFormatter;
@@ -49,8 +55,14 @@ public class CommandLineMain {
         registerHandler(new QuitHandler(), "quit", "q");
         registerHandler(new ConnectHandler(), "connect");
         registerHandler(new PrefixHandler(), "prefix", "to");
+        registerHandler(new BatchHandler(), "batch");
+        registerHandler(new RunBatchHandler(), "run-batch");
+        registerHandler(new DiscardBatchHandler(), "discard-batch");
     }
 
+    /** the default maximum number of operation requests in flight in the asynchronous file mode */
+    private static final int DEFAULT_MAX_IN_FLIGHT = 32;
+
     private static void registerHandler(CommandHandler handler, String... names) {
         for(String name : names) {
             CommandHandler previous = handlers.put(name, handler);
@@ -63,6 +75,21 @@ public class CommandLineMain {
 
     public static void main(String[] args) throws Exception {
 
+        String fileName = null;
+        int maxInFlight = 0;
+        for(String arg : args) {
+            if(arg.startsWith("--file=")) {
+                fileName = arg.substring("--file=".length());
+            } else if(arg.equals("--async")) {
+                maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+            } else if(arg.startsWith("--async=")) {
+                maxInFlight = Integer.parseInt(arg.substring("--async=".length()));
+            } else {
+                System.err.println("Unexpected argument '" + arg + "'. Supported arguments: --file=<path> [--async[=<max-requests-in-flight>]]");
+                return;
+            }
+        }
+
         final jline.ConsoleReader console = new jline.ConsoleReader();
         console.setUseHistory(true);
         console.addCompletor(new CommandCompleter(handlers.keySet()));
@@ -76,6 +103,14 @@ public class CommandLineMain {
             }
         }));
 
+        if(fileName != null) {
+            if(maxInFlight > 0) {
+                cmdCtx.pipeline = new OperationPipeline(maxInFlight);
+            }
+            processFile(cmdCtx, new File(fileName));
+            return;
+        }
+
         cmdCtx.log("You are disconnected at the moment." +
                 " Type /connect to connect to the server or" +
                 " /help for the list of supported commands.");
@@ -88,28 +123,74 @@ public class CommandLineMain {
                 continue;
             }
 
-            if (line.charAt(0) == '/') {
-                String cmd = line.substring(1).toLowerCase();
-                cmdCtx.cmdArgs = null;
-                for (int i = 0; i < cmd.length(); ++i) {
-                    if (Character.isWhitespace(cmd.charAt(i))) {
-                        cmdCtx.cmdArgs = cmd.substring(i + 1).trim();
-                        cmd = cmd.substring(0, i);
+            handleLine(cmdCtx, line);
+        }
+    }
+
+    /**
+     * Executes the lines of a file non-interactively. With an operation pipeline, consecutive
+     * operation requests are sent without waiting for each other's results; any command line
+     * (e.g. /connect or /batch) waits for the outstanding requests to complete first, so requests
+     * that depend on each other should be separated by one, or collected in a batch.
+     */
+    private static void processFile(CommandContextImpl cmdCtx, File file) throws IOException, InterruptedException {
+        final long start = System.currentTimeMillis();
+        int operations = 0;
+        int failed = 0;
+        final BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line = reader.readLine();
+            while(line != null && !cmdCtx.terminate) {
+                line = line.trim();
+                if(!line.isEmpty() && line.charAt(0) != '#') {
+                    if(line.charAt(0) == '/') {
+                        failed += awaitPipeline(cmdCtx);
+                    } else if(cmdCtx.batch == null) {
+                        ++operations;
                     }
+                    handleLine(cmdCtx, line);
                 }
+                line = reader.readLine();
+            }
+            failed += awaitPipeline(cmdCtx);
+        } finally {
+            StreamUtils.safeClose(reader);
+            StreamUtils.safeClose(cmdCtx.client);
+        }
+        if(cmdCtx.batch != null) {
+            cmdCtx.log("The batch was not run: " + cmdCtx.batch.size() + " request(s) discarded");
+        }
+        cmdCtx.log("Processed " + file.getName() + " in " + (System.currentTimeMillis() - start) + " ms: " +
+                operations + " operation request(s) outside of batches" +
+                (cmdCtx.pipeline == null ? "" : ", " + failed + " failed"));
+    }
+
+    private static int awaitPipeline(CommandContextImpl cmdCtx) throws InterruptedException {
+        return cmdCtx.pipeline == null ? 0 : cmdCtx.pipeline.awaitCompletion(cmdCtx);
+    }
 
-                CommandHandler handler = handlers.get(cmd);
-                if (handler != null) {
-                    handler.handle(cmdCtx);
-                } else {
-                    cmdCtx.log("Unexpected command '"
-                            + line
-                            + "'. Type /help for the list of supported commands.");
+    private static void handleLine(CommandContextImpl cmdCtx, String line) {
+        if (line.charAt(0) == '/') {
+            String cmd = line.substring(1).toLowerCase();
+            cmdCtx.cmdArgs = null;
+            for (int i = 0; i < cmd.length(); ++i) {
+                if (Character.isWhitespace(cmd.charAt(i))) {
+                    cmdCtx.cmdArgs = cmd.substring(i + 1).trim();
+                    cmd = cmd.substring(0, i);
                 }
+            }
+
+            CommandHandler handler = handlers.get(cmd);
+            if (handler != null) {
+                handler.handle(cmdCtx);
             } else {
-                cmdCtx.cmdArgs = line;
-                operationHandler.handle(cmdCtx);
+                cmdCtx.log("Unexpected command '"
+                        + line
+                        + "'. Type /help for the list of supported commands.");
             }
+        } else {
+            cmdCtx.cmdArgs = line;
+            operationHandler.handle(cmdCtx);
         }
     }
 
@@ -132,6 +213,10 @@ public class CommandLineMain {
         private final PrefixParser prefixParser = new DefaultPrefixParser();
         /** the prefix formatter */
         private final PrefixFormatter prefixFormatter = new DefaultPrefixFormatter();
+        /** the batch operation requests are being added to */
+        private Batch batch;
+        /** the pipeline for asynchronous operation requests */
+        private OperationPipeline pipeline;
 
         private CommandContextImpl(jline.ConsoleReader console) {
             this.console = console;
@@ -198,5 +283,19 @@ public class CommandLineMain {
             return prefixFormatter;
         }
 
+        @Override
+        public Batch getBatch() {
+            return batch;
+        }
+
+        @Override
+        public void setBatch(Batch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public OperationPipeline getOperationPipeline() {
+            return pipeline;
+        }
     }
 }
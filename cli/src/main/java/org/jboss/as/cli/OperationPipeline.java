@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.ResultHandler;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Sends operation requests asynchronously, keeping up to a fixed number of them in flight,
+ * so a script of independent operations doesn't pay a full round-trip per operation.
+ * The results are reported in the order the requests were submitted.
+ */
+public class OperationPipeline {
+
+    private final Semaphore window;
+    private final List<PendingOperation> pending = new ArrayList<PendingOperation>();
+
+    /**
+     * @param maxInFlight the maximum number of requests sent but not yet completed
+     */
+    public OperationPipeline(int maxInFlight) {
+        if(maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be greater than 0");
+        }
+        window = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Sends the request, blocking first if the maximum number of requests is already in flight.
+     * @param client the client to execute the request with
+     * @param request the operation request
+     * @throws InterruptedException if interrupted while waiting for a request to complete
+     */
+    public void submit(ModelControllerClient client, ModelNode request) throws InterruptedException {
+        window.acquire();
+        PendingOperation operation = new PendingOperation(request);
+        pending.add(operation);
+        try {
+            client.execute(request, operation);
+        } catch(RuntimeException e) {
+            operation.handleException(e);
+        }
+    }
+
+    /**
+     * Returns the number of requests submitted since the last call to {@link #awaitCompletion(CommandContext)}.
+     * @return the number of submitted requests
+     */
+    public int getSubmittedCount() {
+        return pending.size();
+    }
+
+    /**
+     * Waits for all the submitted requests to complete and logs their results in submission order.
+     * @param ctx the context to log the results to
+     * @return the number of requests that did not complete successfully
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int awaitCompletion(CommandContext ctx) throws InterruptedException {
+        int failed = 0;
+        try {
+            for(PendingOperation operation : pending) {
+                operation.latch.await();
+                if(operation.failure != null) {
+                    ++failed;
+                    ctx.log("Failed to execute " + operation.request.get("operation").asString() + ": " + operation.failure);
+                } else {
+                    ctx.log(operation.result.toString());
+                }
+            }
+        } finally {
+            pending.clear();
+        }
+        return failed;
+    }
+
+    private class PendingOperation implements ResultHandler {
+
+        private final ModelNode request;
+        private final ModelNode result = new ModelNode();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile String failure;
+
+        PendingOperation(ModelNode request) {
+            this.request = request;
+        }
+
+        @Override
+        public void handleResultFragment(String[] location, ModelNode fragment) {
+            synchronized(result) {
+                if(location.length == 0) {
+                    result.set(fragment);
+                } else {
+                    result.get(location).set(fragment);
+                }
+            }
+        }
+
+        @Override
+        public void handleResultComplete() {
+            complete(null);
+        }
+
+        @Override
+        public void handleCancellation() {
+            complete("the operation was cancelled");
+        }
+
+        @Override
+        public void handleException(Exception e) {
+            complete(e.getLocalizedMessage());
+        }
+
+        private synchronized void complete(String failure) {
+            if(latch.getCount() == 0) {
+                return;
+            }
+            this.failure = failure;
+            latch.countDown();
+            window.release();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.cli.handlers;
+
+import org.jboss.as.cli.Batch;
+import org.jboss.as.cli.CommandContext;
+import org.jboss.as.cli.CommandHandler;
+
+/**
+ * Switches the batch mode on. Operation requests entered afterwards are collected
+ * instead of being executed, until the batch is run or discarded.
+ */
+public class BatchHandler implements CommandHandler {
+
+    /* (non-Javadoc)
+     * @see org.jboss.as.cli.CommandHandler#handle(org.jboss.as.cli.CommandContext)
+     */
+    @Override
+    public void handle(CommandContext ctx) {
+        Batch batch = ctx.getBatch();
+        if(batch != null) {
+            ctx.log("The batch mode is already on (" + batch.size() + " request(s) collected)." +
+                    " Type /run-batch to execute it or /discard-batch to discard it.");
+            return;
+        }
+        ctx.setBatch(new Batch());
+        ctx.log("Batch mode is on. Type /run-batch to execute the collected requests as a single composite operation.");
+    }
+}
@@ -25,9 +25,11 @@ import java.io.IOException;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CancellationException;
 
+import org.jboss.as.cli.Batch;
 import org.jboss.as.cli.CommandContext;
 import org.jboss.as.cli.CommandFormatException;
 import org.jboss.as.cli.CommandHandler;
+import org.jboss.as.cli.OperationPipeline;
 import org.jboss.as.cli.OperationRequestBuilder;
 import org.jboss.as.cli.OperationRequestParser;
 import org.jboss.as.cli.impl.DefaultOperationRequestBuilder;
@@ -48,7 +50,7 @@ public class OperationRequestHandler implements CommandHandler {
     public void handle(CommandContext ctx) {
 
         ModelControllerClient client = ctx.getModelControllerClient();
-        if(client == null) {
+        if(client == null && ctx.getBatch() == null) {
             ctx.log("You are disconnected at the moment." +
                     " Type /connect to connect to the server" +
                     " or /help for the list of supported commands.");
@@ -61,6 +63,17 @@ public class OperationRequestHandler implements CommandHandler {
            OperationRequestParser parser = ctx.getOperationRequestParser();
            parser.parse(ctx.getCommandArguments(), reqBuilder);
            ModelNode request = reqBuilder.buildRequest();
+           Batch batch = ctx.getBatch();
+           if(batch != null) {
+               batch.add(request);
+               ctx.log("#" + batch.size() + " added to the batch");
+               return;
+           }
+           OperationPipeline pipeline = ctx.getOperationPipeline();
+           if(pipeline != null) {
+               pipeline.submit(client, request);
+               return;
+           }
            ModelNode result = client.execute(request);
            ctx.log(result.toString());
         } catch(CommandFormatException e) {
@@ -71,6 +84,9 @@ public class OperationRequestHandler implements CommandHandler {
             ctx.log("The result couldn't be retrieved (perhaps the task was cancelled: " + e.getLocalizedMessage());
         } catch (IOException e) {
             ctx.log("Communication error: " + e.getLocalizedMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ctx.log("Interrupted while waiting to submit the request");
         }
     }
 
@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.cli.handlers;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+
+import org.jboss.as.cli.Batch;
+import org.jboss.as.cli.CommandContext;
+import org.jboss.as.cli.CommandHandler;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Executes the requests collected in the current batch as the steps of a single composite
+ * operation, so they cost one round-trip and one configuration persist, and switches the
+ * batch mode off.
+ */
+public class RunBatchHandler implements CommandHandler {
+
+    /* (non-Javadoc)
+     * @see org.jboss.as.cli.CommandHandler#handle(org.jboss.as.cli.CommandContext)
+     */
+    @Override
+    public void handle(CommandContext ctx) {
+
+        Batch batch = ctx.getBatch();
+        if(batch == null) {
+            ctx.log("The batch mode is off. Type /batch to start collecting requests.");
+            return;
+        }
+
+        ModelControllerClient client = ctx.getModelControllerClient();
+        if(client == null) {
+            ctx.log("You are disconnected at the moment." +
+                    " Type /connect to connect to the server" +
+                    " or /help for the list of supported commands.");
+            return;
+        }
+
+        ctx.setBatch(null);
+        if(batch.isEmpty()) {
+            ctx.log("The batch is empty.");
+            return;
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            ModelNode result = client.execute(batch.toCompositeRequest());
+            ctx.log(result.toString());
+            ctx.log("Executed " + batch.size() + " request(s) in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (CancellationException e) {
+            ctx.log("The result couldn't be retrieved (perhaps the task was cancelled: " + e.getLocalizedMessage());
+        } catch (IOException e) {
+            ctx.log("Communication error: " + e.getLocalizedMessage());
+        }
+    }
+}
@@ -128,17 +128,16 @@ abstract class AbstractModelControllerClient implements ModelControllerClient {
 
     abstract ManagementRequestConnectionStrategy getConnectionStrategy();
 
-    private ModelNode readNode(InputStream in) throws IOException {
-        ModelNode node = new ModelNode();
-        node.readExternal(in);
-        return node;
-    }
-
     private abstract class ModelControllerRequest<T> extends ManagementRequest<T>{
         @Override
         protected byte getHandlerId() {
             return type.getHandlerId();
         }
+
+        @Override
+        protected int getOptionalFlags(final int protocolVersion) {
+            return ModelNodeCodec.getFlag(protocolVersion);
+        }
     }
 
     private class ExecuteSynchronousRequest extends ModelControllerRequest<ModelNode> {
@@ -163,7 +162,7 @@ abstract class AbstractModelControllerClient implements ModelControllerClient {
         @Override
         protected void sendRequest(int protocolVersion, OutputStream output) throws IOException {
             output.write(ModelControllerClientProtocol.PARAM_OPERATION);
-            operation.writeExternal(output);
+            ModelNodeCodec.writeNode(ModelNodeCodec.forFlags(getRequestFlags()), operation, output);
         }
 
 
@@ -171,7 +170,7 @@ abstract class AbstractModelControllerClient implements ModelControllerClient {
         @Override
         protected ModelNode receiveResponse(InputStream input) throws IOException {
             expectHeader(input, ModelControllerClientProtocol.PARAM_OPERATION);
-            return readNode(input);
+            return ModelNodeCodec.readNode(ModelNodeCodec.forFlags(getResponseFlags()), input);
         }
     }
 
@@ -201,13 +200,14 @@ abstract class AbstractModelControllerClient implements ModelControllerClient {
         @Override
         protected void sendRequest(int protocolVersion, OutputStream output) throws IOException {
             output.write(ModelControllerClientProtocol.PARAM_OPERATION);
-            operation.writeExternal(output);
+            ModelNodeCodec.writeNode(ModelNodeCodec.forFlags(getRequestFlags()), operation, output);
         }
 
 
         /** {@inheritDoc} */
         @Override
         protected Void receiveResponse(InputStream input) throws IOException {
+            final ModelNodeCodec codec = ModelNodeCodec.forFlags(getResponseFlags());
             try {
                 LOOP:
                 while (true) {
@@ -221,7 +221,7 @@ abstract class AbstractModelControllerClient implements ModelControllerClient {
                                 location[i] = StreamUtils.readUTFZBytes(input);
                             }
                             expectHeader(input, ModelControllerClientProtocol.PARAM_OPERATION);
-                            ModelNode node = readNode(input);
+                            ModelNode node = ModelNodeCodec.readNode(codec, input);
                             handler.handleResultFragment(location, node);
                             break;
                         }
@@ -231,14 +231,14 @@ abstract class AbstractModelControllerClient implements ModelControllerClient {
                         }
                         case ModelControllerClientProtocol.PARAM_HANDLE_RESULT_FAILED:{
                             expectHeader(input, ModelControllerClientProtocol.PARAM_OPERATION);
-                            ModelNode node = readNode(input);
+                            ModelNode node = ModelNodeCodec.readNode(codec, input);
                             // FIXME need some sort of translation
                             handler.handleException(new RuntimeException(node.toString()));
                             break LOOP;
                         }
                         case ModelControllerClientProtocol.PARAM_HANDLE_RESULT_COMPLETE:{
                             expectHeader(input, ModelControllerClientProtocol.PARAM_OPERATION);
-                            ModelNode node = readNode(input); // TODO: Where does this go
+                            ModelNode node = ModelNodeCodec.readNode(codec, input); // TODO: Where does this go
                             handler.handleResultComplete();
                             break LOOP;
                         }
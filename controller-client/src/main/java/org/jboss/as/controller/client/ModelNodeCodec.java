@@ -0,0 +1,455 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.protocol.mgmt.ManagementProtocol;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.dmr.Property;
+
+/**
+ * Compact binary encoding for {@link ModelNode}s sent over the management protocol.  Keys and short
+ * string values are written once and afterwards referenced by a varint index into a dictionary, and
+ * numbers use variable length encoding.  The dictionary starts out with the keys common to every
+ * management operation and response and keeps growing for the lifetime of the codec, so all nodes
+ * written to one message body share it.  The reading side resolves references to the same
+ * {@code String} instance rather than allocating a new one for every occurrence.
+ * <p>
+ * A codec instance encodes or decodes a single stream and is not thread safe.  It is used instead of
+ * {@link ModelNode#writeExternal(java.io.DataOutput)} when both peers agreed on
+ * {@link ManagementProtocol#FLAG_COMPACT_MODEL}; see {@link #isEnabled()}.
+ */
+public final class ModelNodeCodec {
+
+    /**
+     * The system property which can be set to <code>false</code> to stop offering the compact encoding
+     * to peers.
+     */
+    public static final String ENABLED_PROPERTY = "jboss.management.protocol.compact.model";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+
+    /** Strings longer than this are always written inline instead of being added to the dictionary. */
+    private static final int MAX_DICTIONARY_STRING_LENGTH = 64;
+
+    /** The keys both peers start with. Must only ever be appended to. */
+    private static final String[] PRESET = {
+        "operation", "address", "outcome", "result", "failure-description", "compensating-operation",
+        "success", "failed", "cancelled", "subsystem", "name", "value", "type", "description", "default",
+        "required", "nillable", "attributes", "operations", "children", "model-description",
+        "read-resource", "read-attribute", "read-children-names", "read-resource-description",
+        "write-attribute", "add", "remove", "recursive", "proxies", "include-runtime",
+        "profile", "server", "server-group", "host", "running-server", "deployment", "interface",
+        "socket-binding", "socket-binding-group", "path", "system-property", "extension",
+        "relative-to", "enabled", "runtime-name", "hash", "port", "module", "jvm", "domain-results",
+        "server-operations", "rollback-on-runtime-failure", "steps", "composite"
+    };
+
+    private static final int ENCODED_UNDEFINED = 0;
+    private static final int ENCODED_BOOLEAN_TRUE = 1;
+    private static final int ENCODED_BOOLEAN_FALSE = 2;
+    private static final int ENCODED_INT = 3;
+    private static final int ENCODED_LONG = 4;
+    private static final int ENCODED_DOUBLE = 5;
+    private static final int ENCODED_BIG_INTEGER = 6;
+    private static final int ENCODED_BIG_DECIMAL = 7;
+    private static final int ENCODED_STRING = 8;
+    private static final int ENCODED_BYTES = 9;
+    private static final int ENCODED_TYPE = 10;
+    private static final int ENCODED_LIST = 11;
+    private static final int ENCODED_OBJECT = 12;
+    private static final int ENCODED_PROPERTY = 13;
+    private static final int ENCODED_EXPRESSION = 14;
+
+    private static final ModelType[] TYPES = ModelType.values();
+
+    private final Map<String, Integer> writeDictionary = new HashMap<String, Integer>();
+    private final List<String> readDictionary = new ArrayList<String>();
+
+    /**
+     * Create a new codec with the preset dictionary.
+     */
+    public ModelNodeCodec() {
+        for (String key : PRESET) {
+            writeDictionary.put(key, Integer.valueOf(writeDictionary.size()));
+            readDictionary.add(key);
+        }
+    }
+
+    /**
+     * Whether the compact encoding should be offered to peers.
+     *
+     * @return {@code true} if enabled
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Get the flag to request the compact encoding with, if enabled and understood by the peer.
+     *
+     * @param protocolVersion the negotiated protocol version
+     * @return {@link ManagementProtocol#FLAG_COMPACT_MODEL} or <code>0</code>
+     */
+    public static int getFlag(final int protocolVersion) {
+        return ENABLED && protocolVersion >= ManagementProtocol.COMPACT_MODEL_VERSION ? ManagementProtocol.FLAG_COMPACT_MODEL : 0;
+    }
+
+    /**
+     * Whether the given flags select the compact encoding.
+     *
+     * @param flags the request or response flags
+     * @return {@code true} if the compact encoding is used
+     */
+    public static boolean isSelected(final int flags) {
+        return (flags & ManagementProtocol.FLAG_COMPACT_MODEL) != 0;
+    }
+
+    /**
+     * Write a node, using the compact encoding if selected by the flags and {@link ModelNode#writeExternal(OutputStream)}
+     * otherwise.
+     *
+     * @param codec the codec for the message body, or {@code null} if the compact encoding is not selected
+     * @param node the node
+     * @param output the output
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeNode(final ModelNodeCodec codec, final ModelNode node, final OutputStream output) throws IOException {
+        if (codec != null) {
+            codec.write(node, output);
+        } else {
+            node.writeExternal(output);
+        }
+    }
+
+    /**
+     * Read a node, using the compact encoding if a codec is given and {@link ModelNode#readExternal(InputStream)}
+     * otherwise.
+     *
+     * @param codec the codec for the message body, or {@code null} if the compact encoding is not selected
+     * @param input the input
+     * @return the node
+     * @throws IOException if an I/O error occurs
+     */
+    public static ModelNode readNode(final ModelNodeCodec codec, final InputStream input) throws IOException {
+        if (codec != null) {
+            return codec.read(input);
+        }
+        final ModelNode node = new ModelNode();
+        node.readExternal(input);
+        return node;
+    }
+
+    /**
+     * Create a codec for a message body if the flags select the compact encoding.
+     *
+     * @param flags the request or response flags
+     * @return a new codec, or {@code null} if the compact encoding is not selected
+     */
+    public static ModelNodeCodec forFlags(final int flags) {
+        return isSelected(flags) ? new ModelNodeCodec() : null;
+    }
+
+    /**
+     * Write a node.
+     *
+     * @param node the node
+     * @param output the output
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final ModelNode node, final OutputStream output) throws IOException {
+        switch (node.getType()) {
+            case UNDEFINED:
+                output.write(ENCODED_UNDEFINED);
+                break;
+            case BOOLEAN:
+                output.write(node.asBoolean() ? ENCODED_BOOLEAN_TRUE : ENCODED_BOOLEAN_FALSE);
+                break;
+            case INT:
+                output.write(ENCODED_INT);
+                writeVarLong(output, zigZag(node.asInt()));
+                break;
+            case LONG:
+                output.write(ENCODED_LONG);
+                writeVarLong(output, zigZag(node.asLong()));
+                break;
+            case DOUBLE: {
+                output.write(ENCODED_DOUBLE);
+                final long bits = Double.doubleToLongBits(node.asDouble());
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    output.write((int) (bits >>> shift));
+                }
+                break;
+            }
+            case BIG_INTEGER:
+                output.write(ENCODED_BIG_INTEGER);
+                writeBytes(output, node.asBigInteger().toByteArray());
+                break;
+            case BIG_DECIMAL: {
+                output.write(ENCODED_BIG_DECIMAL);
+                final BigDecimal value = node.asBigDecimal();
+                writeVarLong(output, zigZag(value.scale()));
+                writeBytes(output, value.unscaledValue().toByteArray());
+                break;
+            }
+            case STRING:
+                output.write(ENCODED_STRING);
+                writeKey(output, node.asString());
+                break;
+            case BYTES:
+                output.write(ENCODED_BYTES);
+                writeBytes(output, node.asBytes());
+                break;
+            case TYPE:
+                output.write(ENCODED_TYPE);
+                output.write(node.asType().ordinal());
+                break;
+            case LIST: {
+                output.write(ENCODED_LIST);
+                final List<ModelNode> list = node.asList();
+                writeVarLong(output, list.size());
+                for (ModelNode element : list) {
+                    write(element, output);
+                }
+                break;
+            }
+            case OBJECT: {
+                output.write(ENCODED_OBJECT);
+                final Set<String> keys = node.keys();
+                writeVarLong(output, keys.size());
+                for (String key : keys) {
+                    writeKey(output, key);
+                    write(node.get(key), output);
+                }
+                break;
+            }
+            case PROPERTY: {
+                output.write(ENCODED_PROPERTY);
+                final Property property = node.asProperty();
+                writeKey(output, property.getName());
+                write(property.getValue(), output);
+                break;
+            }
+            case EXPRESSION:
+                output.write(ENCODED_EXPRESSION);
+                writeBytes(output, node.asString().getBytes("UTF-8"));
+                break;
+            default:
+                throw new IOException("Unsupported model type " + node.getType());
+        }
+    }
+
+    /**
+     * Read a node.
+     *
+     * @param input the input
+     * @return the node
+     * @throws IOException if an I/O error occurs
+     */
+    public ModelNode read(final InputStream input) throws IOException {
+        final ModelNode node = new ModelNode();
+        read(input, node);
+        return node;
+    }
+
+    private void read(final InputStream input, final ModelNode node) throws IOException {
+        final int type = input.read();
+        switch (type) {
+            case -1:
+                throw new EOFException();
+            case ENCODED_UNDEFINED:
+                break;
+            case ENCODED_BOOLEAN_TRUE:
+                node.set(true);
+                break;
+            case ENCODED_BOOLEAN_FALSE:
+                node.set(false);
+                break;
+            case ENCODED_INT:
+                node.set((int) unZigZag(readVarLong(input)));
+                break;
+            case ENCODED_LONG:
+                node.set(unZigZag(readVarLong(input)));
+                break;
+            case ENCODED_DOUBLE: {
+                long bits = 0;
+                for (int i = 0; i < 8; i++) {
+                    bits = (bits << 8) | readByte(input);
+                }
+                node.set(Double.longBitsToDouble(bits));
+                break;
+            }
+            case ENCODED_BIG_INTEGER:
+                node.set(new BigInteger(readBytes(input)));
+                break;
+            case ENCODED_BIG_DECIMAL: {
+                final int scale = (int) unZigZag(readVarLong(input));
+                node.set(new BigDecimal(new BigInteger(readBytes(input)), scale));
+                break;
+            }
+            case ENCODED_STRING:
+                node.set(readKey(input));
+                break;
+            case ENCODED_BYTES:
+                node.set(readBytes(input));
+                break;
+            case ENCODED_TYPE: {
+                final int ordinal = readByte(input);
+                if (ordinal >= TYPES.length) {
+                    throw new IOException("Invalid model type " + ordinal);
+                }
+                node.set(TYPES[ordinal]);
+                break;
+            }
+            case ENCODED_LIST: {
+                node.setEmptyList();
+                final int size = readSize(input);
+                for (int i = 0; i < size; i++) {
+                    read(input, node.add());
+                }
+                break;
+            }
+            case ENCODED_OBJECT: {
+                node.setEmptyObject();
+                final int size = readSize(input);
+                for (int i = 0; i < size; i++) {
+                    read(input, node.get(readKey(input)));
+                }
+                break;
+            }
+            case ENCODED_PROPERTY: {
+                final String name = readKey(input);
+                node.set(name, read(input));
+                break;
+            }
+            case ENCODED_EXPRESSION:
+                node.setExpression(new String(readBytes(input), "UTF-8"));
+                break;
+            default:
+                throw new IOException("Invalid encoded model type " + type);
+        }
+    }
+
+    private void writeKey(final OutputStream output, final String key) throws IOException {
+        final Integer index = writeDictionary.get(key);
+        if (index != null) {
+            writeVarLong(output, index.intValue() + 1);
+        } else {
+            if (key.length() <= MAX_DICTIONARY_STRING_LENGTH) {
+                writeDictionary.put(key, Integer.valueOf(writeDictionary.size()));
+            }
+            writeVarLong(output, 0);
+            writeBytes(output, key.getBytes("UTF-8"));
+        }
+    }
+
+    private String readKey(final InputStream input) throws IOException {
+        final long reference = readVarLong(input);
+        if (reference == 0) {
+            final String key = new String(readBytes(input), "UTF-8");
+            if (key.length() <= MAX_DICTIONARY_STRING_LENGTH) {
+                readDictionary.add(key);
+            }
+            return key;
+        }
+        if (reference > readDictionary.size()) {
+            throw new IOException("Invalid dictionary reference " + reference);
+        }
+        return readDictionary.get((int) reference - 1);
+    }
+
+    private static void writeBytes(final OutputStream output, final byte[] bytes) throws IOException {
+        writeVarLong(output, bytes.length);
+        output.write(bytes);
+    }
+
+    private byte[] readBytes(final InputStream input) throws IOException {
+        final int length = readSize(input);
+        final byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            final int n = input.read(bytes, read, length - read);
+            if (n == -1) {
+                throw new EOFException();
+            }
+            read += n;
+        }
+        return bytes;
+    }
+
+    private static int readSize(final InputStream input) throws IOException {
+        final long size = readVarLong(input);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid size " + size);
+        }
+        return (int) size;
+    }
+
+    private static void writeVarLong(final OutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private static long readVarLong(final InputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte(input);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readByte(final InputStream input) throws IOException {
+        final int b = input.read();
+        if (b == -1) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the compact {@link ModelNode} encoding, including its size against {@link ModelNode#writeExternal(java.io.DataOutput)}
+ * for realistic management traffic.
+ */
+public class ModelNodeCodecTestCase {
+
+    @Test
+    public void testRoundTripAllTypes() throws Exception {
+        final ModelNode node = new ModelNode();
+        node.get("undefined");
+        node.get("boolean").set(true);
+        node.get("false").set(false);
+        node.get("int").set(-12345);
+        node.get("int-max").set(Integer.MAX_VALUE);
+        node.get("long").set(Long.MIN_VALUE);
+        node.get("double").set(3.25d);
+        node.get("big-integer").set(new BigInteger("123456789012345678901234567890"));
+        node.get("big-decimal").set(new BigDecimal("-1234567890.0987654321"));
+        node.get("string").set("value");
+        node.get("long-string").set(createString(1000));
+        node.get("bytes").set(new byte[] { 1, 2, 3, -1 });
+        node.get("type").set(ModelType.PROPERTY);
+        node.get("list").add(1).add("two").add(new ModelNode().set("three", 3));
+        node.get("property").set("name", new ModelNode().set(true));
+        node.get("expression").setExpression("${jboss.bind.address:127.0.0.1}");
+        node.get("empty-list").setEmptyList();
+        node.get("empty-object").setEmptyObject();
+        node.get("nested", "a", "b", "c").set("deep");
+
+        final ModelNode read = roundTrip(node);
+        Assert.assertEquals(node, read);
+        Assert.assertEquals(ModelType.EXPRESSION, read.get("expression").getType());
+        Assert.assertEquals(ModelType.UNDEFINED, read.get("undefined").getType());
+    }
+
+    @Test
+    public void testSharedDictionaryAcrossNodes() throws Exception {
+        final ModelNode first = createReadResourceResult(3);
+        final ModelNode second = createReadResourceResult(3);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ModelNodeCodec writer = new ModelNodeCodec();
+        writer.write(first, bytes);
+        final int firstSize = bytes.size();
+        writer.write(second, bytes);
+        final int secondSize = bytes.size() - firstSize;
+
+        // The second node only references keys already in the dictionary
+        Assert.assertTrue("first " + firstSize + ", second " + secondSize, secondSize < firstSize / 2);
+
+        final ModelNodeCodec reader = new ModelNodeCodec();
+        final ByteArrayInputStream input = new ByteArrayInputStream(bytes.toByteArray());
+        final ModelNode firstRead = reader.read(input);
+        final ModelNode secondRead = reader.read(input);
+        Assert.assertEquals(first, firstRead);
+        Assert.assertEquals(second, secondRead);
+        Assert.assertEquals(-1, input.read());
+
+        // Keys repeated across the stream resolve to the same instance
+        final String key = firstRead.get("server", "server-0", "socket-binding-group").asString();
+        Assert.assertSame(key, secondRead.get("server", "server-0", "socket-binding-group").asString());
+    }
+
+    @Test
+    public void testSmallerThanExternalForm() throws Exception {
+        for (int servers : new int[] { 1, 10, 100 }) {
+            final ModelNode node = createReadResourceResult(servers);
+            final int external = externalSize(node);
+            final ByteArrayOutputStream compact = new ByteArrayOutputStream();
+            new ModelNodeCodec().write(node, compact);
+            final String sizes = servers + " servers: compact " + compact.size() + " external " + external;
+            Assert.assertTrue(sizes, compact.size() < external);
+            if (servers > 1) {
+                // Per server keys repeat, so they are only written once
+                Assert.assertTrue(sizes, compact.size() * 3 < external);
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedInput() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ModelNodeCodec().write(createReadResourceResult(2), bytes);
+        final byte[] truncated = new byte[bytes.size() / 2];
+        System.arraycopy(bytes.toByteArray(), 0, truncated, 0, truncated.length);
+        try {
+            new ModelNodeCodec().read(new ByteArrayInputStream(truncated));
+            Assert.fail("Read truncated node");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testSelectedByFlags() throws Exception {
+        Assert.assertNull(ModelNodeCodec.forFlags(0));
+        Assert.assertNotNull(ModelNodeCodec.forFlags(ModelNodeCodec.getFlag(Integer.MAX_VALUE)));
+        Assert.assertEquals(0, ModelNodeCodec.getFlag(1));
+
+        final ModelNode node = createReadResourceResult(1);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ModelNodeCodec.writeNode(null, node, bytes);
+        Assert.assertEquals(node, ModelNodeCodec.readNode(null, new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static ModelNode roundTrip(final ModelNode node) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ModelNodeCodec().write(node, bytes);
+        return new ModelNodeCodec().read(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static int externalSize(final ModelNode node) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        node.writeExternal(output);
+        output.close();
+        return bytes.size();
+    }
+
+    private static String createString(final int length) {
+        final StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append((char) ('a' + builder.length() % 26));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Creates the kind of result a recursive read-resource of a host returns.
+     */
+    private static ModelNode createReadResourceResult(final int servers) {
+        final ModelNode result = new ModelNode();
+        result.get("outcome").set("success");
+        final ModelNode model = result.get("result");
+        model.get("name").set("master");
+        model.get("management", "native-api", "interface").set("management");
+        model.get("management", "native-api", "port").set(9999);
+        model.get("management", "http-api", "interface").set("management");
+        model.get("management", "http-api", "port").set(9990);
+        for (int i = 0; i < servers; i++) {
+            final ModelNode server = model.get("server", "server-" + i);
+            server.get("name").set("server-" + i);
+            server.get("group").set(i % 2 == 0 ? "main-server-group" : "other-server-group");
+            server.get("socket-binding-group").set("standard-sockets");
+            server.get("socket-binding-port-offset").set(i * 100);
+            server.get("auto-start").set(i % 3 != 0);
+            server.get("priority").set(i);
+            server.get("cpu-affinity");
+            server.get("jvm", "default", "heap-size").set("64m");
+            server.get("jvm", "default", "max-heap-size").set("512m");
+            server.get("system-property", "jboss.server.log.dir", "value").set("${jboss.home.dir}/domain/servers/server-" + i + "/log");
+            server.get("system-property", "jboss.server.log.dir", "boot-time").set(true);
+            server.get("interface", "public", "criteria").add(new ModelNode().set("inet-address", "127.0.0.1"));
+        }
+        return result;
+    }
+}
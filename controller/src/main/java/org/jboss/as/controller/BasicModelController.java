@@ -49,6 +49,7 @@ import java.util.NoSuchElementException;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jboss.as.controller.descriptions.DescriptionProvider;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
@@ -76,6 +77,7 @@ public class BasicModelController implements ModelController {
     private final ModelNodeRegistration registry;
     private final ModelNode model;
     private final ConfigurationPersister configurationPersister;
+    private final AtomicLong modelVersion = new AtomicLong();
     private final ModelProvider modelSource = new ModelProvider() {
         @Override
         public ModelNode getModel() {
@@ -231,7 +233,7 @@ public class BasicModelController implements ModelController {
             subModel = new ModelNode();
         } else if (operationHandler instanceof ModelQueryOperationHandler) {
             // or model update operation handler...
-            final ModelNode model = modelSource.getModel();
+            final ModelNode model = ModelOverlay.getModel(modelSource, address, false);
             synchronized (model) {
                 subModel = address.navigate(model, false).clone();
             }
@@ -309,13 +311,16 @@ public class BasicModelController implements ModelController {
             final PathAddress address, ModelProvider modelProvider, final ConfigurationPersisterProvider configurationPersisterFactory) throws OperationFailedException {
         final OperationResult result = operationHandler.execute(context, operation, resultHandler);
         if (operationHandler instanceof ModelUpdateOperationHandler) {
-            final ModelNode model = modelProvider.getModel();
+            final ModelNode model = ModelOverlay.getModel(modelProvider, address, true);
             synchronized (model) {
                 if (operationHandler instanceof ModelRemoveOperationHandler) {
                     address.remove(model);
                 } else {
                     address.navigate(model, true).set(context.getSubModel());
                 }
+                if (model == this.model) {
+                    modelVersion.incrementAndGet();
+                }
                 persistConfiguration(model, configurationPersisterFactory);
             }
         }
@@ -326,6 +331,16 @@ public class BasicModelController implements ModelController {
         return registry;
     }
 
+    /**
+     * Get the current version of the persistent model. The version is incremented each time an update
+     * is applied to the model, so callers can use it to detect that a previously read view is stale.
+     *
+     * @return the model version
+     */
+    public long getModelVersion() {
+        return modelVersion.get();
+    }
+
     protected ModelNode getModel() {
         return model;
     }
@@ -493,7 +508,7 @@ public class BasicModelController implements ModelController {
 
     }
 
-    protected class MultiStepOperationController implements ModelProvider, OperationContextFactory, ConfigurationPersisterProvider {
+    protected class MultiStepOperationController implements ModelOverlay.Source, OperationContextFactory, ConfigurationPersisterProvider {
 
         private final ParameterValidator stepsValidator = new ModelTypeValidator(ModelType.LIST);
 
@@ -517,8 +532,8 @@ public class BasicModelController implements ModelController {
         protected boolean hasFailures = false;
         /** Provides the model the overall operation should read and/or update */
         protected final ModelProvider modelSource;
-        /** Our clone of the model provided by modelSource -- steps read or modify this */
-        protected final ModelNode localModel;
+        /** Our copy-on-write view of the model provided by modelSource -- steps read or modify this */
+        private final ModelOverlay localModel;
         /** Flag indicating a step has modified the model */
         protected boolean modelUpdated;
         /** Index of the operation currently being executed */
@@ -551,7 +566,7 @@ public class BasicModelController implements ModelController {
             this.steps = operation.require(STEPS).asList();
             this.unfinishedCount.set(steps.size());
             this.modelSource = modelSource;
-            this.localModel = this.modelSource.getModel().clone();
+            this.localModel = new ModelOverlay(modelSource);
             // Ensure the outcome and result fields come first for each result
             for (int i = 0; i < unfinishedCount.get(); i++) {
                 ModelNode stepResult = getStepResultNode(i);
@@ -620,11 +635,12 @@ public class BasicModelController implements ModelController {
         protected void recordModelComplete() {
             modelComplete.set(true);
             if (modelUpdated) {
-                final ModelNode model = modelSource.getModel();
-                synchronized (model) {
-                    model.set(localModel);
+                localModel.commit();
+                // A nested composite's changes are persisted along with those of the composite containing it
+                if (!(modelSource instanceof ModelOverlay.Source)) {
+                    modelVersion.incrementAndGet();
+                    BasicModelController.this.persistConfiguration(modelSource.getModel(), BasicModelController.this.configPersisterProvider);
                 }
-                BasicModelController.this.persistConfiguration(model, BasicModelController.this.configPersisterProvider);
             }
             if (runtimeTasks.size() == 0) {
                 handleSuccess();
@@ -801,7 +817,15 @@ public class BasicModelController implements ModelController {
 
         @Override
         public ModelNode getModel() {
-            return localModel;
+            return localModel.getModel(PathAddress.EMPTY_ADDRESS, false);
+        }
+
+        @Override
+        public ModelNode getModel(PathAddress address, boolean update) {
+            if (update) {
+                modelUpdated = true;
+            }
+            return localModel.getModel(address, update);
         }
     }
 
@@ -0,0 +1,215 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat Inc., and individual contributors as indicated
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * A copy-on-write view of a model, used by the steps of a composite operation. Instead of
+ * cloning the whole model up front, only the subtrees the steps address are copied from the
+ * base model, the first time they are addressed. When the composite completes, only the
+ * modified subtrees are written back.
+ */
+final class ModelOverlay {
+
+    /**
+     * A {@link ModelProvider} which can provide a model in which only the subtree at a given
+     * address is guaranteed to be complete.
+     */
+    interface Source extends ModelProvider {
+
+        /**
+         * Gets the model, ensuring the subtree at the given address can be read or modified.
+         *
+         * @param address the address of the subtree
+         * @param update {@code true} if the subtree is going to be modified
+         * @return the model. Will not return {@code null}
+         */
+        ModelNode getModel(PathAddress address, boolean update);
+    }
+
+    /**
+     * Gets the model from a provider, ensuring the subtree at the given address can be read or modified.
+     *
+     * @param provider the model provider
+     * @param address the address of the subtree
+     * @param update {@code true} if the subtree is going to be modified
+     * @return the model
+     */
+    static ModelNode getModel(final ModelProvider provider, final PathAddress address, final boolean update) {
+        return provider instanceof Source ? ((Source) provider).getModel(address, update) : provider.getModel();
+    }
+
+    private final ModelProvider base;
+    private final ModelNode local = new ModelNode();
+    /** The addresses of the subtrees copied into the local model, mapped to whether the subtree was modified */
+    private final Map<PathAddress, Boolean> copied = new LinkedHashMap<PathAddress, Boolean>();
+
+    ModelOverlay(final ModelProvider base) {
+        this.base = base;
+    }
+
+    /**
+     * Gets the local model, copying the subtree at the given address from the base model if it
+     * has not been copied yet. Parts of the local model outside of the copied subtrees only
+     * reproduce the path to them, and must not be read.
+     *
+     * @param address the address of the subtree
+     * @param update {@code true} if the subtree is going to be modified
+     * @return the local model
+     */
+    ModelNode getModel(final PathAddress address, final boolean update) {
+        PathAddress root = getCopiedRoot(address);
+        if (root == null) {
+            copy(address);
+            root = address;
+        }
+        if (update) {
+            copied.put(root, Boolean.TRUE);
+        }
+        return local;
+    }
+
+    /**
+     * Writes the modified subtrees back to the base model.
+     */
+    void commit() {
+        for (Map.Entry<PathAddress, Boolean> entry : copied.entrySet()) {
+            if (!entry.getValue().booleanValue()) {
+                continue;
+            }
+            final PathAddress address = entry.getKey();
+            final ModelNode node = find(local, address);
+            final ModelNode model = getModel(base, address, true);
+            synchronized (model) {
+                if (address.size() == 0) {
+                    model.set(node);
+                } else if (node != null) {
+                    address.navigate(model, true).set(node);
+                } else if (find(model, address) != null) {
+                    address.remove(model);
+                }
+            }
+        }
+    }
+
+    private PathAddress getCopiedRoot(final PathAddress address) {
+        for (int i = 0; i <= address.size(); i++) {
+            final PathAddress candidate = i == address.size() ? address : address.subAddress(0, i);
+            if (copied.containsKey(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void copy(final PathAddress address) {
+        final ModelNode model = getModel(base, address, false);
+        final ModelNode subModel;
+        synchronized (model) {
+            subModel = copyPath(model, address);
+        }
+
+        // Subtrees below this one which were copied earlier may have been modified since
+        boolean modified = false;
+        final Iterator<Map.Entry<PathAddress, Boolean>> iterator = copied.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<PathAddress, Boolean> entry = iterator.next();
+            final PathAddress descendant = entry.getKey();
+            if (!isAncestor(address, descendant)) {
+                continue;
+            }
+            if (subModel != null) {
+                final PathAddress relative = descendant.subAddress(address.size());
+                final ModelNode node = find(local, descendant);
+                try {
+                    if (node != null) {
+                        relative.navigate(subModel, true).set(node);
+                    } else if (find(subModel, relative) != null) {
+                        relative.remove(subModel);
+                    }
+                } catch (NoSuchElementException e) {
+                    // the parent of the descendant was removed from the base model in the meantime
+                }
+            }
+            modified |= entry.getValue().booleanValue();
+            iterator.remove();
+        }
+        copied.put(address, Boolean.valueOf(modified));
+
+        if (address.size() == 0) {
+            local.set(subModel);
+        } else if (subModel != null) {
+            address.navigate(local, true).set(subModel);
+        }
+    }
+
+    /**
+     * Reproduces in the local model the part of the path to the address which exists in the base
+     * model, so navigating to the address behaves the same as it would on a full copy.
+     *
+     * @return a copy of the base model's subtree at the address, or {@code null} if there is none
+     */
+    private ModelNode copyPath(final ModelNode model, final PathAddress address) {
+        ModelNode baseNode = model;
+        ModelNode localNode = local;
+        for (PathElement element : address) {
+            if (!baseNode.has(element.getKey())) {
+                return null;
+            }
+            baseNode = baseNode.get(element.getKey());
+            localNode = localNode.get(element.getKey());
+            if (!baseNode.has(element.getValue())) {
+                return null;
+            }
+            baseNode = baseNode.get(element.getValue());
+            localNode = localNode.get(element.getValue());
+        }
+        return baseNode.clone();
+    }
+
+    private static boolean isAncestor(final PathAddress address, final PathAddress descendant) {
+        if (descendant.size() <= address.size()) {
+            return false;
+        }
+        for (int i = 0; i < address.size(); i++) {
+            if (!address.getElement(i).equals(descendant.getElement(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ModelNode find(final ModelNode model, final PathAddress address) {
+        try {
+            return address.navigate(model, false);
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INC
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INTERFACE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.JVM_TYPE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MANAGEMENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAX_THREADS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MULTICAST_ADDRESS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MULTICAST_PORT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
@@ -450,6 +451,9 @@ public abstract class CommonXml implements XMLElementReader<List<ModelNode>>, XM
         final ModelNode mgmtSocket = new ModelNode();
         mgmtSocket.get(INTERFACE).set(interfaceName);
         mgmtSocket.get(PORT).set(port);
+        if (maxThreads > 0) {
+            mgmtSocket.get(MAX_THREADS).set(maxThreads);
+        }
         mgmtSocket.get(OP).set(ADD);
         mgmtSocket.get(OP_ADDR).setEmptyList().add(MANAGEMENT, HTTP_API);
 
@@ -39,6 +39,7 @@ import org.jboss.as.controller.OperationResult;
 import org.jboss.as.controller.ResultHandler;
 import org.jboss.as.controller.client.ModelControllerClient;
 import org.jboss.as.controller.client.ModelControllerClientProtocol;
+import org.jboss.as.controller.client.ModelNodeCodec;
 import org.jboss.as.protocol.Connection;
 import org.jboss.as.protocol.MessageHandler;
 import org.jboss.as.protocol.StreamUtils;
@@ -115,12 +116,6 @@ public class ModelControllerOperationHandlerImpl extends AbstractMessageHandler
         }
     }
 
-    private ModelNode readNode(InputStream in) throws IOException {
-        ModelNode node = new ModelNode();
-        node.readExternal(in);
-        return node;
-    }
-
     private abstract class ExecuteOperation extends ManagementResponse {
         ModelNode operation;
 
@@ -128,10 +123,15 @@ public class ModelControllerOperationHandlerImpl extends AbstractMessageHandler
             super(getInitiatingHandler());
         }
 
+        @Override
+        protected int getSupportedFlags() {
+            return super.getSupportedFlags() | ManagementProtocol.FLAG_COMPACT_MODEL;
+        }
+
         @Override
         protected final void readRequest(final InputStream inputStream) throws IOException {
             expectHeader(inputStream, ModelControllerClientProtocol.PARAM_OPERATION);
-            operation = readNode(inputStream);
+            operation = ModelNodeCodec.readNode(ModelNodeCodec.forFlags(getRequestFlags()), inputStream);
         }
     }
 
@@ -145,7 +145,7 @@ public class ModelControllerOperationHandlerImpl extends AbstractMessageHandler
         protected void sendResponse(final OutputStream outputStream) throws IOException {
             ModelNode result = modelController.execute(operation);
             outputStream.write(ModelControllerClientProtocol.PARAM_OPERATION);
-            result.writeExternal(outputStream);
+            ModelNodeCodec.writeNode(ModelNodeCodec.forFlags(getResponseFlags()), result, outputStream);
         }
     }
 
@@ -164,6 +164,7 @@ public class ModelControllerOperationHandlerImpl extends AbstractMessageHandler
             final IOExceptionHolder exceptionHolder = new IOExceptionHolder();
             final FailureHolder failureHolder = new FailureHolder();
             final AtomicInteger status = new AtomicInteger(0);
+            final ModelNodeCodec codec = ModelNodeCodec.forFlags(getResponseFlags());
 
             OperationResult result = modelController.execute(operation, new ResultHandler() {
                 @Override
@@ -177,7 +178,7 @@ public class ModelControllerOperationHandlerImpl extends AbstractMessageHandler
                                 StreamUtils.writeUTFZBytes(outputStream, loc);
                             }
                             outputStream.write(ModelControllerClientProtocol.PARAM_OPERATION);
-                            fragment.writeExternal(outputStream);
+                            ModelNodeCodec.writeNode(codec, fragment, outputStream);
                             outputStream.flush();
                         }
                     } catch (IOException e) {
@@ -245,7 +246,7 @@ public class ModelControllerOperationHandlerImpl extends AbstractMessageHandler
                     synchronized (outputStream) {
                         outputStream.write(ModelControllerClientProtocol.PARAM_HANDLE_RESULT_COMPLETE);
                         outputStream.write(ModelControllerClientProtocol.PARAM_OPERATION);
-                        result.getCompensatingOperation().writeExternal(outputStream);
+                        ModelNodeCodec.writeNode(codec, result.getCompensatingOperation(), outputStream);
                         outputStream.flush();
                     }
                     break;
@@ -254,7 +255,7 @@ public class ModelControllerOperationHandlerImpl extends AbstractMessageHandler
                     synchronized (outputStream) {
                         outputStream.write(ModelControllerClientProtocol.PARAM_HANDLE_RESULT_FAILED);
                         outputStream.write(ModelControllerClientProtocol.PARAM_OPERATION);
-                        failureHolder.getFailure().writeExternal(outputStream);
+                        ModelNodeCodec.writeNode(codec, failureHolder.getFailure(), outputStream);
                         outputStream.flush();
                     }
                     break;
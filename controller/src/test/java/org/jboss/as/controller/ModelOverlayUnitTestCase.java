@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat Inc., and individual contributors as indicated
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.jboss.dmr.ModelNode;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link ModelOverlay}.
+ */
+public class ModelOverlayUnitTestCase {
+
+    private static final PathAddress ROOT = PathAddress.EMPTY_ADDRESS;
+    private static final PathAddress A = PathAddress.pathAddress(PathElement.pathElement("subsystem", "a"));
+    private static final PathAddress B = PathAddress.pathAddress(PathElement.pathElement("subsystem", "b"));
+    private static final PathAddress A_CHILD = A.append(PathElement.pathElement("child", "one"));
+
+    private ModelNode model;
+    private ModelProvider provider;
+
+    @Before
+    public void setupModel() {
+        model = new ModelNode();
+        model.get("attr").set(1);
+        model.get("subsystem", "a", "attr").set("a");
+        model.get("subsystem", "a", "child", "one", "attr").set("one");
+        model.get("subsystem", "b", "attr").set("b");
+        provider = new ModelProvider() {
+            @Override
+            public ModelNode getModel() {
+                return model;
+            }
+        };
+    }
+
+    @Test
+    public void testReadCopiesOnlyAddressedSubtree() {
+        ModelOverlay overlay = new ModelOverlay(provider);
+        ModelNode local = overlay.getModel(A, false);
+        assertEquals("a", A.navigate(local, false).get("attr").asString());
+        assertEquals("one", A_CHILD.navigate(local, false).get("attr").asString());
+        assertFalse(local.get("subsystem").has("b"));
+        assertFalse(local.has("attr"));
+    }
+
+    @Test
+    public void testUpdateIsInvisibleUntilCommit() {
+        ModelOverlay overlay = new ModelOverlay(provider);
+        A.navigate(overlay.getModel(A, true), false).get("attr").set("changed");
+        assertEquals("a", A.navigate(model, false).get("attr").asString());
+
+        overlay.commit();
+        assertEquals("changed", A.navigate(model, false).get("attr").asString());
+        assertEquals("one", A_CHILD.navigate(model, false).get("attr").asString());
+    }
+
+    @Test
+    public void testCommitWritesOnlyModifiedSubtrees() {
+        ModelOverlay overlay = new ModelOverlay(provider);
+        overlay.getModel(B, false);
+        A.navigate(overlay.getModel(A, true), false).get("attr").set("changed");
+
+        // Changes made to the base model outside of the modified subtrees are kept
+        model.get("attr").set(2);
+        B.navigate(model, false).get("attr").set("concurrent");
+        overlay.commit();
+
+        assertEquals(2, model.get("attr").asInt());
+        assertEquals("concurrent", B.navigate(model, false).get("attr").asString());
+        assertEquals("changed", A.navigate(model, false).get("attr").asString());
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        PathAddress added = PathAddress.pathAddress(PathElement.pathElement("subsystem", "c"));
+        ModelOverlay overlay = new ModelOverlay(provider);
+        added.navigate(overlay.getModel(added, true), true).get("attr").set("c");
+        B.remove(overlay.getModel(B, true));
+        assertFalse(model.get("subsystem").has("c"));
+        assertTrue(model.get("subsystem").has("b"));
+
+        overlay.commit();
+        assertEquals("c", added.navigate(model, false).get("attr").asString());
+        assertFalse(model.get("subsystem").has("b"));
+        assertTrue(model.get("subsystem").has("a"));
+    }
+
+    @Test
+    public void testAncestorCopyKeepsDescendantChanges() {
+        ModelOverlay overlay = new ModelOverlay(provider);
+        A_CHILD.navigate(overlay.getModel(A_CHILD, true), false).get("attr").set("changed");
+        B.remove(overlay.getModel(B, true));
+
+        ModelNode local = overlay.getModel(ROOT, false);
+        assertEquals(1, local.get("attr").asInt());
+        assertEquals("changed", A_CHILD.navigate(local, false).get("attr").asString());
+        assertFalse(local.get("subsystem").has("b"));
+
+        overlay.commit();
+        assertEquals(local, model);
+    }
+
+    @Test
+    public void testNestedOverlay() {
+        final ModelOverlay outer = new ModelOverlay(provider);
+        ModelOverlay inner = new ModelOverlay(new ModelOverlay.Source() {
+            @Override
+            public ModelNode getModel() {
+                return getModel(ROOT, false);
+            }
+
+            @Override
+            public ModelNode getModel(PathAddress address, boolean update) {
+                return outer.getModel(address, update);
+            }
+        });
+        A.navigate(inner.getModel(A, true), false).get("attr").set("changed");
+        inner.commit();
+        assertEquals("a", A.navigate(model, false).get("attr").asString());
+
+        outer.commit();
+        assertEquals("changed", A.navigate(model, false).get("attr").asString());
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jboss.logging.Logger;
+import org.jboss.vfs.VFSUtils;
+
+/**
+ * Cache of expanded deployment content, keyed by content hash.  Since content in the repository never changes for a
+ * given hash, an expansion can be reused for every deployment of the same content, including across restarts.
+ * Expansions are built in a temporary directory and renamed into place, so a directory under its hash is always
+ * complete.  Expanded files are read only, and are meant to be mounted read only, since they are shared.
+ */
+final class ExpandedContentCache {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.server.deployment");
+
+    private static final String FULL = "full";
+    private static final String PARTIAL = "partial";
+    private static final String TMP_MARKER = ".tmp";
+    private static final String WEB_INF_CLASSES = "WEB-INF/classes/";
+    private static final String WEB_INF_LIB = "WEB-INF/lib/";
+
+    private final File root;
+    private final AtomicInteger tmpCounter = new AtomicInteger();
+
+    ExpandedContentCache(final File root) {
+        this.root = root;
+    }
+
+    /**
+     * Get the expansion of the given content, expanding it first if it is not cached yet.
+     *
+     * @param hash the content hash
+     * @param content the archive
+     * @param partial {@code true} to leave out {@code WEB-INF/classes} and the jars in {@code WEB-INF/lib}
+     * @return the expanded directory
+     * @throws IOException if the content cannot be expanded
+     */
+    File getExpandedContent(final byte[] hash, final File content, final boolean partial) throws IOException {
+        final String sha1 = HashUtil.bytesToHexString(hash);
+        final File base = new File(root, partial ? PARTIAL : FULL);
+        final File expanded = new File(base, sha1);
+        if (expanded.isDirectory()) {
+            log.debugf("Reusing expanded content %s", expanded);
+            return expanded;
+        }
+        if (!base.isDirectory() && !base.mkdirs() && !base.isDirectory()) {
+            throw new IOException("Cannot create directory " + base.getAbsolutePath());
+        }
+        final File tmp = new File(base, sha1 + TMP_MARKER + tmpCounter.incrementAndGet());
+        try {
+            expand(content, tmp, partial);
+        } catch (IOException e) {
+            delete(tmp);
+            throw e;
+        }
+        if (!tmp.renameTo(expanded)) {
+            delete(tmp);
+            if (!expanded.isDirectory()) {
+                throw new IOException("Failed to move expanded content to " + expanded.getAbsolutePath());
+            }
+            // someone else expanded the same content concurrently
+        }
+        log.debugf("Expanded content %s to %s", content, expanded);
+        return expanded;
+    }
+
+    /**
+     * Remove incomplete expansions and expansions of content which is no longer in the repository.
+     *
+     * @param repository the repository the content is checked against
+     */
+    void prune(final DeploymentRepositoryImpl repository) {
+        for (String mode : new String[] { FULL, PARTIAL }) {
+            final File[] children = new File(root, mode).listFiles();
+            if (children == null) {
+                continue;
+            }
+            for (File child : children) {
+                final String name = child.getName();
+                boolean stale = name.indexOf(TMP_MARKER) != -1;
+                if (!stale) {
+                    try {
+                        stale = !repository.hasDeploymentContent(HashUtil.hexStringToByteArray(name));
+                    } catch (RuntimeException e) {
+                        stale = true;
+                    }
+                }
+                if (stale) {
+                    log.debugf("Removing stale expanded content %s", child);
+                    delete(child);
+                }
+            }
+        }
+    }
+
+    private static boolean isExpanded(final String name, final boolean partial) {
+        if (!partial) {
+            return true;
+        }
+        return !name.startsWith(WEB_INF_CLASSES) && !(name.startsWith(WEB_INF_LIB) && name.toLowerCase().endsWith(".jar"));
+    }
+
+    private static void expand(final File content, final File target, final boolean partial) throws IOException {
+        if (!target.mkdirs()) {
+            throw new IOException("Cannot create directory " + target.getAbsolutePath());
+        }
+        final String targetPath = target.getCanonicalPath() + File.separator;
+        final ZipFile zip = new ZipFile(content);
+        try {
+            final byte[] buffer = new byte[8192];
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                final String name = entry.getName();
+                if (!isExpanded(name, partial)) {
+                    continue;
+                }
+                final File file = new File(target, name);
+                if (!file.getCanonicalPath().startsWith(targetPath)) {
+                    throw new IOException("Entry " + name + " of " + content + " is outside of the archive root");
+                }
+                if (entry.isDirectory()) {
+                    if (!file.isDirectory() && !file.mkdirs()) {
+                        throw new IOException("Cannot create directory " + file.getAbsolutePath());
+                    }
+                } else {
+                    final File parent = file.getParentFile();
+                    if (!parent.isDirectory() && !parent.mkdirs()) {
+                        throw new IOException("Cannot create directory " + parent.getAbsolutePath());
+                    }
+                    final InputStream in = zip.getInputStream(entry);
+                    try {
+                        final OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+                        try {
+                            int read;
+                            while ((read = in.read(buffer)) != -1) {
+                                out.write(buffer, 0, read);
+                            }
+                            out.close();
+                        } finally {
+                            VFSUtils.safeClose(out);
+                        }
+                    } finally {
+                        VFSUtils.safeClose(in);
+                    }
+                }
+                // keep timestamps stable, so JSP staleness checks survive a restart
+                if (entry.getTime() != -1) {
+                    file.setLastModified(entry.getTime());
+                }
+                // the expansion is shared, so guard the files against writes through their physical path too
+                if (!entry.isDirectory()) {
+                    file.setReadOnly();
+                }
+            }
+        } finally {
+            zip.close();
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.setWritable(true);
+        if (!file.delete() && file.exists()) {
+            log.debugf("Could not delete %s", file);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.CodeSigner;
+import java.util.List;
+
+import org.jboss.vfs.TempDir;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+import org.jboss.vfs.spi.FileSystem;
+import org.jboss.vfs.spi.JavaZipFileSystem;
+
+/**
+ * File system for a web archive of which only the parts the servlet container needs on disk have been expanded.
+ * The archive itself is the authoritative view of the content; physical files are handed out from the partial
+ * expansion where it has them, which includes the mount root, so the expansion serves as the document base.
+ * Anything else, such as classes and library jars, is read straight out of the archive and only extracted on
+ * demand.
+ */
+final class PartiallyExpandedFileSystem implements FileSystem {
+
+    private final FileSystem archive;
+    private final File expanded;
+    private final TempDir tempDir;
+
+    private PartiallyExpandedFileSystem(final FileSystem archive, final File expanded, final TempDir tempDir) {
+        this.archive = archive;
+        this.expanded = expanded;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param content the archive
+     * @param expanded the partial expansion of the archive
+     * @param tempDir temporary directory for entries extracted on demand, closed along with the file system
+     * @return the file system
+     * @throws IOException if the archive cannot be opened
+     */
+    static PartiallyExpandedFileSystem create(final File content, final File expanded, final TempDir tempDir) throws IOException {
+        return new PartiallyExpandedFileSystem(new JavaZipFileSystem(content, tempDir), expanded, tempDir);
+    }
+
+    public File getFile(final VirtualFile mountPoint, final VirtualFile target) throws IOException {
+        if (mountPoint.equals(target)) {
+            return expanded;
+        }
+        final File file = new File(expanded, target.getPathNameRelativeTo(mountPoint));
+        if (file.exists()) {
+            return file;
+        }
+        return archive.getFile(mountPoint, target);
+    }
+
+    public InputStream openInputStream(final VirtualFile mountPoint, final VirtualFile target) throws IOException {
+        return archive.openInputStream(mountPoint, target);
+    }
+
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    public boolean delete(final VirtualFile mountPoint, final VirtualFile target) {
+        return false;
+    }
+
+    public long getSize(final VirtualFile mountPoint, final VirtualFile target) {
+        return archive.getSize(mountPoint, target);
+    }
+
+    public long getLastModified(final VirtualFile mountPoint, final VirtualFile target) {
+        return archive.getLastModified(mountPoint, target);
+    }
+
+    public boolean exists(final VirtualFile mountPoint, final VirtualFile target) {
+        return archive.exists(mountPoint, target);
+    }
+
+    public boolean isFile(final VirtualFile mountPoint, final VirtualFile target) {
+        return archive.isFile(mountPoint, target);
+    }
+
+    public boolean isDirectory(final VirtualFile mountPoint, final VirtualFile target) {
+        return archive.isDirectory(mountPoint, target);
+    }
+
+    public List<String> getDirectoryEntries(final VirtualFile mountPoint, final VirtualFile target) {
+        return archive.getDirectoryEntries(mountPoint, target);
+    }
+
+    public CodeSigner[] getCodeSigners(final VirtualFile mountPoint, final VirtualFile target) {
+        return archive.getCodeSigners(mountPoint, target);
+    }
+
+    public File getMountSource() {
+        return archive.getMountSource();
+    }
+
+    public void close() throws IOException {
+        try {
+            archive.close();
+        } finally {
+            VFSUtils.safeClose(tempDir);
+        }
+    }
+}
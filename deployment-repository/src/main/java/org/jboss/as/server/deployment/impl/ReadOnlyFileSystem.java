@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.CodeSigner;
+import java.util.List;
+
+import org.jboss.vfs.VirtualFile;
+import org.jboss.vfs.spi.FileSystem;
+
+/**
+ * File system which refuses modifications of the file system it wraps.  Used to mount content which is shared
+ * between deployments, such as a cached expansion, so that one deployment cannot change or remove it for the others.
+ */
+final class ReadOnlyFileSystem implements FileSystem {
+
+    private final FileSystem delegate;
+
+    ReadOnlyFileSystem(final FileSystem delegate) {
+        this.delegate = delegate;
+    }
+
+    public File getFile(final VirtualFile mountPoint, final VirtualFile target) throws IOException {
+        return delegate.getFile(mountPoint, target);
+    }
+
+    public InputStream openInputStream(final VirtualFile mountPoint, final VirtualFile target) throws IOException {
+        return delegate.openInputStream(mountPoint, target);
+    }
+
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    public boolean delete(final VirtualFile mountPoint, final VirtualFile target) {
+        return false;
+    }
+
+    public long getSize(final VirtualFile mountPoint, final VirtualFile target) {
+        return delegate.getSize(mountPoint, target);
+    }
+
+    public long getLastModified(final VirtualFile mountPoint, final VirtualFile target) {
+        return delegate.getLastModified(mountPoint, target);
+    }
+
+    public boolean exists(final VirtualFile mountPoint, final VirtualFile target) {
+        return delegate.exists(mountPoint, target);
+    }
+
+    public boolean isFile(final VirtualFile mountPoint, final VirtualFile target) {
+        return delegate.isFile(mountPoint, target);
+    }
+
+    public boolean isDirectory(final VirtualFile mountPoint, final VirtualFile target) {
+        return delegate.isDirectory(mountPoint, target);
+    }
+
+    public List<String> getDirectoryEntries(final VirtualFile mountPoint, final VirtualFile target) {
+        return delegate.getDirectoryEntries(mountPoint, target);
+    }
+
+    public CodeSigner[] getCodeSigners(final VirtualFile mountPoint, final VirtualFile target) {
+        return delegate.getCodeSigners(mountPoint, target);
+    }
+
+    public File getMountSource() {
+        return delegate.getMountSource();
+    }
+
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -25,7 +25,9 @@ package org.jboss.as.server.deployment.impl;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 
 import org.jboss.as.server.deployment.api.ServerDeploymentRepository;
 import org.jboss.logging.Logger;
@@ -34,9 +36,12 @@ import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.vfs.TempDir;
 import org.jboss.vfs.TempFileProvider;
 import org.jboss.vfs.VFS;
+import org.jboss.vfs.VFSUtils;
 import org.jboss.vfs.VirtualFile;
+import org.jboss.vfs.spi.RealFileSystem;
 
 /**
  * Default implementation of {@link ServerDeploymentRepository}.
@@ -48,21 +53,34 @@ public class ServerDeploymentRepositoryImpl extends DeploymentRepositoryImpl imp
     private static final Logger log = Logger.getLogger("org.jboss.as.server.deployment");
 
     private final File systemDeployDir;
+    private final ExpandedContentCache expandedContentCache;
+    private final boolean partialWebExpansion;
+    private ScheduledExecutorService tempFileExecutor;
     private TempFileProvider tempFileProvider;
 
 
-    public static void addService(final ServiceTarget serviceTarget, final File repoRoot, final File systemDeployDir) {
+    public static void addService(final ServiceTarget serviceTarget, final File repoRoot, final File systemDeployDir,
+            final File expandedContentDir, final boolean partialWebExpansion) {
         serviceTarget.addService(ServerDeploymentRepository.SERVICE_NAME,
-                new ServerDeploymentRepositoryImpl(repoRoot, systemDeployDir))
+                new ServerDeploymentRepositoryImpl(repoRoot, systemDeployDir, expandedContentDir, partialWebExpansion))
                 .install();
     }
 
     /**
      * Creates a new ServerDeploymentRepositoryImpl.
+     *
+     * @param repoRoot the repository root
+     * @param systemDeployDir the directory holding internal deployments
+     * @param expandedContentDir the directory expanded web archives are cached in
+     * @param partialWebExpansion {@code true} if web archives should only be expanded partially, see
+     *        {@link PartiallyExpandedFileSystem}
      */
-    public ServerDeploymentRepositoryImpl(final File repoRoot, final File systemDeployDir) {
+    public ServerDeploymentRepositoryImpl(final File repoRoot, final File systemDeployDir, final File expandedContentDir,
+            final boolean partialWebExpansion) {
         super(repoRoot);
         this.systemDeployDir = systemDeployDir;
+        this.expandedContentCache = new ExpandedContentCache(expandedContentDir);
+        this.partialWebExpansion = partialWebExpansion;
     }
 
     @Override
@@ -74,21 +92,54 @@ public class ServerDeploymentRepositoryImpl extends DeploymentRepositoryImpl imp
         }
 
         File content = getDeploymentContentFile(deploymentHash);
-        // FIXME
         if(name.endsWith("war")) {
-            return VFS.mountZipExpanded(content, mountPoint, tempFileProvider);
+            // the servlet container needs the document base on disk
+            final File expanded = expandedContentCache.getExpandedContent(deploymentHash, content, partialWebExpansion);
+            if (partialWebExpansion) {
+                return mountPartiallyExpanded(content, expanded, runtimeName, mountPoint);
+            }
+            // the expansion is shared by every deployment of the same content
+            return VFS.mount(mountPoint, new ReadOnlyFileSystem(new RealFileSystem(expanded)));
         } else {
             return VFS.mountZip(content, mountPoint, tempFileProvider);
         }
     }
 
+    private Closeable mountPartiallyExpanded(final File content, final File expanded, final String runtimeName,
+            final VirtualFile mountPoint) throws IOException {
+        final TempDir tempDir = tempFileProvider.createTempDir(runtimeName);
+        PartiallyExpandedFileSystem fileSystem = null;
+        boolean ok = false;
+        try {
+            fileSystem = PartiallyExpandedFileSystem.create(content, expanded, tempDir);
+            final Closeable handle = VFS.mount(mountPoint, fileSystem);
+            ok = true;
+            return handle;
+        } finally {
+            if (!ok) {
+                VFSUtils.safeClose(fileSystem);
+                VFSUtils.safeClose(tempDir);
+            }
+        }
+    }
+
     @Override
     public void start(StartContext context) throws StartException {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "deployment-repository-temp-file-cleanup");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
         try {
-            tempFileProvider = TempFileProvider.create("temp", Executors.newScheduledThreadPool(2));
+            tempFileProvider = TempFileProvider.create("temp", executor);
         } catch (IOException e) {
+            executor.shutdown();
             throw new StartException("Failed to create temp file provider");
         }
+        tempFileExecutor = executor;
+        expandedContentCache.prune(this);
 
         log.debugf("%s started", ServerDeploymentRepository.class.getSimpleName());
     }
@@ -96,6 +147,10 @@ public class ServerDeploymentRepositoryImpl extends DeploymentRepositoryImpl imp
 
     @Override
     public void stop(StopContext context) {
+        VFSUtils.safeClose(tempFileProvider);
+        tempFileProvider = null;
+        tempFileExecutor.shutdown();
+        tempFileExecutor = null;
         log.debugf("%s stopped", ServerDeploymentRepository.class.getSimpleName());
     }
 
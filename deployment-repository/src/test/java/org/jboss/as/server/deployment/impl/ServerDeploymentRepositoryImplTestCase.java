@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests mounting fully expanded web archives from the expanded content cache.
+ */
+public class ServerDeploymentRepositoryImplTestCase {
+
+    private File root;
+    private ServerDeploymentRepositoryImpl repository;
+    private byte[] hash;
+
+    @Before
+    public void setUp() throws Exception {
+        root = File.createTempFile("deployment-repository", "test");
+        root.delete();
+        root.mkdirs();
+        repository = new ServerDeploymentRepositoryImpl(new File(root, "content"), new File(root, "system"),
+                new File(root, "expanded"), false);
+        hash = repository.addDeploymentContent("test.war", "test.war", new ByteArrayInputStream(createWar()));
+    }
+
+    @After
+    public void tearDown() {
+        delete(root);
+    }
+
+    @Test
+    public void testExpansionIsReused() throws Exception {
+        final VirtualFile first = VFS.getChild("deployments/first.war");
+        final VirtualFile second = VFS.getChild("deployments/second.war");
+        final Closeable firstHandle = repository.mountDeploymentContent("first.war", "first.war", hash, first);
+        try {
+            final Closeable secondHandle = repository.mountDeploymentContent("second.war", "second.war", hash, second);
+            try {
+                Assert.assertEquals(first.getPhysicalFile(), second.getPhysicalFile());
+                Assert.assertEquals("index", read(second.getChild("index.html")));
+            } finally {
+                VFSUtils.safeClose(secondHandle);
+            }
+        } finally {
+            VFSUtils.safeClose(firstHandle);
+        }
+    }
+
+    @Test
+    public void testDeploymentsCannotModifyExpansion() throws Exception {
+        final VirtualFile first = VFS.getChild("deployments/first.war");
+        final Closeable firstHandle = repository.mountDeploymentContent("first.war", "first.war", hash, first);
+        try {
+            final VirtualFile index = first.getChild("index.html");
+            Assert.assertFalse(index.delete());
+            Assert.assertFalse(first.getChild("WEB-INF").delete());
+        } finally {
+            VFSUtils.safeClose(firstHandle);
+        }
+
+        final VirtualFile second = VFS.getChild("deployments/second.war");
+        final Closeable secondHandle = repository.mountDeploymentContent("second.war", "second.war", hash, second);
+        try {
+            Assert.assertEquals("index", read(second.getChild("index.html")));
+            Assert.assertTrue(second.getChild("WEB-INF/web.xml").exists());
+        } finally {
+            VFSUtils.safeClose(secondHandle);
+        }
+    }
+
+    private static byte[] createWar() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ZipOutputStream out = new ZipOutputStream(bytes);
+        out.putNextEntry(new ZipEntry("index.html"));
+        out.write("index".getBytes("UTF-8"));
+        out.putNextEntry(new ZipEntry("WEB-INF/"));
+        out.putNextEntry(new ZipEntry("WEB-INF/web.xml"));
+        out.write("<web-app/>".getBytes("UTF-8"));
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static String read(final VirtualFile file) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VFSUtils.copyStreamAndClose(file.openStream(), out);
+        return new String(out.toByteArray(), "UTF-8");
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.setWritable(true);
+        file.delete();
+    }
+}
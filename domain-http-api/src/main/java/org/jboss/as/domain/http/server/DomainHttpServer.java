@@ -4,22 +4,27 @@ package org.jboss.as.domain.http.server;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.Executor;
 
+import org.jboss.as.controller.BasicModelController;
 import org.jboss.as.controller.ModelController;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
@@ -39,6 +44,12 @@ public class DomainHttpServer implements HttpHandler {
     private static final String DOMAIN_API_CONTEXT = "/domain-api";
     private static final Logger log = Logger.getLogger("org.jboss.as.domain.http.api");
 
+    /**
+     * How long, in milliseconds, a GET response may be served from the cache. Any model update
+     * invalidates cached responses straight away; the TTL bounds how stale runtime values may get.
+     */
+    private static final long CACHE_TTL = Long.getLong("jboss.domain.http.cache-ttl", 1000L).longValue();
+    private static final int MAX_CACHED_RESPONSES = 128;
 
     /**
      * Represents all possible management operations that can be executed using HTTP GET
@@ -61,12 +72,43 @@ public class DomainHttpServer implements HttpHandler {
         }
     }
 
+    /**
+     * A serialized GET response, along with the model version it was read at.
+     */
+    private static final class CachedResponse {
+        private final byte[] body;
+        private final String etag;
+        private final long modelVersion;
+        private final long expires;
+
+        CachedResponse(byte[] body, String etag, long modelVersion, long expires) {
+            this.body = body;
+            this.etag = etag;
+            this.modelVersion = modelVersion;
+            this.expires = expires;
+        }
+    }
+
     private HttpServer server;
     private ModelController modelController;
+    private final long cacheTtl;
+    private final Map<String, CachedResponse> cache = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > MAX_CACHED_RESPONSES;
+        }
+    };
 
     DomainHttpServer(HttpServer server, ModelController modelController) {
+        this(server, modelController, CACHE_TTL);
+    }
+
+    DomainHttpServer(HttpServer server, ModelController modelController, long cacheTtl) {
         this.server = server;
         this.modelController = modelController;
+        this.cacheTtl = cacheTtl;
     }
 
     @Override
@@ -89,6 +131,18 @@ public class DomainHttpServer implements HttpHandler {
         boolean encode = "application/dmr-encoded".equals(requestHeaders.getFirst("Accept")) ||
                          "application/dmr-encoded".equals(requestHeaders.getFirst("Content-Type"));
 
+        // Read the version before executing, so a concurrent update leaves the new entry stale
+        String cacheKey = null;
+        long modelVersion = getModelVersion();
+        if (isGet && cacheTtl > 0) {
+            cacheKey = (encode ? "dmr:" : "json:") + request.getRawPath() + '?' + request.getRawQuery();
+            CachedResponse cached = getCachedResponse(cacheKey, modelVersion);
+            if (cached != null) {
+                sendResponse(http, 200, cached.body, encode, cached.etag);
+                return;
+            }
+        }
+
         try {
             dmr = isGet ? convertGetRequest(request) : convertPostRequest(http.getRequestBody(), encode);
             response = modelController.execute(dmr);
@@ -96,6 +150,10 @@ public class DomainHttpServer implements HttpHandler {
             log.error("Unexpected error executing model request", t);
             http.sendResponseHeaders(500, -1);
             return;
+        } finally {
+            if (! isGet) {
+                clearCache();
+            }
         }
 
         if (response.hasDefined(OUTCOME) && FAILED.equals(response.get(OUTCOME).asString())) {
@@ -104,33 +162,93 @@ public class DomainHttpServer implements HttpHandler {
 
         boolean pretty = dmr.hasDefined("json.pretty") && dmr.get("json.pretty").asBoolean();
 
-        Headers responseHeaders = http.getResponseHeaders();
-        responseHeaders.add("Content-Type", encode ? "application/dmr-encoded" : "application/json");
-        responseHeaders.add("Access-Control-Allow-Origin", "*");
-        http.sendResponseHeaders(status, 0);
-
-        OutputStream out = http.getResponseBody();
-        PrintWriter print = new PrintWriter(out);
-
         // GET (read) operations will never have a compensating update, and the status is already
         // available via the http response status code, so unwrap them.
         if (isGet && status == 200)
             response = response.get("result");
 
-        try {
-            if (encode) {
-                response.writeBase64(out);
-            } else {
-                response.writeJSONString(print, !pretty);
+        byte[] body = serialize(response, encode, pretty);
+
+        String etag = null;
+        if (cacheKey != null && status == 200) {
+            etag = "\"" + Long.toHexString(modelVersion) + '-' + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+            cacheResponse(cacheKey, new CachedResponse(body, etag, modelVersion, System.currentTimeMillis() + cacheTtl));
+        }
+
+        sendResponse(http, status, body, encode, etag);
+    }
+
+    /**
+     * Send a fully serialized response with an explicit Content-Length, so the connection can be kept
+     * alive without chunking. A GET whose ETag matches the client's If-None-Match gets a 304 instead.
+     */
+    private void sendResponse(HttpExchange http, int status, byte[] body, boolean encode, String etag) throws IOException {
+        Headers responseHeaders = http.getResponseHeaders();
+        responseHeaders.add("Access-Control-Allow-Origin", "*");
+        if (etag != null) {
+            responseHeaders.add("ETag", etag);
+            responseHeaders.add("Cache-Control", "no-cache");
+            if (etag.equals(http.getRequestHeaders().getFirst("If-None-Match"))) {
+                http.sendResponseHeaders(304, -1);
+                http.close();
+                return;
             }
-        } finally {
-            print.flush();
+        }
+        responseHeaders.add("Content-Type", encode ? "application/dmr-encoded" : "application/json");
+        http.sendResponseHeaders(status, body.length);
+
+        OutputStream out = http.getResponseBody();
+        try {
+            out.write(body);
             out.flush();
-            safeClose(print);
+        } finally {
             safeClose(out);
         }
     }
 
+    private byte[] serialize(ModelNode response, boolean encode, boolean pretty) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        if (encode) {
+            response.writeBase64(out);
+        } else {
+            PrintWriter print = new PrintWriter(new OutputStreamWriter(out, "UTF-8"));
+            response.writeJSONString(print, !pretty);
+            print.flush();
+        }
+        return out.toByteArray();
+    }
+
+    private long getModelVersion() {
+        ModelController controller = modelController;
+        return controller instanceof BasicModelController ? ((BasicModelController) controller).getModelVersion() : 0;
+    }
+
+    private CachedResponse getCachedResponse(String key, long modelVersion) {
+        synchronized (cache) {
+            CachedResponse cached = cache.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.modelVersion != modelVersion || cached.expires <= System.currentTimeMillis()) {
+                cache.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void cacheResponse(String key, CachedResponse response) {
+        synchronized (cache) {
+            cache.put(key, response);
+        }
+    }
+
+    private void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
     private void safeClose(Closeable close) {
         try {
             close.close();
@@ -249,6 +367,7 @@ public class DomainHttpServer implements HttpHandler {
     public void stop() {
         server.stop(0);
         modelController = null;
+        clearCache();
     }
 
     public static DomainHttpServer create(InetSocketAddress socket, int backlog, ModelController modelController, Executor executor) throws IOException {
@@ -257,7 +376,7 @@ public class DomainHttpServer implements HttpHandler {
         server.createContext(DOMAIN_API_CONTEXT, me);
         server.setExecutor(executor);
 
-        return new DomainHttpServer(server, modelController);
+        return me;
     }
 
 }
@@ -0,0 +1,296 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.controller.BasicModelController;
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelQueryOperationHandler;
+import org.jboss.as.controller.ModelUpdateOperationHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
+import org.jboss.as.controller.persistence.ConfigurationPersister;
+import org.jboss.dmr.ModelNode;
+import org.junit.After;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests of the GET response cache of {@link DomainHttpServer}.
+ */
+public class DomainHttpServerTestCase {
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private final TestModelController controller = new TestModelController();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private HttpServer httpServer;
+    private DomainHttpServer server;
+
+    @After
+    public void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCachedResponse() throws Exception {
+        startServer(60000L);
+        final Response first = get("/domain-api", null);
+        final Response second = get("/domain-api", null);
+        assertEquals(200, second.status);
+        assertEquals(first.body, second.body);
+        assertNotNull(first.etag);
+        assertEquals(first.etag, second.etag);
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        startServer(60000L);
+        final Response first = get("/domain-api", null);
+        final Response second = get("/domain-api", first.etag);
+        assertEquals(304, second.status);
+        assertEquals("", second.body);
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testWriteChangesEtag() throws Exception {
+        startServer(60000L);
+        final Response first = get("/domain-api", null);
+        assertEquals(200, post(writeOperation(5)));
+        final Response second = get("/domain-api", first.etag);
+        assertEquals(200, second.status);
+        assertFalse(first.etag.equals(second.etag));
+        assertEquals(5, ModelNode.fromJSONString(second.body).get("attr1").asInt());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testUpdateThroughAnotherClientChangesEtag() throws Exception {
+        startServer(60000L);
+        final Response first = get("/domain-api", null);
+        // an update which does not go through the http api still bumps the model version
+        controller.execute(writeOperation(7));
+        final Response second = get("/domain-api", first.etag);
+        assertEquals(200, second.status);
+        assertFalse(first.etag.equals(second.etag));
+        assertEquals(7, ModelNode.fromJSONString(second.body).get("attr1").asInt());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        startServer(100L);
+        final Response first = get("/domain-api", null);
+        Thread.sleep(200L);
+        final Response second = get("/domain-api", null);
+        assertEquals(2, reads.get());
+        // nothing changed, so the content, and with it the tag, is the same
+        assertEquals(first.etag, second.etag);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        startServer(60000L);
+        get("/domain-api?key=evicted", null);
+        get("/domain-api?key=kept", null);
+        // fill the cache, using the kept entry so it stays recent
+        for (int i = 0; i < 127; i++) {
+            get("/domain-api?key=" + i, null);
+            if (i == 100) {
+                get("/domain-api?key=kept", null);
+            }
+        }
+        final int before = reads.get();
+        get("/domain-api?key=kept", null);
+        assertEquals(before, reads.get());
+        get("/domain-api?key=evicted", null);
+        assertEquals(before + 1, reads.get());
+    }
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        startServer(0L);
+        final Response first = get("/domain-api", null);
+        get("/domain-api", null);
+        assertNull(first.etag);
+        assertEquals(2, reads.get());
+    }
+
+    private void startServer(final long cacheTtl) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getByName("localhost"), 0), 10);
+        server = new DomainHttpServer(httpServer, controller, cacheTtl);
+        httpServer.createContext("/domain-api", server);
+        httpServer.setExecutor(executor);
+        server.start();
+    }
+
+    private URL url(final String path) throws IOException {
+        return new URL("http", "localhost", httpServer.getAddress().getPort(), path);
+    }
+
+    private Response get(final String path, final String ifNoneMatch) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url(path).openConnection();
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        final Response response = new Response();
+        response.status = connection.getResponseCode();
+        response.etag = connection.getHeaderField("ETag");
+        response.body = response.status == 200 ? read(connection.getInputStream()) : "";
+        return response;
+    }
+
+    private int post(final ModelNode operation) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url("/domain-api").openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        final OutputStream out = connection.getOutputStream();
+        try {
+            out.write(operation.toJSONString(true).getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        final int status = connection.getResponseCode();
+        read(connection.getInputStream());
+        return status;
+    }
+
+    private static String read(final InputStream in) throws IOException {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[512];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    private static ModelNode writeOperation(final int value) {
+        final ModelNode operation = new ModelNode();
+        operation.get(OP).set("write");
+        operation.get(OP_ADDR).setEmptyList();
+        operation.get(NAME).set("attr1");
+        operation.get(VALUE).set(value);
+        return operation;
+    }
+
+    private static class Response {
+        int status;
+        String etag;
+        String body;
+    }
+
+    private static final DescriptionProvider DESC_PROVIDER = new DescriptionProvider() {
+        @Override
+        public ModelNode getModelDescription(final Locale locale) {
+            return new ModelNode();
+        }
+    };
+
+    private class TestModelController extends BasicModelController {
+        TestModelController() {
+            super(createModel(), new NullConfigurationPersister(), DESC_PROVIDER);
+            getRegistry().registerOperationHandler("read-resource", new ReadHandler(), DESC_PROVIDER, false);
+            getRegistry().registerOperationHandler("write", new WriteHandler(), DESC_PROVIDER, false);
+        }
+    }
+
+    private static ModelNode createModel() {
+        final ModelNode model = new ModelNode();
+        model.get("attr1").set(1);
+        return model;
+    }
+
+    private class ReadHandler implements ModelQueryOperationHandler {
+        @Override
+        public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) {
+            reads.incrementAndGet();
+            resultHandler.handleResultFragment(new String[0], context.getSubModel().clone());
+            resultHandler.handleResultComplete();
+            return new BasicOperationResult();
+        }
+    }
+
+    private static class WriteHandler implements ModelUpdateOperationHandler {
+        @Override
+        public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler)
+                throws OperationFailedException {
+            final ModelNode attr = context.getSubModel().get(operation.require(NAME).asString());
+            final ModelNode current = attr.clone();
+            attr.set(operation.require(VALUE));
+            resultHandler.handleResultFragment(new String[0], current);
+            resultHandler.handleResultComplete();
+            return new BasicOperationResult();
+        }
+    }
+
+    private static class NullConfigurationPersister implements ConfigurationPersister {
+        @Override
+        public void store(final ModelNode model) throws ConfigurationPersistenceException {
+        }
+
+        @Override
+        public void marshallAsXml(final ModelNode model, final OutputStream output) throws ConfigurationPersistenceException {
+        }
+
+        @Override
+        public List<ModelNode> load() throws ConfigurationPersistenceException {
+            return null;
+        }
+    }
+}
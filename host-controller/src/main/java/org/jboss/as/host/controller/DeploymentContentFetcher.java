@@ -0,0 +1,240 @@
+/*
+* JBoss, Home of Professional Open Source.
+* Copyright 2006, Red Hat Middleware LLC, and individual contributors
+* as indicated by the @author tags. See the copyright.txt file in the
+* distribution for a full listing of individual contributors.
+*
+* This is free software; you can redistribute it and/or modify it
+* under the terms of the GNU Lesser General Public License as
+* published by the Free Software Foundation; either version 2.1 of
+* the License, or (at your option) any later version.
+*
+* This software is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+* Lesser General Public License for more details.
+*
+* You should have received a copy of the GNU Lesser General Public
+* License along with this software; if not, write to the Free
+* Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+* 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+*/
+
+package org.jboss.as.host.controller;
+
+import static org.jboss.as.protocol.StreamUtils.safeClose;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.host.controller.mgmt.DeploymentContentOperationHandler;
+import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ManagementRequest;
+import org.jboss.as.protocol.mgmt.ManagementRequestConnectionStrategy;
+import org.jboss.logging.Logger;
+
+/**
+ * Pulls deployment content into the local repository by hash.  Content already present locally is
+ * never transferred.  Otherwise the sources are tried in order, typically peer host controllers
+ * first and the domain controller last.  Partially transferred content is kept and resumed from
+ * the next source, and the complete content is verified against its hash before it becomes visible.
+ */
+class DeploymentContentFetcher {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.host.controller");
+    private static final long CONNECTION_TIMEOUT_SECONDS = 5;
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final FileRepository localRepository;
+    private final List<InetSocketAddress> sources;
+    private final ExecutorService executorService;
+    private final ThreadFactory threadFactory;
+    private final ConcurrentMap<String, Object> locks = new ConcurrentHashMap<String, Object>();
+
+    DeploymentContentFetcher(final FileRepository localRepository, final List<InetSocketAddress> sources, final ExecutorService executorService, final ThreadFactory threadFactory) {
+        this.localRepository = localRepository;
+        this.sources = new ArrayList<InetSocketAddress>(sources);
+        this.executorService = executorService;
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Make sure the content with the given hash is present in the local repository.
+     *
+     * @param hash the content hash
+     * @return the local content file
+     * @throws IOException if no source could provide valid content
+     */
+    File fetch(final byte[] hash) throws IOException {
+        final File root = localRepository.getDeploymentRoot(hash);
+        final File content = new File(root, DeploymentContentOperationHandler.CONTENT);
+        if (content.isFile()) {
+            return content;
+        }
+        final String hex = HashUtil.bytesToHexString(hash);
+        final Object lock = new Object();
+        final Object existing = locks.putIfAbsent(hex, lock);
+        synchronized (existing == null ? lock : existing) {
+            try {
+                if (content.isFile()) {
+                    return content;
+                }
+                if (! root.isDirectory() && ! root.mkdirs()) {
+                    throw new IOException("Cannot create directory " + root);
+                }
+                final File partial = new File(root, DeploymentContentOperationHandler.CONTENT + PARTIAL_SUFFIX);
+                IOException failure = null;
+                for (InetSocketAddress source : sources) {
+                    try {
+                        if (! download(source, hash, partial)) {
+                            log.debugf("Content %s is not available from %s", hex, source);
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        log.debugf(e, "Failed to pull content %s from %s", hex, source);
+                        failure = e;
+                        continue;
+                    }
+                    if (! Arrays.equals(hash, digest(partial))) {
+                        log.warnf("Content pulled from %s does not match hash %s; discarding it", source, hex);
+                        partial.delete();
+                        continue;
+                    }
+                    if (! partial.renameTo(content)) {
+                        throw new IOException("Cannot rename " + partial + " to " + content);
+                    }
+                    log.debugf("Pulled content %s from %s", hex, source);
+                    return content;
+                }
+                final IOException e = new IOException("Content " + hex + " is not available from any of " + sources);
+                if (failure != null) {
+                    e.initCause(failure);
+                }
+                throw e;
+            } finally {
+                locks.remove(hex, existing == null ? lock : existing);
+            }
+        }
+    }
+
+    private boolean download(final InetSocketAddress source, final byte[] hash, final File partial) throws IOException {
+        final ManagementRequestConnectionStrategy strategy = new ManagementRequestConnectionStrategy.EstablishConnectingStrategy(source.getAddress(), source.getPort(), CONNECTION_TIMEOUT_SECONDS, executorService, threadFactory);
+        try {
+            return new GetDeploymentContentRequest(hash, partial).executeForResult(strategy).booleanValue();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(String.valueOf(cause));
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.toString());
+        }
+    }
+
+    private static byte[] digest(final File file) throws IOException {
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot obtain SHA-1 " + MessageDigest.class.getSimpleName(), e);
+        }
+        final InputStream in = new FileInputStream(file);
+        try {
+            final byte[] bytes = new byte[8192];
+            int read;
+            while ((read = in.read(bytes)) != -1) {
+                messageDigest.update(bytes, 0, read);
+            }
+        } finally {
+            safeClose(in);
+        }
+        return messageDigest.digest();
+    }
+
+    private static class GetDeploymentContentRequest extends ManagementRequest<Boolean> {
+        private final byte[] hash;
+        private final File partial;
+        private final long offset;
+
+        GetDeploymentContentRequest(final byte[] hash, final File partial) {
+            this.hash = hash;
+            this.partial = partial;
+            this.offset = partial.length();
+        }
+
+        @Override
+        protected byte getHandlerId() {
+            return DomainControllerProtocol.DEPLOYMENT_CONTENT_HANDLER_ID;
+        }
+
+        @Override
+        protected byte getRequestCode() {
+            return DomainControllerProtocol.GET_DEPLOYMENT_CONTENT_REQUEST;
+        }
+
+        @Override
+        protected byte getResponseCode() {
+            return DomainControllerProtocol.GET_DEPLOYMENT_CONTENT_RESPONSE;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void sendRequest(final int protocolVersion, final OutputStream output) throws IOException {
+            output.write(DomainControllerProtocol.PARAM_DEPLOYMENT_HASH);
+            StreamUtils.writeInt(output, hash.length);
+            output.write(hash);
+            output.write(DomainControllerProtocol.PARAM_OFFSET);
+            StreamUtils.writeLong(output, offset);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected Boolean receiveResponse(final InputStream input) throws IOException {
+            final byte param = StreamUtils.readByte(input);
+            if (param == DomainControllerProtocol.PARAM_NO_CONTENT) {
+                return Boolean.FALSE;
+            }
+            if (param != DomainControllerProtocol.PARAM_CONTENT_LENGTH) {
+                throw new IOException("Invalid byte token.  Expecting '" + DomainControllerProtocol.PARAM_CONTENT_LENGTH + "' received '" + param + "'");
+            }
+            long remaining = StreamUtils.readLong(input);
+            // Append, so that whatever arrives before a failure is kept for resumption
+            final OutputStream out = new FileOutputStream(partial, true);
+            try {
+                final byte[] bytes = new byte[8192];
+                while (remaining > 0) {
+                    final int read = input.read(bytes, 0, (int) Math.min(bytes.length, remaining));
+                    if (read == -1) {
+                        throw new IOException("Unexpected end of content stream");
+                    }
+                    out.write(bytes, 0, read);
+                    remaining -= read;
+                }
+            } finally {
+                safeClose(out);
+            }
+            return Boolean.TRUE;
+        }
+    }
+}
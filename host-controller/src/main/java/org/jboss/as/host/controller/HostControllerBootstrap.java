@@ -36,6 +36,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REM
 import java.io.File;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.security.AccessController;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Executor;
@@ -52,6 +53,7 @@ import org.jboss.as.controller.persistence.ExtensibleConfigurationPersister;
 import org.jboss.as.domain.controller.DomainController;
 import org.jboss.as.domain.controller.DomainControllerService;
 import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.host.controller.mgmt.DeploymentContentOperationHandler;
 import org.jboss.as.host.controller.mgmt.DomainControllerOperationHandlerService;
 import org.jboss.as.host.controller.mgmt.ManagementCommunicationService;
 import org.jboss.as.host.controller.mgmt.ManagementCommunicationServiceInjector;
@@ -74,6 +76,7 @@ import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
+import org.jboss.threads.JBossThreadFactory;
 
 /**
  * @author Emanuel Muckenhuber
@@ -83,6 +86,7 @@ public class HostControllerBootstrap {
     private static final Logger log = Logger.getLogger("org.jboss.as.host.controller");
     static final ServiceName SERVICE_NAME_BASE = ServiceName.JBOSS.append("host", "controller");
     static final int DEFAULT_POOL_SIZE = 20;
+    static final ServiceName THREAD_FACTORY_SERVICE_NAME = SERVICE_NAME_BASE.append("thread-factory");
     private final ServiceContainer serviceContainer = ServiceContainer.Factory.create();
     private final HostControllerEnvironment environment;
     private final byte[] authCode;
@@ -100,7 +104,9 @@ public class HostControllerBootstrap {
     public void start() throws Exception {
         final File configDir = environment.getDomainConfigurationDir();
         final ExtensibleConfigurationPersister configurationPersister = createHostConfigurationPersister(configDir);
-        final HostModel hostModel = new HostModel(configurationPersister);
+        final ThreadFactory dispatchThreadFactory = new JBossThreadFactory(new ThreadGroup("server-operation-dispatch-threads"), Boolean.TRUE, null, "%G - %t", null, null, AccessController.getContext());
+        final ServerOperationDispatcher serverOperationDispatcher = new ServerOperationDispatcher(environment.getServerOperationMaxConcurrency(), dispatchThreadFactory);
+        final HostModel hostModel = new HostModel(configurationPersister, serverOperationDispatcher);
 
         // Load the host model
         final List<ModelNode> operations = configurationPersister.load();
@@ -175,13 +181,12 @@ public class HostControllerBootstrap {
             .install();
 
         //
-        final ServiceName threadFactoryServiceName = SERVICE_NAME_BASE.append("thread-factory");
         final ServiceName executorServiceName = SERVICE_NAME_BASE.append("executor");
 
-        serviceTarget.addService(threadFactoryServiceName, new ThreadFactoryService()).install();
+        serviceTarget.addService(THREAD_FACTORY_SERVICE_NAME, new ThreadFactoryService()).install();
         final HostControllerExecutorService executorService = new HostControllerExecutorService();
         serviceTarget.addService(executorServiceName, executorService)
-            .addDependency(threadFactoryServiceName, ThreadFactory.class, executorService.threadFactoryValue)
+            .addDependency(THREAD_FACTORY_SERVICE_NAME, ThreadFactory.class, executorService.threadFactoryValue)
             .install();
 
         //  Add the management communication service
@@ -190,7 +195,14 @@ public class HostControllerBootstrap {
             .addDependency(NetworkInterfaceService.JBOSS_NETWORK_INTERFACE.append(mgmtNetwork), NetworkInterfaceBinding.class, managementCommunicationService.getInterfaceInjector())
             .addInjection(managementCommunicationService.getPortInjector(), mgmtPort)
             .addDependency(executorServiceName, ExecutorService.class, managementCommunicationService.getExecutorServiceInjector())
-            .addDependency(threadFactoryServiceName, ThreadFactory.class, managementCommunicationService.getThreadFactoryInjector())
+            .addDependency(THREAD_FACTORY_SERVICE_NAME, ThreadFactory.class, managementCommunicationService.getThreadFactoryInjector())
+            .setInitialMode(Mode.ACTIVE)
+            .install();
+
+        // Add the deployment content handler, so the domain controller and peer hosts can serve content
+        final DeploymentContentOperationHandler deploymentContentHandler = new DeploymentContentOperationHandler(repository);
+        serviceTarget.addService(DeploymentContentOperationHandler.SERVICE_NAME, deploymentContentHandler)
+            .addDependency(ManagementCommunicationService.SERVICE_NAME, ManagementCommunicationService.class, deploymentContentHandler.getManagementCommunicationServiceValue())
             .setInitialMode(Mode.ACTIVE)
             .install();
 
@@ -255,8 +267,9 @@ public class HostControllerBootstrap {
             throw new RuntimeException(e);
         }
         int port = dc.require(PORT).asInt();
-        final RemoteDomainConnectionService service = new RemoteDomainConnectionService(name, addr, port);
+        final RemoteDomainConnectionService service = new RemoteDomainConnectionService(name, addr, port, new LocalFileRepository(environment), environment.getContentPeers());
         serviceTarget.addService(DomainControllerConnection.SERVICE_NAME, service)
+            .addDependency(THREAD_FACTORY_SERVICE_NAME, ThreadFactory.class, service.getThreadFactoryInjector())
             .setInitialMode(Mode.ACTIVE)
             .install();
     }
@@ -7,6 +7,10 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.PrintStream;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import org.jboss.as.process.DefaultJvmUtils;
@@ -103,6 +107,29 @@ public class HostControllerEnvironment {
      */
     public static final String DOMAIN_TEMP_DIR = "jboss.domain.temp.dir";
 
+    /**
+     * Constant that holds the name of the environment property
+     * for specifying a comma separated list of <tt>host:port</tt>
+     * management addresses of peer host controllers from which
+     * deployment content is pulled before falling back to the
+     * domain controller.
+     *
+     * <p>Defaults to no peers.
+     */
+    public static final String DOMAIN_CONTENT_PEERS = "jboss.domain.content.peers";
+
+    /**
+     * Constant that holds the name of the system property
+     * for specifying the maximum number of running servers an
+     * operation addressed to <tt>running-server=*</tt> is
+     * dispatched to concurrently.
+     *
+     * <p>Defaults to <tt>16</tt>.
+     */
+    public static final String DOMAIN_SERVER_OPERATION_MAX_CONCURRENCY = "jboss.domain.server.operation.max.concurrency";
+
+    private static final int DEFAULT_SERVER_OPERATION_MAX_CONCURRENCY = 16;
+
 
     private final Properties props;
     private final String processName;
@@ -121,6 +148,8 @@ public class HostControllerEnvironment {
     private final File domainServersDir;
     private final File domainTempDir;
     private final File defaultJVM;
+    private final List<InetSocketAddress> contentPeers;
+    private final int serverOperationMaxConcurrency;
     private final boolean isRestart;
 
     private final InputStream stdin;
@@ -243,6 +272,14 @@ public class HostControllerEnvironment {
         this.domainTempDir = tmp;
         System.setProperty(DOMAIN_TEMP_DIR, this.domainTempDir.getAbsolutePath());
 
+        this.contentPeers = getAddressesFromProperty(DOMAIN_CONTENT_PEERS);
+
+        final String concurrency = props.getProperty(DOMAIN_SERVER_OPERATION_MAX_CONCURRENCY, null);
+        this.serverOperationMaxConcurrency = concurrency == null ? DEFAULT_SERVER_OPERATION_MAX_CONCURRENCY : Integer.parseInt(concurrency.trim());
+        if (serverOperationMaxConcurrency < 1) {
+            throw new IllegalArgumentException(DOMAIN_SERVER_OPERATION_MAX_CONCURRENCY + " must be at least 1");
+        }
+
         if(defaultJVM != null) {
             if (defaultJVM.equals("java")) {
                 defaultJVM = DefaultJvmUtils.findJavaExecutable(DefaultJvmUtils.getCurrentJvmHome());
@@ -383,6 +420,24 @@ public class HostControllerEnvironment {
         return defaultJVM;
     }
 
+    /**
+     * Gets the management addresses of the peer host controllers deployment content may be pulled from.
+     *
+     * @return the peer addresses, never <code>null</code>
+     */
+    public List<InetSocketAddress> getContentPeers() {
+        return contentPeers;
+    }
+
+    /**
+     * Gets the maximum number of running servers an operation is dispatched to concurrently.
+     *
+     * @return the concurrency limit, at least <code>1</code>
+     */
+    public int getServerOperationMaxConcurrency() {
+        return serverOperationMaxConcurrency;
+    }
+
     /**
      * Get a File from configuration.
      * @return the CanonicalFile form for the given name.
@@ -396,4 +451,25 @@ public class HostControllerEnvironment {
 
        return null;
     }
+
+    /**
+     * Get a list of socket addresses from configuration.
+     * @return the addresses, or an empty list if the property is not set
+     */
+    private List<InetSocketAddress> getAddressesFromProperty(final String name) {
+        final String value = props.getProperty(name, null);
+        if (value == null || value.trim().length() == 0) {
+            return Collections.emptyList();
+        }
+        final List<InetSocketAddress> addresses = new ArrayList<InetSocketAddress>();
+        for (String address : value.split(",")) {
+            address = address.trim();
+            final int idx = address.lastIndexOf(':');
+            if (idx <= 0 || idx == address.length() - 1) {
+                throw new IllegalArgumentException("Invalid address '" + address + "' for " + name + "; expected host:port");
+            }
+            addresses.add(new InetSocketAddress(address.substring(0, idx), Integer.parseInt(address.substring(idx + 1))));
+        }
+        return Collections.unmodifiableList(addresses);
+    }
 }
@@ -110,6 +110,7 @@ public class HostControllerService implements Service<HostController> {
                 }
             }
         }
+        hostModel.shutdown();
     }
 
     /** {@inheritDoc} */
@@ -33,6 +33,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MAN
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAMESPACES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NATIVE_API;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PATH;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PRIORITY;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_ATTRIBUTE_OPERATION;
@@ -50,11 +51,18 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STA
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SYSTEM_PROPERTY;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WRITE_ATTRIBUTE_OPERATION;
 
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.jboss.as.controller.BasicModelController;
 import org.jboss.as.controller.ExtensionContext;
 import org.jboss.as.controller.ExtensionContextImpl;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.ProxyController;
+import org.jboss.as.controller.ResultHandler;
 import org.jboss.as.controller.descriptions.common.CommonProviders;
 import org.jboss.as.controller.operations.common.InterfaceAddHandler;
 import org.jboss.as.controller.operations.common.InterfaceRemoveHandler;
@@ -93,11 +101,16 @@ import org.jboss.dmr.ModelType;
  */
 class HostModel extends BasicModelController {
 
+    private final ConcurrentMap<String, ProxyController> runningServers = new ConcurrentHashMap<String, ProxyController>();
+    private final ServerOperationDispatcher serverOperationDispatcher;
+
     /**
      * @param configurationPersister
+     * @param serverOperationDispatcher the dispatcher for operations addressed to all running servers
      */
-    protected HostModel(final ExtensibleConfigurationPersister configurationPersister) {
+    protected HostModel(final ExtensibleConfigurationPersister configurationPersister, final ServerOperationDispatcher serverOperationDispatcher) {
         super(configurationPersister, HostDescriptionProviders.ROOT_PROVIDER);
+        this.serverOperationDispatcher = serverOperationDispatcher;
 
         // Register the operation handlers
         ModelNodeRegistration root = getRegistry();
@@ -211,14 +224,44 @@ class HostModel extends BasicModelController {
         return super.getModel().clone();
     }
 
+    /**
+     * Shut down the threads which dispatch operations to the running servers.
+     */
+    void shutdown() {
+        serverOperationDispatcher.shutdown();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Operations addressed to <code>running-server=*</code> are executed on all
+     * running servers concurrently, with each server's response returned as a
+     * result fragment keyed by the server name.
+     */
+    @Override
+    public OperationResult execute(final ModelNode operation, final ResultHandler handler) {
+        final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+        if (address.size() > 0) {
+            final PathElement element = address.getElement(0);
+            if (RUNNING_SERVER.equals(element.getKey()) && element.isWildcard()) {
+                final ModelNode serverOperation = operation.clone();
+                serverOperation.get(OP_ADDR).set(address.subAddress(1).toModelNode());
+                return serverOperationDispatcher.execute(new HashMap<String, ProxyController>(runningServers), serverOperation, handler);
+            }
+        }
+        return super.execute(operation, handler);
+    }
+
     void registerProxy(final ProxyController controller) {
         final PathElement element = controller.getProxyNodeAddress().getLastElement();
         getRegistry().registerProxyController(element, controller);
         getModel().get(element.getKey(), element.getValue());
+        runningServers.put(element.getValue(), controller);
     }
 
     void unregisterProxy(final String serverName) {
         PathElement element = PathElement.pathElement(RUNNING_SERVER, serverName);
+        runningServers.remove(serverName);
         getModel().get(element.getKey()).remove(element.getValue());
         getRegistry().unregisterProxyController(element);
     }
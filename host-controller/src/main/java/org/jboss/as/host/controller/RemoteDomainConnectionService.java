@@ -34,14 +34,19 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.net.SocketFactory;
 
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.ModelNodeCodec;
 import org.jboss.as.controller.remote.ModelControllerOperationHandler;
 import org.jboss.as.domain.controller.FileRepository;
 import org.jboss.as.host.controller.mgmt.DomainControllerProtocol;
@@ -57,6 +62,7 @@ import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
 
 /**
  * @author Kabir Khan
@@ -67,15 +73,22 @@ class RemoteDomainConnectionService implements DomainControllerConnection, Servi
     private final InetAddress host;
     private final int port;
     private final String name;
+    private final FileRepository localRepository;
+    private final List<InetSocketAddress> contentPeers;
+    private final InjectedValue<ThreadFactory> threadFactory = new InjectedValue<ThreadFactory>();
 
     private volatile Connection connection;
     private volatile ModelControllerClient client;
     private volatile ModelControllerOperationHandler operationHandler;
+    private ExecutorService contentExecutor;
+    private FileRepository remoteFileRepository;
 
-    RemoteDomainConnectionService(String name, InetAddress host, int port){
+    RemoteDomainConnectionService(String name, InetAddress host, int port, FileRepository localRepository, List<InetSocketAddress> contentPeers){
         this.name = name;
         this.host = host;
         this.port = port;
+        this.localRepository = localRepository;
+        this.contentPeers = contentPeers;
     }
 
     /** {@inheritDoc} */
@@ -136,13 +149,22 @@ class RemoteDomainConnectionService implements DomainControllerConnection, Servi
     /** {@inheritDoc} */
     @Override
     public synchronized FileRepository getRemoteFileRepository() {
-        // TODO Auto-generated method stub
-        return null;
+        if (remoteFileRepository == null) {
+            throw new IllegalStateException("Service is not started");
+        }
+        return remoteFileRepository;
     }
 
     /** {@inheritDoc} */
     @Override
     public synchronized void start(StartContext context) throws StartException {
+        final ThreadFactory threadFactory = this.threadFactory.getValue();
+        contentExecutor = Executors.newCachedThreadPool(threadFactory);
+        // Try peers first, so that the domain controller only serves content no peer has yet
+        final List<InetSocketAddress> sources = new ArrayList<InetSocketAddress>(contentPeers);
+        sources.add(new InetSocketAddress(host, port));
+        final DeploymentContentFetcher fetcher = new DeploymentContentFetcher(localRepository, sources, contentExecutor, threadFactory);
+        remoteFileRepository = new RemoteFileRepository(localRepository, fetcher);
     }
 
     /** {@inheritDoc} */
@@ -150,6 +172,9 @@ class RemoteDomainConnectionService implements DomainControllerConnection, Servi
     public synchronized void stop(StopContext context) {
         StreamUtils.safeClose(client);
         StreamUtils.safeClose(connection);
+        remoteFileRepository = null;
+        contentExecutor.shutdown();
+        contentExecutor = null;
     }
 
     /** {@inheritDoc} */
@@ -158,6 +183,15 @@ class RemoteDomainConnectionService implements DomainControllerConnection, Servi
         return this;
     }
 
+    /**
+     * Get the injector for the thread factory used to pull deployment content.
+     *
+     * @return the injector
+     */
+    InjectedValue<ThreadFactory> getThreadFactoryInjector() {
+        return threadFactory;
+    }
+
     private abstract class RegistryRequest<T> extends ManagementRequest<T> {
 
         @Override
@@ -184,12 +218,17 @@ class RemoteDomainConnectionService implements DomainControllerConnection, Servi
             StreamUtils.writeUTFZBytes(output, name);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        protected int getOptionalFlags(final int protocolVersion) {
+            return ModelNodeCodec.getFlag(protocolVersion);
+        }
+
         /** {@inheritDoc} */
         @Override
         protected ModelNode receiveResponse(InputStream input) throws IOException {
             expectHeader(input, DomainControllerProtocol.PARAM_MODEL);
-            ModelNode node = new ModelNode();
-            node.readExternal(input);
+            ModelNode node = ModelNodeCodec.readNode(ModelNodeCodec.forFlags(getResponseFlags()), input);
             return node;
         }
     }
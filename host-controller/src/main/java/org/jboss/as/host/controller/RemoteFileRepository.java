@@ -0,0 +1,80 @@
+/*
+* JBoss, Home of Professional Open Source.
+* Copyright 2006, Red Hat Middleware LLC, and individual contributors
+* as indicated by the @author tags. See the copyright.txt file in the
+* distribution for a full listing of individual contributors.
+*
+* This is free software; you can redistribute it and/or modify it
+* under the terms of the GNU Lesser General Public License as
+* published by the Free Software Foundation; either version 2.1 of
+* the License, or (at your option) any later version.
+*
+* This software is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+* Lesser General Public License for more details.
+*
+* You should have received a copy of the GNU Lesser General Public
+* License along with this software; if not, write to the Free
+* Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+* 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+*/
+
+package org.jboss.as.host.controller;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.domain.controller.FileRepository;
+
+/**
+ * A repository which serves deployment content from the local repository, pulling it from
+ * remote hosts first if it is not present locally.  A failure to pull the content is thrown
+ * as a {@link RuntimeException} rather than reported as missing content.
+ */
+class RemoteFileRepository implements FileRepository {
+
+    private final FileRepository localRepository;
+    private final DeploymentContentFetcher fetcher;
+
+    RemoteFileRepository(final FileRepository localRepository, final DeploymentContentFetcher fetcher) {
+        this.localRepository = localRepository;
+        this.fetcher = fetcher;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public File getFile(final String relativePath) {
+        return localRepository.getFile(relativePath);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public File getConfigurationFile(final String relativePath) {
+        return localRepository.getConfigurationFile(relativePath);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public File[] getDeploymentFiles(final byte[] deploymentHash) {
+        fetch(deploymentHash);
+        return localRepository.getDeploymentFiles(deploymentHash);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public File getDeploymentRoot(final byte[] deploymentHash) {
+        fetch(deploymentHash);
+        return localRepository.getDeploymentRoot(deploymentHash);
+    }
+
+    private void fetch(final byte[] deploymentHash) {
+        try {
+            fetcher.fetch(deploymentHash);
+        } catch (IOException e) {
+            // don't let a failed transfer pass for content which does not exist
+            throw new RuntimeException("Failed to pull deployment content " + HashUtil.bytesToHexString(deploymentHash), e);
+        }
+    }
+}
@@ -24,8 +24,8 @@ package org.jboss.as.host.controller;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jboss.as.domain.client.api.ServerStatus;
 import org.jboss.as.process.ProcessControllerClient;
@@ -42,7 +42,7 @@ import org.jboss.logging.Logger;
 class ServerInventory implements ManagedServerLifecycleCallback {
 
     private static final Logger log = Logger.getLogger("org.jboss.as.host.controller");
-    private final Map<String, ManagedServer> servers = new HashMap<String, ManagedServer>();
+    private final Map<String, ManagedServer> servers = new ConcurrentHashMap<String, ManagedServer>();
 
     private final HostControllerEnvironment environment;
     private final ProcessControllerClient processControllerClient;
@@ -0,0 +1,149 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.Cancellable;
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.dmr.ModelNode;
+import org.jboss.logging.Logger;
+
+/**
+ * Dispatches an operation to a set of running servers concurrently, never having
+ * more than a fixed number of servers executing at once. Each server's response is
+ * handed to the caller as a result fragment keyed by the server name as soon as it
+ * arrives, so a slow server does not hold back the results of the others.
+ */
+class ServerOperationDispatcher {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.host.controller");
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Create a new dispatcher.
+     *
+     * @param maxConcurrency the maximum number of servers to execute an operation on at once
+     * @param threadFactory the thread factory for the dispatch threads
+     */
+    ServerOperationDispatcher(final int maxConcurrency, final ThreadFactory threadFactory) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Execute an operation on each of the given servers. The handler receives one fragment
+     * per server containing that server's complete response, followed by a single
+     * {@link ResultHandler#handleResultComplete()} once every server has responded, or
+     * {@link ResultHandler#handleCancellation()} if the operation was cancelled.
+     *
+     * @param servers the servers to execute on, keyed by server name
+     * @param operation the operation, already addressed relative to each server
+     * @param handler the result handler
+     * @return the operation result, whose cancellable stops servers that have not started yet
+     */
+    OperationResult execute(final Map<String, ? extends ModelController> servers, final ModelNode operation, final ResultHandler handler) {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        if (servers.isEmpty()) {
+            handler.handleResultComplete();
+            return new BasicOperationResult();
+        }
+        final AtomicInteger remaining = new AtomicInteger(servers.size());
+        for (final Map.Entry<String, ? extends ModelController> entry : servers.entrySet()) {
+            final String serverName = entry.getKey();
+            final ModelController server = entry.getValue();
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        if (!cancelled.get()) {
+                            final ModelNode response = executeOnServer(serverName, server, operation);
+                            if (!cancelled.get()) {
+                                synchronized (handler) {
+                                    handler.handleResultFragment(new String[] { serverName }, response);
+                                }
+                            }
+                        }
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            synchronized (handler) {
+                                if (cancelled.get()) {
+                                    handler.handleCancellation();
+                                } else {
+                                    handler.handleResultComplete();
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        return new BasicOperationResult(new Cancellable() {
+            public boolean cancel() {
+                return cancelled.compareAndSet(false, true);
+            }
+        }, null);
+    }
+
+    /**
+     * Shut down the dispatch threads.
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ModelNode executeOnServer(final String serverName, final ModelController server, final ModelNode operation) {
+        try {
+            return server.execute(operation.clone());
+        } catch (CancellationException e) {
+            return failure("Operation cancelled on server " + serverName);
+        } catch (Throwable t) {
+            log.debugf(t, "Failed executing operation on server %s", serverName);
+            return failure("Failed executing operation on server " + serverName + ": " + t);
+        }
+    }
+
+    private static ModelNode failure(final String description) {
+        final ModelNode result = new ModelNode();
+        result.get(OUTCOME).set(FAILED);
+        result.get(FAILURE_DESCRIPTION).set(description);
+        return result;
+    }
+}
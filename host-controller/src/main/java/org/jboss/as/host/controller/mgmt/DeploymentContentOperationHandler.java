@@ -0,0 +1,177 @@
+/*
+* JBoss, Home of Professional Open Source.
+* Copyright 2006, Red Hat Middleware LLC, and individual contributors
+* as indicated by the @author tags. See the copyright.txt file in the
+* distribution for a full listing of individual contributors.
+*
+* This is free software; you can redistribute it and/or modify it
+* under the terms of the GNU Lesser General Public License as
+* published by the Free Software Foundation; either version 2.1 of
+* the License, or (at your option) any later version.
+*
+* This software is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+* Lesser General Public License for more details.
+*
+* You should have received a copy of the GNU Lesser General Public
+* License along with this software; if not, write to the Free
+* Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+* 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+*/
+
+package org.jboss.as.host.controller.mgmt;
+
+import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
+import static org.jboss.as.protocol.StreamUtils.safeClose;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.AbstractMessageHandler;
+import org.jboss.as.protocol.mgmt.ManagementOperationHandler;
+import org.jboss.as.protocol.mgmt.ManagementProtocol;
+import org.jboss.as.protocol.mgmt.ManagementResponse;
+import org.jboss.logging.Logger;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+/**
+ * Operation handler serving deployment content from the local repository by hash.  It is installed on
+ * every host controller, so that hosts can pull content from a peer which already has it rather than
+ * from the domain controller.  Requests carry an offset, so an interrupted transfer can be resumed.
+ */
+public class DeploymentContentOperationHandler extends AbstractMessageHandler implements ManagementOperationHandler, Service<ManagementOperationHandler> {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.host.controller.mgmt");
+    public static final ServiceName SERVICE_NAME = ManagementCommunicationService.SERVICE_NAME.append("deployment", "content");
+
+    /** The name of the file holding the content under a deployment root */
+    public static final String CONTENT = "content";
+
+    private final InjectedValue<ManagementCommunicationService> managementCommunicationService = new InjectedValue<ManagementCommunicationService>();
+    private final FileRepository repository;
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    public DeploymentContentOperationHandler(final FileRepository repository) {
+        this.repository = repository;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void start(StartContext context) throws StartException {
+        managementCommunicationService.getValue().addHandler(this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void stop(StopContext context) {
+        managementCommunicationService.getValue().removeHandler(this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ManagementOperationHandler getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public byte getIdentifier() {
+        return DomainControllerProtocol.DEPLOYMENT_CONTENT_HANDLER_ID;
+    }
+
+    /**
+     * Get the total number of content bytes this handler has served.
+     *
+     * @return the number of bytes
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void handle(Connection connection, InputStream inputStream) throws IOException {
+        expectHeader(inputStream, ManagementProtocol.REQUEST_OPERATION);
+        final byte commandCode = StreamUtils.readByte(inputStream);
+        if (commandCode != DomainControllerProtocol.GET_DEPLOYMENT_CONTENT_REQUEST) {
+            throw new IOException("Invalid command code " + commandCode + " received");
+        }
+        new GetDeploymentContentOperation().handle(connection, inputStream);
+    }
+
+    public InjectedValue<ManagementCommunicationService> getManagementCommunicationServiceValue() {
+        return managementCommunicationService;
+    }
+
+    private class GetDeploymentContentOperation extends ManagementResponse {
+        private byte[] hash;
+        private long offset;
+
+        /** {@inheritDoc} */
+        @Override
+        protected byte getResponseCode() {
+            return DomainControllerProtocol.GET_DEPLOYMENT_CONTENT_RESPONSE;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void readRequest(final InputStream input) throws IOException {
+            expectHeader(input, DomainControllerProtocol.PARAM_DEPLOYMENT_HASH);
+            hash = StreamUtils.readBytesWithLength(input);
+            expectHeader(input, DomainControllerProtocol.PARAM_OFFSET);
+            offset = StreamUtils.readLong(input);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void sendResponse(final OutputStream output) throws IOException {
+            final File file = new File(repository.getDeploymentRoot(hash), CONTENT);
+            final long length = file.length();
+            if (! file.isFile() || offset < 0 || offset > length) {
+                log.debugf("No content for hash %s at offset %d", HashUtil.bytesToHexString(hash), Long.valueOf(offset));
+                output.write(DomainControllerProtocol.PARAM_NO_CONTENT);
+                return;
+            }
+            output.write(DomainControllerProtocol.PARAM_CONTENT_LENGTH);
+            StreamUtils.writeLong(output, length - offset);
+            final InputStream in = new FileInputStream(file);
+            try {
+                long skip = offset;
+                while (skip > 0) {
+                    final long skipped = in.skip(skip);
+                    if (skipped <= 0) {
+                        throw new IOException("Cannot skip to offset " + offset + " of " + file);
+                    }
+                    skip -= skipped;
+                }
+                final byte[] bytes = new byte[8192];
+                long remaining = length - offset;
+                while (remaining > 0) {
+                    final int read = in.read(bytes, 0, (int) Math.min(bytes.length, remaining));
+                    if (read == -1) {
+                        throw new IOException("Unexpected end of " + file);
+                    }
+                    output.write(bytes, 0, read);
+                    remaining -= read;
+                    bytesSent.addAndGet(read);
+                }
+            } finally {
+                safeClose(in);
+            }
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.jboss.as.controller.ProxyController;
 import org.jboss.as.controller.ResultHandler;
 import org.jboss.as.controller.client.ModelControllerClient;
 import org.jboss.as.controller.client.ModelControllerClient.Type;
+import org.jboss.as.controller.client.ModelNodeCodec;
 import org.jboss.as.controller.remote.ModelControllerOperationHandlerImpl;
 import org.jboss.as.controller.remote.RemoteProxyController;
 import org.jboss.as.domain.controller.DomainController;
@@ -43,6 +44,7 @@ import org.jboss.as.domain.controller.HostControllerClient;
 import org.jboss.as.protocol.Connection;
 import org.jboss.as.protocol.MessageHandler;
 import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ManagementProtocol;
 import org.jboss.as.protocol.mgmt.ManagementResponse;
 import org.jboss.dmr.ModelNode;
 
@@ -102,12 +104,17 @@ public class DomainControllerOperationHandlerImpl extends ModelControllerOperati
         }
 
 
+        @Override
+        protected int getSupportedFlags() {
+            return super.getSupportedFlags() | ManagementProtocol.FLAG_COMPACT_MODEL;
+        }
+
         @Override
         protected void sendResponse(final OutputStream outputStream) throws IOException {
             getController().addClient(new RemoteHostControllerClient(hostId, connection));
             ModelNode node = getController().getDomainModel();
             outputStream.write(DomainControllerProtocol.PARAM_MODEL);
-            node.writeExternal(outputStream);
+            ModelNodeCodec.writeNode(ModelNodeCodec.forFlags(getResponseFlags()), node, outputStream);
         }
     }
 
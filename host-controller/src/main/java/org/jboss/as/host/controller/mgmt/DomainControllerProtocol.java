@@ -33,7 +33,16 @@ public interface DomainControllerProtocol extends ModelControllerClientProtocol{
     byte REGISTER_HOST_CONTROLLER_RESPONSE = 0x52;
     byte UNREGISTER_HOST_CONTROLLER_REQUEST = 0x53;
     byte UNREGISTER_HOST_CONTROLLER_RESPONSE = 0x54;
+    byte GET_DEPLOYMENT_CONTENT_REQUEST = 0x55;
+    byte GET_DEPLOYMENT_CONTENT_RESPONSE = 0x56;
 
     byte PARAM_HOST_ID = 0x68;
     byte PARAM_MODEL = 0x79;
+    byte PARAM_DEPLOYMENT_HASH = 0x69;
+    byte PARAM_OFFSET = 0x6a;
+    byte PARAM_CONTENT_LENGTH = 0x6b;
+    byte PARAM_NO_CONTENT = 0x6c;
+
+    /** Identifier of the handler serving deployment content, present on every host controller */
+    byte DEPLOYMENT_CONTENT_HANDLER_ID = 0x10;
 }
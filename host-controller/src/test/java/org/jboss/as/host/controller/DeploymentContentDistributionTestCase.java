@@ -0,0 +1,294 @@
+/*
+* JBoss, Home of Professional Open Source.
+* Copyright 2006, Red Hat Middleware LLC, and individual contributors
+* as indicated by the @author tags. See the copyright.txt file in the
+* distribution for a full listing of individual contributors.
+*
+* This is free software; you can redistribute it and/or modify it
+* under the terms of the GNU Lesser General Public License as
+* published by the Free Software Foundation; either version 2.1 of
+* the License, or (at your option) any later version.
+*
+* This software is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+* Lesser General Public License for more details.
+*
+* You should have received a copy of the GNU Lesser General Public
+* License along with this software; if not, write to the Free
+* Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+* 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+*/
+
+package org.jboss.as.host.controller;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.net.ServerSocketFactory;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.domain.controller.FileRepository;
+import org.jboss.as.host.controller.mgmt.DeploymentContentOperationHandler;
+import org.jboss.as.protocol.Connection;
+import org.jboss.as.protocol.ConnectionHandler;
+import org.jboss.as.protocol.MessageHandler;
+import org.jboss.as.protocol.ProtocolServer;
+import org.jboss.as.protocol.mgmt.ManagementHeaderMessageHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs a domain controller and several host controllers in one VM, each serving deployment content
+ * from its own repository, and measures how many content bytes leave the domain controller.
+ */
+public class DeploymentContentDistributionTestCase {
+
+    private static final int HOST_COUNT = 5;
+    private static final int CONTENT_SIZE = 1024 * 1024;
+
+    private final List<TestHost> hosts = new ArrayList<TestHost>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private File root;
+    private TestHost domainController;
+    private byte[] content;
+    private byte[] hash;
+
+    @Before
+    public void start() throws Exception {
+        root = File.createTempFile("content-distribution", "test");
+        root.delete();
+        root.mkdirs();
+
+        content = new byte[CONTENT_SIZE];
+        new Random(42).nextBytes(content);
+        hash = MessageDigest.getInstance("SHA-1").digest(content);
+
+        domainController = new TestHost(new File(root, "dc"));
+        writeContent(domainController, content, content.length);
+        for (int i = 0; i < HOST_COUNT; i++) {
+            hosts.add(new TestHost(new File(root, "host" + i)));
+        }
+    }
+
+    @After
+    public void stop() {
+        domainController.stop();
+        for (TestHost host : hosts) {
+            host.stop();
+        }
+        executor.shutdownNow();
+        delete(root);
+    }
+
+    @Test
+    public void testPeersOffloadDomainController() throws Exception {
+        final TestHost first = hosts.get(0);
+        first.fetcher(domainController).fetch(hash);
+        for (TestHost host : hosts.subList(1, hosts.size())) {
+            host.fetcher(first, domainController).fetch(hash);
+        }
+        for (TestHost host : hosts) {
+            Assert.assertTrue(host.hasContent(content));
+        }
+        // the domain controller sends the content once, however many hosts pull it
+        Assert.assertEquals(CONTENT_SIZE, domainController.handler.getBytesSent());
+        Assert.assertEquals((HOST_COUNT - 1) * (long) CONTENT_SIZE, first.handler.getBytesSent());
+    }
+
+    @Test
+    public void testPresentContentIsSkipped() throws Exception {
+        final TestHost host = hosts.get(0);
+        host.fetcher(domainController).fetch(hash);
+        host.fetcher(domainController).fetch(hash);
+        Assert.assertTrue(host.hasContent(content));
+        Assert.assertEquals(CONTENT_SIZE, domainController.handler.getBytesSent());
+    }
+
+    @Test
+    public void testPartialContentIsResumed() throws Exception {
+        final TestHost host = hosts.get(0);
+        final File partial = new File(host.repository.getDeploymentRoot(hash), DeploymentContentOperationHandler.CONTENT + ".part");
+        partial.getParentFile().mkdirs();
+        final OutputStream out = new FileOutputStream(partial);
+        try {
+            out.write(content, 0, CONTENT_SIZE / 3);
+        } finally {
+            out.close();
+        }
+        host.fetcher(domainController).fetch(hash);
+        Assert.assertTrue(host.hasContent(content));
+        Assert.assertEquals(CONTENT_SIZE - CONTENT_SIZE / 3, domainController.handler.getBytesSent());
+    }
+
+    @Test
+    public void testCorruptPeerContentIsDiscarded() throws Exception {
+        final TestHost peer = hosts.get(0);
+        final byte[] corrupt = content.clone();
+        corrupt[corrupt.length / 2]++;
+        writeContent(peer, corrupt, corrupt.length);
+
+        final TestHost host = hosts.get(1);
+        host.fetcher(peer, domainController).fetch(hash);
+        Assert.assertTrue(host.hasContent(content));
+        Assert.assertEquals(CONTENT_SIZE, domainController.handler.getBytesSent());
+    }
+
+    @Test
+    public void testMissingContentFails() throws Exception {
+        final TestHost host = hosts.get(0);
+        try {
+            host.fetcher(domainController).fetch(new byte[20]);
+            Assert.fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testRepositoryPropagatesFailure() throws Exception {
+        final TestHost host = hosts.get(0);
+        final RemoteFileRepository repository = new RemoteFileRepository(host.repository, host.fetcher(domainController));
+        try {
+            repository.getDeploymentFiles(new byte[20]);
+            Assert.fail("Expected RuntimeException");
+        } catch (RuntimeException expected) {
+            Assert.assertTrue(expected.getCause() instanceof IOException);
+        }
+        Assert.assertNotNull(repository.getDeploymentFiles(hash));
+        Assert.assertTrue(host.hasContent(content));
+    }
+
+    private void writeContent(final TestHost host, final byte[] bytes, final int length) throws IOException {
+        final File dir = host.repository.getDeploymentRoot(hash);
+        dir.mkdirs();
+        final OutputStream out = new FileOutputStream(new File(dir, DeploymentContentOperationHandler.CONTENT));
+        try {
+            out.write(bytes, 0, length);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private class TestHost {
+        final TestFileRepository repository;
+        final DeploymentContentOperationHandler handler;
+        final ProtocolServer server;
+
+        TestHost(final File dir) throws IOException {
+            repository = new TestFileRepository(dir);
+            handler = new DeploymentContentOperationHandler(repository);
+
+            final ProtocolServer.Configuration config = new ProtocolServer.Configuration();
+            config.setBindAddress(new InetSocketAddress(InetAddress.getByName("localhost"), 0));
+            config.setThreadFactory(Executors.defaultThreadFactory());
+            config.setReadExecutor(executor);
+            config.setSocketFactory(ServerSocketFactory.getDefault());
+            config.setBacklog(50);
+            config.setConnectionHandler(new ServerConnectionHandler(handler));
+            server = new ProtocolServer(config);
+            server.start();
+        }
+
+        DeploymentContentFetcher fetcher(final TestHost... sources) {
+            final List<InetSocketAddress> addresses = new ArrayList<InetSocketAddress>();
+            for (TestHost source : sources) {
+                addresses.add(source.server.getBoundAddress());
+            }
+            return new DeploymentContentFetcher(repository, addresses, executor, Executors.defaultThreadFactory());
+        }
+
+        boolean hasContent(final byte[] expected) throws Exception {
+            final File file = new File(repository.getDeploymentRoot(hash), DeploymentContentOperationHandler.CONTENT);
+            if (! file.isFile() || file.length() != expected.length) {
+                return false;
+            }
+            final byte[] actual = new byte[expected.length];
+            final InputStream in = new FileInputStream(file);
+            try {
+                int off = 0;
+                while (off < actual.length) {
+                    off += in.read(actual, off, actual.length - off);
+                }
+            } finally {
+                in.close();
+            }
+            return Arrays.equals(expected, actual);
+        }
+
+        void stop() {
+            server.stop();
+        }
+    }
+
+    private static class ServerConnectionHandler extends ManagementHeaderMessageHandler implements ConnectionHandler {
+        private final DeploymentContentOperationHandler handler;
+
+        ServerConnectionHandler(final DeploymentContentOperationHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public MessageHandler handleConnected(Connection connection) throws IOException {
+            return this;
+        }
+
+        @Override
+        protected MessageHandler getHandlerForId(byte handlerId) {
+            return handler;
+        }
+    }
+
+    private static class TestFileRepository implements FileRepository {
+        private final File root;
+
+        TestFileRepository(final File root) {
+            this.root = root;
+        }
+
+        @Override
+        public File getFile(String relativePath) {
+            return new File(root, relativePath);
+        }
+
+        @Override
+        public File getConfigurationFile(String relativePath) {
+            return new File(root, relativePath);
+        }
+
+        @Override
+        public File[] getDeploymentFiles(byte[] deploymentHash) {
+            return getDeploymentRoot(deploymentHash).listFiles();
+        }
+
+        @Override
+        public File getDeploymentRoot(byte[] deploymentHash) {
+            final String hex = HashUtil.bytesToHexString(deploymentHash);
+            return new File(new File(root, hex.substring(0, 2)), hex.substring(2));
+        }
+    }
+}
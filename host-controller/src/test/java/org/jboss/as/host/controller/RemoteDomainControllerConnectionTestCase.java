@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
@@ -137,7 +138,7 @@ public class RemoteDomainControllerConnectionTestCase {
 
     @Test
     public void testRemoteDomainControllerConnection() throws Exception {
-        service = new RemoteDomainConnectionService("Test", InetAddress.getByName("localhost"), server.getBoundAddress().getPort());
+        service = new RemoteDomainConnectionService("Test", InetAddress.getByName("localhost"), server.getBoundAddress().getPort(), null, Collections.<InetSocketAddress>emptyList());
         ModelNode remoteModel = service.register(new TestHostController());
         Assert.assertNotNull(remoteModel);
         Assert.assertTrue(remoteModel.hasDefined(ModelDescriptionConstants.HOST));
@@ -0,0 +1,233 @@
+/*
+* JBoss, Home of Professional Open Source.
+* Copyright 2006, Red Hat Middleware LLC, and individual contributors
+* as indicated by the @author tags. See the copyright.txt file in the
+* distribution for a full listing of individual contributors.
+*
+* This is free software; you can redistribute it and/or modify it
+* under the terms of the GNU Lesser General Public License as
+* published by the Free Software Foundation; either version 2.1 of
+* the License, or (at your option) any later version.
+*
+* This software is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+* Lesser General Public License for more details.
+*
+* You should have received a copy of the GNU Lesser General Public
+* License along with this software; if not, write to the Free
+* Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+* 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+*/
+
+package org.jboss.as.host.controller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.dmr.ModelNode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests dispatching operations to multiple running servers.
+ */
+public class ServerOperationDispatcherTestCase {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger executed = new AtomicInteger();
+    // the mock servers count down "started" on entry and then hold until "release" opens
+    private volatile CountDownLatch started = new CountDownLatch(0);
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private ServerOperationDispatcher dispatcher;
+
+    @After
+    public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testServersExecuteConcurrently() throws Exception {
+        dispatcher = new ServerOperationDispatcher(16, Executors.defaultThreadFactory());
+        started = new CountDownLatch(15);
+        release = new CountDownLatch(1);
+
+        final CollectingResultHandler handler = new CollectingResultHandler();
+        dispatcher.execute(createServers(15), new ModelNode(), handler);
+        // sequential dispatch would never have all the servers executing at once
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(15, inFlight.get());
+        release.countDown();
+
+        assertComplete(handler, 15);
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+        dispatcher = new ServerOperationDispatcher(4, Executors.defaultThreadFactory());
+        started = new CountDownLatch(4);
+        release = new CountDownLatch(1);
+
+        final CollectingResultHandler handler = new CollectingResultHandler();
+        dispatcher.execute(createServers(12), new ModelNode(), handler);
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(4, inFlight.get());
+        release.countDown();
+
+        assertComplete(handler, 12);
+        Assert.assertEquals(4, maxInFlight.get());
+    }
+
+    @Test
+    public void testFailedServerDoesNotFailOthers() throws Exception {
+        dispatcher = new ServerOperationDispatcher(4, Executors.defaultThreadFactory());
+        final Map<String, ModelController> servers = createServers(3);
+        servers.put("broken", new MockServer("broken") {
+            @Override
+            public ModelNode execute(final ModelNode operation) throws CancellationException {
+                throw new IllegalStateException("broken");
+            }
+        });
+
+        final CollectingResultHandler handler = new CollectingResultHandler();
+        dispatcher.execute(servers, new ModelNode(), handler);
+        Assert.assertTrue(handler.latch.await(10, TimeUnit.SECONDS));
+
+        Assert.assertFalse(handler.cancelled);
+        Assert.assertEquals(4, handler.result.keys().size());
+        Assert.assertEquals(FAILED, handler.result.get("broken", OUTCOME).asString());
+        Assert.assertTrue(handler.result.get("broken").hasDefined(FAILURE_DESCRIPTION));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(SUCCESS, handler.result.get("server-" + i, OUTCOME).asString());
+        }
+    }
+
+    @Test
+    public void testNoServers() throws Exception {
+        dispatcher = new ServerOperationDispatcher(4, Executors.defaultThreadFactory());
+        final CollectingResultHandler handler = new CollectingResultHandler();
+        dispatcher.execute(new LinkedHashMap<String, ModelController>(), new ModelNode(), handler);
+        Assert.assertEquals(0, handler.latch.getCount());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        dispatcher = new ServerOperationDispatcher(1, Executors.defaultThreadFactory());
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        final CollectingResultHandler handler = new CollectingResultHandler();
+        final OperationResult result = dispatcher.execute(createServers(10), new ModelNode(), handler);
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(result.getCancellable().cancel());
+        release.countDown();
+        Assert.assertTrue(handler.latch.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(handler.cancelled);
+        // only the server which had already started executed the operation
+        Assert.assertEquals(1, executed.get());
+    }
+
+    private void assertComplete(final CollectingResultHandler handler, final int serverCount) throws InterruptedException {
+        Assert.assertTrue(handler.latch.await(10, TimeUnit.SECONDS));
+        Assert.assertFalse(handler.cancelled);
+        Assert.assertEquals(serverCount, handler.result.keys().size());
+        for (int i = 0; i < serverCount; i++) {
+            final String serverName = "server-" + i;
+            Assert.assertEquals(SUCCESS, handler.result.get(serverName, OUTCOME).asString());
+            Assert.assertEquals(serverName, handler.result.get(serverName, RESULT, NAME).asString());
+        }
+    }
+
+    private Map<String, ModelController> createServers(final int count) {
+        final Map<String, ModelController> servers = new LinkedHashMap<String, ModelController>();
+        for (int i = 0; i < count; i++) {
+            final String name = "server-" + i;
+            servers.put(name, new MockServer(name));
+        }
+        return servers;
+    }
+
+    private class MockServer implements ModelController {
+
+        private final String name;
+
+        MockServer(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public OperationResult execute(final ModelNode operation, final ResultHandler handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ModelNode execute(final ModelNode operation) throws CancellationException {
+            executed.incrementAndGet();
+            final int current = inFlight.incrementAndGet();
+            try {
+                int max;
+                do {
+                    max = maxInFlight.get();
+                } while (current > max && !maxInFlight.compareAndSet(max, current));
+                started.countDown();
+                if (!release.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Server " + name + " was never released");
+                }
+            } catch (InterruptedException e) {
+                throw new CancellationException();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            final ModelNode result = new ModelNode();
+            result.get(OUTCOME).set(SUCCESS);
+            result.get(RESULT, NAME).set(name);
+            return result;
+        }
+    }
+
+    private static class CollectingResultHandler implements ResultHandler {
+
+        private final ModelNode result = new ModelNode();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile boolean cancelled;
+
+        @Override
+        public void handleResultFragment(final String[] location, final ModelNode fragment) {
+            result.get(location).set(fragment);
+        }
+
+        @Override
+        public void handleResultComplete() {
+            latch.countDown();
+        }
+
+        @Override
+        public void handleFailed(final ModelNode failureDescription) {
+            latch.countDown();
+        }
+
+        @Override
+        public void handleCancellation() {
+            cancelled = true;
+            latch.countDown();
+        }
+    }
+}
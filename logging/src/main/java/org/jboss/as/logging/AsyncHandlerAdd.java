@@ -34,7 +34,9 @@ import static org.jboss.as.logging.CommonAttributes.HANDLER_TYPE;
 import static org.jboss.as.logging.CommonAttributes.LEVEL;
 import static org.jboss.as.logging.CommonAttributes.OVERFLOW_ACTION;
 import static org.jboss.as.logging.CommonAttributes.QUEUE_LENGTH;
+import static org.jboss.as.logging.CommonAttributes.QUEUE_TYPE;
 import static org.jboss.as.logging.CommonAttributes.SUBHANDLERS;
+import static org.jboss.as.logging.CommonAttributes.WAIT_STRATEGY;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -86,6 +88,8 @@ class AsyncHandlerAdd implements ModelAddOperationHandler, DescriptionProvider {
         subModel.get(SUBHANDLERS).set(operation.get(SUBHANDLERS));
         subModel.get(LEVEL).set(operation.get(LEVEL));
         subModel.get(OVERFLOW_ACTION).set(operation.get(OVERFLOW_ACTION));
+        subModel.get(QUEUE_TYPE).set(operation.get(QUEUE_TYPE));
+        subModel.get(WAIT_STRATEGY).set(operation.get(WAIT_STRATEGY));
 
         if (context.getRuntimeContext() != null) {
             context.getRuntimeContext().setRuntimeTask(new RuntimeTask() {
@@ -105,6 +109,10 @@ class AsyncHandlerAdd implements ModelAddOperationHandler, DescriptionProvider {
                             service.setQueueLength(operation.get(QUEUE_LENGTH).asInt());
                         service.setLevel(Level.parse(operation.get(LEVEL).asString()));
                         service.setOverflowAction(OverflowAction.valueOf(operation.get(OVERFLOW_ACTION).asString()));
+                        if (operation.hasDefined(QUEUE_TYPE))
+                            service.setQueueType(AsyncQueueType.valueOf(operation.get(QUEUE_TYPE).asString()));
+                        if (operation.hasDefined(WAIT_STRATEGY))
+                            service.setWaitStrategy(WaitStrategy.valueOf(operation.get(WAIT_STRATEGY).asString()));
                         serviceBuilder.setInitialMode(ServiceController.Mode.ACTIVE);
                         serviceBuilder.addListener(new ResultHandler.ServiceStartListener(resultHandler));
                         serviceBuilder.install();
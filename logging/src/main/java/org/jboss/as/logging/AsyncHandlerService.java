@@ -24,6 +24,7 @@ package org.jboss.as.logging;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.jboss.logmanager.ExtHandler;
 import org.jboss.logmanager.handlers.AsyncHandler;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
@@ -45,12 +46,22 @@ public final class AsyncHandlerService implements Service<Handler> {
 
     private int queueLength;
 
-    private AsyncHandler value;
+    private AsyncQueueType queueType = AsyncQueueType.BLOCKING;
+
+    private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+
+    private ExtHandler value;
 
     private Level level;
 
     public synchronized void start(final StartContext context) throws StartException {
-        final AsyncHandler handler = new AsyncHandler(queueLength);
+        final ExtHandler handler;
+        if (queueType == AsyncQueueType.RING_BUFFER) {
+            final String name = context.getController().getName().getSimpleName();
+            handler = new RingBufferAsyncHandler(name, queueLength > 0 ? queueLength : RingBufferAsyncHandler.DEFAULT_QUEUE_LENGTH, waitStrategy);
+        } else {
+            handler = new AsyncHandler(queueLength);
+        }
         value = handler;
         final OverflowAction action = overflowAction;
         setAction(handler, action);
@@ -62,10 +73,15 @@ public final class AsyncHandlerService implements Service<Handler> {
         if (level != null) handler.setLevel(level);
     }
 
-    private static void setAction(final AsyncHandler handler, final OverflowAction action) {
-        if (handler == null) {
+    private static void setAction(final ExtHandler value, final OverflowAction action) {
+        if (value instanceof RingBufferAsyncHandler) {
+            ((RingBufferAsyncHandler) value).setOverflowAction(action);
+            return;
+        }
+        if (value == null) {
             return;
         }
+        final AsyncHandler handler = (AsyncHandler) value;
         switch (action) {
             case BLOCK: {
                 handler.setOverflowAction(AsyncHandler.OverflowAction.BLOCK);
@@ -79,7 +95,7 @@ public final class AsyncHandlerService implements Service<Handler> {
     }
 
     public synchronized void stop(final StopContext context) {
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         handler.close();
         handler.setLevel(Level.OFF);
         handler.clearHandlers();
@@ -99,9 +115,17 @@ public final class AsyncHandlerService implements Service<Handler> {
         this.queueLength = queueLength;
     }
 
+    public synchronized void setQueueType(final AsyncQueueType queueType) {
+        this.queueType = queueType;
+    }
+
+    public synchronized void setWaitStrategy(final WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
     public synchronized void setLevel(final Level level) {
         this.level = level;
-        final AsyncHandler handler = value;
+        final ExtHandler handler = value;
         if (handler != null) {
             handler.setLevel(level);
         }
@@ -34,8 +34,11 @@ public enum Attribute {
 
     APPEND(CommonAttributes.APPEND),
     AUTOFLUSH(CommonAttributes.AUTOFLUSH),
+    BUFFER_SIZE(CommonAttributes.BUFFER_SIZE),
     CATEGORY(CommonAttributes.CATEGORY),
     FILE_NAME(CommonAttributes.FILE_NAME),
+    FLUSH_INTERVAL(CommonAttributes.FLUSH_INTERVAL),
+    FLUSH_LEVEL(CommonAttributes.FLUSH_LEVEL),
     MIN_INCLUSIVE(CommonAttributes.MIN_INCLUSIVE),
     MIN_LEVEL(CommonAttributes.MIN_LEVEL),
     MAX_BACKUP_INDEX(CommonAttributes.MAX_BACKUP_INDEX),
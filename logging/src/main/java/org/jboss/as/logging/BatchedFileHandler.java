@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.ErrorManager;
+
+import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.handlers.FileHandler;
+
+/**
+ * A {@link FileHandler} writing through the buffer of a {@link BatchedWrites} policy.
+ */
+final class BatchedFileHandler extends FileHandler {
+
+    private final BatchedWrites batchedWrites;
+    private volatile BatchedWrites.BatchedOutputStream batch;
+
+    BatchedFileHandler(final BatchedWrites batchedWrites) {
+        this.batchedWrites = batchedWrites;
+    }
+
+    public void setOutputStream(final OutputStream outputStream) {
+        final BatchedWrites.BatchedOutputStream batch = batchedWrites.wrap(outputStream);
+        super.setOutputStream(batch);
+        this.batch = batch;
+    }
+
+    protected void doPublish(final ExtLogRecord record) {
+        super.doPublish(record);
+        // moves the record from the writer into the batch
+        super.flush();
+        if (batchedWrites.isFlushRequired(record)) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        super.flush();
+        final BatchedWrites.BatchedOutputStream batch = this.batch;
+        if (batch != null) {
+            try {
+                batch.flushBatch();
+            } catch (IOException e) {
+                reportError("Failed to flush the batched records", e, ErrorManager.FLUSH_FAILURE);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import static org.jboss.as.logging.CommonAttributes.BUFFER_SIZE;
+import static org.jboss.as.logging.CommonAttributes.FLUSH_INTERVAL;
+import static org.jboss.as.logging.CommonAttributes.FLUSH_LEVEL;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * The batching policy of a file handler. Records are written into a buffer below the handler's writer instead of
+ * being flushed one by one, so the file sees one write per full buffer. The buffer is flushed when it is full, when a
+ * record at or above the flush level is published, and every flush interval.
+ */
+public final class BatchedWrites {
+
+    static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    static final long DEFAULT_FLUSH_INTERVAL = 1000L;
+
+    static final Level DEFAULT_FLUSH_LEVEL = Level.SEVERE;
+
+    private static ScheduledExecutorService flushExecutor;
+
+    private final int bufferSize;
+    private final long flushInterval;
+    private final Level flushLevel;
+
+    /**
+     * @param bufferSize the size of the buffer in bytes
+     * @param flushInterval the longest time in milliseconds a record stays buffered, or {@code 0} for no timed flush
+     * @param flushLevel the lowest level flushed as soon as it is published
+     */
+    public BatchedWrites(final int bufferSize, final long flushInterval, final Level flushLevel) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer-size must be greater than 0");
+        }
+        if (flushInterval < 0L) {
+            throw new IllegalArgumentException("flush-interval must not be negative");
+        }
+        this.bufferSize = bufferSize;
+        this.flushInterval = flushInterval;
+        this.flushLevel = flushLevel;
+    }
+
+    /**
+     * Create the policy described by a {@code batched-writes} model node, using the defaults for the undefined values.
+     *
+     * @param node the model node
+     * @return the policy
+     */
+    static BatchedWrites create(final ModelNode node) {
+        return new BatchedWrites(node.hasDefined(BUFFER_SIZE) ? node.get(BUFFER_SIZE).asInt() : DEFAULT_BUFFER_SIZE,
+                node.hasDefined(FLUSH_INTERVAL) ? node.get(FLUSH_INTERVAL).asLong() : DEFAULT_FLUSH_INTERVAL,
+                node.hasDefined(FLUSH_LEVEL) ? Level.parse(node.get(FLUSH_LEVEL).asString()) : DEFAULT_FLUSH_LEVEL);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public Level getFlushLevel() {
+        return flushLevel;
+    }
+
+    BatchedOutputStream wrap(final OutputStream outputStream) {
+        return outputStream == null ? null : new BatchedOutputStream(outputStream, bufferSize);
+    }
+
+    boolean isFlushRequired(final LogRecord record) {
+        return record.getLevel().intValue() >= flushLevel.intValue();
+    }
+
+    /**
+     * Flush the handler every flush interval until the returned task is cancelled.
+     *
+     * @param handler the handler
+     * @return the task, or {@code null} if there is no timed flush
+     */
+    Future<?> scheduleFlush(final Handler handler) {
+        if (flushInterval == 0L) {
+            return null;
+        }
+        return getFlushExecutor().scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                handler.flush();
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    static void cancelFlush(final Future<?> task) {
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getFlushExecutor() {
+        if (flushExecutor == null) {
+            flushExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Log Handler Flush");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return flushExecutor;
+    }
+
+    /**
+     * The buffer below a batched handler's writer. Flushing the writer only moves its records into the buffer, where
+     * the size of the current file counts them; {@link #flushBatch()} writes them to the file.
+     */
+    static final class BatchedOutputStream extends BufferedOutputStream {
+
+        BatchedOutputStream(final OutputStream outputStream, final int bufferSize) {
+            super(outputStream, bufferSize);
+        }
+
+        public void flush() {
+            // kept until the batch is flushed
+        }
+
+        void flushBatch() throws IOException {
+            super.flush();
+        }
+
+        public void close() throws IOException {
+            try {
+                flushBatch();
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -33,15 +33,21 @@ interface CommonAttributes {
     String APPEND ="append";
     String ASYNC_HANDLER ="async-handler";
     String AUTOFLUSH ="autoflush";
+    String BATCHED_WRITES ="batched-writes";
+    String BUFFER_SIZE ="buffer-size";
     String CATEGORY ="category";
     String CHANGE_LEVEL ="change-level";
     String CONSOLE_HANDLER ="console-handler";
     String DENY ="deny";
+    String DROPPED_RECORDS ="dropped-records";
     String ENCODING ="encoding";
     String FILE ="file";
     String FILE_HANDLER ="file-handler";
     String FILE_NAME ="file-name";
     String FILTER ="filter";
+    String FLUSH_INTERVAL ="flush-interval";
+    String FLUSH_LATENCY ="flush-latency";
+    String FLUSH_LEVEL ="flush-level";
     String FORMATTER ="formatter";
     String HANDLER_TYPE = "handler-type";
     String HANDLER ="handler";
@@ -64,7 +70,9 @@ interface CommonAttributes {
     String PATTERN_FORMATTER ="pattern-formatter";
     String PERIODIC_ROTATING_FILE_HANDLER ="periodic-rotating-file-handler";
     String PROPERTIES ="properties";
+    String QUEUE_DEPTH ="queue-depth";
     String QUEUE_LENGTH ="queue-length";
+    String QUEUE_TYPE ="queue-type";
     String RELATIVE_TO ="relative-to";
     String REPLACE ="replace";
     String REPLACEMENT ="replacement";
@@ -77,5 +85,6 @@ interface CommonAttributes {
     String TARGET ="target";
     String USE_PARENT_HANDLERS ="use-parent-handlers";
     String VALUE ="value";
+    String WAIT_STRATEGY ="wait-strategy";
 
 }
@@ -37,6 +37,7 @@ public enum Element {
     ANY(CommonAttributes.ANY),
     APPEND(CommonAttributes.APPEND),
     ASYNC_HANDLER(CommonAttributes.ASYNC_HANDLER),
+    BATCHED_WRITES(CommonAttributes.BATCHED_WRITES),
     CHANGE_LEVEL(CommonAttributes.CHANGE_LEVEL),
     CONSOLE_HANDLER(CommonAttributes.CONSOLE_HANDLER),
     DENY(CommonAttributes.DENY),
@@ -58,6 +59,7 @@ public enum Element {
     PERIODIC_ROTATING_FILE_HANDLER(CommonAttributes.PERIODIC_ROTATING_FILE_HANDLER),
     PROPERTIES(CommonAttributes.PROPERTIES),
     QUEUE_LENGTH(CommonAttributes.QUEUE_LENGTH),
+    QUEUE_TYPE(CommonAttributes.QUEUE_TYPE),
     REPLACE(CommonAttributes.REPLACE),
     ROOT_LOGGER(CommonAttributes.ROOT_LOGGER),
     ROTATE_SIZE(CommonAttributes.ROTATE_SIZE),
@@ -65,6 +67,7 @@ public enum Element {
     SUBHANDLERS(CommonAttributes.SUBHANDLERS),
     SUFFIX(CommonAttributes.SUFFIX),
     TARGET(CommonAttributes.TARGET),
+    WAIT_STRATEGY(CommonAttributes.WAIT_STRATEGY),
     ;
 
     private final String name;
@@ -31,6 +31,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REMOVE;
 import static org.jboss.as.logging.CommonAttributes.AUTOFLUSH;
+import static org.jboss.as.logging.CommonAttributes.BATCHED_WRITES;
 import static org.jboss.as.logging.CommonAttributes.ENCODING;
 import static org.jboss.as.logging.CommonAttributes.FILE;
 import static org.jboss.as.logging.CommonAttributes.FORMATTER;
@@ -82,6 +83,7 @@ class FileHandlerAdd implements ModelAddOperationHandler {
 
         final ModelNode subModel = context.getSubModel();
         subModel.get(AUTOFLUSH).set(operation.get(AUTOFLUSH));
+        subModel.get(BATCHED_WRITES).set(operation.get(BATCHED_WRITES));
         subModel.get(ENCODING).set(operation.get(ENCODING));
         subModel.get(HANDLER_TYPE).set(handlerType);
         subModel.get(FORMATTER).set(operation.get(FORMATTER));
@@ -106,6 +108,7 @@ class FileHandlerAdd implements ModelAddOperationHandler {
                         service.setLevel(Level.parse(operation.get(LEVEL).asString()));
                         final Boolean autoFlush = operation.get(AUTOFLUSH).asBoolean();
                         if (autoFlush != null) service.setAutoflush(autoFlush.booleanValue());
+                        if (operation.hasDefined(BATCHED_WRITES)) service.setBatchedWrites(BatchedWrites.create(operation.get(BATCHED_WRITES)));
                         if (operation.hasDefined(ENCODING)) service.setEncoding(operation.get(ENCODING).asString());
                         if (operation.hasDefined(FORMATTER)) service.setFormatterSpec(createFormatterSpec(operation));
                         serviceBuilder.setInitialMode(ServiceController.Mode.ACTIVE);
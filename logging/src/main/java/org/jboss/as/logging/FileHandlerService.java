@@ -24,6 +24,7 @@ package org.jboss.as.logging;
 
 import java.io.FileNotFoundException;
 import java.io.UnsupportedEncodingException;
+import java.util.concurrent.Future;
 import org.jboss.logmanager.handlers.FileHandler;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
@@ -49,13 +50,17 @@ public final class FileHandlerService implements Service<Handler> {
     private boolean append;
     private String path;
     private FileHandler value;
+    private BatchedWrites batchedWrites;
+    private Future<?> flushTask;
 
     public synchronized void start(final StartContext context) throws StartException {
-        final FileHandler handler = new FileHandler();
+        final FileHandler handler = batchedWrites != null ? new BatchedFileHandler(batchedWrites)
+                : new FileHandler();
         value = handler;
         formatterSpec.apply(handler);
         if (level != null) handler.setLevel(level);
-        handler.setAutoFlush(autoflush);
+        // the batched handlers flush by their own policy
+        handler.setAutoFlush(autoflush && batchedWrites == null);
         try {
             handler.setEncoding(encoding);
         } catch (UnsupportedEncodingException e) {
@@ -68,9 +73,15 @@ public final class FileHandlerService implements Service<Handler> {
             throw new StartException(e);
         }
         value = handler;
+        if (batchedWrites != null) {
+            // the handler is fully configured before the flush task can reach it
+            flushTask = batchedWrites.scheduleFlush(handler);
+        }
     }
 
     public synchronized void stop(final StopContext context) {
+        BatchedWrites.cancelFlush(flushTask);
+        flushTask = null;
         final FileHandler handler = value;
         handler.close();
         value = null;
@@ -107,7 +118,7 @@ public final class FileHandlerService implements Service<Handler> {
     public synchronized void setAutoflush(final boolean autoflush) {
         this.autoflush = autoflush;
         final FileHandler handler = value;
-        if (handler != null) handler.setAutoFlush(autoflush);
+        if (handler != null) handler.setAutoFlush(autoflush && batchedWrites == null);
     }
 
     public synchronized String getEncoding() {
@@ -145,6 +156,20 @@ public final class FileHandlerService implements Service<Handler> {
         setFileName();
     }
 
+    public synchronized BatchedWrites getBatchedWrites() {
+        return batchedWrites;
+    }
+
+    /**
+     * Set the batching policy of the handler, or {@code null} to write every record through. It takes effect when
+     * the service is next started.
+     *
+     * @param batchedWrites the batching policy
+     */
+    public synchronized void setBatchedWrites(final BatchedWrites batchedWrites) {
+        this.batchedWrites = batchedWrites;
+    }
+
     public Injector<String> getRelativeToInjector() {
         return relativeTo;
     }
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.logging.CommonAttributes.DROPPED_RECORDS;
+import static org.jboss.as.logging.CommonAttributes.FLUSH_LATENCY;
+import static org.jboss.as.logging.CommonAttributes.QUEUE_DEPTH;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelQueryOperationHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.server.ServerOperationContext;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the metrics of a handler. Only the ring buffer async handlers keep metrics, the value is undefined for the
+ * other handlers and while the handler is not running.
+ */
+class HandlerMetrics implements ModelQueryOperationHandler {
+
+    static final String[] ATTRIBUTES = new String[] { QUEUE_DEPTH, DROPPED_RECORDS, FLUSH_LATENCY };
+
+    static final HandlerMetrics INSTANCE = new HandlerMetrics();
+
+    /** {@inheritDoc} */
+    @Override
+    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
+        final ModelNode result = new ModelNode();
+        if (context instanceof ServerOperationContext) {
+            final String name = PathAddress.pathAddress(operation.require(OP_ADDR)).getLastElement().getValue();
+            final String attributeName = operation.require(NAME).asString();
+            final ServiceController<?> controller = ((ServerOperationContext) context).getController().getServiceRegistry()
+                    .getService(LogServices.handlerName(name));
+            final Object handler = controller != null && controller.getState() == ServiceController.State.UP
+                    ? controller.getValue() : null;
+            if (handler instanceof RingBufferAsyncHandler) {
+                final RingBufferAsyncHandler asyncHandler = (RingBufferAsyncHandler) handler;
+                if (QUEUE_DEPTH.equals(attributeName)) {
+                    result.set(asyncHandler.getQueueDepth());
+                } else if (DROPPED_RECORDS.equals(attributeName)) {
+                    result.set(asyncHandler.getDroppedCount());
+                } else if (FLUSH_LATENCY.equals(attributeName)) {
+                    result.get("count").set(asyncHandler.getFlushCount());
+                    result.get("mean-micros").set(asyncHandler.getMeanFlushTime(TimeUnit.MICROSECONDS));
+                    result.get("max-micros").set(asyncHandler.getMaxFlushTime(TimeUnit.MICROSECONDS));
+                }
+            }
+        }
+        resultHandler.handleResultFragment(Util.NO_LOCATION, result);
+        resultHandler.handleResultComplete();
+        return new BasicOperationResult();
+    }
+}
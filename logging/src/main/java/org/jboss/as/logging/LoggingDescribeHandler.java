@@ -23,6 +23,7 @@ import org.jboss.as.controller.OperationResult;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 import static org.jboss.as.logging.CommonAttributes.AUTOFLUSH;
+import static org.jboss.as.logging.CommonAttributes.BATCHED_WRITES;
 import static org.jboss.as.logging.CommonAttributes.ENCODING;
 import static org.jboss.as.logging.CommonAttributes.FILE;
 import static org.jboss.as.logging.CommonAttributes.FORMATTER;
@@ -34,10 +35,12 @@ import static org.jboss.as.logging.CommonAttributes.LOGGER;
 import static org.jboss.as.logging.CommonAttributes.MAX_BACKUP_INDEX;
 import static org.jboss.as.logging.CommonAttributes.OVERFLOW_ACTION;
 import static org.jboss.as.logging.CommonAttributes.QUEUE_LENGTH;
+import static org.jboss.as.logging.CommonAttributes.QUEUE_TYPE;
 import static org.jboss.as.logging.CommonAttributes.ROOT_LOGGER;
 import static org.jboss.as.logging.CommonAttributes.ROTATE_SIZE;
 import static org.jboss.as.logging.CommonAttributes.SUBHANDLERS;
 import static org.jboss.as.logging.CommonAttributes.SUFFIX;
+import static org.jboss.as.logging.CommonAttributes.WAIT_STRATEGY;
 
 import java.util.Locale;
 
@@ -123,6 +126,12 @@ public class LoggingDescribeHandler implements ModelQueryOperationHandler, Descr
         add.get(SUBHANDLERS).set(handler.get(SUBHANDLERS));
         add.get(LEVEL).set(handler.get(LEVEL));
         add.get(OVERFLOW_ACTION).set(handler.get(OVERFLOW_ACTION));
+        if (handler.hasDefined(QUEUE_TYPE)) {
+            add.get(QUEUE_TYPE).set(handler.get(QUEUE_TYPE));
+        }
+        if (handler.hasDefined(WAIT_STRATEGY)) {
+            add.get(WAIT_STRATEGY).set(handler.get(WAIT_STRATEGY));
+        }
 
         return add;
     }
@@ -159,6 +168,9 @@ public class LoggingDescribeHandler implements ModelQueryOperationHandler, Descr
         if (handler.hasDefined(AUTOFLUSH)) {
             add.get(AUTOFLUSH).set(handler.get(AUTOFLUSH));
         }
+        if (handler.hasDefined(BATCHED_WRITES)) {
+            add.get(BATCHED_WRITES).set(handler.get(BATCHED_WRITES));
+        }
         if (handler.hasDefined(ENCODING)) {
             add.get(ENCODING).set(handler.get(ENCODING));
         }
@@ -187,6 +199,9 @@ public class LoggingDescribeHandler implements ModelQueryOperationHandler, Descr
         if (handler.hasDefined(AUTOFLUSH)) {
             add.get(AUTOFLUSH).set(handler.get(AUTOFLUSH));
         }
+        if (handler.hasDefined(BATCHED_WRITES)) {
+            add.get(BATCHED_WRITES).set(handler.get(BATCHED_WRITES));
+        }
         if (handler.hasDefined(ENCODING)) {
             add.get(ENCODING).set(handler.get(ENCODING));
         }
@@ -217,6 +232,9 @@ public class LoggingDescribeHandler implements ModelQueryOperationHandler, Descr
         if (handler.hasDefined(AUTOFLUSH)) {
             add.get(AUTOFLUSH).set(handler.get(AUTOFLUSH));
         }
+        if (handler.hasDefined(BATCHED_WRITES)) {
+            add.get(BATCHED_WRITES).set(handler.get(BATCHED_WRITES));
+        }
         if (handler.hasDefined(ENCODING)) {
             add.get(ENCODING).set(handler.get(ENCODING));
         }
@@ -73,6 +73,9 @@ public class LoggingExtension implements Extension {
         handlers.registerOperationHandler(FileHandlerAdd.OPERATION_NAME, FileHandlerAdd.INSTANCE, LoggingSubsystemProviders.FILE_HANDLER_ADD, false);
         handlers.registerOperationHandler(PeriodicRotatingFileHandlerAdd.OPERATION_NAME, PeriodicRotatingFileHandlerAdd.INSTANCE, LoggingSubsystemProviders.PERIODIC_HANDLER_ADD, false);
         handlers.registerOperationHandler(SizeRotatingFileHandlerAdd.OPERATION_NAME, SizeRotatingFileHandlerAdd.INSTANCE, LoggingSubsystemProviders.SIZE_PERIODIC_HANDLER_ADD, false);
+        for (final String attributeName : HandlerMetrics.ATTRIBUTES) {
+            handlers.registerMetric(attributeName, HandlerMetrics.INSTANCE);
+        }
     }
 
     /** {@inheritDoc} */
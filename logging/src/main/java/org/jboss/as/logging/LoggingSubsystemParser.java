@@ -28,6 +28,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RELATIVE_TO;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
 import static org.jboss.as.controller.parsing.ParseUtils.duplicateNamedElement;
+import static org.jboss.as.controller.parsing.ParseUtils.invalidAttributeValue;
 import static org.jboss.as.controller.parsing.ParseUtils.missingRequired;
 import static org.jboss.as.controller.parsing.ParseUtils.readStringAttributeElement;
 import static org.jboss.as.controller.parsing.ParseUtils.requireNoContent;
@@ -36,8 +37,12 @@ import static org.jboss.as.controller.parsing.ParseUtils.unexpectedAttribute;
 import static org.jboss.as.controller.parsing.ParseUtils.unexpectedElement;
 import static org.jboss.as.logging.CommonAttributes.APPEND;
 import static org.jboss.as.logging.CommonAttributes.AUTOFLUSH;
+import static org.jboss.as.logging.CommonAttributes.BATCHED_WRITES;
+import static org.jboss.as.logging.CommonAttributes.BUFFER_SIZE;
 import static org.jboss.as.logging.CommonAttributes.ENCODING;
 import static org.jboss.as.logging.CommonAttributes.FILE;
+import static org.jboss.as.logging.CommonAttributes.FLUSH_INTERVAL;
+import static org.jboss.as.logging.CommonAttributes.FLUSH_LEVEL;
 import static org.jboss.as.logging.CommonAttributes.FORMATTER;
 import static org.jboss.as.logging.CommonAttributes.HANDLER;
 import static org.jboss.as.logging.CommonAttributes.HANDLERS;
@@ -48,12 +53,14 @@ import static org.jboss.as.logging.CommonAttributes.MAX_BACKUP_INDEX;
 import static org.jboss.as.logging.CommonAttributes.OVERFLOW_ACTION;
 import static org.jboss.as.logging.CommonAttributes.PATH;
 import static org.jboss.as.logging.CommonAttributes.QUEUE_LENGTH;
+import static org.jboss.as.logging.CommonAttributes.QUEUE_TYPE;
 import static org.jboss.as.logging.CommonAttributes.ROOT_LOGGER;
 import static org.jboss.as.logging.CommonAttributes.ROTATE_SIZE;
 import static org.jboss.as.logging.CommonAttributes.SUBHANDLERS;
 import static org.jboss.as.logging.CommonAttributes.SUFFIX;
 import static org.jboss.as.logging.CommonAttributes.TARGET;
 import static org.jboss.as.logging.CommonAttributes.USE_PARENT_HANDLERS;
+import static org.jboss.as.logging.CommonAttributes.WAIT_STRATEGY;
 
 import java.util.EnumSet;
 import java.util.HashSet;
@@ -263,6 +270,8 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         ModelNode subhandlers = null;
         int queueLength = 0;
         OverflowAction overflowAction = OverflowAction.BLOCK;
+        AsyncQueueType queueType = null;
+        WaitStrategy waitStrategy = null;
         final EnumSet<Element> encountered = EnumSet.noneOf(Element.class);
         while (reader.nextTag() != END_ELEMENT) {
             final Element element = Element.forName(reader.getLocalName());
@@ -286,6 +295,14 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
                     overflowAction = OverflowAction.valueOf(readStringAttributeElement(reader, "value").toUpperCase(Locale.US));
                     break;
                 }
+                case QUEUE_TYPE: {
+                    queueType = AsyncQueueType.valueOf(toEnumName(readStringAttributeElement(reader, "value")));
+                    break;
+                }
+                case WAIT_STRATEGY: {
+                    waitStrategy = WaitStrategy.valueOf(toEnumName(readStringAttributeElement(reader, "value")));
+                    break;
+                }
                 default: {
                     throw unexpectedElement(reader);
                 }
@@ -304,6 +321,8 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         node.get(AUTOFLUSH).set(Boolean.valueOf(autoflush));
         node.get(QUEUE_LENGTH).set(queueLength);
         node.get(OVERFLOW_ACTION).set(overflowAction.toString());
+        if (queueType != null) node.get(QUEUE_TYPE).set(queueType.toString());
+        if (waitStrategy != null) node.get(WAIT_STRATEGY).set(waitStrategy.toString());
         list.add(node);
     }
 
@@ -464,6 +483,7 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         String levelName = null;
         String encoding = null;
         ModelNode fileSpec = null;
+        ModelNode batchedWrites = null;
         boolean append = true;
         String formatterSpec = null;
 
@@ -496,6 +516,10 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
                     append = Boolean.parseBoolean(readStringAttributeElement(reader, "value"));
                     break;
                 }
+                case BATCHED_WRITES: {
+                    batchedWrites = parseBatchedWritesElement(reader);
+                    break;
+                }
                 default: {
                     throw unexpectedElement(reader);
                 }
@@ -514,6 +538,7 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         if(formatterSpec != null) node.get(FORMATTER).set(formatterSpec);
         node.get(FILE).set(fileSpec);
         node.get(APPEND).set(append);
+        if(batchedWrites != null) node.get(BATCHED_WRITES).set(batchedWrites);
         list.add(node);
     }
 
@@ -552,6 +577,7 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         String encoding = null;
         String suffix = null;
         ModelNode fileSpec = null;
+        ModelNode batchedWrites = null;
         boolean append = true;
         String formatterSpec = null;
 
@@ -588,6 +614,10 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
                     suffix = readStringAttributeElement(reader, "value");
                     break;
                 }
+                case BATCHED_WRITES: {
+                    batchedWrites = parseBatchedWritesElement(reader);
+                    break;
+                }
                 default: {
                     throw unexpectedElement(reader);
                 }
@@ -607,6 +637,7 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         node.get(FILE).set(fileSpec);
         node.get(APPEND).set(append);
         if(suffix != null) node.get(SUFFIX).set(suffix);
+        if(batchedWrites != null) node.get(BATCHED_WRITES).set(batchedWrites);
         list.add(node);
     }
 
@@ -644,6 +675,7 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         String levelName = null;
         String encoding = null;
         ModelNode fileSpec = null;
+        ModelNode batchedWrites = null;
         boolean append = true;
         long rotateSize = 0L;
         int maxBackupIndex = 1;
@@ -690,6 +722,10 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
                     }
                     break;
                 }
+                case BATCHED_WRITES: {
+                    batchedWrites = parseBatchedWritesElement(reader);
+                    break;
+                }
                 default: {
                     throw unexpectedElement(reader);
                 }
@@ -714,6 +750,7 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         if (maxBackupIndex > 0) {
             node.get(MAX_BACKUP_INDEX).set(maxBackupIndex);
         }
+        if(batchedWrites != null) node.get(BATCHED_WRITES).set(batchedWrites);
         list.add(node);
     }
 
@@ -754,6 +791,17 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         return qty;
     }
 
+    /**
+     * Convert an XML value such as {@code ring-buffer} to the name of the matching enum constant.
+     */
+    private static String toEnumName(final String value) {
+        return value.toUpperCase(Locale.US).replace('-', '_');
+    }
+
+    private static String toXmlValue(final String enumName) {
+        return enumName.toLowerCase(Locale.US).replace('_', '-');
+    }
+
     private static ModelNode parseFileElement(final XMLExtendedStreamReader reader) throws XMLStreamException {
         // Attributes
         String path = null;
@@ -786,6 +834,54 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         return node;
     }
 
+    private static ModelNode parseBatchedWritesElement(final XMLExtendedStreamReader reader) throws XMLStreamException {
+        // Attributes
+        final ModelNode node = new ModelNode();
+        final int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            final Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case BUFFER_SIZE: {
+                    final long bufferSize;
+                    try {
+                        bufferSize = parseSize(value);
+                    } catch (IllegalArgumentException e) {
+                        throw invalidAttributeValue(reader, i);
+                    }
+                    if (bufferSize <= 0L || bufferSize > Integer.MAX_VALUE) {
+                        throw invalidAttributeValue(reader, i);
+                    }
+                    node.get(BUFFER_SIZE).set((int) bufferSize);
+                    break;
+                }
+                case FLUSH_INTERVAL: {
+                    final long flushInterval;
+                    try {
+                        flushInterval = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        throw invalidAttributeValue(reader, i);
+                    }
+                    if (flushInterval < 0L) {
+                        throw invalidAttributeValue(reader, i);
+                    }
+                    node.get(FLUSH_INTERVAL).set(flushInterval);
+                    break;
+                }
+                case FLUSH_LEVEL: {
+                    node.get(FLUSH_LEVEL).set(value);
+                    break;
+                }
+                default: {
+                    throw unexpectedAttribute(reader, i);
+                }
+            }
+        }
+        requireNoContent(reader);
+        return node;
+    }
+
     private static String parseFormatterElement(final XMLExtendedStreamReader reader) throws XMLStreamException {
         if (reader.getAttributeCount() > 0) {
             throw unexpectedAttribute(reader, 0);
@@ -959,6 +1055,7 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         writeProperties(writer, node);
         writeFile(writer, node);
         writeAppend(writer, node);
+        writeBatchedWrites(writer, node);
 
         writer.writeEndElement();
     }
@@ -981,6 +1078,7 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
             writer.writeEndElement();
         }
         writeAppend(writer, node);
+        writeBatchedWrites(writer, node);
 
         writer.writeEndElement();
     }
@@ -1008,6 +1106,7 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
             writer.writeEndElement();
         }
         writeAppend(writer, node);
+        writeBatchedWrites(writer, node);
 
         writer.writeEndElement();
     }
@@ -1028,6 +1127,16 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
             writeAttribute(writer, Attribute.VALUE, node.get(OVERFLOW_ACTION));
             writer.writeEndElement();
         }
+        if (node.hasDefined(QUEUE_TYPE)) {
+            writer.writeStartElement(Element.QUEUE_TYPE.getLocalName());
+            writer.writeAttribute(Attribute.VALUE.getLocalName(), toXmlValue(node.get(QUEUE_TYPE).asString()));
+            writer.writeEndElement();
+        }
+        if (node.hasDefined(WAIT_STRATEGY)) {
+            writer.writeStartElement(Element.WAIT_STRATEGY.getLocalName());
+            writer.writeAttribute(Attribute.VALUE.getLocalName(), toXmlValue(node.get(WAIT_STRATEGY).asString()));
+            writer.writeEndElement();
+        }
         if (node.hasDefined(SUBHANDLERS)) {
             final ModelNode handlers = node.get(SUBHANDLERS);
             writeHandlersContent(writer, Element.SUBHANDLERS, handlers);
@@ -1096,6 +1205,23 @@ public class LoggingSubsystemParser implements XMLStreamConstants, XMLElementRea
         }
     }
 
+    private void writeBatchedWrites(final XMLExtendedStreamWriter writer, final ModelNode node) throws XMLStreamException {
+        if (node.hasDefined(BATCHED_WRITES)) {
+            writer.writeStartElement(Element.BATCHED_WRITES.getLocalName());
+            final ModelNode batchedWrites = node.get(BATCHED_WRITES);
+            if (batchedWrites.hasDefined(BUFFER_SIZE)) {
+                writeAttribute(writer, Attribute.BUFFER_SIZE, batchedWrites.get(BUFFER_SIZE));
+            }
+            if (batchedWrites.hasDefined(FLUSH_INTERVAL)) {
+                writeAttribute(writer, Attribute.FLUSH_INTERVAL, batchedWrites.get(FLUSH_INTERVAL));
+            }
+            if (batchedWrites.hasDefined(FLUSH_LEVEL)) {
+                writeAttribute(writer, Attribute.FLUSH_LEVEL, batchedWrites.get(FLUSH_LEVEL));
+            }
+            writer.writeEndElement();
+        }
+    }
+
     private void writeEncoding(final XMLExtendedStreamWriter writer, final ModelNode node) throws XMLStreamException {
         if (node.hasDefined(ENCODING)) {
             writer.writeStartElement(Element.ENCODING.getLocalName());
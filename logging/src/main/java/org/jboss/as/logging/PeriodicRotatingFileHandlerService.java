@@ -24,6 +24,7 @@ package org.jboss.as.logging;
 
 import java.io.FileNotFoundException;
 import java.io.UnsupportedEncodingException;
+import java.util.concurrent.Future;
 import org.jboss.logmanager.handlers.PeriodicRotatingFileHandler;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
@@ -49,14 +50,18 @@ public final class PeriodicRotatingFileHandlerService implements Service<Handler
     private boolean append;
     private String path;
     private String suffix;
+    private BatchedWrites batchedWrites;
+    private Future<?> flushTask;
     private PeriodicRotatingFileHandler value;
 
     public synchronized void start(final StartContext context) throws StartException {
-        final PeriodicRotatingFileHandler handler = new PeriodicRotatingFileHandler();
+        final PeriodicRotatingFileHandler handler = batchedWrites != null ? new BatchedPeriodicRotatingFileHandler(batchedWrites)
+                : new PeriodicRotatingFileHandler();
         value = handler;
         formatterSpec.apply(handler);
         if (level != null) handler.setLevel(level);
-        handler.setAutoFlush(autoflush);
+        // the batched handlers flush by their own policy
+        handler.setAutoFlush(autoflush && batchedWrites == null);
         try {
             handler.setEncoding(encoding);
         } catch (UnsupportedEncodingException e) {
@@ -69,9 +74,15 @@ public final class PeriodicRotatingFileHandlerService implements Service<Handler
             throw new StartException(e);
         }
         handler.setSuffix(suffix);
+        if (batchedWrites != null) {
+            // the handler is fully configured before the flush task can reach it
+            flushTask = batchedWrites.scheduleFlush(handler);
+        }
     }
 
     public synchronized void stop(final StopContext context) {
+        BatchedWrites.cancelFlush(flushTask);
+        flushTask = null;
         final PeriodicRotatingFileHandler handler = value;
         handler.close();
         value = null;
@@ -108,7 +119,7 @@ public final class PeriodicRotatingFileHandlerService implements Service<Handler
     public synchronized void setAutoflush(final boolean autoflush) {
         this.autoflush = autoflush;
         final PeriodicRotatingFileHandler handler = value;
-        if (handler != null) handler.setAutoFlush(autoflush);
+        if (handler != null) handler.setAutoFlush(autoflush && batchedWrites == null);
     }
 
     public synchronized String getEncoding() {
@@ -156,6 +167,20 @@ public final class PeriodicRotatingFileHandlerService implements Service<Handler
         if (handler != null) handler.setSuffix(suffix);
     }
 
+    public synchronized BatchedWrites getBatchedWrites() {
+        return batchedWrites;
+    }
+
+    /**
+     * Set the batching policy of the handler, or {@code null} to write every record through. It takes effect when
+     * the service is next started.
+     *
+     * @param batchedWrites the batching policy
+     */
+    public synchronized void setBatchedWrites(final BatchedWrites batchedWrites) {
+        this.batchedWrites = batchedWrites;
+    }
+
     public Injector<String> getRelativeToInjector() {
         return relativeTo;
     }
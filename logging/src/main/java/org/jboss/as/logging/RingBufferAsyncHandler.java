@@ -0,0 +1,318 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+
+import org.jboss.logmanager.ExtHandler;
+import org.jboss.logmanager.ExtLogRecord;
+
+/**
+ * An asynchronous handler which hands the log records over to its thread through a bounded lock-free ring buffer.
+ * The publishing threads only claim a slot with a compare-and-set, and the handler thread drains the records in
+ * batches, publishing each batch to the sub-handlers and flushing them once.
+ */
+final class RingBufferAsyncHandler extends ExtHandler {
+
+    static final int DEFAULT_QUEUE_LENGTH = 512;
+
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ExtLogRecord[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final WaitStrategy waitStrategy;
+    private volatile OverflowAction overflowAction = OverflowAction.BLOCK;
+    private final Thread thread;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long flushCount;
+    private volatile long flushNanos;
+    private volatile long maxFlushNanos;
+
+    /**
+     * @param name the name of the handler, used to name its thread
+     * @param queueLength the minimum number of records the ring buffer can hold, rounded up to a power of two
+     * @param waitStrategy how the handler thread waits for records
+     */
+    RingBufferAsyncHandler(final String name, final int queueLength, final WaitStrategy waitStrategy) {
+        handlers = new Handler[0];
+        int capacity = 1;
+        while (capacity < queueLength) {
+            capacity <<= 1;
+        }
+        buffer = new ExtLogRecord[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+        thread = new Thread(new Runnable() {
+            public void run() {
+                drain();
+            }
+        }, "Log Handler " + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    protected void doPublish(final ExtLogRecord record) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        // capture everything which depends on the publishing thread before handing the record over
+        record.copyAll();
+        while (!offer(record)) {
+            if (overflowAction == OverflowAction.DISCARD || closed) {
+                dropped.incrementAndGet();
+                return;
+            }
+            wakeUp();
+            LockSupport.parkNanos(SLEEP_NANOS);
+        }
+        if (closed) {
+            // the handler thread may have seen an empty ring buffer and exited before the record was offered
+            drainAfterClose();
+        } else if (waiting) {
+            wakeUp();
+        }
+    }
+
+    private boolean offer(final ExtLogRecord record) {
+        for (;;) {
+            final long position = tail.get();
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = record;
+                    // publishes the record to the handler thread
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // full
+                return false;
+            }
+            // another thread claimed the slot, try the next one
+        }
+    }
+
+    private ExtLogRecord poll() {
+        final long position = head;
+        final int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        final ExtLogRecord record = buffer[index];
+        buffer[index] = null;
+        sequences.set(index, position + buffer.length);
+        head = position + 1;
+        return record;
+    }
+
+    private void wakeUp() {
+        LockSupport.unpark(thread);
+    }
+
+    private void drain() {
+        final ExtLogRecord[] batch = new ExtLogRecord[Math.min(MAX_BATCH_SIZE, buffer.length)];
+        int idle = 0;
+        for (;;) {
+            int size = 0;
+            ExtLogRecord record;
+            while (size < batch.length && (record = poll()) != null) {
+                batch[size++] = record;
+            }
+            if (size == 0) {
+                if (closed && tail.get() == head) {
+                    return;
+                }
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            publish(batch, size);
+        }
+    }
+
+    /**
+     * Publish the records left in the ring buffer once the handler thread has exited.
+     */
+    private synchronized void drainAfterClose() {
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            // still publishing, it checks for new records again before exiting
+            return;
+        }
+        final ExtLogRecord[] batch = new ExtLogRecord[Math.min(MAX_BATCH_SIZE, buffer.length)];
+        for (;;) {
+            int size = 0;
+            ExtLogRecord record;
+            while (size < batch.length && (record = poll()) != null) {
+                batch[size++] = record;
+            }
+            if (size == 0) {
+                // a record still being offered is drained by its publishing thread
+                return;
+            }
+            publish(batch, size);
+        }
+    }
+
+    private void publish(final ExtLogRecord[] batch, final int size) {
+        final long start = System.nanoTime();
+        final Handler[] handlers = this.handlers;
+        for (int i = 0; i < size; i++) {
+            for (Handler handler : handlers) {
+                try {
+                    handler.publish(batch[i]);
+                } catch (Exception e) {
+                    reportError("Failed to publish a log record", e, ErrorManager.WRITE_FAILURE);
+                }
+            }
+            batch[i] = null;
+        }
+        for (Handler handler : handlers) {
+            try {
+                handler.flush();
+            } catch (Exception e) {
+                reportError("Failed to flush a handler", e, ErrorManager.FLUSH_FAILURE);
+            }
+        }
+        recordFlush(System.nanoTime() - start);
+    }
+
+    private int idle(final int idle) {
+        switch (waitStrategy) {
+            case BUSY_SPIN: {
+                return idle;
+            }
+            case YIELDING: {
+                if (idle >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+                return idle + 1;
+            }
+            case SLEEPING: {
+                if (idle >= 2 * SPIN_TRIES) {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                } else if (idle >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+                return idle + 1;
+            }
+            default: {
+                waiting = true;
+                // a record published before the flag was seen is picked up by this check
+                if (tail.get() == head && !closed) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                waiting = false;
+                return idle;
+            }
+        }
+    }
+
+    private void recordFlush(final long nanos) {
+        // only one thread at a time drains the ring buffer
+        flushCount++;
+        flushNanos += nanos;
+        if (nanos > maxFlushNanos) {
+            maxFlushNanos = nanos;
+        }
+    }
+
+    public void flush() {
+        for (Handler handler : handlers) {
+            handler.flush();
+        }
+    }
+
+    public void close() throws SecurityException {
+        checkAccess();
+        closed = true;
+        wakeUp();
+        drainAfterClose();
+    }
+
+    void setOverflowAction(final OverflowAction overflowAction) {
+        this.overflowAction = overflowAction;
+    }
+
+    /**
+     * Get the number of records waiting to be published to the sub-handlers.
+     *
+     * @return the number of records
+     */
+    int getQueueDepth() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * Get the number of records dropped because the ring buffer was full or the handler was closed.
+     *
+     * @return the number of records
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Get the mean time taken to publish a batch to the sub-handlers and flush them.
+     *
+     * @param unit the unit of the result
+     * @return the mean time
+     */
+    long getMeanFlushTime(final TimeUnit unit) {
+        final long count = flushCount;
+        return count == 0 ? 0 : unit.convert(flushNanos / count, TimeUnit.NANOSECONDS);
+    }
+
+    long getMaxFlushTime(final TimeUnit unit) {
+        return unit.convert(maxFlushNanos, TimeUnit.NANOSECONDS);
+    }
+}
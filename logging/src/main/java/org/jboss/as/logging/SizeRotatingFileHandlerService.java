@@ -24,6 +24,7 @@ package org.jboss.as.logging;
 
 import java.io.FileNotFoundException;
 import java.io.UnsupportedEncodingException;
+import java.util.concurrent.Future;
 import org.jboss.logmanager.handlers.SizeRotatingFileHandler;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
@@ -58,14 +59,20 @@ public final class SizeRotatingFileHandlerService implements Service<Handler> {
 
     private long rotateSize;
 
+    private BatchedWrites batchedWrites;
+
+    private Future<?> flushTask;
+
     private SizeRotatingFileHandler value;
 
     public synchronized void start(final StartContext context) throws StartException {
-        final SizeRotatingFileHandler handler = new SizeRotatingFileHandler();
+        final SizeRotatingFileHandler handler = batchedWrites != null ? new BatchedSizeRotatingFileHandler(batchedWrites)
+                : new SizeRotatingFileHandler();
         value = handler;
         formatterSpec.apply(handler);
         if (level != null) handler.setLevel(level);
-        handler.setAutoFlush(autoflush);
+        // the batched handlers flush by their own policy
+        handler.setAutoFlush(autoflush && batchedWrites == null);
         try {
             handler.setEncoding(encoding);
         } catch (UnsupportedEncodingException e) {
@@ -79,9 +86,15 @@ public final class SizeRotatingFileHandlerService implements Service<Handler> {
         }
         handler.setMaxBackupIndex(maxBackupIndex);
         handler.setRotateSize(rotateSize);
+        if (batchedWrites != null) {
+            // the handler is fully configured before the flush task can reach it
+            flushTask = batchedWrites.scheduleFlush(handler);
+        }
     }
 
     public synchronized void stop(final StopContext context) {
+        BatchedWrites.cancelFlush(flushTask);
+        flushTask = null;
         final SizeRotatingFileHandler handler = value;
         handler.close();
         value = null;
@@ -118,7 +131,7 @@ public final class SizeRotatingFileHandlerService implements Service<Handler> {
     public synchronized void setAutoflush(final boolean autoflush) {
         this.autoflush = autoflush;
         final SizeRotatingFileHandler handler = value;
-        if (handler != null) handler.setAutoFlush(autoflush);
+        if (handler != null) handler.setAutoFlush(autoflush && batchedWrites == null);
     }
 
     public synchronized String getEncoding() {
@@ -176,6 +189,20 @@ public final class SizeRotatingFileHandlerService implements Service<Handler> {
         if (handler != null) handler.setRotateSize(rotateSize);
     }
 
+    public synchronized BatchedWrites getBatchedWrites() {
+        return batchedWrites;
+    }
+
+    /**
+     * Set the batching policy of the handler, or {@code null} to write every record through. It takes effect when
+     * the service is next started.
+     *
+     * @param batchedWrites the batching policy
+     */
+    public synchronized void setBatchedWrites(final BatchedWrites batchedWrites) {
+        this.batchedWrites = batchedWrites;
+    }
+
     public Injector<String> getRelativeToInjector() {
         return relativeTo;
     }
@@ -0,0 +1,38 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+/**
+ * How the thread of a ring buffer async handler waits for log records when the ring buffer is empty.
+ */
+public enum WaitStrategy {
+
+    /** Park until a record is published; the lowest CPU use, and the highest latency. */
+    BLOCKING,
+    /** Spin, then yield, then park for short periods. */
+    SLEEPING,
+    /** Spin, then yield the CPU. */
+    YIELDING,
+    /** Spin; the lowest latency, and it keeps a CPU busy. */
+    BUSY_SPIN,;
+}
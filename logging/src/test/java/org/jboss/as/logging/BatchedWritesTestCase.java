@@ -0,0 +1,130 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import java.io.File;
+import java.util.logging.Level;
+
+import org.jboss.logmanager.ExtLogRecord;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the file handlers writing through a {@link BatchedWrites} policy.
+ */
+public class BatchedWritesTestCase {
+
+    private static final String MESSAGE = "0123456789012345678";
+
+    private File dir;
+
+    @Before
+    public void createDir() throws Exception {
+        dir = File.createTempFile("batched", "");
+        Assert.assertTrue(dir.delete());
+        Assert.assertTrue(dir.mkdir());
+    }
+
+    @After
+    public void deleteDir() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testErrorRecordForcesFlush() throws Exception {
+        final File file = new File(dir, "server.log");
+        final BatchedFileHandler handler = new BatchedFileHandler(new BatchedWrites(65536, 0L, Level.SEVERE));
+        try {
+            new PatternFormatterSpec("%s%n").apply(handler);
+            handler.setFileName(file.getPath());
+
+            handler.publish(record(Level.INFO));
+            Assert.assertEquals("the record stays buffered", 0L, file.length());
+            handler.publish(record(org.jboss.logmanager.Level.ERROR));
+            Assert.assertEquals(2 * recordLength(), file.length());
+        } finally {
+            handler.close();
+        }
+    }
+
+    @Test
+    public void testSizeRotationCountsBufferedBytes() throws Exception {
+        final File file = new File(dir, "server.log");
+        final BatchedSizeRotatingFileHandler handler = new BatchedSizeRotatingFileHandler(new BatchedWrites(65536, 0L, Level.SEVERE));
+        try {
+            new PatternFormatterSpec("%s%n").apply(handler);
+            handler.setMaxBackupIndex(20);
+            handler.setRotateSize(5 * recordLength());
+            handler.setFileName(file.getPath());
+            for (int i = 0; i < 10; i++) {
+                handler.publish(record(Level.INFO));
+            }
+        } finally {
+            handler.close();
+        }
+        final File backup = new File(dir, "server.log.1");
+        Assert.assertTrue("rotated at the rotate size although nothing was flushed", backup.exists());
+        // the buffered records went to the file being rotated, none were lost
+        long total = 0L;
+        for (File logFile : dir.listFiles()) {
+            Assert.assertTrue(logFile.getName(), logFile.length() <= 6 * recordLength());
+            total += logFile.length();
+        }
+        Assert.assertEquals(10 * recordLength(), total);
+    }
+
+    @Test
+    public void testServiceFlushesEveryInterval() throws Exception {
+        final File file = new File(dir, "server.log");
+        final FileHandlerService service = new FileHandlerService();
+        service.setFormatterSpec(new PatternFormatterSpec("%s%n"));
+        service.setBatchedWrites(new BatchedWrites(65536, 20L, Level.SEVERE));
+        service.setPath(file.getPath());
+        service.start(null);
+        try {
+            service.getValue().publish(record(Level.INFO));
+            final long deadline = System.currentTimeMillis() + 10000L;
+            while (file.length() == 0L && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            Assert.assertEquals(recordLength(), file.length());
+        } finally {
+            service.stop(null);
+        }
+    }
+
+    private static ExtLogRecord record(final Level level) {
+        final ExtLogRecord record = new ExtLogRecord(level, MESSAGE, BatchedWritesTestCase.class.getName());
+        record.disableCallerCalculation();
+        return record;
+    }
+
+    private static long recordLength() {
+        return MESSAGE.length() + System.getProperty("line.separator").length();
+    }
+}
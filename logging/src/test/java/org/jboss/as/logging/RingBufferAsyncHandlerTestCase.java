@@ -0,0 +1,272 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.logging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.jboss.logmanager.ExtLogRecord;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link RingBufferAsyncHandler}.
+ */
+public class RingBufferAsyncHandlerTestCase {
+
+    private static final int PRODUCERS = 4;
+    private static final int RECORDS = 2000;
+
+    private RingBufferAsyncHandler handler;
+
+    @After
+    public void closeHandler() {
+        if (handler != null) {
+            handler.close();
+        }
+    }
+
+    @Test
+    public void testBlockingWaitStrategy() throws Exception {
+        testProducers(WaitStrategy.BLOCKING);
+    }
+
+    @Test
+    public void testSleepingWaitStrategy() throws Exception {
+        testProducers(WaitStrategy.SLEEPING);
+    }
+
+    @Test
+    public void testYieldingWaitStrategy() throws Exception {
+        testProducers(WaitStrategy.YIELDING);
+    }
+
+    @Test
+    public void testBusySpinWaitStrategy() throws Exception {
+        testProducers(WaitStrategy.BUSY_SPIN);
+    }
+
+    @Test
+    public void testDiscardCountsDroppedRecords() throws Exception {
+        final CollectingHandler collector = new CollectingHandler();
+        handler = new RingBufferAsyncHandler("test", 4, WaitStrategy.BLOCKING);
+        handler.setOverflowAction(OverflowAction.DISCARD);
+        handler.addHandler(collector);
+        collector.hold();
+
+        handler.publish(record("first"));
+        collector.awaitHeld();
+        // the handler thread holds the first record, the ring buffer takes four more
+        for (int i = 0; i < 7; i++) {
+            handler.publish(record("r" + i));
+        }
+        Assert.assertEquals(3, handler.getDroppedCount());
+        Assert.assertEquals(4, handler.getQueueDepth());
+
+        collector.release();
+        handler.close();
+        Assert.assertEquals(5, collector.getMessages().size());
+        Assert.assertEquals(3, handler.getDroppedCount());
+    }
+
+    @Test
+    public void testBlockWaitsForSpace() throws Exception {
+        final CollectingHandler collector = new CollectingHandler();
+        handler = new RingBufferAsyncHandler("test", 4, WaitStrategy.BLOCKING);
+        handler.setOverflowAction(OverflowAction.BLOCK);
+        handler.addHandler(collector);
+        collector.hold();
+
+        handler.publish(record("first"));
+        collector.awaitHeld();
+        final Thread producer = new Thread(new Runnable() {
+            public void run() {
+                for (int i = 0; i < 7; i++) {
+                    handler.publish(record("r" + i));
+                }
+            }
+        });
+        producer.start();
+        producer.join(200);
+        Assert.assertTrue("the producer should wait for space", producer.isAlive());
+        Assert.assertEquals(0, handler.getDroppedCount());
+
+        collector.release();
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(producer.isAlive());
+        handler.close();
+        Assert.assertEquals(8, collector.getMessages().size());
+        Assert.assertEquals(0, handler.getDroppedCount());
+    }
+
+    @Test
+    public void testCloseDrainsAcceptedRecords() throws Exception {
+        final CollectingHandler collector = new CollectingHandler();
+        handler = new RingBufferAsyncHandler("test", 16, WaitStrategy.BLOCKING);
+        handler.addHandler(collector);
+        collector.hold();
+
+        handler.publish(record("first"));
+        collector.awaitHeld();
+        for (int i = 0; i < 16; i++) {
+            handler.publish(record("r" + i));
+        }
+        final Thread closer = new Thread(new Runnable() {
+            public void run() {
+                handler.close();
+            }
+        });
+        closer.start();
+        collector.release();
+        closer.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(closer.isAlive());
+        Assert.assertEquals(17, collector.getMessages().size());
+
+        handler.publish(record("late"));
+        Assert.assertEquals(17, collector.getMessages().size());
+        Assert.assertEquals(1, handler.getDroppedCount());
+    }
+
+    @Test
+    public void testCloseWhilePublishing() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            final CollectingHandler collector = new CollectingHandler();
+            final RingBufferAsyncHandler handler = new RingBufferAsyncHandler("test", 64, WaitStrategy.BLOCKING);
+            handler.addHandler(collector);
+            final CountDownLatch started = new CountDownLatch(PRODUCERS);
+            final Thread[] producers = new Thread[PRODUCERS];
+            for (int i = 0; i < PRODUCERS; i++) {
+                producers[i] = new Thread(new Runnable() {
+                    public void run() {
+                        started.countDown();
+                        for (int j = 0; j < RECORDS; j++) {
+                            handler.publish(record("r" + j));
+                        }
+                    }
+                });
+                producers[i].start();
+            }
+            started.await();
+            handler.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            // every record was either published or counted as dropped
+            Assert.assertEquals(PRODUCERS * RECORDS, collector.getMessages().size() + handler.getDroppedCount());
+        }
+    }
+
+    private void testProducers(final WaitStrategy waitStrategy) throws Exception {
+        final CollectingHandler collector = new CollectingHandler();
+        handler = new RingBufferAsyncHandler("test", 64, waitStrategy);
+        handler.addHandler(collector);
+        final Thread[] producers = new Thread[PRODUCERS];
+        for (int i = 0; i < PRODUCERS; i++) {
+            final String name = "p" + i;
+            producers[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < RECORDS; j++) {
+                        handler.publish(record(name + ":" + j));
+                    }
+                }
+            });
+            producers[i].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        handler.close();
+
+        Assert.assertEquals(0, handler.getDroppedCount());
+        final List<String> messages = collector.getMessages();
+        Assert.assertEquals(PRODUCERS * RECORDS, messages.size());
+        // the records of each producer arrive in the order they were published
+        final Map<String, Integer> next = new HashMap<String, Integer>();
+        for (String message : messages) {
+            final int separator = message.indexOf(':');
+            final String producer = message.substring(0, separator);
+            final int sequence = Integer.parseInt(message.substring(separator + 1));
+            final Integer expected = next.get(producer);
+            Assert.assertEquals(message, expected == null ? 0 : expected.intValue(), sequence);
+            next.put(producer, Integer.valueOf(sequence + 1));
+        }
+        Assert.assertEquals(PRODUCERS, next.size());
+        Assert.assertTrue(handler.getFlushCount() > 0);
+    }
+
+    private static ExtLogRecord record(final String message) {
+        final ExtLogRecord record = new ExtLogRecord(Level.INFO, message, RingBufferAsyncHandlerTestCase.class.getName());
+        record.disableCallerCalculation();
+        return record;
+    }
+
+    private static class CollectingHandler extends Handler {
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        private volatile CountDownLatch held = new CountDownLatch(0);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+
+        void hold() {
+            held = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+        }
+
+        void awaitHeld() throws InterruptedException {
+            Assert.assertTrue(held.await(10, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            release.countDown();
+        }
+
+        List<String> getMessages() {
+            synchronized (messages) {
+                return new ArrayList<String>(messages);
+            }
+        }
+
+        public void publish(final LogRecord record) {
+            messages.add(record.getMessage());
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public void flush() {
+        }
+
+        public void close() {
+        }
+    }
+}
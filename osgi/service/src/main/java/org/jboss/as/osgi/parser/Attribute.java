@@ -36,8 +36,10 @@ public enum Attribute {
     ACTIVATION("activation"),
     IDENTIFIER("identifier"),
     NAME("name"),
+    PARALLEL_START("parallel-start"),
     PID("pid"),
     START("start"),
+    STARTLEVEL("startlevel"),
     VALUE("value"),
     ;
     private final String name;
@@ -30,8 +30,10 @@ interface CommonAttributes {
     String CONFIGURATION = "configuration";
     String CONFIGURATION_PROPERTIES = "configuration_properties";
     String MODULES = "modules";
+    String PARALLEL_START = "parallel-start";
     String PID = "pid";
     String PROPERTIES = "properties";
     String START = "start";
+    String STARTLEVEL = "startlevel";
 
 }
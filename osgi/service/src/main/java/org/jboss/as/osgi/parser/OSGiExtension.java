@@ -36,9 +36,11 @@ import static org.jboss.as.osgi.parser.CommonAttributes.ACTIVATION;
 import static org.jboss.as.osgi.parser.CommonAttributes.CONFIGURATION;
 import static org.jboss.as.osgi.parser.CommonAttributes.CONFIGURATION_PROPERTIES;
 import static org.jboss.as.osgi.parser.CommonAttributes.MODULES;
+import static org.jboss.as.osgi.parser.CommonAttributes.PARALLEL_START;
 import static org.jboss.as.osgi.parser.CommonAttributes.PID;
 import static org.jboss.as.osgi.parser.CommonAttributes.PROPERTIES;
 import static org.jboss.as.osgi.parser.CommonAttributes.START;
+import static org.jboss.as.osgi.parser.CommonAttributes.STARTLEVEL;
 
 import java.util.Collections;
 import java.util.List;
@@ -156,6 +158,10 @@ public class OSGiExtension implements Extension {
                                 addOperation.get(ACTIVATION).set(attrValue);
                                 break;
                             }
+                            case PARALLEL_START: {
+                                addOperation.get(PARALLEL_START).set(Boolean.parseBoolean(attrValue));
+                                break;
+                            }
                             default:
                                 throw unexpectedAttribute(reader, i);
                         }
@@ -313,6 +319,7 @@ public class OSGiExtension implements Extension {
                         if (element == Element.MODULE) {
                             String identifier = null;
                             String start = null;
+                            String startLevel = null;
                             final int count = reader.getAttributeCount();
                             for (int i = 0; i < count; i++) {
                                 requireNoNamespaceAttribute(reader, i);
@@ -326,6 +333,10 @@ public class OSGiExtension implements Extension {
                                         start = reader.getAttributeValue(i);
                                         break;
                                     }
+                                    case STARTLEVEL: {
+                                        startLevel = reader.getAttributeValue(i);
+                                        break;
+                                    }
                                     default:
                                         throw unexpectedAttribute(reader, i);
                                 }
@@ -339,6 +350,13 @@ public class OSGiExtension implements Extension {
                             if (start != null) {
                                 module.get(START).set(start);
                             }
+                            if (startLevel != null) {
+                                try {
+                                    module.get(STARTLEVEL).set(Integer.parseInt(startLevel));
+                                } catch (NumberFormatException ex) {
+                                    throw new XMLStreamException(ex.getMessage(), reader.getLocation(), ex);
+                                }
+                            }
                             modules.get(identifier).set(module);
 
                             requireNoContent(reader);
@@ -363,6 +381,9 @@ public class OSGiExtension implements Extension {
             if (has(node, ACTIVATION)) {
                 writeAttribute(writer, Attribute.ACTIVATION, node.get(ACTIVATION));
             }
+            if (has(node, PARALLEL_START)) {
+                writeAttribute(writer, Attribute.PARALLEL_START, node.get(PARALLEL_START));
+            }
 
             if (has(node, CONFIGURATION)) {
                 ModelNode configuration = node.get(CONFIGURATION);
@@ -407,6 +428,9 @@ public class OSGiExtension implements Extension {
                     if (has(currentModule, START)) {
                         writeAttribute(writer, Attribute.START, currentModule.require(START));
                     }
+                    if (has(currentModule, STARTLEVEL)) {
+                        writeAttribute(writer, Attribute.STARTLEVEL, currentModule.require(STARTLEVEL));
+                    }
                 }
                 writer.writeEndElement();
             }
@@ -440,6 +464,9 @@ public class OSGiExtension implements Extension {
             if (model.has(ACTIVATION)) {
                 subsystem.get(ACTIVATION).set(model.get(ACTIVATION));
             }
+            if (model.has(PARALLEL_START)) {
+                subsystem.get(PARALLEL_START).set(model.get(PARALLEL_START));
+            }
             if (model.has(CONFIGURATION)) {
                 subsystem.get(CONFIGURATION).set(model.get(CONFIGURATION));
             }
@@ -33,9 +33,11 @@ import static org.jboss.as.osgi.parser.CommonAttributes.ACTIVATION;
 import static org.jboss.as.osgi.parser.CommonAttributes.CONFIGURATION;
 import static org.jboss.as.osgi.parser.CommonAttributes.CONFIGURATION_PROPERTIES;
 import static org.jboss.as.osgi.parser.CommonAttributes.MODULES;
+import static org.jboss.as.osgi.parser.CommonAttributes.PARALLEL_START;
 import static org.jboss.as.osgi.parser.CommonAttributes.PID;
 import static org.jboss.as.osgi.parser.CommonAttributes.PROPERTIES;
 import static org.jboss.as.osgi.parser.CommonAttributes.START;
+import static org.jboss.as.osgi.parser.CommonAttributes.STARTLEVEL;
 
 import java.util.Hashtable;
 import java.util.Set;
@@ -136,6 +138,10 @@ class OSGiSubsystemAdd implements ModelAddOperationHandler, BootOperationHandler
         }
         subsystemState.setActivation(activation);
 
+        if (operation.has(PARALLEL_START)) {
+            subsystemState.setParallelStart(operation.get(PARALLEL_START).asBoolean());
+        }
+
         if (operation.has(CONFIGURATION)) {
             ModelNode configuration = operation.get(CONFIGURATION);
             String pid = configuration.require(PID).asString();
@@ -165,8 +171,10 @@ class OSGiSubsystemAdd implements ModelAddOperationHandler, BootOperationHandler
             ModelNode modules = operation.get(MODULES);
             Set<String> keys = modules.keys();
             for (String current : keys) {
-                String value = modules.get(current).get(START).asString();
-                subsystemState.addModule(new OSGiModule(ModuleIdentifier.fromString(current), Boolean.parseBoolean(value)));
+                ModelNode module = modules.get(current);
+                String value = module.get(START).asString();
+                int startLevel = module.hasDefined(STARTLEVEL) ? module.get(STARTLEVEL).asInt() : 0;
+                subsystemState.addModule(new OSGiModule(ModuleIdentifier.fromString(current), Boolean.parseBoolean(value), startLevel));
             }
         }
 
@@ -177,6 +185,9 @@ class OSGiSubsystemAdd implements ModelAddOperationHandler, BootOperationHandler
         if (operation.has(ACTIVATION)) {
             subModel.get(ACTIVATION).set(operation.get(ACTIVATION));
         }
+        if (operation.has(PARALLEL_START)) {
+            subModel.get(PARALLEL_START).set(operation.get(PARALLEL_START));
+        }
         if (operation.has(CONFIGURATION)) {
             subModel.get(CONFIGURATION).set(operation.get(CONFIGURATION));
         }
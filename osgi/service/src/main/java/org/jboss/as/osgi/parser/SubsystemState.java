@@ -52,6 +52,7 @@ public final class SubsystemState implements Serializable {
     private final Map<String, Object> properties = new LinkedHashMap<String, Object>();
     private final List<OSGiModule> modules = new ArrayList<OSGiModule>();
     private Activation activationPolicy = Activation.LAZY;
+    private boolean parallelStart;
 
     public Set<String> getConfigurations() {
         synchronized (configurations) {
@@ -112,6 +113,17 @@ public final class SubsystemState implements Serializable {
         this.activationPolicy = activation;
     }
 
+    /**
+     * Whether the configured modules are resolved together and started concurrently.
+     */
+    public boolean isParallelStart() {
+        return parallelStart;
+    }
+
+    void setParallelStart(boolean parallelStart) {
+        this.parallelStart = parallelStart;
+    }
+
     boolean isEmpty() {
         return properties.isEmpty() && modules.isEmpty() && configurations.isEmpty();
     }
@@ -121,10 +133,16 @@ public final class SubsystemState implements Serializable {
 
         private final ModuleIdentifier identifier;
         private final boolean start;
+        private final int startLevel;
 
         OSGiModule(ModuleIdentifier identifier, boolean start) {
+            this(identifier, start, 0);
+        }
+
+        OSGiModule(ModuleIdentifier identifier, boolean start, int startLevel) {
             this.identifier = identifier;
             this.start = start;
+            this.startLevel = startLevel;
         }
 
         public ModuleIdentifier getIdentifier() {
@@ -134,5 +152,12 @@ public final class SubsystemState implements Serializable {
         public boolean isStart() {
             return start;
         }
+
+        /**
+         * Get the start level of the bundle, or 0 for the framework's initial bundle start level.
+         */
+        public int getStartLevel() {
+            return startLevel;
+        }
     }
 }
@@ -23,7 +23,9 @@
 package org.jboss.as.osgi.service;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.management.MBeanServer;
 
@@ -53,7 +55,10 @@ import org.jboss.osgi.framework.plugin.BundleDeploymentPlugin;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleException;
+import org.osgi.framework.ServiceReference;
 import org.osgi.framework.launch.Framework;
+import org.osgi.service.packageadmin.PackageAdmin;
+import org.osgi.service.startlevel.StartLevel;
 
 /**
  * Service responsible for creating and managing the life-cycle of the OSGi Framework.
@@ -112,15 +117,22 @@ public class FrameworkService implements Service<Framework> {
             sysContext.registerService(ServiceContainer.class.getName(), serviceContainer, null);
 
             // Create the list of {@link Deployment}s for the configured modules
+            // In parallel mode the bundles are only installed here and started once all are installed
+            final boolean parallelStart = subsystemState.isParallelStart();
+            final Map<Deployment, OSGiModule> modules = new IdentityHashMap<Deployment, OSGiModule>();
             List<Deployment> deployments = new ArrayList<Deployment>();
             BundleDeploymentPlugin depPlugin = bundleManager.getPlugin(BundleDeploymentPlugin.class);
             for (OSGiModule module : subsystemState.getModules()) {
                 ModuleIdentifier identifier = module.getIdentifier();
                 Deployment dep = depPlugin.createDeployment(identifier);
-                dep.setAutoStart(module.isStart());
+                dep.setAutoStart(module.isStart() && parallelStart == false);
+                modules.put(dep, module);
                 deployments.add(dep);
             }
 
+            final StartLevel startLevel = getSystemService(sysContext, StartLevel.class);
+            final List<Bundle> bundlesToStart = new ArrayList<Bundle>();
+
             // Deploy the bundles through the {@link SystemDeployerService}
             // [TODO] Revisit whether these deployments should go through the {@link DeploymentUnitProcessor} chain
             DeployerService service = new SystemDeployerService(sysContext)
@@ -129,11 +141,24 @@ public class FrameworkService implements Service<Framework> {
                protected Bundle installBundle(Deployment dep) throws BundleException
                {
                   AbstractBundle bundleState = bundleManager.installBundle(dep);
-                  return bundleState.getBundleWrapper();
+                  Bundle bundle = bundleState.getBundleWrapper();
+                  OSGiModule module = modules.get(dep);
+                  if (module != null && module.getStartLevel() > 0 && startLevel != null)
+                     startLevel.setBundleStartLevel(bundle, module.getStartLevel());
+                  if (module != null && module.isStart() && parallelStart)
+                     bundlesToStart.add(bundle);
+                  return bundle;
                }
             };
             service.deploy(deployments.toArray(new Deployment[deployments.size()]));
 
+            if (parallelStart) {
+                PackageAdmin packageAdmin = getSystemService(sysContext, PackageAdmin.class);
+                if (packageAdmin == null)
+                    throw new IllegalStateException("Cannot obtain PackageAdmin");
+                new ParallelBundleStarter(packageAdmin, startLevel).start(bundlesToStart);
+            }
+
         } catch (Throwable t) {
             throw new StartException("Failed to start OSGi Framework: " + framework, t);
         }
@@ -151,6 +176,12 @@ public class FrameworkService implements Service<Framework> {
         }
     }
 
+    // The {@link StartLevelService} and {@link PackageAdminService} depend on this service
+    private static <T> T getSystemService(BundleContext sysContext, Class<T> type) {
+        ServiceReference sref = sysContext.getServiceReference(type.getName());
+        return sref != null ? type.cast(sysContext.getService(sref)) : null;
+    }
+
     @Override
     public Framework getValue() throws IllegalStateException {
         return framework;
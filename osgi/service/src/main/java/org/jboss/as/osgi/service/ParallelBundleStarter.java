@@ -0,0 +1,286 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.osgi.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.logging.Logger;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleException;
+import org.osgi.service.packageadmin.ExportedPackage;
+import org.osgi.service.packageadmin.PackageAdmin;
+import org.osgi.service.packageadmin.RequiredBundle;
+import org.osgi.service.startlevel.StartLevel;
+
+/**
+ * Starts a set of installed bundles concurrently.
+ *
+ * The bundles are resolved together in a single pass and then started level by level. Within a start level a bundle
+ * is started once the bundles it imports packages from or requires have been started, so bundles that do not depend
+ * on each other start in parallel. The bundles of a wiring cycle are started one by one in bundle id order, once the
+ * bundles the cycle depends on have been started. A bundle that fails to start is logged and the other bundles are
+ * still started, as with the serial start.
+ */
+final class ParallelBundleStarter {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.osgi");
+
+    private static final Comparator<Bundle> BUNDLE_ID_ORDER = new Comparator<Bundle>() {
+        public int compare(Bundle b1, Bundle b2) {
+            long id1 = b1.getBundleId();
+            long id2 = b2.getBundleId();
+            return id1 < id2 ? -1 : id1 == id2 ? 0 : 1;
+        }
+    };
+
+    private final PackageAdmin packageAdmin;
+    private final StartLevel startLevel;
+
+    /**
+     * @param packageAdmin the package admin used to resolve the bundles and read their wiring
+     * @param startLevel the start level service, or {@code null} to start all bundles as one level
+     */
+    ParallelBundleStarter(PackageAdmin packageAdmin, StartLevel startLevel) {
+        this.packageAdmin = packageAdmin;
+        this.startLevel = startLevel;
+    }
+
+    /**
+     * Resolve and start the given bundles.
+     *
+     * @param bundles the bundles to start
+     * @throws BundleException if interrupted while waiting for the bundles of a wave to start
+     */
+    void start(List<Bundle> bundles) throws BundleException {
+        if (bundles.isEmpty())
+            return;
+
+        long begin = System.currentTimeMillis();
+        if (packageAdmin.resolveBundles(bundles.toArray(new Bundle[bundles.size()])) == false)
+            log.debugf("Not all bundles could be resolved: %s", bundles);
+
+        int threads = Math.min(bundles.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "OSGi Bundle Start " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            for (List<Bundle> level : getStartLevels(bundles).values()) {
+                startLevel(executor, level);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        log.debugf("Started %d bundles in %d ms", bundles.size(), System.currentTimeMillis() - begin);
+    }
+
+    private SortedMap<Integer, List<Bundle>> getStartLevels(List<Bundle> bundles) {
+        SortedMap<Integer, List<Bundle>> levels = new TreeMap<Integer, List<Bundle>>();
+        for (Bundle bundle : bundles) {
+            Integer level = startLevel != null ? startLevel.getBundleStartLevel(bundle) : 1;
+            List<Bundle> list = levels.get(level);
+            if (list == null) {
+                list = new ArrayList<Bundle>();
+                levels.put(level, list);
+            }
+            list.add(bundle);
+        }
+        return levels;
+    }
+
+    private void startLevel(ExecutorService executor, List<Bundle> level) throws BundleException {
+        Map<Bundle, Set<Bundle>> dependencies = getDependencies(level);
+        Set<Bundle> remaining = new HashSet<Bundle>(level);
+        while (remaining.isEmpty() == false) {
+            List<Bundle> wave = new ArrayList<Bundle>();
+            for (Bundle bundle : remaining) {
+                if (Collections.disjoint(dependencies.get(bundle), remaining))
+                    wave.add(bundle);
+            }
+            Collections.sort(wave, BUNDLE_ID_ORDER);
+            if (wave.isEmpty()) {
+                // Every remaining bundle depends on a cycle, start the cycle the others wait for
+                wave.addAll(new CycleFinder(dependencies, remaining).find());
+                for (Bundle bundle : wave) {
+                    startBundle(bundle);
+                }
+            } else {
+                startWave(executor, wave);
+            }
+            remaining.removeAll(wave);
+        }
+    }
+
+    private void startWave(ExecutorService executor, List<Bundle> wave) throws BundleException {
+        if (wave.size() == 1) {
+            startBundle(wave.get(0));
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<Future<?>>(wave.size());
+        for (final Bundle bundle : wave) {
+            futures.add(executor.submit(new Runnable() {
+                public void run() {
+                    startBundle(bundle);
+                }
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new BundleException("Interrupted while starting: " + wave.get(i), ex);
+            } catch (ExecutionException ex) {
+                log.errorf(ex.getCause(), "Cannot start bundle: %s", wave.get(i));
+            }
+        }
+    }
+
+    private static void startBundle(Bundle bundle) {
+        try {
+            bundle.start();
+        } catch (Exception ex) {
+            log.errorf(ex, "Cannot start bundle: %s", bundle);
+        }
+    }
+
+    /**
+     * Get the bundles of a start level each bundle imports packages from or requires.
+     */
+    private Map<Bundle, Set<Bundle>> getDependencies(Collection<Bundle> level) {
+        Map<Bundle, Set<Bundle>> dependencies = new HashMap<Bundle, Set<Bundle>>();
+        for (Bundle bundle : level) {
+            dependencies.put(bundle, new HashSet<Bundle>());
+        }
+        for (Bundle provider : level) {
+            ExportedPackage[] exportedPackages = packageAdmin.getExportedPackages(provider);
+            if (exportedPackages != null) {
+                for (ExportedPackage exportedPackage : exportedPackages) {
+                    addDependency(dependencies, provider, exportedPackage.getImportingBundles());
+                }
+            }
+            String symbolicName = provider.getSymbolicName();
+            RequiredBundle[] requiredBundles = symbolicName != null ? packageAdmin.getRequiredBundles(symbolicName) : null;
+            if (requiredBundles != null) {
+                for (RequiredBundle requiredBundle : requiredBundles) {
+                    if (requiredBundle.getBundle() == provider)
+                        addDependency(dependencies, provider, requiredBundle.getRequiringBundles());
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    private static void addDependency(Map<Bundle, Set<Bundle>> dependencies, Bundle provider, Bundle[] consumers) {
+        if (consumers == null)
+            return;
+        for (Bundle consumer : consumers) {
+            Set<Bundle> set = dependencies.get(consumer);
+            if (set != null && consumer != provider)
+                set.add(provider);
+        }
+    }
+
+    /**
+     * Finds a strongly connected component of the remaining bundles which depends on no other remaining bundle.
+     * The first component completed by Tarjan's algorithm is such a component.
+     */
+    private static final class CycleFinder {
+
+        private final Map<Bundle, Set<Bundle>> dependencies;
+        private final Set<Bundle> remaining;
+        private final Map<Bundle, Integer> index = new HashMap<Bundle, Integer>();
+        private final Map<Bundle, Integer> lowLink = new HashMap<Bundle, Integer>();
+        private final List<Bundle> stack = new ArrayList<Bundle>();
+        private final Set<Bundle> onStack = new HashSet<Bundle>();
+
+        CycleFinder(Map<Bundle, Set<Bundle>> dependencies, Set<Bundle> remaining) {
+            this.dependencies = dependencies;
+            this.remaining = remaining;
+        }
+
+        /**
+         * @return the bundles of the component in bundle id order
+         */
+        List<Bundle> find() {
+            List<Bundle> bundles = new ArrayList<Bundle>(remaining);
+            Collections.sort(bundles, BUNDLE_ID_ORDER);
+            for (Bundle bundle : bundles) {
+                if (index.containsKey(bundle) == false) {
+                    List<Bundle> component = visit(bundle);
+                    if (component != null)
+                        return component;
+                }
+            }
+            throw new IllegalStateException("No cycle in: " + remaining);
+        }
+
+        private List<Bundle> visit(Bundle bundle) {
+            int bundleIndex = index.size();
+            index.put(bundle, bundleIndex);
+            lowLink.put(bundle, bundleIndex);
+            stack.add(bundle);
+            onStack.add(bundle);
+            List<Bundle> providers = new ArrayList<Bundle>(dependencies.get(bundle));
+            providers.retainAll(remaining);
+            Collections.sort(providers, BUNDLE_ID_ORDER);
+            for (Bundle provider : providers) {
+                if (index.containsKey(provider) == false) {
+                    List<Bundle> component = visit(provider);
+                    if (component != null)
+                        return component;
+                    lowLink.put(bundle, Math.min(lowLink.get(bundle), lowLink.get(provider)));
+                } else if (onStack.contains(provider)) {
+                    lowLink.put(bundle, Math.min(lowLink.get(bundle), index.get(provider)));
+                }
+            }
+            if (lowLink.get(bundle).intValue() != bundleIndex)
+                return null;
+
+            List<Bundle> component = new ArrayList<Bundle>(stack.subList(stack.indexOf(bundle), stack.size()));
+            Collections.sort(component, BUNDLE_ID_ORDER);
+            return component;
+        }
+    }
+}
@@ -49,6 +49,11 @@ public class XMLValidationTestCase extends AbstractValidationTest {
         parseXml("jboss-osgi-example.xml");
     }
 
+    @Test
+    public void testParallelStart() throws Exception {
+        parseXml("jboss-osgi-parallel-start.xml");
+    }
+
     private void parseXml(String xmlName) throws Exception {
 
         SAXParserFactory factory = SAXParserFactory.newInstance();
@@ -0,0 +1,238 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.osgi.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleException;
+import org.osgi.service.packageadmin.ExportedPackage;
+import org.osgi.service.packageadmin.PackageAdmin;
+import org.osgi.service.startlevel.StartLevel;
+
+/**
+ * Tests the start order of the {@link ParallelBundleStarter}, using stub bundles whose wiring is given by the test.
+ */
+public class ParallelBundleStarterTestCase {
+
+    private final Map<Bundle, Integer> levels = new HashMap<Bundle, Integer>();
+    private final Map<Bundle, List<Bundle>> importers = new HashMap<Bundle, List<Bundle>>();
+    private final Set<Bundle> failing = new HashSet<Bundle>();
+    private final List<Bundle> attempted = Collections.synchronizedList(new ArrayList<Bundle>());
+    private final List<Bundle> started = Collections.synchronizedList(new ArrayList<Bundle>());
+
+    @Test
+    public void testStartLevelOrder() throws Exception {
+        List<Bundle> bundles = new ArrayList<Bundle>();
+        for (int i = 0; i < 12; i++) {
+            bundles.add(bundle(i, 3 - i % 3));
+        }
+        start(bundles);
+
+        Assert.assertEquals(12, started.size());
+        int level = 0;
+        for (Bundle bundle : started) {
+            Assert.assertTrue(bundle + " started after a higher level", levels.get(bundle) >= level);
+            level = levels.get(bundle);
+        }
+    }
+
+    @Test
+    public void testDependencyOrder() throws Exception {
+        // the consumers have the lower ids
+        Bundle c = bundle(1, 1);
+        Bundle b = bundle(2, 1);
+        Bundle a = bundle(3, 1);
+        Bundle d = bundle(4, 1);
+        Bundle e = bundle(5, 1);
+        imports(c, b);
+        imports(b, a);
+        imports(e, a);
+        start(Arrays.asList(c, b, a, d, e));
+
+        Assert.assertEquals(5, started.size());
+        assertStartedBefore(a, b);
+        assertStartedBefore(b, c);
+        assertStartedBefore(a, e);
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        Bundle consumer = bundle(1, 1);
+        Bundle first = bundle(5, 1);
+        Bundle second = bundle(6, 1);
+        Bundle provider = bundle(7, 1);
+        imports(consumer, first);
+        imports(first, second);
+        imports(second, first);
+        imports(first, provider);
+        start(Arrays.asList(consumer, first, second, provider));
+
+        Assert.assertEquals(Arrays.asList(provider, first, second, consumer), started);
+    }
+
+    @Test
+    public void testCycleWithConsumersOfBothMembers() throws Exception {
+        Bundle left = bundle(1, 1);
+        Bundle right = bundle(2, 1);
+        Bundle first = bundle(3, 1);
+        Bundle second = bundle(4, 1);
+        imports(first, second);
+        imports(second, first);
+        imports(left, first);
+        imports(right, second);
+        imports(left, right);
+        imports(right, left);
+        start(Arrays.asList(left, right, first, second));
+
+        // both cycles are started in id order, the cycle of the consumers after the cycle it imports from
+        Assert.assertEquals(Arrays.asList(first, second, left, right), started);
+    }
+
+    @Test
+    public void testFailedBundleDoesNotStopTheOthers() throws Exception {
+        Bundle provider = bundle(1, 1);
+        Bundle consumer = bundle(2, 1);
+        Bundle other = bundle(3, 1);
+        Bundle next = bundle(4, 2);
+        Bundle cycleMember = bundle(5, 3);
+        Bundle cycleFailing = bundle(6, 3);
+        imports(consumer, provider);
+        imports(cycleMember, cycleFailing);
+        imports(cycleFailing, cycleMember);
+        failing.add(provider);
+        failing.add(cycleFailing);
+        start(Arrays.asList(provider, consumer, other, next, cycleMember, cycleFailing));
+
+        Assert.assertEquals(6, attempted.size());
+        Assert.assertEquals(Arrays.asList(consumer, next, cycleMember), started.subList(started.size() - 3, started.size()));
+        Assert.assertTrue(started.contains(other));
+        Assert.assertFalse(started.contains(provider));
+        Assert.assertFalse(started.contains(cycleFailing));
+    }
+
+    private void start(List<Bundle> bundles) throws Exception {
+        new ParallelBundleStarter(packageAdmin(), startLevel()).start(bundles);
+    }
+
+    private void assertStartedBefore(Bundle provider, Bundle consumer) {
+        Assert.assertTrue(provider + " before " + consumer, started.indexOf(provider) < started.indexOf(consumer));
+    }
+
+    private void imports(Bundle consumer, Bundle provider) {
+        List<Bundle> list = importers.get(provider);
+        if (list == null) {
+            list = new ArrayList<Bundle>();
+            importers.put(provider, list);
+        }
+        list.add(consumer);
+    }
+
+    private Bundle bundle(final long id, final int level) {
+        Bundle bundle = proxy(Bundle.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("start") && method.getParameterTypes().length == 0) {
+                    Bundle bundle = (Bundle) proxy;
+                    attempted.add(bundle);
+                    // give a wrongly ordered start the chance to overtake
+                    Thread.sleep(5);
+                    if (failing.contains(bundle))
+                        throw new BundleException("Cannot resolve: " + bundle);
+                    started.add(bundle);
+                    return null;
+                } else if (name.equals("getBundleId")) {
+                    return id;
+                } else if (name.equals("getSymbolicName")) {
+                    return "bundle" + id;
+                }
+                return unsupported(proxy, method, args);
+            }
+        });
+        levels.put(bundle, level);
+        return bundle;
+    }
+
+    private PackageAdmin packageAdmin() {
+        return proxy(PackageAdmin.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("resolveBundles")) {
+                    return Boolean.TRUE;
+                } else if (name.equals("getExportedPackages") && method.getParameterTypes()[0] == Bundle.class) {
+                    final List<Bundle> list = importers.get(args[0]);
+                    if (list == null)
+                        return null;
+                    ExportedPackage exportedPackage = proxy(ExportedPackage.class, new InvocationHandler() {
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            if (method.getName().equals("getImportingBundles"))
+                                return list.toArray(new Bundle[list.size()]);
+                            return unsupported(proxy, method, args);
+                        }
+                    });
+                    return new ExportedPackage[] { exportedPackage };
+                } else if (name.equals("getRequiredBundles")) {
+                    return null;
+                }
+                return unsupported(proxy, method, args);
+            }
+        });
+    }
+
+    private StartLevel startLevel() {
+        return proxy(StartLevel.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getBundleStartLevel"))
+                    return levels.get(args[0]);
+                return unsupported(proxy, method, args);
+            }
+        });
+    }
+
+    private static Object unsupported(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if (name.equals("equals"))
+            return proxy == args[0];
+        if (name.equals("hashCode"))
+            return System.identityHashCode(proxy);
+        if (name.equals("toString"))
+            return proxy instanceof Bundle ? "bundle" + ((Bundle) proxy).getBundleId() : method.getDeclaringClass().getSimpleName();
+        throw new UnsupportedOperationException(name);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(ParallelBundleStarterTestCase.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+}
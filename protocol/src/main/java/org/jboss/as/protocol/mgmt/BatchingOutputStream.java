@@ -0,0 +1,179 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Defers flushes so that small pieces of a response written within a time window, such as the
+ * fragments of an asynchronous operation result, travel to the peer together.  Buffered data is
+ * passed on once it reaches the batch size, or once the window has elapsed since the first
+ * flush that was held back.
+ * <p>
+ * All methods synchronize on the stream itself, so writers already synchronizing on the stream
+ * are serialized with the deferred flush.  Closing this stream writes any remaining data but
+ * leaves the underlying stream open, since it is owned by the message being written.
+ */
+final class BatchingOutputStream extends OutputStream {
+
+    /**
+     * The system property holding the batch window in milliseconds.  Batching is disabled unless
+     * the window is positive.
+     */
+    static final String WINDOW_PROPERTY = "jboss.management.protocol.batch.window";
+
+    /**
+     * The system property holding the number of buffered bytes which causes a batch to be
+     * written right away.  Defaults to 8192.
+     */
+    static final String SIZE_PROPERTY = "jboss.management.protocol.batch.size";
+
+    static final long WINDOW = Long.getLong(WINDOW_PROPERTY, 0L).longValue();
+    static final int SIZE = Integer.getInteger(SIZE_PROPERTY, 8192).intValue();
+
+    private final OutputStream out;
+    private final long window;
+    private final int size;
+    private byte[] buffer;
+    private int count;
+    private ScheduledFuture<?> scheduledFlush;
+    private IOException flushFailure;
+    private boolean closed;
+
+    BatchingOutputStream(final OutputStream out) {
+        this(out, WINDOW, SIZE);
+    }
+
+    BatchingOutputStream(final OutputStream out, final long window, final int size) {
+        this.out = out;
+        this.window = window;
+        this.size = size;
+        buffer = new byte[Math.min(size, 8192)];
+    }
+
+    /**
+     * Whether batching is enabled by configuration.
+     *
+     * @return {@code true} if responses should be batched
+     */
+    static boolean isEnabled() {
+        return WINDOW > 0L;
+    }
+
+    @Override
+    public synchronized void write(final int b) throws IOException {
+        ensureOpen();
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+        if (count >= size) {
+            writeBatch();
+        }
+    }
+
+    @Override
+    public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+        ensureOpen();
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+        if (count >= size) {
+            writeBatch();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        if (count == 0 || scheduledFlush != null) {
+            return;
+        }
+        scheduledFlush = Scheduler.INSTANCE.schedule(new Runnable() {
+            public void run() {
+                synchronized (BatchingOutputStream.this) {
+                    scheduledFlush = null;
+                    if (!closed && flushFailure == null) {
+                        try {
+                            writeBatch();
+                        } catch (IOException e) {
+                            flushFailure = e;
+                        }
+                    }
+                }
+            }
+        }, window, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        ensureOpen();
+        closed = true;
+        writeBatch();
+    }
+
+    private void writeBatch() throws IOException {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+        out.flush();
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length << 1));
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (flushFailure != null) {
+            throw flushFailure;
+        }
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    private static final class Scheduler {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "Management protocol batch flush");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.jboss.as.protocol.StreamUtils;
+
+/**
+ * Reads the frames written by a {@link CompressedFrameOutputStream}, inflating each frame as it
+ * arrives.  The end of the underlying stream marks the end of the data.
+ * <p>
+ * Closing this stream releases the inflater but leaves the underlying stream open, since it is
+ * owned by the message being read.
+ */
+final class CompressedFrameInputStream extends InputStream {
+
+    private final InputStream in;
+    private final Inflater inflater = new Inflater();
+    private final byte[] header = new byte[8];
+    private byte[] compressed = new byte[4096];
+    private byte[] frame = new byte[4096];
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    CompressedFrameInputStream(final InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return frame[position++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        final int n = Math.min(len, limit - position);
+        System.arraycopy(frame, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+    }
+
+    private boolean fill() throws IOException {
+        while (position == limit) {
+            if (eof) {
+                return false;
+            }
+            final int first = in.read();
+            if (first == -1) {
+                eof = true;
+                return false;
+            }
+            header[0] = (byte) first;
+            StreamUtils.readFully(in, header, 1, header.length - 1);
+            final int compressedLength = readInt(0);
+            final int length = readInt(4);
+            if (compressedLength < 0 || compressedLength > CompressedFrameOutputStream.MAX_COMPRESSED_FRAME_SIZE
+                    || length < 0 || length > CompressedFrameOutputStream.MAX_FRAME_SIZE) {
+                throw new IOException("Invalid compressed frame of " + compressedLength + " bytes expanding to " + length + " bytes");
+            }
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            if (frame.length < length) {
+                frame = new byte[length];
+            }
+            StreamUtils.readFully(in, compressed, 0, compressedLength);
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            int inflated = 0;
+            try {
+                while (inflated < length) {
+                    final int n = inflater.inflate(frame, inflated, length - inflated);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IOException("Truncated compressed frame, expected " + length + " bytes but got " + inflated);
+                    }
+                    inflated += n;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Invalid compressed frame", e);
+            }
+            position = 0;
+            limit = length;
+        }
+        return true;
+    }
+
+    private int readInt(final int offset) {
+        return ((header[offset] & 0xff) << 24) | ((header[offset + 1] & 0xff) << 16) | ((header[offset + 2] & 0xff) << 8) | (header[offset + 3] & 0xff);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import org.jboss.as.protocol.StreamUtils;
+
+/**
+ * Writes data as a sequence of independently deflated frames.  Each frame consists of the compressed
+ * length, the uncompressed length and the compressed bytes.  A frame is written whenever the stream is
+ * flushed or the buffered data reaches {@link #MAX_FRAME_SIZE}, so flushing still pushes data to the
+ * peer right away.
+ * <p>
+ * Closing this stream writes any remaining data but leaves the underlying stream open, since it is
+ * owned by the message being written.
+ *
+ * @see CompressedFrameInputStream
+ */
+final class CompressedFrameOutputStream extends OutputStream {
+
+    static final int MAX_FRAME_SIZE = 65536;
+    // the zlib bound on the deflated size of a full frame, including the zlib header and trailer
+    static final int MAX_COMPRESSED_FRAME_SIZE = MAX_FRAME_SIZE + (MAX_FRAME_SIZE >> 12) + (MAX_FRAME_SIZE >> 14) + (MAX_FRAME_SIZE >> 25) + 13 + 6;
+
+    private final OutputStream out;
+    private final Deflater deflater = new Deflater();
+    private final byte[] buffer = new byte[MAX_FRAME_SIZE];
+    private byte[] compressed = new byte[4096];
+    private int count;
+    private boolean closed;
+
+    CompressedFrameOutputStream(final OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            writeFrame();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffer.length) {
+                writeFrame();
+            }
+            final int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeFrame();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeFrame();
+            out.flush();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeFrame() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        deflater.reset();
+        deflater.setInput(buffer, 0, count);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, length << 1);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        StreamUtils.writeInt(out, length);
+        StreamUtils.writeInt(out, count);
+        out.write(compressed, 0, length);
+        count = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+}
@@ -29,7 +29,9 @@ public interface ManagementProtocol {
     // Headers
     byte[] SIGNATURE = {Byte.MAX_VALUE, Byte.MIN_VALUE, Byte.MAX_VALUE, Byte.MIN_VALUE};
     int VERSION_FIELD = 0x00; // The version field header
-    int VERSION = 1; // The current protocol version
+    int VERSION = 3; // The current protocol version
+    int FLAGS_VERSION = 2; // The first protocol version sending request and response flags
+    int COMPACT_MODEL_VERSION = 3; // The first protocol version understanding FLAG_COMPACT_MODEL
 
     int REQUEST_START = 0x01;
     int REQUEST_OPERATION = 0x02;
@@ -38,6 +40,11 @@ public interface ManagementProtocol {
     int RESPONSE_START = 0x05;
     int RESPONSE_BODY = 0x06;
     int RESPONSE_END = 0x07;
+    int FLAGS = 0x08; // Optional flags following the request and response start
+
+    // Flags
+    int FLAG_DEFLATE = 0x01; // The body is sent as deflate compressed frames
+    int FLAG_COMPACT_MODEL = 0x02; // Model nodes in the body use the compact dictionary encoding
 
 
 }
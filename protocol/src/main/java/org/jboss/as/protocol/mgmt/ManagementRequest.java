@@ -49,7 +49,18 @@ import org.jboss.as.protocol.StreamUtils;
  * @author John Bailey
  */
 public abstract class ManagementRequest<T> extends AbstractMessageHandler {
+
+    /**
+     * The system property enabling compression of request and response bodies for peers supporting
+     * protocol version {@link ManagementProtocol#FLAGS_VERSION} or later.
+     */
+    public static final String COMPRESSION_PROPERTY = "jboss.management.protocol.compression";
+
+    private static final boolean COMPRESSION = Boolean.getBoolean(COMPRESSION_PROPERTY);
+
     private int requestId = 0;
+    private volatile int requestFlags;
+    private volatile int responseFlags;
     private final ResponseFuture<T> future = new ResponseFuture<T>();
     private ManagementRequestConnectionStrategy connectionStrategy;
     // @GuardedBy(resultLock)
@@ -120,6 +131,9 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
             if (responseCode != getResponseCode()) {
                 throw new IOException("Invalid response code.  Expecting '" + getResponseCode() + "' received '" + responseCode + "'");
             }
+            if (input.read() == ManagementProtocol.FLAGS) {
+                responseFlags = StreamUtils.readUnsignedByte(input);
+            }
         } catch (Exception e) {
             future.setException(e);
         }
@@ -160,6 +174,9 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
      * @throws IOException If any errors occur
      */
     protected void sendRequest(final int protocolVersion, final Connection connection) throws IOException {
+        final int requestFlags = protocolVersion < ManagementProtocol.FLAGS_VERSION ? 0
+                : (COMPRESSION ? ManagementProtocol.FLAG_DEFLATE : 0) | getOptionalFlags(protocolVersion);
+        this.requestFlags = requestFlags;
         OutputStream outputStream = null;
         ByteDataOutput output = null;
         try {
@@ -168,6 +185,10 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
             output.writeByte(ManagementProtocol.REQUEST_OPERATION);
             output.writeByte(getRequestCode());
             output.writeByte(ManagementProtocol.REQUEST_START);
+            if (protocolVersion >= ManagementProtocol.FLAGS_VERSION) {
+                output.writeByte(ManagementProtocol.FLAGS);
+                output.writeByte(requestFlags);
+            }
             output.close();
             outputStream.close();
         } finally {
@@ -178,7 +199,13 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
         try {
             outputStream = connection.writeMessage();
             outputStream.write(ManagementProtocol.REQUEST_BODY);
-            sendRequest(protocolVersion, outputStream);
+            if (protocolVersion >= ManagementProtocol.FLAGS_VERSION && (requestFlags & ManagementProtocol.FLAG_DEFLATE) != 0) {
+                final OutputStream body = new CompressedFrameOutputStream(outputStream);
+                sendRequest(protocolVersion, body);
+                body.close();
+            } else {
+                sendRequest(protocolVersion, outputStream);
+            }
             outputStream.close();
         } finally {
             safeClose(outputStream);
@@ -199,6 +226,35 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
     protected void sendRequest(final int protocolVersion, final OutputStream output) throws IOException {
     }
 
+    /**
+     * Get the optional flags this request asks for in addition to the configured ones, such as
+     * {@link ManagementProtocol#FLAG_COMPACT_MODEL}.  Only called if the peer supports flags.
+     *
+     * @param protocolVersion The active protocol version for the request
+     * @return the flags
+     */
+    protected int getOptionalFlags(final int protocolVersion) {
+        return 0;
+    }
+
+    /**
+     * Get the flags sent with this request.  Valid once the request body is being sent.
+     *
+     * @return the request flags, <code>0</code> if the peer does not support flags
+     */
+    protected final int getRequestFlags() {
+        return requestFlags;
+    }
+
+    /**
+     * Get the flags the peer honoured in its response.  Valid once the response body is being received.
+     *
+     * @return the response flags, <code>0</code> if the peer does not support flags
+     */
+    protected final int getResponseFlags() {
+        return responseFlags;
+    }
+
     protected abstract byte getRequestCode();
 
     protected abstract byte getResponseCode();
@@ -210,7 +266,16 @@ public abstract class ManagementRequest<T> extends AbstractMessageHandler {
                 connection.setMessageHandler(responseEndHandler);
                 expectHeader(input, ManagementProtocol.RESPONSE_BODY);
                 synchronized (resultLock) {
-                    result = receiveResponse(input);
+                    if ((responseFlags & ManagementProtocol.FLAG_DEFLATE) != 0) {
+                        final InputStream body = new CompressedFrameInputStream(input);
+                        try {
+                            result = receiveResponse(body);
+                        } finally {
+                            body.close();
+                        }
+                    } else {
+                        result = receiveResponse(input);
+                    }
                 }
             }
             catch (Exception e) {
@@ -31,6 +31,7 @@ import org.jboss.as.protocol.Connection;
 import org.jboss.as.protocol.MessageHandler;
 import static org.jboss.as.protocol.ProtocolUtils.expectHeader;
 import org.jboss.as.protocol.SimpleByteDataOutput;
+import org.jboss.as.protocol.StreamUtils;
 import static org.jboss.as.protocol.StreamUtils.safeClose;
 
 /**
@@ -41,6 +42,8 @@ import static org.jboss.as.protocol.StreamUtils.safeClose;
 public abstract class ManagementResponse extends AbstractMessageHandler {
 
     private final MessageHandler finalMessageHandler;
+    /** The flags sent with the request, or -1 if the requesting peer does not send flags */
+    private volatile int requestFlags = -1;
 
     protected ManagementResponse() {
         this(MessageHandler.NULL);
@@ -57,6 +60,9 @@ public abstract class ManagementResponse extends AbstractMessageHandler {
     public void handle(final Connection connection, final InputStream input) throws IOException {
         connection.setMessageHandler(requestBodyHandler);
         expectHeader(input, ManagementProtocol.REQUEST_START);
+        if (input.read() == ManagementProtocol.FLAGS) {
+            requestFlags = StreamUtils.readUnsignedByte(input);
+        }
     }
 
     /**
@@ -84,12 +90,53 @@ public abstract class ManagementResponse extends AbstractMessageHandler {
     protected void sendResponse(final OutputStream output) throws IOException {
     }
 
+    /**
+     * Get the flags the peer sent with the request.  Valid once the request body is being read.
+     *
+     * @return the request flags, <code>0</code> if the peer does not support flags
+     */
+    protected final int getRequestFlags() {
+        return requestFlags == -1 ? 0 : requestFlags;
+    }
+
+    /**
+     * Get the request flags this response honours.  Responses understanding additional
+     * flags, such as {@link ManagementProtocol#FLAG_COMPACT_MODEL}, should add them.
+     *
+     * @return the supported flags
+     */
+    protected int getSupportedFlags() {
+        return ManagementProtocol.FLAG_DEFLATE;
+    }
+
+    /**
+     * Get the flags sent back with the response, being the request flags this response supports.
+     *
+     * @return the response flags
+     */
+    protected final int getResponseFlags() {
+        return getRequestFlags() & getSupportedFlags();
+    }
+
+    private boolean isDeflated() {
+        return requestFlags != -1 && (requestFlags & ManagementProtocol.FLAG_DEFLATE) != 0;
+    }
+
     final MessageHandler requestBodyHandler = new AbstractMessageHandler() {
         @Override
         public final void handle(final Connection connection, final InputStream input) throws IOException {
             connection.setMessageHandler(requestEndHandler);
             expectHeader(input, ManagementProtocol.REQUEST_BODY);
-            readRequest(input);
+            if (isDeflated()) {
+                final InputStream body = new CompressedFrameInputStream(input);
+                try {
+                    readRequest(body);
+                } finally {
+                    body.close();
+                }
+            } else {
+                readRequest(input);
+            }
         }
     };
 
@@ -106,6 +153,11 @@ public abstract class ManagementResponse extends AbstractMessageHandler {
                 output = new SimpleByteDataOutput(outputStream);
                 output.writeByte(ManagementProtocol.RESPONSE_START);
                 output.writeByte(getResponseCode());
+                if (requestFlags != -1) {
+                    // The peer understands flags, reply with the ones we honour
+                    output.writeByte(ManagementProtocol.FLAGS);
+                    output.writeByte(getResponseFlags());
+                }
                 output.close();
                 outputStream.close();
             } finally {
@@ -116,7 +168,20 @@ public abstract class ManagementResponse extends AbstractMessageHandler {
             try {
                 outputStream = connection.writeMessage();
                 outputStream.write(ManagementProtocol.RESPONSE_BODY);
-                sendResponse(outputStream);
+                final OutputStream deflated = isDeflated() ? new CompressedFrameOutputStream(outputStream) : null;
+                final OutputStream unbatched = deflated != null ? deflated : outputStream;
+                final OutputStream batched = BatchingOutputStream.isEnabled() ? new BatchingOutputStream(unbatched) : null;
+                try {
+                    sendResponse(batched != null ? batched : unbatched);
+                    if (batched != null) {
+                        batched.close();
+                    }
+                    if (deflated != null) {
+                        deflated.close();
+                    }
+                } finally {
+                    safeClose(deflated);
+                }
                 outputStream.close();
             } finally {
                 safeClose(outputStream);
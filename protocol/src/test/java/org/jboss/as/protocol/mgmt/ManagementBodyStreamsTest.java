@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.protocol.mgmt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.jboss.as.protocol.StreamUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the compressed and batched management body streams.
+ */
+public class ManagementBodyStreamsTest {
+
+    @Test
+    public void testCompressedRoundTrip() throws Exception {
+        final byte[] content = createModelLikeContent(3 * CompressedFrameOutputStream.MAX_FRAME_SIZE + 17);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final CompressedFrameOutputStream out = new CompressedFrameOutputStream(bytes);
+        out.write(content, 0, 10);
+        out.flush();
+        out.write(content[10]);
+        out.write(content, 11, content.length - 11);
+        out.close();
+
+        Assert.assertTrue("compressed " + bytes.size() + " of " + content.length, bytes.size() < content.length / 4);
+        Assert.assertArrayEquals(content, readFully(new CompressedFrameInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    public void testEmptyCompressedBody() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final CompressedFrameOutputStream out = new CompressedFrameOutputStream(bytes);
+        out.flush();
+        out.close();
+
+        Assert.assertEquals(0, bytes.size());
+        Assert.assertEquals(-1, new CompressedFrameInputStream(new ByteArrayInputStream(bytes.toByteArray())).read());
+    }
+
+    @Test
+    public void testIncompressibleRoundTrip() throws Exception {
+        final byte[] content = new byte[100000];
+        new Random(42).nextBytes(content);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final CompressedFrameOutputStream out = new CompressedFrameOutputStream(bytes);
+        out.write(content);
+        out.close();
+
+        Assert.assertArrayEquals(content, readFully(new CompressedFrameInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFrame() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final CompressedFrameOutputStream out = new CompressedFrameOutputStream(bytes);
+        out.write(createModelLikeContent(1000));
+        out.close();
+
+        final byte[] truncated = new byte[bytes.size() - 5];
+        System.arraycopy(bytes.toByteArray(), 0, truncated, 0, truncated.length);
+        readFully(new CompressedFrameInputStream(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    public void testOversizedFrameIsRejected() throws Exception {
+        // the header alone claims a huge compressed frame, which must be refused before any allocation
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StreamUtils.writeInt(bytes, Integer.MAX_VALUE);
+        StreamUtils.writeInt(bytes, 1000);
+        try {
+            readFully(new CompressedFrameInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            Assert.fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testIncompressibleFullFrameIsAccepted() throws Exception {
+        final byte[] content = new byte[CompressedFrameOutputStream.MAX_FRAME_SIZE];
+        new Random(7).nextBytes(content);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final CompressedFrameOutputStream out = new CompressedFrameOutputStream(bytes);
+        out.write(content);
+        out.close();
+        Assert.assertTrue(bytes.size() - 8 <= CompressedFrameOutputStream.MAX_COMPRESSED_FRAME_SIZE);
+        Assert.assertArrayEquals(content, readFully(new CompressedFrameInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    public void testBatchingCoalescesFlushes() throws Exception {
+        final CountingOutputStream target = new CountingOutputStream();
+        final BatchingOutputStream out = new BatchingOutputStream(target, 200L, 8192);
+        for (int i = 0; i < 10; i++) {
+            out.write(("fragment-" + i).getBytes());
+            out.flush();
+        }
+        Assert.assertEquals(0, target.flushes);
+        Thread.sleep(500L);
+        synchronized (out) {
+            Assert.assertEquals(1, target.flushes);
+            Assert.assertEquals(10 * "fragment-0".length(), target.size());
+        }
+        out.close();
+    }
+
+    @Test
+    public void testBatchingWritesFullBatch() throws Exception {
+        final CountingOutputStream target = new CountingOutputStream();
+        final BatchingOutputStream out = new BatchingOutputStream(target, 60000L, 16);
+        out.write(new byte[10]);
+        out.flush();
+        Assert.assertEquals(0, target.size());
+        out.write(new byte[10]);
+        Assert.assertEquals(20, target.size());
+        Assert.assertEquals(1, target.flushes);
+        out.write(new byte[3]);
+        out.close();
+        Assert.assertEquals(23, target.size());
+    }
+
+    private static byte[] createModelLikeContent(final int size) {
+        final StringBuilder builder = new StringBuilder(size);
+        int i = 0;
+        while (builder.length() < size) {
+            builder.append("{\"outcome\" => \"success\",\"result\" => {\"name\" => \"server-").append(i++ % 50).append("\"}}");
+        }
+        builder.setLength(size);
+        return builder.toString().getBytes();
+    }
+
+    private static byte[] readFully(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1000];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static final class CountingOutputStream extends ByteArrayOutputStream {
+        int flushes;
+
+        @Override
+        public void flush() throws IOException {
+            flushes++;
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.jboss.msc.value.Value;
 public class CreateDestroyService<T> implements Service<T> {
     private static final Logger log = Logger.getLogger("org.jboss.as.service");
     private final Value<T> serviceValue;
+    private final Value<ServiceAccessors> accessorsValue;
 
     /**
      * Construct new instance.
@@ -24,7 +25,18 @@ public class CreateDestroyService<T> implements Service<T> {
      * @param serviceValue The service value
      */
     public CreateDestroyService(Value<T> serviceValue) {
+        this(serviceValue, null);
+    }
+
+    /**
+     * Construct new instance.
+     *
+     * @param serviceValue The service value
+     * @param accessorsValue The accessors of the service class, or {@code null} to look them up from the service
+     */
+    CreateDestroyService(Value<T> serviceValue, Value<ServiceAccessors> accessorsValue) {
         this.serviceValue = serviceValue;
+        this.accessorsValue = accessorsValue;
     }
 
     /** {@inheritDoc} */
@@ -32,15 +44,17 @@ public class CreateDestroyService<T> implements Service<T> {
         final T service = getValue();
         // Handle create
         log.debugf("Creating Service: %s", context.getController().getName());
+        final Method createMethod = getAccessors(service).getCreateMethod();
+        if(createMethod == null) {
+            return;
+        }
         try {
-            Method createMethod = service.getClass().getMethod("create");
             ClassLoader old = SecurityActions.setThreadContextClassLoader(service.getClass().getClassLoader());
             try {
                 createMethod.invoke(service);
             } finally {
                 SecurityActions.resetThreadContextClassLoader(old);
             }
-        } catch(NoSuchMethodException e) {
         } catch(Exception e) {
             throw new StartException("Failed to execute legacy service create", e);
         }
@@ -51,21 +65,26 @@ public class CreateDestroyService<T> implements Service<T> {
         final T service = getValue();
         // Handle destroy
         log.debugf("Destroying Service: %s", context.getController().getName());
+        final Method destroyMethod = getAccessors(service).getDestroyMethod();
+        if(destroyMethod == null) {
+            return;
+        }
         try {
-            Method destroyMethod = service.getClass().getMethod("destroy");
             ClassLoader old = SecurityActions.setThreadContextClassLoader(service.getClass().getClassLoader());
             try {
                 destroyMethod.invoke(service);
             } finally {
                 SecurityActions.resetThreadContextClassLoader(old);
             }
-            destroyMethod.invoke(service);
-        } catch(NoSuchMethodException e) {
         } catch(Exception e) {
             log.error("Failed to execute legacy service destroy", e);
         }
     }
 
+    private ServiceAccessors getAccessors(final T service) {
+        return accessorsValue != null ? accessorsValue.getValue() : new ServiceAccessors(service.getClass());
+    }
+
     /** {@inheritDoc} */
     public T getValue() throws IllegalStateException {
         return serviceValue.getValue();
@@ -29,6 +29,8 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.management.MBeanServer;
 
@@ -57,7 +59,6 @@ import org.jboss.msc.value.LookupClassValue;
 import org.jboss.msc.value.LookupConstructorValue;
 import org.jboss.msc.value.LookupGetMethodValue;
 import org.jboss.msc.value.LookupMethodValue;
-import org.jboss.msc.value.LookupSetMethodValue;
 import org.jboss.msc.value.MethodValue;
 import org.jboss.msc.value.Value;
 import org.jboss.msc.value.Values;
@@ -98,17 +99,20 @@ public class ParsedServiceDeploymentProcessor implements DeploymentUnitProcessor
         final JBossServiceXmlDescriptor.ControllerMode controllerMode = serviceXmlDescriptor.getControllerMode();
         final List<JBossServiceConfig> serviceConfigs = serviceXmlDescriptor.getServiceConfigs();
         final ServiceTarget target = phaseContext.getServiceTarget();
+        // The accessors of each service class are looked up once for the whole deployment
+        final ConcurrentMap<Class<?>, ServiceAccessors> accessorsCache = new ConcurrentHashMap<Class<?>, ServiceAccessors>();
         for(final JBossServiceConfig serviceConfig : serviceConfigs) {
-            addService(target, serviceConfig, classLoaderValue);
+            addService(target, serviceConfig, classLoaderValue, accessorsCache);
         }
     }
 
     public void undeploy(final DeploymentUnit context) {
     }
 
-    private void addService(final ServiceTarget target, final JBossServiceConfig serviceConfig, final Value<ClassLoader> classLoaderValue) {
+    private void addService(final ServiceTarget target, final JBossServiceConfig serviceConfig, final Value<ClassLoader> classLoaderValue, final ConcurrentMap<Class<?>, ServiceAccessors> accessorsCache) {
         final String codeName = serviceConfig.getCode();
         final Value<Class<?>> classValue = cached(new LookupClassValue(codeName, classLoaderValue));
+        final Value<ServiceAccessors> accessorsValue = cached(new AccessorsValue(classValue, accessorsCache));
 
         final List<Value<?>> constructorArguments = new ArrayList<Value<?>>();
         final List<Value<Class<?>>> constructorSignature = new ArrayList<Value<Class<?>>>();
@@ -126,8 +130,8 @@ public class ParsedServiceDeploymentProcessor implements DeploymentUnitProcessor
         final Value<Constructor<?>> constructorValue = cached(new LookupConstructorValue(classValue, constructorSignature));
         final Value<Object> constructedValue = cached(new ConstructedValue(constructorValue, constructorArguments));
 
-        final CreateDestroyService<Object> createDestroyService = new CreateDestroyService<Object>(constructedValue);
-        final StartStopService<Object> startStopService = new StartStopService<Object>(constructedValue);
+        final CreateDestroyService<Object> createDestroyService = new CreateDestroyService<Object>(constructedValue, accessorsValue);
+        final StartStopService<Object> startStopService = new StartStopService<Object>(constructedValue, accessorsValue);
 
         final String serviceName = serviceConfig.getName();
         final ServiceName createDestroyServiceName = convert(serviceName).append(CREATE_SUFFIX);
@@ -143,7 +147,7 @@ public class ParsedServiceDeploymentProcessor implements DeploymentUnitProcessor
                 final ServiceName dependencyStartStopServiceName = convert(dependencyConfig.getDependencyName()).append(START_SUFFIX);
                 final String optionalAttributeName = dependencyConfig.getOptionalAttributeName();
                 if(optionalAttributeName != null) {
-                    createDestroyServiceBuilder.addDependency(dependencyCreateDestroyServiceName, getPropertyInjector(classValue, optionalAttributeName, createDestroyService, Values.injectedValue()));
+                    createDestroyServiceBuilder.addDependency(dependencyCreateDestroyServiceName, getPropertyInjector(accessorsValue, optionalAttributeName, createDestroyService, Values.injectedValue()));
                 } else {
                     createDestroyServiceBuilder.addDependency(dependencyCreateDestroyServiceName);
                 }
@@ -163,7 +167,7 @@ public class ParsedServiceDeploymentProcessor implements DeploymentUnitProcessor
                     if(propertyName != null) {
                         valueToInject = cached(new MethodValue<Object>(new LookupGetMethodValue(classValue, propertyName), valueToInject, Values.<Object>emptyList()));
                     }
-                    createDestroyServiceBuilder.addDependency(convert(inject.getBeanName()).append(CREATE_SUFFIX), getPropertyInjector(classValue, attributeName, createDestroyService, valueToInject));
+                    createDestroyServiceBuilder.addDependency(convert(inject.getBeanName()).append(CREATE_SUFFIX), getPropertyInjector(accessorsValue, attributeName, createDestroyService, valueToInject));
                     startStopServiceBuilder.addDependencies(convert(inject.getBeanName()).append(START_SUFFIX));
                 } else if(valueFactory != null) {
                     final String methodName = valueFactory.getMethodName();
@@ -176,10 +180,10 @@ public class ParsedServiceDeploymentProcessor implements DeploymentUnitProcessor
                         paramValues.add(cached(new ArgumentValue(attributeTypeValue, parameter.getValue())));
                     }
                     final Value<?> valueToInject = cached(new MethodValue(new LookupMethodValue(classValue, methodName, paramTypes), Values.injectedValue(), paramValues));
-                    createDestroyServiceBuilder.addDependency(convert(valueFactory.getBeanName()).append(CREATE_SUFFIX), getPropertyInjector(classValue, attributeName, createDestroyService, valueToInject));
+                    createDestroyServiceBuilder.addDependency(convert(valueFactory.getBeanName()).append(CREATE_SUFFIX), getPropertyInjector(accessorsValue, attributeName, createDestroyService, valueToInject));
                     startStopServiceBuilder.addDependencies(convert(valueFactory.getBeanName()).append(START_SUFFIX));
                 } else {
-                    createDestroyServiceBuilder.addInjectionValue(getPropertyInjector(classValue, attributeName, createDestroyService, Values.injectedValue()), cached(new AttributeValue(classValue, attributeName, attributeConfig.getValue())));
+                    createDestroyServiceBuilder.addInjectionValue(getPropertyInjector(accessorsValue, attributeName, createDestroyService, Values.injectedValue()), cached(new AttributeValue(accessorsValue, attributeName, attributeConfig.getValue())));
                 }
             }
         }
@@ -194,8 +198,8 @@ public class ParsedServiceDeploymentProcessor implements DeploymentUnitProcessor
             .install();
     }
 
-    private Injector<Object> getPropertyInjector(final Value<Class<?>> classValue, final String propertyName, final CreateDestroyService<?> startStopService, final Value<?> value) {
-        return new MethodInjector<Object>(cached(new LookupSetMethodValue(classValue, propertyName)), startStopService, Values.nullValue(), Collections.singletonList(value));
+    private Injector<Object> getPropertyInjector(final Value<ServiceAccessors> accessorsValue, final String propertyName, final CreateDestroyService<?> startStopService, final Value<?> value) {
+        return new MethodInjector<Object>(cached(new SetMethodValue(accessorsValue, propertyName)), startStopService, Values.nullValue(), Collections.singletonList(value));
     }
 
     private ServiceName convert(final String name) {
@@ -208,36 +212,70 @@ public class ParsedServiceDeploymentProcessor implements DeploymentUnitProcessor
         return new CachedValue<T>(value);
     }
 
+    private static class AccessorsValue implements Value<ServiceAccessors> {
+        private final Value<Class<?>> classValue;
+        private final ConcurrentMap<Class<?>, ServiceAccessors> cache;
+
+        private AccessorsValue(Value<Class<?>> classValue, ConcurrentMap<Class<?>, ServiceAccessors> cache) {
+            this.classValue = classValue;
+            this.cache = cache;
+        }
+
+        @Override
+        public ServiceAccessors getValue() throws IllegalStateException {
+            final Class<?> type = classValue.getValue();
+            ServiceAccessors accessors = cache.get(type);
+            if(accessors == null) {
+                accessors = new ServiceAccessors(type);
+                final ServiceAccessors existing = cache.putIfAbsent(type, accessors);
+                if(existing != null) {
+                    accessors = existing;
+                }
+            }
+            return accessors;
+        }
+    }
+
+    private static class SetMethodValue implements Value<Method> {
+        private final Value<ServiceAccessors> accessorsValue;
+        private final String propertyName;
+
+        private SetMethodValue(Value<ServiceAccessors> accessorsValue, String propertyName) {
+            this.accessorsValue = accessorsValue;
+            this.propertyName = propertyName;
+        }
+
+        @Override
+        public Method getValue() throws IllegalStateException {
+            final ServiceAccessors accessors = accessorsValue.getValue();
+            final Method method = accessors.getSetMethod(propertyName);
+            if(method == null) {
+                throw new IllegalStateException("No such set method for property '" + propertyName + "' found on " + accessors.getType());
+            }
+            return method;
+        }
+    }
+
     private static class AttributeValue<T> implements Value<T> {
-        private final Value<Class<?>> targetClassValue;
+        private final Value<ServiceAccessors> accessorsValue;
         private final String name;
         private final String value;
 
-        private AttributeValue(Value<Class<?>> targetClassValue, String name, String value) {
-            this.targetClassValue = targetClassValue;
+        private AttributeValue(Value<ServiceAccessors> accessorsValue, String name, String value) {
+            this.accessorsValue = accessorsValue;
             this.name = name;
             this.value = value;
         }
 
         @Override
         public T getValue() throws IllegalStateException {
-            Class<?> type = null;
-            final String expectedMethodName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
-            final Class<?> targetType = targetClassValue.getValue();
-            final Method[] methods = targetType.getMethods();
-            for(Method method : methods) {
-                if(expectedMethodName.equals(method.getName())) {
-                    final Class<?>[] types = method.getParameterTypes();
-                    if(types.length == 1) {
-                        type = types[0];
-                        break;
-                    }
-                }
-            }
-            if(type == null) {
-                log.warn("Unable to find type for property " + name + " on class " + targetType);
+            final ServiceAccessors accessors = accessorsValue.getValue();
+            final Method method = accessors.getSetMethod(name);
+            if(method == null) {
+                log.warn("Unable to find type for property " + name + " on class " + accessors.getType());
                 return null;
             }
+            final Class<?> type = method.getParameterTypes()[0];
             final PropertyEditor editor = PropertyEditorManager.findEditor(type);
             if(editor == null) {
                 log.warn("Unable to find PropertyEditor for type " + type);
@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.service;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The lifecycle and set methods of a legacy service class, looked up with a single scan of its public methods.
+ */
+final class ServiceAccessors {
+    private final Class<?> type;
+    private final Method createMethod;
+    private final Method startMethod;
+    private final Method stopMethod;
+    private final Method destroyMethod;
+    private final Map<String, Method> setMethods;
+
+    /**
+     * Construct new instance.
+     *
+     * @param type The service class
+     */
+    ServiceAccessors(final Class<?> type) {
+        this.type = type;
+        Method createMethod = null;
+        Method startMethod = null;
+        Method stopMethod = null;
+        Method destroyMethod = null;
+        final Map<String, Method> setMethods = new HashMap<String, Method>();
+        for(Method method : type.getMethods()) {
+            final String name = method.getName();
+            final int parameterCount = method.getParameterTypes().length;
+            if(parameterCount == 0) {
+                if("create".equals(name)) {
+                    createMethod = method;
+                } else if("start".equals(name)) {
+                    startMethod = method;
+                } else if("stop".equals(name)) {
+                    stopMethod = method;
+                } else if("destroy".equals(name)) {
+                    destroyMethod = method;
+                }
+            } else if(parameterCount == 1 && name.startsWith("set") && !setMethods.containsKey(name)) {
+                // Keep the first match, as the property lookups always did
+                setMethods.put(name, method);
+            }
+        }
+        this.createMethod = createMethod;
+        this.startMethod = startMethod;
+        this.stopMethod = stopMethod;
+        this.destroyMethod = destroyMethod;
+        this.setMethods = setMethods;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    Method getCreateMethod() {
+        return createMethod;
+    }
+
+    Method getStartMethod() {
+        return startMethod;
+    }
+
+    Method getStopMethod() {
+        return stopMethod;
+    }
+
+    Method getDestroyMethod() {
+        return destroyMethod;
+    }
+
+    /**
+     * Get the set method of a property.
+     *
+     * @param propertyName The property name
+     * @return The first public single argument set method of the property, or {@code null} if there is none
+     */
+    Method getSetMethod(final String propertyName) {
+        return setMethods.get("set" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1));
+    }
+}
@@ -39,6 +39,7 @@ import org.jboss.msc.value.Value;
 public class StartStopService<T> implements Service<T> {
     private static final Logger log = Logger.getLogger("org.jboss.as.service");
     private final Value<T> serviceValue;
+    private final Value<ServiceAccessors> accessorsValue;
 
     /**
      * Construct new instance.
@@ -46,7 +47,18 @@ public class StartStopService<T> implements Service<T> {
      * @param serviceValue The service value
      */
     public StartStopService(Value<T> serviceValue) {
+        this(serviceValue, null);
+    }
+
+    /**
+     * Construct new instance.
+     *
+     * @param serviceValue The service value
+     * @param accessorsValue The accessors of the service class, or {@code null} to look them up from the service
+     */
+    StartStopService(Value<T> serviceValue, Value<ServiceAccessors> accessorsValue) {
         this.serviceValue = serviceValue;
+        this.accessorsValue = accessorsValue;
     }
 
     /** {@inheritDoc} */
@@ -54,15 +66,17 @@ public class StartStopService<T> implements Service<T> {
         final T service = getValue();
         // Handle Start
         log.debugf("Starting Service: %s", context.getController().getName());
+        final Method startMethod = getAccessors(service).getStartMethod();
+        if(startMethod == null) {
+            return;
+        }
         try {
-            final Method startMethod = service.getClass().getMethod("start");
             ClassLoader old = SecurityActions.setThreadContextClassLoader(service.getClass().getClassLoader());
             try {
                 startMethod.invoke(service);
             } finally {
                 SecurityActions.resetThreadContextClassLoader(old);
             }
-        } catch(NoSuchMethodException e) {
         } catch(Exception e) {
             throw new StartException("Failed to execute legacy service start", e);
         }
@@ -73,20 +87,26 @@ public class StartStopService<T> implements Service<T> {
         final T service = getValue();
         // Handle Stop
         log.debugf("Stopping Service: %s", context.getController().getName());
+        final Method stopMethod = getAccessors(service).getStopMethod();
+        if(stopMethod == null) {
+            return;
+        }
         try {
-            Method stopMethod = service.getClass().getMethod("stop");
             ClassLoader old = SecurityActions.setThreadContextClassLoader(service.getClass().getClassLoader());
             try {
                 stopMethod.invoke(service);
             } finally {
                 SecurityActions.resetThreadContextClassLoader(old);
             }
-        } catch(NoSuchMethodException e) {
-        }  catch(Exception e) {
+        } catch(Exception e) {
             log.error("Failed to execute legacy service stop", e);
         }
     }
 
+    private ServiceAccessors getAccessors(final T service) {
+        return accessorsValue != null ? accessorsValue.getValue() : new ServiceAccessors(service.getClass());
+    }
+
     /** {@inheritDoc} */
     public T getValue() throws IllegalStateException {
         return serviceValue.getValue();
@@ -37,6 +37,9 @@ public enum Attribute {
     AUDIT_MANAGER_CLASS_NAME("audit-manager-class-name"),
     AUTHENTICATION_MANAGER_CLASS_NAME("authentication-manager-class-name"),
     AUTHORIZATION_MANAGER_CLASS_NAME("authorization-manager-class-name"),
+    CACHE_EVICTION_POLICY("cache-eviction-policy"),
+    CACHE_MAX_ENTRIES("cache-max-entries"),
+    CACHE_TTL("cache-ttl"),
     CODE("code"),
     DEEP_COPY_SUBJECT_MODE("deep-copy-subject-mode"),
     DEFAULT_CALLBACK_HANDLER_CLASS_NAME("default-callback-handler-class-name"),
@@ -32,6 +32,13 @@ interface CommonAttributes {
     String AUDIT_MANAGER_CLASS_NAME = "audit-manager-class-name";
     String AUTHENTICATION_MANAGER_CLASS_NAME = "authentication-manager-class-name";
     String AUTHORIZATION_MANAGER_CLASS_NAME = "authorization-manager-class-name";
+    String CACHE_EVICTION_POLICY = "cache-eviction-policy";
+    String CACHE_EVICTIONS = "cache-evictions";
+    String CACHE_HITS = "cache-hits";
+    String CACHE_MAX_ENTRIES = "cache-max-entries";
+    String CACHE_MISSES = "cache-misses";
+    String CACHE_SIZE = "cache-size";
+    String CACHE_TTL = "cache-ttl";
     String DEEP_COPY_SUBJECT_MODE = "deep-copy-subject-mode";
     String DEFAULT_CALLBACK_HANDLER_CLASS_NAME = "default-callback-handler-class-name";
     String IDENTITY_TRUST_MANAGER_CLASS_NAME = "identity-trust-manager-class-name";
@@ -31,6 +31,9 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.security.CommonAttributes.CACHE_EVICTION_POLICY;
+import static org.jboss.as.security.CommonAttributes.CACHE_MAX_ENTRIES;
+import static org.jboss.as.security.CommonAttributes.CACHE_TTL;
 import static org.jboss.as.security.CommonAttributes.MODULE_OPTIONS;
 
 import java.util.HashMap;
@@ -48,7 +51,11 @@ import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ResultHandler;
 import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.security.plugins.AuthenticationCache;
+import org.jboss.as.security.plugins.AuthenticationCache.EvictionPolicy;
+import org.jboss.as.security.plugins.JNDIBasedSecurityManagement;
 import org.jboss.as.security.service.JaasConfigurationService;
+import org.jboss.as.security.service.SecurityManagementService;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.Property;
 import org.jboss.msc.service.ServiceController;
@@ -93,11 +100,15 @@ class SecurityDomainAdd implements ModelAddOperationHandler {
     }
 
     @Override
-    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) {
+    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler)
+            throws OperationFailedException {
         ModelNode opAddr = operation.require(OP_ADDR);
         PathAddress address = PathAddress.pathAddress(opAddr);
         String securityDomain = address.getLastElement().getValue();
 
+        // validate the cache settings before the model is touched
+        final AuthenticationCache authenticationCache = createAuthenticationCache(operation);
+
         Util.copyParamsToModel(operation, context.getSubModel());
 
         final ApplicationPolicy applicationPolicy = createApplicationPolicy(securityDomain, operation);
@@ -108,6 +119,15 @@ class SecurityDomainAdd implements ModelAddOperationHandler {
                     // add parsed security domain to the Configuration
                     final ApplicationPolicyRegistration loginConfig = getConfiguration(context.getServiceRegistry());
                     loginConfig.addApplicationPolicy(applicationPolicy.getName(), applicationPolicy);
+                    // register the domain and, if the security management is already configured, create its managers
+                    // now so the requests using the domain never have to
+                    final JNDIBasedSecurityManagement securityManagement = JNDIBasedSecurityManagement.getInstance();
+                    securityManagement.addSecurityDomain(applicationPolicy.getName(), authenticationCache);
+                    final ServiceController<?> securityManagementService = context.getServiceRegistry().getService(
+                            SecurityManagementService.SERVICE_NAME);
+                    if (securityManagementService != null && securityManagementService.getState() == ServiceController.State.UP) {
+                        securityManagement.populateSecurityDomain(applicationPolicy.getName());
+                    }
                     resultHandler.handleResultComplete();
                 }
             });
@@ -124,6 +144,9 @@ class SecurityDomainAdd implements ModelAddOperationHandler {
         keys.remove(OP);
         keys.remove(OP_ADDR);
         keys.remove(NAME);
+        keys.remove(CACHE_MAX_ENTRIES);
+        keys.remove(CACHE_TTL);
+        keys.remove(CACHE_EVICTION_POLICY);
         keys.remove(Element.ACL.getLocalName());
         keys.remove(Element.AUDIT.getLocalName());
         keys.remove(Element.AUTHENTICATION.getLocalName());
@@ -322,6 +345,47 @@ class SecurityDomainAdd implements ModelAddOperationHandler {
         return applicationPolicy;
     }
 
+    /**
+     * Create the cache of successful authentications for the security domain. Authentications are cached unless
+     * {@code cache-max-entries} is 0.
+     *
+     * @param operation the add operation
+     * @return the cache or {@code null} if authentications are not cached
+     * @throws OperationFailedException if a cache setting is invalid
+     */
+    static AuthenticationCache createAuthenticationCache(ModelNode operation) throws OperationFailedException {
+        int maxEntries = AuthenticationCache.DEFAULT_MAX_ENTRIES;
+        if (operation.hasDefined(CACHE_MAX_ENTRIES))
+            maxEntries = getInt(operation, CACHE_MAX_ENTRIES);
+        if (maxEntries < 0)
+            throw new OperationFailedException(new ModelNode().set(CACHE_MAX_ENTRIES + " must not be negative, was " + maxEntries));
+        if (maxEntries == 0)
+            return null;
+        int ttl = AuthenticationCache.DEFAULT_TTL;
+        if (operation.hasDefined(CACHE_TTL))
+            ttl = getInt(operation, CACHE_TTL);
+        if (ttl < 1)
+            throw new OperationFailedException(new ModelNode().set(CACHE_TTL + " must be greater than 0, was " + ttl));
+        EvictionPolicy evictionPolicy = AuthenticationCache.DEFAULT_EVICTION_POLICY;
+        if (operation.hasDefined(CACHE_EVICTION_POLICY)) {
+            final String name = operation.get(CACHE_EVICTION_POLICY).asString();
+            try {
+                evictionPolicy = EvictionPolicy.forName(name);
+            } catch (IllegalArgumentException e) {
+                throw new OperationFailedException(new ModelNode().set("Unknown " + CACHE_EVICTION_POLICY + " " + name));
+            }
+        }
+        return new AuthenticationCache(maxEntries, ttl, evictionPolicy);
+    }
+
+    private static int getInt(ModelNode operation, String name) throws OperationFailedException {
+        try {
+            return operation.get(name).asInt();
+        } catch (IllegalArgumentException e) {
+            throw new OperationFailedException(new ModelNode().set(name + " must be an integer, was " + operation.get(name).asString()));
+        }
+    }
+
     private synchronized ApplicationPolicyRegistration getConfiguration(ServiceRegistry serviceRegistry) {
         ServiceController<?> controller = serviceRegistry.getRequiredService(
                 JaasConfigurationService.SERVICE_NAME);
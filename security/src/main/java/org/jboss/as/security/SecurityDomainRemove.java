@@ -34,6 +34,7 @@ import org.jboss.as.controller.ModelAddOperationHandler;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.security.plugins.JNDIBasedSecurityManagement;
 import org.jboss.as.security.service.JaasConfigurationService;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceController;
@@ -75,6 +76,7 @@ class SecurityDomainRemove implements ModelAddOperationHandler {
                         ApplicationPolicyRegistration config = (ApplicationPolicyRegistration) jaasConfigurationService.getValue();
                         config.removeApplicationPolicy(securityDomain);
                     }
+                    JNDIBasedSecurityManagement.getInstance().removeSecurityDomain(securityDomain);
                     resultHandler.handleResultComplete();
                 }
             });
@@ -88,6 +88,11 @@ public class SecurityExtension implements Extension {
                 SecuritySubsystemDescriptions.SECURITY_DOMAIN_ADD, false);
         securityDomain.registerOperationHandler(SecurityDomainRemove.OPERATION_NAME, SecurityDomainRemove.INSTANCE,
                 SecuritySubsystemDescriptions.SECURITY_DOMAIN_REMOVE, false);
+        securityDomain.registerOperationHandler(SecurityDomainFlushCache.OPERATION_NAME, SecurityDomainFlushCache.INSTANCE,
+                SecuritySubsystemDescriptions.SECURITY_DOMAIN_FLUSH_CACHE, false);
+        for (final String attributeName : SecurityDomainMetrics.ATTRIBUTES) {
+            securityDomain.registerMetric(attributeName, SecurityDomainMetrics.INSTANCE);
+        }
 
         subsystem.registerXMLElementWriter(PARSER);
     }
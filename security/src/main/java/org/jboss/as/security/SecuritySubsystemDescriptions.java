@@ -102,6 +102,17 @@ class SecuritySubsystemDescriptions {
         }
     };
 
+    static final DescriptionProvider SECURITY_DOMAIN_FLUSH_CACHE = new DescriptionProvider() {
+
+        public ModelNode getModelDescription(Locale locale) {
+            final ResourceBundle bundle = getResourceBundle(locale);
+
+            final ModelNode subsystem = new ModelNode();
+
+            return subsystem;
+        }
+    };
+
     private static ResourceBundle getResourceBundle(Locale locale) {
         if (locale == null) {
             locale = Locale.getDefault();
@@ -36,6 +36,9 @@ import static org.jboss.as.controller.parsing.ParseUtils.unexpectedElement;
 import static org.jboss.as.security.CommonAttributes.AUDIT_MANAGER_CLASS_NAME;
 import static org.jboss.as.security.CommonAttributes.AUTHENTICATION_MANAGER_CLASS_NAME;
 import static org.jboss.as.security.CommonAttributes.AUTHORIZATION_MANAGER_CLASS_NAME;
+import static org.jboss.as.security.CommonAttributes.CACHE_EVICTION_POLICY;
+import static org.jboss.as.security.CommonAttributes.CACHE_MAX_ENTRIES;
+import static org.jboss.as.security.CommonAttributes.CACHE_TTL;
 import static org.jboss.as.security.CommonAttributes.DEEP_COPY_SUBJECT_MODE;
 import static org.jboss.as.security.CommonAttributes.DEFAULT_CALLBACK_HANDLER_CLASS_NAME;
 import static org.jboss.as.security.CommonAttributes.IDENTITY_TRUST_MANAGER_CLASS_NAME;
@@ -56,6 +59,7 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 
 import org.jboss.as.controller.persistence.SubsystemMarshallingContext;
+import org.jboss.as.security.plugins.AuthenticationCache.EvictionPolicy;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.Property;
 import org.jboss.staxmapper.XMLElementReader;
@@ -174,6 +178,15 @@ class SecuritySubsystemParser implements XMLStreamConstants, XMLElementReader<Li
                     writer.writeAttribute(Attribute.EXTENDS.getLocalName(), policyDetails.get(Attribute.EXTENDS.getLocalName())
                             .asString());
                 }
+                if (policyDetails.hasDefined(CACHE_MAX_ENTRIES)) {
+                    writeAttribute(writer, Attribute.CACHE_MAX_ENTRIES, policyDetails.get(CACHE_MAX_ENTRIES));
+                }
+                if (policyDetails.hasDefined(CACHE_TTL)) {
+                    writeAttribute(writer, Attribute.CACHE_TTL, policyDetails.get(CACHE_TTL));
+                }
+                if (policyDetails.hasDefined(CACHE_EVICTION_POLICY)) {
+                    writeAttribute(writer, Attribute.CACHE_EVICTION_POLICY, policyDetails.get(CACHE_EVICTION_POLICY));
+                }
                 writeSecurityDomainContent(writer, policyDetails);
                 writer.writeEndElement();
             }
@@ -186,6 +199,9 @@ class SecuritySubsystemParser implements XMLStreamConstants, XMLElementReader<Li
         Set<String> keys = new HashSet<String>(policyDetails.keys());
         keys.remove(Attribute.NAME.getLocalName());
         keys.remove(Attribute.EXTENDS.getLocalName());
+        keys.remove(CACHE_MAX_ENTRIES);
+        keys.remove(CACHE_TTL);
+        keys.remove(CACHE_EVICTION_POLICY);
 
         for (String key : keys) {
             Element element = Element.forName(key);
@@ -504,6 +520,28 @@ class SecuritySubsystemParser implements XMLStreamConstants, XMLElementReader<Li
                     op.get(attribute.getLocalName()).set(value);
                     break;
                 }
+                case CACHE_MAX_ENTRIES:
+                case CACHE_TTL: {
+                    try {
+                        final int number = Integer.parseInt(value);
+                        if (number < 0 || (number == 0 && attribute == Attribute.CACHE_TTL)) {
+                            throw invalidAttributeValue(reader, i);
+                        }
+                        op.get(attribute.getLocalName()).set(number);
+                    } catch (NumberFormatException e) {
+                        throw invalidAttributeValue(reader, i);
+                    }
+                    break;
+                }
+                case CACHE_EVICTION_POLICY: {
+                    try {
+                        EvictionPolicy.forName(value);
+                    } catch (IllegalArgumentException e) {
+                        throw invalidAttributeValue(reader, i);
+                    }
+                    op.get(attribute.getLocalName()).set(value);
+                    break;
+                }
                 default:
                     throw unexpectedAttribute(reader, i);
             }
@@ -0,0 +1,248 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.security.plugins;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.security.auth.Subject;
+
+/**
+ * A bounded cache of successful authentications for a security domain, so a principal presenting the same
+ * credential again doesn't have to go through the login modules until its entry expires.
+ * <p>
+ * Credentials are not kept; an entry holds a salted SHA-256 hash of the credential it was authenticated with, which
+ * the credentials presented later are checked against.  Only passwords, as {@code char[]} or {@code String}, and
+ * {@code byte[]} credentials can be hashed, authentications with other credentials are not cached.
+ *
+ * @see CachingAuthenticationManager
+ */
+public class AuthenticationCache {
+
+    /**
+     * The order in which entries are evicted when the cache is full.
+     */
+    public enum EvictionPolicy {
+        /** Evict the least recently used entry */
+        LRU,
+        /** Evict the oldest entry */
+        FIFO;
+
+        public static EvictionPolicy forName(String name) {
+            return valueOf(name.toUpperCase());
+        }
+    }
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final int DEFAULT_TTL = 1800;
+    public static final EvictionPolicy DEFAULT_EVICTION_POLICY = EvictionPolicy.LRU;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int SALT_LENGTH = 16;
+
+    private final SecureRandom random = new SecureRandom();
+    private final int maxEntries;
+    private final long ttl;
+    private final Map<Principal, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxEntries the maximum number of cached principals
+     * @param ttl the number of seconds an entry remains valid
+     * @param evictionPolicy the order in which entries are evicted when the cache is full
+     */
+    public AuthenticationCache(final int maxEntries, final int ttl, final EvictionPolicy evictionPolicy) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be greater than 0");
+        if (ttl < 1)
+            throw new IllegalArgumentException("ttl must be greater than 0");
+        this.maxEntries = maxEntries;
+        this.ttl = ttl * 1000L;
+        this.entries = new LinkedHashMap<Principal, Entry>(16, 0.75f, evictionPolicy == EvictionPolicy.LRU) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Principal, Entry> eldest) {
+                if (size() > AuthenticationCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the subject cached for a principal, if the credential matches the one it was authenticated with and the
+     * entry hasn't expired.
+     *
+     * @param principal the principal
+     * @param credential the credential presented
+     * @return the cached subject or {@code null} if the principal must be authenticated
+     */
+    public Subject get(final Principal principal, final Object credential) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(principal);
+            if (entry != null && entry.expires <= System.currentTimeMillis()) {
+                entries.remove(principal);
+                entry = null;
+            }
+        }
+        if (entry == null || !entry.matches(credential)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.subject;
+    }
+
+    /**
+     * Cache a successful authentication, unless the credential cannot be hashed.
+     *
+     * @param principal the principal
+     * @param credential the credential it was authenticated with
+     * @param subject the authenticated subject
+     */
+    public void put(final Principal principal, final Object credential, final Subject subject) {
+        if (!isHashable(credential)) {
+            return;
+        }
+        final byte[] salt = new byte[SALT_LENGTH];
+        synchronized (random) {
+            random.nextBytes(salt);
+        }
+        final Entry entry = new Entry(salt, hash(salt, credential), subject, System.currentTimeMillis() + ttl);
+        synchronized (entries) {
+            entries.put(principal, entry);
+        }
+    }
+
+    /**
+     * Remove all the entries from the cache.
+     */
+    public void flush() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Remove the principals with the given name from the cache, so they are authenticated again by the
+     * login modules on their next request.
+     *
+     * @param name the principal name
+     */
+    public void flush(final String name) {
+        synchronized (entries) {
+            final Iterator<Principal> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (name.equals(iterator.next().getName())) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private static boolean isHashable(final Object credential) {
+        return credential == null || credential instanceof char[] || credential instanceof String
+                || credential instanceof byte[];
+    }
+
+    private static byte[] hash(final byte[] salt, final Object credential) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot obtain SHA-256 " + MessageDigest.class.getSimpleName(), e);
+        }
+        digest.update(salt);
+        if (credential instanceof byte[]) {
+            digest.update((byte) 1);
+            digest.update((byte[]) credential);
+        } else if (credential != null) {
+            final CharBuffer chars = credential instanceof char[] ? CharBuffer.wrap((char[]) credential)
+                    : CharBuffer.wrap((String) credential);
+            final ByteBuffer bytes = UTF_8.encode(chars);
+            digest.update((byte) 2);
+            digest.update(bytes);
+            // don't leave a copy of the password behind
+            bytes.clear();
+            while (bytes.hasRemaining()) {
+                bytes.put((byte) 0);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static final class Entry {
+        private final byte[] salt;
+        private final byte[] hash;
+        private final Subject subject;
+        private final long expires;
+
+        private Entry(final byte[] salt, final byte[] hash, final Subject subject, final long expires) {
+            this.salt = salt;
+            this.hash = hash;
+            this.subject = subject;
+            this.expires = expires;
+        }
+
+        private boolean matches(final Object credential) {
+            return isHashable(credential) && MessageDigest.isEqual(hash, hash(salt, credential));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.security.plugins;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.security.auth.Subject;
+
+import org.jboss.security.AuthenticationManager;
+
+/**
+ * Puts an {@link AuthenticationCache} in front of an {@code AuthenticationManager}. Principal and credential
+ * authentications are answered from the cache when possible; all other calls go to the authentication manager.
+ * The proxy implements every interface of the authentication manager it wraps, so it can be used wherever the
+ * authentication manager could, e.g. as the domain's {@code RealmMapping}.
+ * <p>
+ * A cache hit populates the active subject with the principals, including the role groups, and the public credentials
+ * of the subject the authentication manager produced.  Private credentials, such as the password the login modules
+ * put in the subject, are not cached, so a subject populated from the cache has none.  The login modules are not run
+ * for a cache hit, so anything else they do on login, such as auditing, only happens when the entry is first cached.
+ */
+final class CachingAuthenticationManager implements InvocationHandler {
+
+    private final AuthenticationManager delegate;
+    private final AuthenticationCache cache;
+
+    private CachingAuthenticationManager(final AuthenticationManager delegate, final AuthenticationCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * Create a proxy which caches the authentications of an authentication manager.
+     *
+     * @param delegate the authentication manager
+     * @param cache the cache
+     * @return the proxy
+     */
+    static AuthenticationManager create(final AuthenticationManager delegate, final AuthenticationCache cache) {
+        final Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+        for (Class<?> clazz = delegate.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+            interfaces.addAll(Arrays.asList(clazz.getInterfaces()));
+        }
+        return (AuthenticationManager) Proxy.newProxyInstance(delegate.getClass().getClassLoader(),
+                interfaces.toArray(new Class<?>[interfaces.size()]), new CachingAuthenticationManager(delegate, cache));
+    }
+
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if ("isValid".equals(method.getName())) {
+            final Class<?>[] types = method.getParameterTypes();
+            if (types.length == 2 && types[0] == Principal.class && types[1] == Object.class) {
+                return Boolean.valueOf(isValid((Principal) args[0], args[1], null));
+            }
+            if (types.length == 3 && types[0] == Principal.class && types[1] == Object.class && types[2] == Subject.class) {
+                return Boolean.valueOf(isValid((Principal) args[0], args[1], (Subject) args[2]));
+            }
+        }
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean isValid(final Principal principal, final Object credential, final Subject activeSubject) {
+        if (principal == null) {
+            return delegate.isValid(principal, credential, activeSubject);
+        }
+        final Subject cached = cache.get(principal, credential);
+        if (cached != null) {
+            if (activeSubject != null) {
+                copy(cached, activeSubject);
+            }
+            return true;
+        }
+        final Subject subject = activeSubject != null ? activeSubject : new Subject();
+        if (!delegate.isValid(principal, credential, subject)) {
+            return false;
+        }
+        final Subject copy = new Subject();
+        copy(subject, copy);
+        cache.put(principal, credential, copy);
+        return true;
+    }
+
+    private static void copy(final Subject from, final Subject to) {
+        if (to.isReadOnly()) {
+            return;
+        }
+        // the private credentials are deliberately left out, the cache must not hold on to passwords
+        to.getPrincipals().addAll(from.getPrincipals());
+        to.getPublicCredentials().addAll(from.getPublicCredentials());
+    }
+}
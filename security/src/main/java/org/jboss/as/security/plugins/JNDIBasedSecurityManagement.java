@@ -26,15 +26,12 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.concurrent.ConcurrentHashMap;
 
-import javax.naming.Context;
-import javax.naming.InitialContext;
 import javax.security.auth.callback.CallbackHandler;
 
 import org.jboss.logging.Logger;
 import org.jboss.security.AuthenticationManager;
 import org.jboss.security.AuthorizationManager;
 import org.jboss.security.ISecurityManagement;
-import org.jboss.security.SecurityConstants;
 import org.jboss.security.audit.AuditManager;
 import org.jboss.security.identitytrust.IdentityTrustManager;
 import org.jboss.security.mapping.MappingManager;
@@ -54,11 +51,8 @@ public class JNDIBasedSecurityManagement implements ISecurityManagement {
     private static JNDIBasedSecurityManagement INSTANCE = new JNDIBasedSecurityManagement();
 
     private transient ConcurrentHashMap<String, SecurityDomainContext> securityMgrMap = new ConcurrentHashMap<String, SecurityDomainContext>();
-    private transient ConcurrentHashMap<String, AuthenticationManager> authMgrMap = new ConcurrentHashMap<String, AuthenticationManager>();
-    private transient ConcurrentHashMap<String, AuthorizationManager> authzMgrMap = new ConcurrentHashMap<String, AuthorizationManager>();
-    private transient ConcurrentHashMap<String, AuditManager> auditMgrMap = new ConcurrentHashMap<String, AuditManager>();
-    private transient ConcurrentHashMap<String, IdentityTrustManager> idmMgrMap = new ConcurrentHashMap<String, IdentityTrustManager>();
-    private transient ConcurrentHashMap<String, MappingManager> mappingMgrMap = new ConcurrentHashMap<String, MappingManager>();
+    private transient ConcurrentHashMap<String, Boolean> registeredDomains = new ConcurrentHashMap<String, Boolean>();
+    private transient ConcurrentHashMap<String, AuthenticationCache> authCacheMap = new ConcurrentHashMap<String, AuthenticationCache>();
 
     private String authenticationManagerClassName;
     private boolean deepCopySubjectMode;
@@ -82,77 +76,106 @@ public class JNDIBasedSecurityManagement implements ISecurityManagement {
 
     /** {@inheritDoc} */
     public AuditManager getAuditManager(String securityDomain) {
-        AuditManager am = null;
-        try {
-            am = auditMgrMap.get(securityDomain);
-            if (am == null) {
-                am = (AuditManager) lookUpJNDI(securityDomain + "/auditMgr");
-                auditMgrMap.put(securityDomain, am);
-            }
-        } catch (Exception e) {
-            log.trace("Exception getting AuditManager for domain=" + securityDomain, e);
-        }
-        return am;
+        SecurityDomainContext sdc = getSecurityDomainContext(securityDomain);
+        return sdc == null ? null : sdc.getAuditMgr();
     }
 
     /** {@inheritDoc} */
     public AuthenticationManager getAuthenticationManager(String securityDomain) {
-        AuthenticationManager am = null;
-        try {
-            am = authMgrMap.get(securityDomain);
-            if (am == null) {
-                am = (AuthenticationManager) lookUpJNDI(securityDomain + "/authenticationMgr");
-                authMgrMap.put(securityDomain, am);
-            }
-        } catch (Exception e) {
-            log.trace("Exception getting AuthenticationManager for domain=" + securityDomain, e);
-        }
-        return am;
+        SecurityDomainContext sdc = getSecurityDomainContext(securityDomain);
+        return sdc == null ? null : sdc.getAuthenticationManager();
     }
 
     /** {@inheritDoc} */
     public AuthorizationManager getAuthorizationManager(String securityDomain) {
-        AuthorizationManager am = null;
-        try {
-            am = authzMgrMap.get(securityDomain);
-            if (am == null) {
-                am = (AuthorizationManager) lookUpJNDI(securityDomain + "/authorizationMgr");
-                authzMgrMap.put(securityDomain, am);
-            }
-        } catch (Exception e) {
-            log.trace("Exception getting AuthorizationManager for domain=", e);
-        }
-        return am;
+        SecurityDomainContext sdc = getSecurityDomainContext(securityDomain);
+        return sdc == null ? null : sdc.getAuthorizationManager();
     }
 
     /** {@inheritDoc} */
     public IdentityTrustManager getIdentityTrustManager(String securityDomain) {
-        IdentityTrustManager itm = null;
-        try {
-            itm = idmMgrMap.get(securityDomain);
-            if (itm == null) {
-                itm = (IdentityTrustManager) lookUpJNDI(securityDomain + "/identityTrustMgr");
-                idmMgrMap.put(securityDomain, itm);
-            }
-        } catch (Exception e) {
-            log.trace("Exception getting IdentityTrustManager for domain=" + securityDomain, e);
-        }
-        return itm;
+        SecurityDomainContext sdc = getSecurityDomainContext(securityDomain);
+        return sdc == null ? null : sdc.getIdentityTrustMgr();
     }
 
     /** {@inheritDoc} */
     public MappingManager getMappingManager(String securityDomain) {
-        MappingManager mm = null;
-        try {
-            mm = mappingMgrMap.get(securityDomain);
-            if (mm == null) {
-                mm = (MappingManager) lookUpJNDI(securityDomain + "/mappingMgr");
-                mappingMgrMap.put(securityDomain, mm);
+        SecurityDomainContext sdc = getSecurityDomainContext(securityDomain);
+        return sdc == null ? null : sdc.getMappingMgr();
+    }
+
+    /**
+     * Gets the {@code SecurityDomainContext} holding the managers of a security domain. The context is created on the
+     * first call for a domain that wasn't populated when it was added. A domain which hasn't been added doesn't exist,
+     * so {@code null} is returned straight away; a domain whose context fails to be created is tried again on the
+     * next call.
+     *
+     * @param securityDomain name of the security domain
+     * @return the {@code SecurityDomainContext} or {@code null} if there is no such domain or it can't be created
+     */
+    public SecurityDomainContext getSecurityDomainContext(String securityDomain) {
+        SecurityDomainContext sdc = securityMgrMap.get(securityDomain);
+        if (sdc != null || !registeredDomains.containsKey(securityDomain))
+            return sdc;
+        return resolveSecurityDomainContext(securityDomain);
+    }
+
+    private synchronized SecurityDomainContext resolveSecurityDomainContext(String securityDomain) {
+        SecurityDomainContext sdc = securityMgrMap.get(securityDomain);
+        if (sdc == null && registeredDomains.containsKey(securityDomain)) {
+            try {
+                sdc = createSecurityDomainContext(securityDomain);
+                securityMgrMap.put(securityDomain, sdc);
+            } catch (Exception e) {
+                log.warn("Exception creating SecurityDomainContext for domain=" + securityDomain, e);
             }
-        } catch (Exception e) {
-            log.trace("Exception getting MappingManager for domain=" + securityDomain, e);
         }
-        return mm;
+        return sdc;
+    }
+
+    /**
+     * Adds a security domain, discarding the managers created for a previous domain with the same name.
+     *
+     * @param securityDomain name of the security domain
+     * @param authenticationCache the cache of successful authentications or {@code null} to disable caching
+     */
+    public synchronized void addSecurityDomain(String securityDomain, AuthenticationCache authenticationCache) {
+        if (authenticationCache == null)
+            authCacheMap.remove(securityDomain);
+        else
+            authCacheMap.put(securityDomain, authenticationCache);
+        securityMgrMap.remove(securityDomain);
+        registeredDomains.put(securityDomain, Boolean.TRUE);
+    }
+
+    /**
+     * Creates the managers of a security domain now rather than on its first use.
+     *
+     * @param securityDomain name of the security domain
+     */
+    public void populateSecurityDomain(String securityDomain) {
+        resolveSecurityDomainContext(securityDomain);
+    }
+
+    /**
+     * Removes a security domain and its managers.
+     *
+     * @param securityDomain name of the security domain
+     */
+    public synchronized void removeSecurityDomain(String securityDomain) {
+        authCacheMap.remove(securityDomain);
+        securityMgrMap.remove(securityDomain);
+        registeredDomains.remove(securityDomain);
+    }
+
+    /**
+     * Gets the cache of successful authentications for a security domain
+     *
+     * @param securityDomain name of the security domain
+     * @return the cache or {@code null} if authentications are not cached
+     */
+    public AuthenticationCache getAuthenticationCache(String securityDomain) {
+        return authCacheMap.get(securityDomain);
     }
 
     public String getAuthenticationManagerClassName() {
@@ -211,27 +234,6 @@ public class JNDIBasedSecurityManagement implements ISecurityManagement {
         this.mappingManagerClassName = mappingManagerClassName;
     }
 
-    /**
-     * Lookup a context in JNDI
-     *
-     * @param contextName the context
-     * @return the Object found at the context or null if there is nothing bound
-     */
-    private Object lookUpJNDI(String contextName) {
-        Object result = null;
-        try {
-            Context ctx = new InitialContext();
-            if (contextName.startsWith(SecurityConstants.JAAS_CONTEXT_ROOT))
-                result = ctx.lookup(contextName);
-            else
-                result = ctx.lookup(SecurityConstants.JAAS_CONTEXT_ROOT + "/" + contextName);
-        } catch (Exception e) {
-            log.trace("Look up of JNDI for " + contextName + " failed with " + e.getLocalizedMessage());
-            return null;
-        }
-        return result;
-    }
-
     /**
      * Creates a {@code SecurityDomainContext}
      *
@@ -242,20 +244,39 @@ public class JNDIBasedSecurityManagement implements ISecurityManagement {
     public SecurityDomainContext createSecurityDomainContext(String securityDomain) throws Exception {
         log.debug("Creating SDC for domain=" + securityDomain);
         AuthenticationManager am = createAuthenticationManager(securityDomain);
-        // TODO create auth cache and set it in am
 
         // set DeepCopySubject option if supported
         if (deepCopySubjectMode) {
             setDeepCopySubjectMode(am);
         }
 
-        // TODO set auth cache
-        SecurityDomainContext securityDomainContext = new SecurityDomainContext(am, null);
+        AuthenticationCache cache = authCacheMap.get(securityDomain);
+        if (cache != null) {
+            am = CachingAuthenticationManager.create(am, cache);
+        }
+        SecurityDomainContext securityDomainContext = new SecurityDomainContext(am, cache);
 
-        securityDomainContext.setAuthorizationManager(createAuthorizationManager(securityDomain));
-        securityDomainContext.setAuditMgr(createAuditManager(securityDomain));
-        securityDomainContext.setIdentityTrustMgr(createIdentityTrustManager(securityDomain));
-        securityDomainContext.setMappingMgr(createMappingManager(securityDomain));
+        // the other managers are optional, a domain without one of them still authenticates
+        try {
+            securityDomainContext.setAuthorizationManager(createAuthorizationManager(securityDomain));
+        } catch (Exception e) {
+            log.debug("Exception creating AuthorizationManager for domain=" + securityDomain, e);
+        }
+        try {
+            securityDomainContext.setAuditMgr(createAuditManager(securityDomain));
+        } catch (Exception e) {
+            log.debug("Exception creating AuditManager for domain=" + securityDomain, e);
+        }
+        try {
+            securityDomainContext.setIdentityTrustMgr(createIdentityTrustManager(securityDomain));
+        } catch (Exception e) {
+            log.debug("Exception creating IdentityTrustManager for domain=" + securityDomain, e);
+        }
+        try {
+            securityDomainContext.setMappingMgr(createMappingManager(securityDomain));
+        } catch (Exception e) {
+            log.debug("Exception creating MappingManager for domain=" + securityDomain, e);
+        }
         return securityDomainContext;
     }
 
@@ -59,13 +59,11 @@ public class SecurityDomainContext {
     AuditManager auditMgr;
     MappingManager mappingMgr;
     IdentityTrustManager identityTrustMgr;
-    // FIXME
-    Object authenticationCache;
+    AuthenticationCache authenticationCache;
 
     private static final String SUBJECT_CONTEXT_KEY = "javax.security.auth.Subject.container";
 
-    // FIXME
-    public SecurityDomainContext(AuthenticationManager authenticationMgr, Object authenticationCache) {
+    public SecurityDomainContext(AuthenticationManager authenticationMgr, AuthenticationCache authenticationCache) {
         this.authenticationMgr = authenticationMgr;
         this.authenticationCache = authenticationCache;
     }
@@ -132,13 +130,11 @@ public class SecurityDomainContext {
         return authorizationMgr;
     }
 
-    // FIXME
-    public void setAuthenticationCache(Object cp) {
+    public void setAuthenticationCache(AuthenticationCache cp) {
         this.authenticationCache = cp;
     }
 
-    // FIXME
-    public Object getAuthenticationCache() {
+    public AuthenticationCache getAuthenticationCache() {
         return authenticationCache;
     }
 
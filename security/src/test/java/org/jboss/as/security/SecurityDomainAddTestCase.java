@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.security;
+
+import static org.jboss.as.security.CommonAttributes.CACHE_EVICTION_POLICY;
+import static org.jboss.as.security.CommonAttributes.CACHE_MAX_ENTRIES;
+import static org.jboss.as.security.CommonAttributes.CACHE_TTL;
+
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the validation of the authentication cache settings of a security domain.
+ */
+public class SecurityDomainAddTestCase {
+
+    @Test
+    public void testDefaults() throws Exception {
+        Assert.assertNotNull(SecurityDomainAdd.createAuthenticationCache(new ModelNode()));
+    }
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        final ModelNode operation = new ModelNode();
+        operation.get(CACHE_MAX_ENTRIES).set(0);
+        Assert.assertNull(SecurityDomainAdd.createAuthenticationCache(operation));
+    }
+
+    @Test
+    public void testValidSettings() throws Exception {
+        final ModelNode operation = new ModelNode();
+        operation.get(CACHE_MAX_ENTRIES).set(10);
+        operation.get(CACHE_TTL).set(60);
+        operation.get(CACHE_EVICTION_POLICY).set("fifo");
+        Assert.assertNotNull(SecurityDomainAdd.createAuthenticationCache(operation));
+    }
+
+    @Test
+    public void testNegativeMaxEntries() {
+        final ModelNode operation = new ModelNode();
+        operation.get(CACHE_MAX_ENTRIES).set(-1);
+        assertInvalid(operation);
+    }
+
+    @Test
+    public void testZeroTtl() {
+        final ModelNode operation = new ModelNode();
+        operation.get(CACHE_TTL).set(0);
+        assertInvalid(operation);
+    }
+
+    @Test
+    public void testNonNumericTtl() {
+        final ModelNode operation = new ModelNode();
+        operation.get(CACHE_TTL).set("forever");
+        assertInvalid(operation);
+    }
+
+    @Test
+    public void testUnknownEvictionPolicy() {
+        final ModelNode operation = new ModelNode();
+        operation.get(CACHE_EVICTION_POLICY).set("random");
+        assertInvalid(operation);
+    }
+
+    private static void assertInvalid(final ModelNode operation) {
+        try {
+            SecurityDomainAdd.createAuthenticationCache(operation);
+            Assert.fail("Expected OperationFailedException");
+        } catch (OperationFailedException expected) {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.security.plugins;
+
+import java.security.Principal;
+
+import javax.security.auth.Subject;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of {@link AuthenticationCache}.
+ */
+public class AuthenticationCacheTestCase {
+
+    private static final Principal USER = new Principal() {
+        public String getName() {
+            return "user";
+        }
+    };
+
+    private final AuthenticationCache cache = new AuthenticationCache(10, 60, AuthenticationCache.EvictionPolicy.LRU);
+    private final Subject subject = new Subject();
+
+    @Test
+    public void testPasswordMatches() {
+        final char[] password = "secret".toCharArray();
+        cache.put(USER, password, subject);
+        // the cache must not depend on the caller's array, which is commonly cleared after login
+        password[0] = 0;
+        Assert.assertSame(subject, cache.get(USER, "secret".toCharArray()));
+        Assert.assertSame(subject, cache.get(USER, "secret"));
+        Assert.assertNull(cache.get(USER, "Secret".toCharArray()));
+        Assert.assertNull(cache.get(USER, null));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testBinaryCredentialMatches() {
+        cache.put(USER, new byte[] { 1, 2, 3 }, subject);
+        Assert.assertSame(subject, cache.get(USER, new byte[] { 1, 2, 3 }));
+        Assert.assertNull(cache.get(USER, new byte[] { 1, 2, 4 }));
+    }
+
+    @Test
+    public void testOtherCredentialsAreNotCached() {
+        final Object certificate = new Object();
+        cache.put(USER, certificate, subject);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.get(USER, certificate));
+    }
+
+    @Test
+    public void testFlushByName() {
+        cache.put(USER, "secret", subject);
+        cache.flush("other");
+        Assert.assertEquals(1, cache.size());
+        cache.flush("user");
+        Assert.assertNull(cache.get(USER, "secret"));
+    }
+}
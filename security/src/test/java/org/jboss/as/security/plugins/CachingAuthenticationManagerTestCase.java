@@ -0,0 +1,155 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.security.plugins;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.security.auth.Subject;
+
+import org.jboss.security.AuthenticationManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests answering authentications from an {@link AuthenticationCache}.
+ */
+public class CachingAuthenticationManagerTestCase {
+
+    private static final Principal USER = new TestPrincipal("user");
+    private static final Principal ROLES = new TestPrincipal("Roles");
+    private static final char[] PASSWORD = "secret".toCharArray();
+    private static final String PUBLIC_CREDENTIAL = "public";
+
+    private final AtomicInteger logins = new AtomicInteger();
+    private AuthenticationCache cache;
+    private AuthenticationManager manager;
+
+    @Before
+    public void setUp() {
+        cache = new AuthenticationCache(10, 60, AuthenticationCache.EvictionPolicy.LRU);
+        manager = CachingAuthenticationManager.create(createLoginModuleManager(), cache);
+    }
+
+    @Test
+    public void testCacheHitPopulatesActiveSubject() {
+        Assert.assertTrue(manager.isValid(USER, PASSWORD.clone(), new Subject()));
+        Assert.assertEquals(1, logins.get());
+
+        final Subject subject = new Subject();
+        Assert.assertTrue(manager.isValid(USER, PASSWORD.clone(), subject));
+        Assert.assertEquals(1, logins.get());
+        Assert.assertTrue(subject.getPrincipals().contains(USER));
+        Assert.assertTrue(subject.getPrincipals().contains(ROLES));
+        Assert.assertTrue(subject.getPublicCredentials().contains(PUBLIC_CREDENTIAL));
+    }
+
+    @Test
+    public void testPrivateCredentialsAreNotCached() {
+        final Subject loggedIn = new Subject();
+        Assert.assertTrue(manager.isValid(USER, PASSWORD.clone(), loggedIn));
+        // the login itself still gets the private credentials
+        Assert.assertEquals(1, loggedIn.getPrivateCredentials().size());
+
+        Assert.assertTrue(cache.get(USER, PASSWORD.clone()).getPrivateCredentials().isEmpty());
+        final Subject subject = new Subject();
+        Assert.assertTrue(manager.isValid(USER, PASSWORD.clone(), subject));
+        Assert.assertEquals(1, logins.get());
+        Assert.assertTrue(subject.getPrivateCredentials().isEmpty());
+    }
+
+    @Test
+    public void testCacheHitWithoutActiveSubject() {
+        Assert.assertTrue(manager.isValid(USER, PASSWORD.clone()));
+        Assert.assertTrue(manager.isValid(USER, PASSWORD.clone()));
+        Assert.assertEquals(1, logins.get());
+    }
+
+    @Test
+    public void testOtherCredentialIsAuthenticated() {
+        Assert.assertTrue(manager.isValid(USER, PASSWORD.clone(), new Subject()));
+        Assert.assertFalse(manager.isValid(USER, "wrong".toCharArray(), new Subject()));
+        Assert.assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void testFailedLoginIsNotCached() {
+        Assert.assertFalse(manager.isValid(USER, "wrong".toCharArray(), new Subject()));
+        Assert.assertFalse(manager.isValid(USER, "wrong".toCharArray(), new Subject()));
+        Assert.assertEquals(2, logins.get());
+    }
+
+    /**
+     * An authentication manager accepting {@link #PASSWORD}, which adds the principal, a role group and the
+     * credentials to the active subject like the login modules would.
+     */
+    private AuthenticationManager createLoginModuleManager() {
+        return (AuthenticationManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { AuthenticationManager.class }, new InvocationHandler() {
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        if (!"isValid".equals(method.getName())) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        logins.incrementAndGet();
+                        if (!Arrays.equals(PASSWORD, (char[]) args[1])) {
+                            return Boolean.FALSE;
+                        }
+                        if (args.length == 3 && args[2] != null) {
+                            final Subject subject = (Subject) args[2];
+                            subject.getPrincipals().add((Principal) args[0]);
+                            subject.getPrincipals().add(ROLES);
+                            subject.getPublicCredentials().add(PUBLIC_CREDENTIAL);
+                            subject.getPrivateCredentials().add(args[1]);
+                        }
+                        return Boolean.TRUE;
+                    }
+                });
+    }
+
+    private static final class TestPrincipal implements Principal {
+        private final String name;
+
+        TestPrincipal(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof TestPrincipal && name.equals(((TestPrincipal) other).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+    }
+}
@@ -22,6 +22,7 @@
 
 package org.jboss.as.server;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Iterator;
@@ -115,10 +116,13 @@ final class ApplicationServerService implements Service<AsyncFuture<ServiceConta
         } else {
             this.startTime = -1;
         }
-        final BootstrapListener bootstrapListener = new BootstrapListener(container, startTime, serviceTarget, futureContainer);
+        final ClassPreloader classPreloader = new ClassPreloader(serverEnvironment, configuration.getModuleLoader());
+        classPreloader.start();
+        final BootstrapListener bootstrapListener = new BootstrapListener(container, startTime, serviceTarget, futureContainer, classPreloader);
         serviceTarget.addListener(bootstrapListener);
         myController.addListener(bootstrapListener);
-        ServerDeploymentRepositoryImpl.addService(serviceTarget, serverEnvironment.getServerDeployDir(), serverEnvironment.getServerSystemDeployDir());
+        ServerDeploymentRepositoryImpl.addService(serviceTarget, serverEnvironment.getServerDeployDir(), serverEnvironment.getServerSystemDeployDir(),
+                new File(serverEnvironment.getServerDataDir(), "expanded"), "partial".equals(serverEnvironment.getDeploymentExpansionMode()));
         ServiceModuleLoader.addService(serviceTarget, configuration);
         ExternalModuleService.addService(serviceTarget);
         ModuleIndexService.addService(serviceTarget);
@@ -188,11 +192,13 @@ final class ApplicationServerService implements Service<AsyncFuture<ServiceConta
         private final ServiceContainer serviceContainer;
         private final FutureServiceContainer futureContainer;
         private final long startTime;
+        private final ClassPreloader classPreloader;
         private final Set<ServiceName> missingDepsSet = Collections.synchronizedSet(new TreeSet<ServiceName>());
         private volatile boolean cancelLikely;
 
-        public BootstrapListener(final ServiceContainer serviceContainer, final long startTime, final ServiceTarget serviceTarget, final FutureServiceContainer futureContainer) {
+        public BootstrapListener(final ServiceContainer serviceContainer, final long startTime, final ServiceTarget serviceTarget, final FutureServiceContainer futureContainer, final ClassPreloader classPreloader) {
             this.serviceContainer = serviceContainer;
+            this.classPreloader = classPreloader;
             this.futureContainer = futureContainer;
             this.startTime = startTime;
             this.serviceTarget = serviceTarget;
@@ -279,6 +285,7 @@ final class ApplicationServerService implements Service<AsyncFuture<ServiceConta
                 return;
             }
             futureContainer.done(container);
+            classPreloader.bootComplete();
             final int failed = this.failed.get() + outstanding;
             final long elapsedTime = Math.max(System.currentTimeMillis() - startTime, 0L);
             final Logger log = Logger.getLogger("org.jboss.as");
@@ -0,0 +1,442 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.security.AccessController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import org.jboss.logging.Logger;
+import org.jboss.modules.Module;
+import org.jboss.modules.ModuleIdentifier;
+import org.jboss.modules.ModuleLoadException;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.modules.log.ModuleLogger;
+import org.jboss.threads.JBossThreadFactory;
+
+/**
+ * Records the classes each module defines until the server has started, and on later boots
+ * loads those classes on background threads ahead of demand.
+ * <p>
+ * Classes are recorded through the {@link ModuleLogger#classDefined(String, Module)} callback, so
+ * only the modules and classes the boot actually used end up in the recording.  The recording is
+ * stored in the server data directory together with a fingerprint of the jars in the modules
+ * directory; a recording whose fingerprint no longer matches is ignored.  Classes are loaded but
+ * never initialized, so static initializers still run on first use.
+ */
+final class ClassPreloader {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.server.preload");
+
+    static final String RECORDING_FILE_NAME = "class-preload.txt";
+
+    private static final String FINGERPRINT_PREFIX = "#fingerprint ";
+    private static final String MODE_RECORD = "record";
+    private static final String MODE_PRELOAD = "preload";
+
+    private static final Comparator<ModuleIdentifier> IDENTIFIER_ORDER = new Comparator<ModuleIdentifier>() {
+        public int compare(final ModuleIdentifier o1, final ModuleIdentifier o2) {
+            return o1.toString().compareTo(o2.toString());
+        }
+    };
+
+    private final String mode;
+    private final File modulesDir;
+    private final File recordingFile;
+    private final ModuleLoader moduleLoader;
+    private volatile String fingerprint;
+    private volatile ExecutorService executor;
+    private volatile RecordingModuleLogger recordingLogger;
+
+    ClassPreloader(final ServerEnvironment serverEnvironment, final ModuleLoader moduleLoader) {
+        mode = serverEnvironment.getClassPreloadMode();
+        modulesDir = serverEnvironment.getModulesDir();
+        recordingFile = new File(serverEnvironment.getServerDataDir(), RECORDING_FILE_NAME);
+        this.moduleLoader = moduleLoader;
+    }
+
+    /**
+     * Begin recording defined classes in record mode, or preloading recorded classes in preload
+     * mode if a valid recording exists.
+     */
+    void start() {
+        if (MODE_RECORD.equals(mode)) {
+            final RecordingModuleLogger recordingLogger = new RecordingModuleLogger(Module.getModuleLogger(), moduleLoader);
+            Module.setModuleLogger(recordingLogger);
+            this.recordingLogger = recordingLogger;
+            return;
+        }
+        if (! MODE_PRELOAD.equals(mode) || ! recordingFile.isFile()) {
+            return;
+        }
+        final Map<ModuleIdentifier, List<String>> recording;
+        try {
+            recording = readRecording();
+        } catch (IOException e) {
+            log.warnf(e, "Failed to read class preload recording %s", recordingFile);
+            return;
+        }
+        if (recording == null) {
+            log.infof("Discarding stale class preload recording %s; module jars have changed", recordingFile);
+            recordingFile.delete();
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), createThreadFactory());
+        for (Map.Entry<ModuleIdentifier, List<String>> entry : recording.entrySet()) {
+            executor.execute(new PreloadTask(entry.getKey(), entry.getValue()));
+        }
+        executor.shutdown();
+        this.executor = executor;
+        log.debugf("Preloading classes for %d modules", Integer.valueOf(recording.size()));
+    }
+
+    /**
+     * Called once the server has started.  In record mode this stops recording and writes the
+     * recording on a background thread; in preload mode it abandons any preloading work which has
+     * not been done yet, since demand loading has caught up with it.
+     *
+     * @return the task writing the recording, or {@code null} if nothing is recorded
+     */
+    Future<?> bootComplete() {
+        final ExecutorService executor = this.executor;
+        if (executor != null) {
+            this.executor = null;
+            executor.shutdownNow();
+        }
+        final RecordingModuleLogger recordingLogger = this.recordingLogger;
+        if (recordingLogger == null) {
+            return null;
+        }
+        this.recordingLogger = null;
+        recordingLogger.stop();
+        final FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+            public Void call() throws Exception {
+                try {
+                    writeRecording(recordingLogger.getRecording());
+                } catch (IOException e) {
+                    log.warnf(e, "Failed to write class preload recording %s", recordingFile);
+                }
+                return null;
+            }
+        });
+        createThreadFactory().newThread(task).start();
+        return task;
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        final ThreadGroup threadGroup = new ThreadGroup("ClassPreloader-threads");
+        return new JBossThreadFactory(threadGroup, Boolean.TRUE, Integer.valueOf(Thread.MIN_PRIORITY), "%G - %t", null, null, AccessController.getContext());
+    }
+
+    private Map<ModuleIdentifier, List<String>> readRecording() throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(recordingFile), "UTF-8"));
+        try {
+            final String header = reader.readLine();
+            if (header == null || ! header.startsWith(FINGERPRINT_PREFIX) || ! header.substring(FINGERPRINT_PREFIX.length()).equals(getFingerprint())) {
+                return null;
+            }
+            final Map<ModuleIdentifier, List<String>> recording = new LinkedHashMap<ModuleIdentifier, List<String>>();
+            List<String> current = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() == 0) {
+                    continue;
+                }
+                if (line.charAt(0) == '[' && line.charAt(line.length() - 1) == ']') {
+                    current = new ArrayList<String>();
+                    recording.put(ModuleIdentifier.fromString(line.substring(1, line.length() - 1)), current);
+                } else if (current != null) {
+                    current.add(line);
+                }
+            }
+            return recording;
+        } finally {
+            safeClose(reader);
+        }
+    }
+
+    private void writeRecording(final Map<ModuleIdentifier, List<String>> recording) throws IOException {
+        final File parent = recordingFile.getParentFile();
+        if (! parent.isDirectory() && ! parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        final File tmp = new File(parent, RECORDING_FILE_NAME + ".tmp");
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), "UTF-8"));
+        int classCount = 0;
+        int moduleCount = 0;
+        try {
+            writer.write(FINGERPRINT_PREFIX);
+            writer.write(getFingerprint());
+            writer.write('\n');
+            for (Map.Entry<ModuleIdentifier, List<String>> entry : recording.entrySet()) {
+                final ModuleIdentifier identifier = entry.getKey();
+                final List<String> classNames = entry.getValue();
+                if (classNames.isEmpty()) {
+                    continue;
+                }
+                writer.write('[');
+                writer.write(identifier.toString());
+                writer.write(']');
+                writer.write('\n');
+                for (String className : classNames) {
+                    writer.write(className);
+                    writer.write('\n');
+                }
+                classCount += classNames.size();
+                moduleCount++;
+            }
+        } finally {
+            safeClose(writer);
+        }
+        if (! tmp.renameTo(recordingFile)) {
+            recordingFile.delete();
+            if (! tmp.renameTo(recordingFile)) {
+                throw new IOException("Cannot rename " + tmp + " to " + recordingFile);
+            }
+        }
+        log.infof("Recorded %d classes from %d modules to %s", Integer.valueOf(classCount), Integer.valueOf(moduleCount), recordingFile);
+    }
+
+    /**
+     * Get a fingerprint of the modules directory, covering the path, size and modification time of
+     * every file in it.  Any change to a module jar or descriptor changes the fingerprint.
+     */
+    private String getFingerprint() throws IOException {
+        String fingerprint = this.fingerprint;
+        if (fingerprint == null) {
+            final MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e.toString());
+            }
+            updateFingerprint(digest, modulesDir, "");
+            final StringBuilder b = new StringBuilder();
+            for (byte value : digest.digest()) {
+                b.append(Character.forDigit((value >> 4) & 0xf, 16));
+                b.append(Character.forDigit(value & 0xf, 16));
+            }
+            this.fingerprint = fingerprint = b.toString();
+        }
+        return fingerprint;
+    }
+
+    private static void updateFingerprint(final MessageDigest digest, final File dir, final String path) throws IOException {
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            final String name = path + "/" + file.getName();
+            if (file.isDirectory()) {
+                updateFingerprint(digest, file, name);
+            } else {
+                digest.update(name.getBytes("UTF-8"));
+                digest.update(Long.toString(file.length()).getBytes("UTF-8"));
+                digest.update(Long.toString(file.lastModified()).getBytes("UTF-8"));
+            }
+        }
+    }
+
+    private static void safeClose(final Reader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private static void safeClose(final Writer writer) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * A module logger which records the classes defined by the modules of one module loader, and
+     * passes every call on to the logger it replaced.
+     */
+    static final class RecordingModuleLogger implements ModuleLogger {
+        private final ModuleLogger delegate;
+        private final ModuleLoader moduleLoader;
+        private final ConcurrentMap<ModuleIdentifier, Queue<String>> recording = new ConcurrentHashMap<ModuleIdentifier, Queue<String>>();
+        private volatile boolean stopped;
+
+        RecordingModuleLogger(final ModuleLogger delegate, final ModuleLoader moduleLoader) {
+            this.delegate = delegate;
+            this.moduleLoader = moduleLoader;
+        }
+
+        /**
+         * Stop recording and put the replaced logger back, unless another logger has been
+         * installed in the meantime.
+         */
+        void stop() {
+            stopped = true;
+            if (Module.getModuleLogger() == this) {
+                Module.setModuleLogger(delegate);
+            }
+        }
+
+        /**
+         * Get the recorded classes of each module, in the order they were defined.
+         *
+         * @return the recording, ordered by module identifier
+         */
+        Map<ModuleIdentifier, List<String>> getRecording() {
+            final Map<ModuleIdentifier, List<String>> result = new TreeMap<ModuleIdentifier, List<String>>(IDENTIFIER_ORDER);
+            for (Map.Entry<ModuleIdentifier, Queue<String>> entry : recording.entrySet()) {
+                result.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
+            }
+            return result;
+        }
+
+        public void classDefined(final String name, final Module module) {
+            if (! stopped && module.getModuleLoader() == moduleLoader) {
+                final ModuleIdentifier identifier = module.getIdentifier();
+                Queue<String> classNames = recording.get(identifier);
+                if (classNames == null) {
+                    final Queue<String> appearing = recording.putIfAbsent(identifier, classNames = new ConcurrentLinkedQueue<String>());
+                    if (appearing != null) {
+                        classNames = appearing;
+                    }
+                }
+                classNames.add(name);
+            }
+            delegate.classDefined(name, module);
+        }
+
+        public void classDefineFailed(final Throwable throwable, final String className, final Module module) {
+            delegate.classDefineFailed(throwable, className, module);
+        }
+
+        public void moduleDefined(final ModuleIdentifier identifier, final ModuleLoader moduleLoader) {
+            delegate.moduleDefined(identifier, moduleLoader);
+        }
+
+        public void greeting() {
+            delegate.greeting();
+        }
+
+        public void trace(final String message) {
+            delegate.trace(message);
+        }
+
+        public void trace(final String format, final Object arg1) {
+            delegate.trace(format, arg1);
+        }
+
+        public void trace(final String format, final Object arg1, final Object arg2) {
+            delegate.trace(format, arg1, arg2);
+        }
+
+        public void trace(final String format, final Object arg1, final Object arg2, final Object arg3) {
+            delegate.trace(format, arg1, arg2, arg3);
+        }
+
+        public void trace(final String format, final Object... args) {
+            delegate.trace(format, args);
+        }
+
+        public void trace(final Throwable t, final String message) {
+            delegate.trace(t, message);
+        }
+
+        public void trace(final Throwable t, final String format, final Object arg1) {
+            delegate.trace(t, format, arg1);
+        }
+
+        public void trace(final Throwable t, final String format, final Object arg1, final Object arg2) {
+            delegate.trace(t, format, arg1, arg2);
+        }
+
+        public void trace(final Throwable t, final String format, final Object arg1, final Object arg2, final Object arg3) {
+            delegate.trace(t, format, arg1, arg2, arg3);
+        }
+
+        public void trace(final Throwable t, final String format, final Object... args) {
+            delegate.trace(t, format, args);
+        }
+    }
+
+    private final class PreloadTask implements Runnable {
+        private final ModuleIdentifier identifier;
+        private final List<String> classNames;
+
+        PreloadTask(final ModuleIdentifier identifier, final List<String> classNames) {
+            this.identifier = identifier;
+            this.classNames = classNames;
+        }
+
+        public void run() {
+            final ClassLoader classLoader;
+            try {
+                classLoader = moduleLoader.loadModule(identifier).getClassLoader();
+            } catch (ModuleLoadException e) {
+                log.debugf(e, "Cannot preload classes for module %s", identifier);
+                return;
+            }
+            final Thread thread = Thread.currentThread();
+            for (String className : classNames) {
+                if (thread.isInterrupted()) {
+                    return;
+                }
+                try {
+                    Class.forName(className, false, classLoader);
+                } catch (Throwable t) {
+                    log.tracef(t, "Cannot preload class %s from module %s", className, identifier);
+                }
+            }
+        }
+    }
+}
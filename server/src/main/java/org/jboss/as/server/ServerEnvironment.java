@@ -25,6 +25,7 @@ import java.io.File;
 import java.io.Serializable;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.regex.Pattern;
@@ -146,6 +147,30 @@ public class ServerEnvironment implements Serializable {
      */
     public static final String QUALIFIED_HOST_NAME = "jboss.qualified.host.name";
 
+    /**
+     * Constant that holds the name of the system property for specifying the
+     * startup class preloading mode. Valid values are <tt>record</tt>, which
+     * records the classes loaded by each module until the server has started,
+     * <tt>preload</tt>, which loads a previously recorded class list on
+     * background threads during boot, and <tt>none</tt>.
+     *
+     * <p>Defaults to <tt>none</tt>. The recording is kept in <tt><em>SERVER_DATA_DIR</em></tt>.
+     */
+    public static final String CLASS_PRELOAD_MODE = "jboss.server.class.preload.mode";
+
+    /**
+     * Constant that holds the name of the system property for specifying how
+     * web archives are expanded when they are mounted from the deployment
+     * repository. Valid values are <tt>full</tt>, which expands the whole
+     * archive, and <tt>partial</tt>, which expands only static content, JSPs
+     * and TLDs and serves <tt>WEB-INF/classes</tt> and <tt>WEB-INF/lib</tt>
+     * straight from the archive.
+     *
+     * <p>Defaults to <tt>full</tt>. Expanded content is cached by content hash in
+     * <tt><em>SERVER_DATA_DIR</em>/expanded</tt> and reused across restarts.
+     */
+    public static final String DEPLOYMENT_EXPANSION_MODE = "jboss.server.deployment.expansion.mode";
+
     private final String qualifiedHostName;
     private final String hostName;
     private final String serverName;
@@ -163,6 +188,8 @@ public class ServerEnvironment implements Serializable {
     private final File serverTempDir;
     private final boolean standalone;
     private final File serverSystemDeployDir;
+    private final String classPreloadMode;
+    private final String deploymentExpansionMode;
 
     public ServerEnvironment(Properties props, Map<String, String> env, boolean standalone) {
         this.standalone = standalone;
@@ -279,6 +306,9 @@ public class ServerEnvironment implements Serializable {
             tmp = new File(serverBaseDir, "tmp");
         }
         serverTempDir = tmp;
+
+        classPreloadMode = props.getProperty(CLASS_PRELOAD_MODE, "none").trim().toLowerCase(Locale.ENGLISH);
+        deploymentExpansionMode = props.getProperty(DEPLOYMENT_EXPANSION_MODE, "full").trim().toLowerCase(Locale.ENGLISH);
     }
 
     void install() {
@@ -376,6 +406,26 @@ public class ServerEnvironment implements Serializable {
         return serverTempDir;
     }
 
+    /**
+     * Get the startup class preloading mode.
+     *
+     * @return the preload mode, one of <tt>record</tt>, <tt>preload</tt> or <tt>none</tt>
+     * @see #CLASS_PRELOAD_MODE
+     */
+    public String getClassPreloadMode() {
+        return classPreloadMode;
+    }
+
+    /**
+     * Get the expansion mode for web archives mounted from the deployment repository.
+     *
+     * @return the expansion mode, one of <tt>full</tt> or <tt>partial</tt>
+     * @see #DEPLOYMENT_EXPANSION_MODE
+     */
+    public String getDeploymentExpansionMode() {
+        return deploymentExpansionMode;
+    }
+
     public boolean isStandalone() {
         return standalone;
     }
@@ -0,0 +1,592 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.module;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import org.jboss.modules.ClassSpec;
+import org.jboss.modules.PackageSpec;
+import org.jboss.modules.Resource;
+import org.jboss.modules.ResourceLoader;
+import org.jboss.modules.filter.PathFilter;
+import org.jboss.modules.filter.PathFilters;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+
+/**
+ * Resource loader which reads class and resource bytes straight out of a zip-mounted archive.  The central directory
+ * of the archive is read once into an in-memory index, so lookups (including misses, which are the common case for
+ * parent-last or multi-root modules) never touch the VFS.  Entry data is read with positional channel reads and
+ * inflated in place.  Resource URLs are still handed out as VFS URLs, so callers see the same URLs as with
+ * {@link VFSResourceLoader}.
+ * <p>
+ * Zip64 archives, encrypted entries and compression methods other than stored and deflated are not supported; the
+ * constructor fails for those archives and callers are expected to fall back to {@link VFSResourceLoader}.
+ * <p>
+ * The loader holds the archive open until it is {@linkplain #close() closed}; callers should close it together with
+ * the mount of the archive.
+ */
+public class IndexedJarResourceLoader implements ResourceLoader, Closeable {
+
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int END_HEADER_SIG = 0x06054b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int FLAG_ENCRYPTED = 0x01;
+    private static final int MAX_POOLED_INFLATERS = 8;
+
+    private final String rootName;
+    private final VirtualFile root;
+    private final File archive;
+    private final Map<String, Entry> entries;
+    private final Set<String> paths;
+    private final Manifest manifest;
+    private final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<Inflater>();
+    private final Object channelLock = new Object();
+    private volatile RandomAccessFile file;
+    private volatile FileChannel channel;
+    private volatile boolean closed;
+
+    /**
+     * Construct new instance.
+     *
+     * @param rootName The module root name
+     * @param root The root virtual file the archive is mounted on
+     * @param archive The physical archive backing the mount
+     * @throws IOException if the archive cannot be opened or indexed
+     */
+    public IndexedJarResourceLoader(final String rootName, final VirtualFile root, final File archive) throws IOException {
+        this.rootName = rootName;
+        this.root = root;
+        this.archive = archive;
+        final Map<String, Entry> entries = new HashMap<String, Entry>();
+        final Set<String> paths = new LinkedHashSet<String>();
+        paths.add("");
+        file = new RandomAccessFile(archive, "r");
+        channel = file.getChannel();
+        try {
+            readCentralDirectory(entries, paths);
+            this.entries = entries;
+            this.paths = Collections.unmodifiableSet(paths);
+            final Entry manifestEntry = entries.get(JarFile.MANIFEST_NAME);
+            manifest = manifestEntry == null ? null : readManifest(manifestEntry);
+        } catch (IOException e) {
+            close();
+            throw e;
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the archive backing this loader.
+     *
+     * @return the archive file
+     */
+    public File getArchive() {
+        return archive;
+    }
+
+    /** {@inheritDoc} */
+    public String getRootName() {
+        return rootName;
+    }
+
+    /** {@inheritDoc} */
+    public ClassSpec getClassSpec(final String name) throws IOException {
+        final String path = canonicalize(name);
+        if (path == null) {
+            return null;
+        }
+        final Entry entry = entries.get(path);
+        if (entry == null) {
+            return null;
+        }
+        final ClassSpec spec = new ClassSpec();
+        spec.setBytes(readEntry(entry));
+        return spec;
+    }
+
+    /** {@inheritDoc} */
+    public PackageSpec getPackageSpec(final String name) throws IOException {
+        final PackageSpec spec = new PackageSpec();
+        final Manifest manifest = this.manifest;
+        if (manifest == null) {
+            return spec;
+        }
+        final Attributes mainAttribute = manifest.getMainAttributes();
+        final Attributes entryAttribute = manifest.getAttributes(name);
+        spec.setSpecTitle(getDefinedAttribute(Attributes.Name.SPECIFICATION_TITLE, entryAttribute, mainAttribute));
+        spec.setSpecVersion(getDefinedAttribute(Attributes.Name.SPECIFICATION_VERSION, entryAttribute, mainAttribute));
+        spec.setSpecVendor(getDefinedAttribute(Attributes.Name.SPECIFICATION_VENDOR, entryAttribute, mainAttribute));
+        spec.setImplTitle(getDefinedAttribute(Attributes.Name.IMPLEMENTATION_TITLE, entryAttribute, mainAttribute));
+        spec.setImplVersion(getDefinedAttribute(Attributes.Name.IMPLEMENTATION_VERSION, entryAttribute, mainAttribute));
+        spec.setImplVendor(getDefinedAttribute(Attributes.Name.IMPLEMENTATION_VENDOR, entryAttribute, mainAttribute));
+        if (Boolean.parseBoolean(getDefinedAttribute(Attributes.Name.SEALED, entryAttribute, mainAttribute))) {
+            spec.setSealBase(root.toURL());
+        }
+        return spec;
+    }
+
+    private static String getDefinedAttribute(Attributes.Name name, Attributes entryAttribute, Attributes mainAttribute) {
+        final String value = entryAttribute == null ? null : entryAttribute.getValue(name);
+        return value == null ? mainAttribute == null ? null : mainAttribute.getValue(name) : value;
+    }
+
+    /** {@inheritDoc} */
+    public String getLibrary(final String name) {
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    public PathFilter getExportFilter() {
+        return PathFilters.acceptAll();
+    }
+
+    /** {@inheritDoc} */
+    public Resource getResource(final String name) {
+        final String path = canonicalize(name);
+        if (path == null) {
+            return null;
+        }
+        final Entry entry = entries.get(path);
+        if (entry == null && !paths.contains(path)) {
+            return null;
+        }
+        try {
+            final VirtualFile file = root.getChild(path);
+            if (entry == null) {
+                // directory, let the VFS describe it
+                return new VFSResourceLoader.VFSEntryResource(file, file.toURL());
+            }
+            return new IndexedEntryResource(entry, file);
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    /** {@inheritDoc} */
+    public Collection<String> getPaths() {
+        return new ArrayList<String>(paths);
+    }
+
+    /**
+     * Release the file handle held by this loader.  Further reads will fail.
+     */
+    public void close() {
+        synchronized (channelLock) {
+            closed = true;
+            VFSUtils.safeClose(file);
+        }
+        Inflater inflater;
+        while ((inflater = inflaters.poll()) != null) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Normalize a lookup name to the form used in the index, or return {@code null} if it can not name an entry
+     * of this archive.
+     */
+    private static String canonicalize(final String name) {
+        int start = 0;
+        final int length = name.length();
+        while (start < length && name.charAt(start) == '/') {
+            start++;
+        }
+        int end = length;
+        while (end > start && name.charAt(end - 1) == '/') {
+            end--;
+        }
+        final String path = start == 0 && end == length ? name : name.substring(start, end);
+        if (path.indexOf("//") != -1 || path.equals(".") || path.equals("..") || path.startsWith("./")
+                || path.startsWith("../") || path.indexOf("/./") != -1 || path.indexOf("/../") != -1
+                || path.endsWith("/.") || path.endsWith("/..")) {
+            return null;
+        }
+        return path;
+    }
+
+    private void readCentralDirectory(final Map<String, Entry> entries, final Set<String> paths) throws IOException {
+        final long length = file.length();
+        if (length < END_HEADER_SIZE) {
+            throw new ZipException("Archive is too short: " + archive);
+        }
+        final int tailSize = (int) Math.min(length, END_HEADER_SIZE + MAX_COMMENT_SIZE);
+        final ByteBuffer tail = ByteBuffer.allocate(tailSize).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(length - tailSize, tail);
+        int end = -1;
+        for (int i = tailSize - END_HEADER_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_HEADER_SIG && i + END_HEADER_SIZE + (tail.getShort(i + 20) & 0xFFFF) == tailSize) {
+                end = i;
+                break;
+            }
+        }
+        if (end == -1) {
+            throw new ZipException("No end of central directory record found in " + archive);
+        }
+        final int count = tail.getShort(end + 10) & 0xFFFF;
+        final long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+        final long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+        if (count == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+            throw new ZipException("Zip64 archives are not supported: " + archive);
+        }
+        if (directoryOffset + directorySize > length - tailSize + end || directorySize > Integer.MAX_VALUE) {
+            throw new ZipException("Invalid central directory in " + archive);
+        }
+        final ByteBuffer directory = ByteBuffer.allocate((int) directorySize).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(directoryOffset, directory);
+        final byte[] bytes = directory.array();
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            if (pos + CENTRAL_HEADER_SIZE > bytes.length || directory.getInt(pos) != CENTRAL_HEADER_SIG) {
+                throw new ZipException("Invalid central directory header in " + archive);
+            }
+            final int flags = directory.getShort(pos + 8) & 0xFFFF;
+            final int method = directory.getShort(pos + 10) & 0xFFFF;
+            final long compressedSize = directory.getInt(pos + 20) & 0xFFFFFFFFL;
+            final long size = directory.getInt(pos + 24) & 0xFFFFFFFFL;
+            final int nameLength = directory.getShort(pos + 28) & 0xFFFF;
+            final int extraLength = directory.getShort(pos + 30) & 0xFFFF;
+            final int commentLength = directory.getShort(pos + 32) & 0xFFFF;
+            final long headerOffset = directory.getInt(pos + 42) & 0xFFFFFFFFL;
+            if (pos + CENTRAL_HEADER_SIZE + nameLength > bytes.length) {
+                throw new ZipException("Invalid central directory header in " + archive);
+            }
+            final String name = new String(bytes, pos + CENTRAL_HEADER_SIZE, nameLength, "UTF-8");
+            pos += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+
+            if (name.endsWith("/")) {
+                addParentPaths(paths, name);
+                continue;
+            }
+            if ((flags & FLAG_ENCRYPTED) != 0) {
+                throw new ZipException("Encrypted entry " + name + " in " + archive);
+            }
+            if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED) {
+                throw new ZipException("Unsupported compression method " + method + " for " + name + " in " + archive);
+            }
+            if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || headerOffset == 0xFFFFFFFFL) {
+                throw new ZipException("Zip64 entries are not supported: " + name + " in " + archive);
+            }
+            final String path = canonicalize(name);
+            if (path == null || path.length() == 0) {
+                continue;
+            }
+            entries.put(path, new Entry(path, method, headerOffset, compressedSize, size));
+            addParentPaths(paths, path);
+        }
+    }
+
+    private Manifest readManifest(final Entry entry) throws IOException {
+        final InputStream is = openEntryStream(entry);
+        try {
+            return new Manifest(is);
+        } finally {
+            VFSUtils.safeClose(is);
+        }
+    }
+
+    private static void addParentPaths(final Set<String> paths, final String name) {
+        int idx = name.lastIndexOf('/');
+        while (idx > 0) {
+            if (!paths.add(name.substring(0, idx))) {
+                return;
+            }
+            idx = name.lastIndexOf('/', idx - 1);
+        }
+    }
+
+    private long getDataOffset(final Entry entry) throws IOException {
+        long offset = entry.dataOffset;
+        if (offset == -1L) {
+            final ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(entry.headerOffset, header);
+            if (header.getInt(0) != LOCAL_HEADER_SIG) {
+                throw new ZipException("Invalid local header for " + entry.name + " in " + archive);
+            }
+            offset = entry.headerOffset + LOCAL_HEADER_SIZE + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+            entry.dataOffset = offset;
+        }
+        return offset;
+    }
+
+    private byte[] readEntry(final Entry entry) throws IOException {
+        if (entry.size > Integer.MAX_VALUE || entry.compressedSize >= Integer.MAX_VALUE) {
+            throw new IOException("Resource is too large to be a valid class file");
+        }
+        final int size = (int) entry.size;
+        final long dataOffset = getDataOffset(entry);
+        final byte[] bytes = new byte[size];
+        if (entry.method == ZipEntry.STORED) {
+            readFully(dataOffset, ByteBuffer.wrap(bytes));
+            return bytes;
+        }
+        final int compressedSize = (int) entry.compressedSize;
+        // one extra zero byte is needed by an inflater in nowrap mode
+        final byte[] compressed = new byte[compressedSize + 1];
+        readFully(dataOffset, ByteBuffer.wrap(compressed, 0, compressedSize));
+        final Inflater inflater = acquireInflater();
+        try {
+            inflater.setInput(compressed);
+            int n = 0;
+            while (n < size) {
+                final int r = inflater.inflate(bytes, n, size - n);
+                if (r == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new ZipException("Truncated entry " + entry.name + " in " + archive);
+                }
+                n += r;
+            }
+        } catch (DataFormatException e) {
+            final ZipException ze = new ZipException("Corrupt entry " + entry.name + " in " + archive);
+            ze.initCause(e);
+            throw ze;
+        } finally {
+            releaseInflater(inflater);
+        }
+        return bytes;
+    }
+
+    private InputStream openEntryStream(final Entry entry) throws IOException {
+        final long dataOffset = getDataOffset(entry);
+        if (entry.method == ZipEntry.STORED) {
+            return new EntryInputStream(dataOffset, entry.size);
+        }
+        return new EntryInflaterInputStream(new EntryInputStream(dataOffset, entry.compressedSize), entry.size);
+    }
+
+    private Inflater acquireInflater() {
+        final Inflater inflater = inflaters.poll();
+        return inflater == null ? new Inflater(true) : inflater;
+    }
+
+    private void releaseInflater(final Inflater inflater) {
+        // the bound is advisory, a few extra pooled inflaters under contention do no harm
+        if (closed || inflaters.size() >= MAX_POOLED_INFLATERS) {
+            inflater.end();
+        } else {
+            inflater.reset();
+            inflaters.offer(inflater);
+        }
+    }
+
+    private void readFully(final long position, final ByteBuffer buffer) throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (read(position + buffer.position() - start, buffer) == -1) {
+                throw new EOFException("Unexpected end of archive " + archive);
+            }
+        }
+    }
+
+    private int read(final long position, final ByteBuffer buffer) throws IOException {
+        FileChannel channel = this.channel;
+        try {
+            return channel.read(buffer, position);
+        } catch (ClosedChannelException e) {
+            // an interrupt on a thread that happened to be loading a class closes the channel for everybody
+            return reopen(channel, e).read(buffer, position);
+        }
+    }
+
+    private FileChannel reopen(final FileChannel failed, final ClosedChannelException cause) throws IOException {
+        synchronized (channelLock) {
+            if (closed) {
+                throw cause;
+            }
+            if (channel == failed) {
+                VFSUtils.safeClose(file);
+                file = new RandomAccessFile(archive, "r");
+                channel = file.getChannel();
+            }
+            return channel;
+        }
+    }
+
+    static final class Entry {
+        private final String name;
+        private final int method;
+        private final long headerOffset;
+        private final long compressedSize;
+        private final long size;
+        private volatile long dataOffset = -1L;
+
+        Entry(final String name, final int method, final long headerOffset, final long compressedSize, final long size) {
+            this.name = name;
+            this.method = method;
+            this.headerOffset = headerOffset;
+            this.compressedSize = compressedSize;
+            this.size = size;
+        }
+    }
+
+    final class IndexedEntryResource implements Resource {
+        private final Entry entry;
+        private final VirtualFile file;
+        private final java.net.URL resourceURL;
+
+        IndexedEntryResource(final Entry entry, final VirtualFile file) throws MalformedURLException {
+            this.entry = entry;
+            this.file = file;
+            resourceURL = file.toURL();
+        }
+
+        public String getName() {
+            return file.getName();
+        }
+
+        public java.net.URL getURL() {
+            return resourceURL;
+        }
+
+        public InputStream openStream() throws IOException {
+            return openEntryStream(entry);
+        }
+
+        public long getSize() {
+            return entry.size;
+        }
+    }
+
+    /**
+     * Stream over a range of the archive, using positional reads so concurrent streams do not interfere.
+     */
+    final class EntryInputStream extends InputStream {
+        private long position;
+        private long remaining;
+
+        EntryInputStream(final long position, final long length) {
+            this.position = position;
+            remaining = length;
+        }
+
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+            final int n = IndexedJarResourceLoader.this.read(position, ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)));
+            if (n == -1) {
+                throw new EOFException("Unexpected end of archive " + archive);
+            }
+            position += n;
+            remaining -= n;
+            return n;
+        }
+
+        public long skip(final long n) {
+            final long skipped = Math.max(0L, Math.min(n, remaining));
+            position += skipped;
+            remaining -= skipped;
+            return skipped;
+        }
+
+        public int available() {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+    }
+
+    static final class EntryInflaterInputStream extends InflaterInputStream {
+        private long remaining;
+        private boolean eof;
+        private boolean closed;
+
+        EntryInflaterInputStream(final InputStream in, final long size) {
+            super(in, new Inflater(true), (int) Math.max(64, Math.min(size, 8192)));
+            remaining = size;
+        }
+
+        protected void fill() throws IOException {
+            if (eof) {
+                throw new EOFException("Unexpected end of compressed entry");
+            }
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                // one extra zero byte is needed by an inflater in nowrap mode
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        public int available() throws IOException {
+            return closed ? 0 : (int) Math.max(0L, Math.min(remaining, Integer.MAX_VALUE));
+        }
+
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                inf.end();
+                super.close();
+            }
+        }
+    }
+}
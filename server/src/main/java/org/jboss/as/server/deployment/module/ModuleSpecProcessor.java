@@ -22,6 +22,7 @@
 
 package org.jboss.as.server.deployment.module;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -35,9 +36,11 @@ import org.jboss.as.server.deployment.DeploymentUnitProcessor;
 import org.jboss.as.server.deployment.SubDeploymentMarker;
 import org.jboss.as.server.moduleservice.ModuleLoadService;
 import org.jboss.as.server.moduleservice.ServiceModuleLoader;
+import org.jboss.logging.Logger;
 import org.jboss.modules.DependencySpec;
 import org.jboss.modules.ModuleIdentifier;
 import org.jboss.modules.ModuleSpec;
+import org.jboss.modules.ResourceLoader;
 import org.jboss.modules.ResourceLoaderSpec;
 import org.jboss.modules.filter.MultiplePathFilterBuilder;
 import org.jboss.modules.filter.PathFilter;
@@ -56,6 +59,15 @@ import org.jboss.msc.value.ImmediateValue;
  */
 public class ModuleSpecProcessor implements DeploymentUnitProcessor {
 
+    /**
+     * System property which can be set to {@code false} to always load zip-mounted resource roots through the VFS.
+     */
+    public static final String INDEXED_LOADER_PROPERTY = "jboss.deployment.indexed.resource.loader";
+
+    private static final boolean INDEXED_LOADER_ENABLED = Boolean.parseBoolean(System.getProperty(INDEXED_LOADER_PROPERTY, "true"));
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.server.deployment.module");
+
     private static final AttachmentKey<Boolean> MARKER = AttachmentKey.create(Boolean.class);
 
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
@@ -192,14 +204,29 @@ public class ModuleSpecProcessor implements DeploymentUnitProcessor {
     private static void addResourceRoot(final ModuleSpec.Builder specBuilder, final ResourceRoot resource)
             throws DeploymentUnitProcessingException {
         try {
-            specBuilder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(new VFSResourceLoader(resource
-                    .getRootName(), resource.getRoot())));
+            specBuilder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(createResourceLoader(resource)));
         } catch (IOException e) {
             throw new DeploymentUnitProcessingException("Failed to create VFSResourceLoader for root ["
                     + resource.getRootName() + "]", e);
         }
     }
 
+    private static ResourceLoader createResourceLoader(final ResourceRoot resource) throws IOException {
+        final MountHandle mountHandle = resource.getMountHandle();
+        final File archive = mountHandle == null ? null : mountHandle.getMountSource();
+        if (INDEXED_LOADER_ENABLED && archive != null && archive.isFile()) {
+            try {
+                final IndexedJarResourceLoader loader = new IndexedJarResourceLoader(resource.getRootName(), resource.getRoot(), archive);
+                // the archive handle is released when the deployment unmounts the root
+                mountHandle.addResource(loader);
+                return loader;
+            } catch (IOException e) {
+                log.debugf(e, "Unable to index archive %s for root %s, falling back to VFS", archive, resource.getRootName());
+            }
+        }
+        return new VFSResourceLoader(resource.getRootName(), resource.getRoot());
+    }
+
     public void undeploy(DeploymentUnit context) {
         context.removeAttachment(MARKER);
     }
@@ -23,6 +23,9 @@
 package org.jboss.as.server.deployment.module;
 
 import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.jboss.vfs.VFSUtils;
 
@@ -37,6 +40,8 @@ import org.jboss.vfs.VFSUtils;
  */
 public class MountHandle implements Closeable {
     private final Closeable handle;
+    private final List<Closeable> resources = new ArrayList<Closeable>();
+    private boolean closed;
 
     /**
      * Construct new instance with the mount handle to close.
@@ -47,17 +52,60 @@ public class MountHandle implements Closeable {
         this.handle = handle;
     }
 
+    /**
+     * Get the physical source backing the mount, if known.  For a zip mount this is the archive file itself (or the
+     * temporary copy of a nested archive); for expanded or real mounts it is a directory.
+     *
+     * @return the mount source, or {@code null} if it is not known
+     */
+    public File getMountSource() {
+        if (handle instanceof org.jboss.vfs.spi.MountHandle) {
+            return ((org.jboss.vfs.spi.MountHandle) handle).getMountSource();
+        }
+        return null;
+    }
+
+    /**
+     * Register a resource which reads from the mount, so that it is closed before the mount is.  A resource
+     * registered after this handle was closed is closed right away.
+     *
+     * @param resource the resource to close with this handle
+     */
+    public void addResource(final Closeable resource) {
+        synchronized (resources) {
+            if (!closed) {
+                resources.add(resource);
+                return;
+            }
+        }
+        VFSUtils.safeClose(resource);
+    }
+
     /**
      * Forcefully close this handle. Use with caution.
      */
     public void close() {
+        closeResources();
         if (handle != null) {
             VFSUtils.safeClose(handle);
         }
     }
 
+    private void closeResources() {
+        final List<Closeable> resources;
+        synchronized (this.resources) {
+            closed = true;
+            resources = new ArrayList<Closeable>(this.resources);
+            this.resources.clear();
+        }
+        for (Closeable resource : resources) {
+            VFSUtils.safeClose(resource);
+        }
+    }
+
     @Override
     protected void finalize() throws Throwable {
+        closeResources();
         if (handle != null) {
             VFSUtils.safeClose(handle);
         }
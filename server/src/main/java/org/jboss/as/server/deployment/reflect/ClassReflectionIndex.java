@@ -33,50 +33,71 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * A short-lived index of all the declared fields and methods of a class.
+ * An index of all the declared fields and methods of a class.
  *
- * The ClassReflectionIndex is only available during the deployment.
+ * The fields, methods and constructors are each indexed the first time they are asked for, so an index only
+ * costs what is used of it. The index is safe for multi-threaded access.
  *
  * @param <T> the type being indexed
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public final class ClassReflectionIndex<T> {
     private final Class<T> indexedClass;
-    private final Map<String, Field> fields;
-    private final Map<ParamList, Constructor<T>> constructors;
-    private final Map<String, Map<ParamList, Map<Class<?>, Method>>> methods;
+    private volatile Map<String, Field> fields;
+    private volatile Map<ParamList, Constructor<T>> constructors;
+    private volatile Map<String, Map<ParamList, Map<Class<?>, Method>>> methods;
 
-    @SuppressWarnings( { "unchecked" })
     ClassReflectionIndex(final Class<T> indexedClass) {
         this.indexedClass = indexedClass;
-        // -- fields --
-        final Field[] declaredFields = indexedClass.getDeclaredFields();
-        final Map<String, Field> fields = new HashMap<String, Field>();
-        for (Field field : declaredFields) {
-            field.setAccessible(true);
-            fields.put(field.getName(), field);
-        }
-        this.fields = fields;
-        // -- methods --
-        final Method[] declaredMethods = indexedClass.getDeclaredMethods();
-        final Map<String, Map<ParamList, Map<Class<?>, Method>>> methods = new HashMap<String, Map<ParamList, Map<Class<?>, Method>>>();
-        for (Method method : declaredMethods) {
-            method.setAccessible(true);
-            addMethod(methods, method);
-        }
-        // add all public methods as well
-        for (Method method : indexedClass.getMethods()) {
-            addMethod(methods, method);
-        }
-        this.methods = methods;
-        // -- constructors --
-        final Constructor<T>[] declaredConstructors = (Constructor<T>[]) indexedClass.getDeclaredConstructors();
-        final Map<ParamList, Constructor<T>> constructors = new HashMap<ParamList, Constructor<T>>();
-        for (Constructor<T> constructor : declaredConstructors) {
-            constructor.setAccessible(true);
-            constructors.put(createParamList(constructor.getParameterTypes()), constructor);
-        }
-        this.constructors = constructors;
+    }
+
+    // Two threads may both build a part of the index; either result is complete and they are equal
+
+    private Map<String, Field> fields() {
+        Map<String, Field> fields = this.fields;
+        if (fields == null) {
+            final Field[] declaredFields = indexedClass.getDeclaredFields();
+            fields = new HashMap<String, Field>();
+            for (Field field : declaredFields) {
+                field.setAccessible(true);
+                fields.put(field.getName(), field);
+            }
+            this.fields = fields;
+        }
+        return fields;
+    }
+
+    private Map<String, Map<ParamList, Map<Class<?>, Method>>> methods() {
+        Map<String, Map<ParamList, Map<Class<?>, Method>>> methods = this.methods;
+        if (methods == null) {
+            final Method[] declaredMethods = indexedClass.getDeclaredMethods();
+            methods = new HashMap<String, Map<ParamList, Map<Class<?>, Method>>>();
+            for (Method method : declaredMethods) {
+                method.setAccessible(true);
+                addMethod(methods, method);
+            }
+            // add all public methods as well
+            for (Method method : indexedClass.getMethods()) {
+                addMethod(methods, method);
+            }
+            this.methods = methods;
+        }
+        return methods;
+    }
+
+    @SuppressWarnings( { "unchecked" })
+    private Map<ParamList, Constructor<T>> constructors() {
+        Map<ParamList, Constructor<T>> constructors = this.constructors;
+        if (constructors == null) {
+            final Constructor<T>[] declaredConstructors = (Constructor<T>[]) indexedClass.getDeclaredConstructors();
+            constructors = new HashMap<ParamList, Constructor<T>>();
+            for (Constructor<T> constructor : declaredConstructors) {
+                constructor.setAccessible(true);
+                constructors.put(createParamList(constructor.getParameterTypes()), constructor);
+            }
+            this.constructors = constructors;
+        }
+        return constructors;
     }
 
     private static final ParamList EMPTY = new ParamList(new Class<?>[0]);
@@ -116,7 +137,7 @@ public final class ClassReflectionIndex<T> {
      * @return the field, or {@code null} if no field of that name exists
      */
     public Field getField(String name) {
-        return fields.get(name);
+        return fields().get(name);
     }
 
     /**
@@ -125,7 +146,7 @@ public final class ClassReflectionIndex<T> {
      * @return The (possibly empty) collection of all declared fields on this object
      */
     public Collection<Field> getFields() {
-        return Collections.unmodifiableCollection(fields.values());
+        return Collections.unmodifiableCollection(fields().values());
     }
 
     /**
@@ -137,7 +158,7 @@ public final class ClassReflectionIndex<T> {
      * @return the method, or {@code null} if no method of that description exists
      */
     public Method getMethod(Class<?> returnType, String name, Class<?>... paramTypes) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
+        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods().get(name);
         if (nameMap == null) {
             return null;
         }
@@ -156,7 +177,7 @@ public final class ClassReflectionIndex<T> {
      * @return the (possibly empty) collection of methods matching the description
      */
     public Collection<Method> getMethods(String name, Class<?>... paramTypes) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
+        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods().get(name);
         if (nameMap == null) {
             return Collections.emptySet();
         }
@@ -174,7 +195,7 @@ public final class ClassReflectionIndex<T> {
      * @return the (possibly empty) collection of methods with the given name
      */
     public Collection<Method> getMethods(String name) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
+        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods().get(name);
         if (nameMap == null) {
             return Collections.emptySet();
         }
@@ -192,7 +213,7 @@ public final class ClassReflectionIndex<T> {
      */
     public Collection<Method> getMethods() {
         final Collection<Method> methods = new ArrayList<Method>();
-        for (Map.Entry<String, Map<ParamList, Map<Class<?>, Method>>> entry : this.methods.entrySet()) {
+        for (Map.Entry<String, Map<ParamList, Map<Class<?>, Method>>> entry : methods().entrySet()) {
             final Map<ParamList, Map<Class<?>, Method>> nameMap = entry.getValue();
             for (Map<Class<?>, Method> map : nameMap.values()) {
                 methods.addAll(map.values());
@@ -207,7 +228,7 @@ public final class ClassReflectionIndex<T> {
      * @return the constructors
      */
     public Collection<Constructor<T>> getConstructors() {
-        return Collections.unmodifiableCollection(constructors.values());
+        return Collections.unmodifiableCollection(constructors().values());
     }
 
     /**
@@ -217,7 +238,7 @@ public final class ClassReflectionIndex<T> {
      * @return the constructor, or {@code null} of no such constructor exists
      */
     public Constructor<T> getConstructor(Class<?>... paramTypes) {
-        return constructors.get(createParamList(paramTypes));
+        return constructors().get(createParamList(paramTypes));
     }
 
     private static final class ParamList {
@@ -23,16 +23,25 @@
 package org.jboss.as.server.deployment.reflect;
 
 import java.security.Permission;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.modules.Module;
+import org.jboss.modules.ModuleClassLoader;
 
 /**
- * A reflection index for a deployment.  Not safe for multi-threaded access.
+ * A reflection index for a deployment.  Safe for multi-threaded access.
+ * <p>
+ * Classes which are defined by the boot class loader or by a static module can never be
+ * redefined, so their indexes are kept in a tier shared by every deployment on the server.  Only the
+ * classes which belong to a deployment are indexed again for each deployment.
  *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public final class DeploymentReflectionIndex {
-    private final Map<Class<?>, ClassReflectionIndex<?>> classes = new HashMap<Class<?>, ClassReflectionIndex<?>>();
+    private static final ConcurrentMap<Class<?>, ClassReflectionIndex<?>> sharedClasses = new ConcurrentHashMap<Class<?>, ClassReflectionIndex<?>>();
+
+    private final ConcurrentMap<Class<?>, ClassReflectionIndex<?>> classes = new ConcurrentHashMap<Class<?>, ClassReflectionIndex<?>>();
 
     DeploymentReflectionIndex() {
     }
@@ -59,11 +68,26 @@ public final class DeploymentReflectionIndex {
      * @return the index
      */
     @SuppressWarnings( { "unchecked" })
-    public synchronized <T> ClassReflectionIndex<T> getClassIndex(Class<T> clazz) {
+    public <T> ClassReflectionIndex<T> getClassIndex(Class<T> clazz) {
+        final ConcurrentMap<Class<?>, ClassReflectionIndex<?>> classes = isShared(clazz) ? sharedClasses : this.classes;
         ClassReflectionIndex<T> index = (ClassReflectionIndex<T>) classes.get(clazz);
         if (index == null) {
-            classes.put(clazz, index = new ClassReflectionIndex<T>(clazz));
+            final ClassReflectionIndex<T> appearing = (ClassReflectionIndex<T>) classes.putIfAbsent(clazz, index = new ClassReflectionIndex<T>(clazz));
+            if (appearing != null) {
+                index = appearing;
+            }
         }
         return index;
     }
+
+    private static boolean isShared(final Class<?> clazz) {
+        final ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null) {
+            return true;
+        }
+        if (classLoader instanceof ModuleClassLoader) {
+            return ((ModuleClassLoader) classLoader).getModule().getModuleLoader() == Module.getBootModuleLoader();
+        }
+        return false;
+    }
 }
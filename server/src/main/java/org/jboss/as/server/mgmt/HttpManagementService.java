@@ -23,7 +23,12 @@
 package org.jboss.as.server.mgmt;
 
 import java.net.InetSocketAddress;
+import java.security.AccessController;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.controller.ModelController;
 import org.jboss.as.domain.http.server.DomainHttpServer;
@@ -35,6 +40,7 @@ import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
+import org.jboss.threads.JBossThreadFactory;
 
 /**
  * A service which launches the domain HTTP API and server.
@@ -44,11 +50,35 @@ import org.jboss.msc.value.InjectedValue;
 public class HttpManagementService implements Service<HttpManagementService>  {
     public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("server", "controller", "management", "http");
 
+    /** The default number of request handling threads, used if {@code max-threads} is not configured. */
+    public static final int DEFAULT_MAX_THREADS = 8;
+
+    /** The number of requests which may wait for a handling thread before the caller is made to run them. */
+    private static final int QUEUE_LENGTH = 100;
+
     private final InjectedValue<ModelController> modelControllerValue = new InjectedValue<ModelController>();
     private final InjectedValue<NetworkInterfaceBinding> interfaceBindingValue = new InjectedValue<NetworkInterfaceBinding>();
     private final InjectedValue<Integer> portValue = new InjectedValue<Integer>();
     private final InjectedValue<ExecutorService> executorServiceValue = new InjectedValue<ExecutorService>();
+    private final int maxThreads;
     private DomainHttpServer server;
+    private ExecutorService ownedExecutor;
+
+    public HttpManagementService() {
+        this(DEFAULT_MAX_THREADS);
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param maxThreads the maximum number of threads used to handle management requests
+     */
+    public HttpManagementService(final int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("maxThreads must be greater than 0");
+        }
+        this.maxThreads = maxThreads;
+    }
 
     /**
      * Starts the service.
@@ -58,7 +88,10 @@ public class HttpManagementService implements Service<HttpManagementService>  {
      */
     public synchronized void start(StartContext context) throws StartException {
         final ModelController modelController = modelControllerValue.getValue();
-        final ExecutorService executorService = executorServiceValue.getValue();
+        ExecutorService executorService = executorServiceValue.getOptionalValue();
+        if (executorService == null) {
+            executorService = ownedExecutor = createExecutor(maxThreads);
+        }
         final NetworkInterfaceBinding interfaceBinding = interfaceBindingValue.getValue();
         final Integer port = portValue.getValue();
         final InetSocketAddress bindAddress = new InetSocketAddress(interfaceBinding.getAddress(), port);
@@ -66,6 +99,7 @@ public class HttpManagementService implements Service<HttpManagementService>  {
             server = DomainHttpServer.create(bindAddress, 50, modelController, executorService);
             server.start();
         } catch (Exception e) {
+            shutdownOwnedExecutor();
             throw new StartException("Failed to start server socket", e);
         }
     }
@@ -78,9 +112,31 @@ public class HttpManagementService implements Service<HttpManagementService>  {
     public synchronized void stop(StopContext context) {
         if (server != null) {
             server.stop();
+            server = null;
+        }
+        shutdownOwnedExecutor();
+    }
+
+    private void shutdownOwnedExecutor() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+            ownedExecutor = null;
         }
     }
 
+    /**
+     * Create the bounded executor used to handle requests when none has been injected. Once all threads
+     * are busy and the queue is full, the HTTP server's dispatch thread runs the request itself, which
+     * stops it accepting further connections until it is done.
+     */
+    private static ExecutorService createExecutor(final int maxThreads) {
+        final ThreadFactory threadFactory = new JBossThreadFactory(new ThreadGroup("http-management-threads"), Boolean.TRUE, null, "%G - %t", null, null, AccessController.getContext());
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_LENGTH), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /** {@inheritDoc} */
     public HttpManagementService getValue() throws IllegalStateException {
         return this;
@@ -96,7 +152,8 @@ public class HttpManagementService implements Service<HttpManagementService>  {
     }
 
     /**
-     * Get the executor service injector.
+     * Get the executor service injector. If no executor is injected, the service creates a bounded
+     * one sized by its {@code max-threads} setting.
      *
      * @return The injector
      */
@@ -31,7 +31,6 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 
 import java.util.Locale;
-import java.util.concurrent.Executors;
 
 import org.jboss.as.controller.ModelAddOperationHandler;
 import org.jboss.as.controller.ModelController;
@@ -68,10 +67,15 @@ public class HttpManagementAddHandler implements ModelAddOperationHandler, Descr
 
         final String interfaceName = operation.require(ModelDescriptionConstants.INTERFACE).asString();
         final int port = operation.require(ModelDescriptionConstants.PORT).asInt();
+        final int maxThreads = operation.hasDefined(ModelDescriptionConstants.MAX_THREADS)
+                ? operation.get(ModelDescriptionConstants.MAX_THREADS).asInt() : HttpManagementService.DEFAULT_MAX_THREADS;
 
         final ModelNode subModel = context.getSubModel();
         subModel.get(ModelDescriptionConstants.INTERFACE).set(interfaceName);
         subModel.get(ModelDescriptionConstants.PORT).set(port);
+        if (operation.hasDefined(ModelDescriptionConstants.MAX_THREADS)) {
+            subModel.get(ModelDescriptionConstants.MAX_THREADS).set(maxThreads);
+        }
 
         if (context.getRuntimeContext() != null) {
             context.getRuntimeContext().setRuntimeTask(new RuntimeTask() {
@@ -80,14 +84,13 @@ public class HttpManagementAddHandler implements ModelAddOperationHandler, Descr
 
                     Logger.getLogger("org.jboss.as").infof("creating http management service using network interface (%s) port (%s)", interfaceName, port);
 
-                    final HttpManagementService service = new HttpManagementService();
+                    final HttpManagementService service = new HttpManagementService(maxThreads);
                     serviceTarget.addService(HttpManagementService.SERVICE_NAME, service)
                             .addDependency(
                                     NetworkInterfaceService.JBOSS_NETWORK_INTERFACE.append(interfaceName),
                                     NetworkInterfaceBinding.class, service.getInterfaceInjector())
                             .addDependency(Services.JBOSS_SERVER_CONTROLLER, ModelController.class, service.getModelControllerInjector())
                             .addInjection(service.getPortInjector(), port)
-                            .addInjection(service.getExecutorServiceInjector(), Executors.newCachedThreadPool())
                             .setInitialMode(ServiceController.Mode.ACTIVE)
                             .addListener(new ResultHandler.ServiceStartListener(resultHandler))
                             .install();
@@ -0,0 +1,250 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.modules.DependencySpec;
+import org.jboss.modules.Module;
+import org.jboss.modules.ModuleIdentifier;
+import org.jboss.modules.ModuleLoadException;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.modules.ModuleSpec;
+import org.jboss.modules.ResourceLoaderSpec;
+import org.jboss.modules.ResourceLoaders;
+import org.jboss.modules.log.ModuleLogger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ClassPreloader}, using a module loader which serves two modules from a directory of class files.
+ */
+public class ClassPreloaderTestCase {
+
+    private static final ModuleIdentifier USED = ModuleIdentifier.create("test.used");
+    private static final ModuleIdentifier UNUSED = ModuleIdentifier.create("test.unused");
+    private static final String SAMPLE_CLASS = Sample.class.getName();
+
+    private File root;
+    private File classesDir;
+    private File modulesDir;
+
+    @Before
+    public void setUp() throws Exception {
+        root = new File("target/class-preloader").getAbsoluteFile();
+        deleteRecursively(root);
+        classesDir = new File(root, "classes");
+        modulesDir = new File(root, "modules");
+        // the module descriptors only feed the fingerprint of the modules directory
+        for (ModuleIdentifier identifier : new ModuleIdentifier[] { USED, UNUSED }) {
+            final File moduleDir = new File(modulesDir, identifier.getName().replace('.', '/') + "/" + identifier.getSlot());
+            assertTrue(moduleDir.mkdirs());
+            write(new File(moduleDir, "module.xml"), "<module/>");
+        }
+        final String path = SAMPLE_CLASS.replace('.', '/') + ".class";
+        final InputStream in = getClass().getClassLoader().getResourceAsStream(path);
+        assertNotNull(in);
+        try {
+            final File classFile = new File(classesDir, path);
+            assertTrue(classFile.getParentFile().mkdirs());
+            final OutputStream out = new FileOutputStream(classFile);
+            try {
+                final byte[] buffer = new byte[4096];
+                int res;
+                while ((res = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, res);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(root);
+    }
+
+    @Test
+    public void testRecordsOnlyDefinedClasses() throws Exception {
+        final ModuleLogger originalLogger = Module.getModuleLogger();
+        final TestModuleLoader moduleLoader = new TestModuleLoader();
+        final ClassPreloader recorder = new ClassPreloader(createEnvironment("record"), moduleLoader);
+        recorder.start();
+        final Class<?> sample = moduleLoader.loadModule(USED).getClassLoader().loadClass(SAMPLE_CLASS);
+        assertSame(moduleLoader, Module.forClass(sample).getModuleLoader());
+        final Future<?> writer = recorder.bootComplete();
+        assertNotNull(writer);
+        writer.get(10, TimeUnit.SECONDS);
+
+        assertSame(originalLogger, Module.getModuleLogger());
+        final List<String> lines = readRecording();
+        assertTrue(lines.get(0).startsWith("#fingerprint "));
+        assertEquals(3, lines.size());
+        assertEquals("[" + USED + "]", lines.get(1));
+        assertEquals(SAMPLE_CLASS, lines.get(2));
+        // a module which the boot never asked for is not loaded by the recording either
+        assertEquals(Collections.singleton(USED), moduleLoader.found);
+    }
+
+    @Test
+    public void testIgnoresOtherModuleLoaders() throws Exception {
+        final TestModuleLoader moduleLoader = new TestModuleLoader();
+        final ClassPreloader recorder = new ClassPreloader(createEnvironment("record"), moduleLoader);
+        recorder.start();
+        new TestModuleLoader().loadModule(USED).getClassLoader().loadClass(SAMPLE_CLASS);
+        recorder.bootComplete().get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, readRecording().size());
+    }
+
+    @Test
+    public void testPreloadsRecordedClasses() throws Exception {
+        final TestModuleLoader recordingLoader = new TestModuleLoader();
+        final ClassPreloader recorder = new ClassPreloader(createEnvironment("record"), recordingLoader);
+        recorder.start();
+        recordingLoader.loadModule(USED).getClassLoader().loadClass(SAMPLE_CLASS);
+        recorder.bootComplete().get(10, TimeUnit.SECONDS);
+
+        // the mode is case insensitive
+
+        final TestModuleLoader moduleLoader = new TestModuleLoader();
+        final ClassPreloader preloader = new ClassPreloader(createEnvironment("PRELOAD"), moduleLoader);
+        preloader.start();
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (! moduleLoader.found.contains(USED) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(preloader.bootComplete());
+        assertEquals(Collections.singleton(USED), moduleLoader.found);
+    }
+
+    @Test
+    public void testDiscardsStaleRecording() throws Exception {
+        final TestModuleLoader recordingLoader = new TestModuleLoader();
+        final ClassPreloader recorder = new ClassPreloader(createEnvironment("record"), recordingLoader);
+        recorder.start();
+        recordingLoader.loadModule(USED).getClassLoader().loadClass(SAMPLE_CLASS);
+        recorder.bootComplete().get(10, TimeUnit.SECONDS);
+        final File recordingFile = getRecordingFile();
+        assertTrue(recordingFile.isFile());
+
+        write(new File(modulesDir, "test/used/main/extra.jar"), "changed");
+        final TestModuleLoader moduleLoader = new TestModuleLoader();
+        new ClassPreloader(createEnvironment("preload"), moduleLoader).start();
+        assertFalse(recordingFile.exists());
+        assertTrue(moduleLoader.found.isEmpty());
+    }
+
+    private ServerEnvironment createEnvironment(final String mode) {
+        final Properties props = new Properties();
+        props.setProperty(ServerEnvironment.HOME_DIR, root.getPath());
+        props.setProperty(ServerEnvironment.MODULES_DIR, modulesDir.getPath());
+        props.setProperty(ServerEnvironment.CLASS_PRELOAD_MODE, mode);
+        return new ServerEnvironment(props, Collections.<String, String>emptyMap(), true);
+    }
+
+    private File getRecordingFile() {
+        return new File(root, "standalone/data/" + ClassPreloader.RECORDING_FILE_NAME);
+    }
+
+    private List<String> readRecording() throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(getRecordingFile()), "UTF-8"));
+        try {
+            final List<String> lines = new ArrayList<String>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void deleteRecursively(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private final class TestModuleLoader extends ModuleLoader {
+        final Set<ModuleIdentifier> found = new CopyOnWriteArraySet<ModuleIdentifier>();
+
+        protected ModuleSpec findModule(final ModuleIdentifier identifier) throws ModuleLoadException {
+            if (! identifier.equals(USED) && ! identifier.equals(UNUSED)) {
+                return null;
+            }
+            found.add(identifier);
+            final ModuleSpec.Builder builder = ModuleSpec.build(identifier);
+            builder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(ResourceLoaders.createFileResourceLoader(identifier.toString(), classesDir)));
+            builder.addDependency(DependencySpec.createLocalDependencySpec());
+            return builder.create();
+        }
+
+        public String toString() {
+            return "test module loader";
+        }
+    }
+
+    public static final class Sample {
+    }
+}
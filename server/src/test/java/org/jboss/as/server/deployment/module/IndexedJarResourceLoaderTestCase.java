@@ -0,0 +1,267 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.module;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.jboss.modules.ClassSpec;
+import org.jboss.modules.Resource;
+import org.jboss.vfs.TempFileProvider;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link IndexedJarResourceLoader}, checked against {@link VFSResourceLoader} over the same mounted archive.
+ */
+public class IndexedJarResourceLoaderTestCase {
+
+    private static final int CLASS_COUNT = 5000;
+    private static final byte[] STORED_CONTENT = "stored resource content".getBytes();
+
+    private File jar;
+    private ScheduledExecutorService executor;
+    private TempFileProvider tempFileProvider;
+    private Closeable mount;
+    private VirtualFile root;
+    private IndexedJarResourceLoader indexed;
+    private VFSResourceLoader vfs;
+
+    @Before
+    public void setUp() throws Exception {
+        jar = File.createTempFile("indexed", ".jar");
+        writeJar(jar);
+        executor = Executors.newScheduledThreadPool(1);
+        tempFileProvider = TempFileProvider.create("test", executor);
+        root = VFS.getChild("indexed-loader-test/" + jar.getName());
+        mount = VFS.mountZip(jar, root, tempFileProvider);
+        indexed = new IndexedJarResourceLoader("test", root, jar);
+        vfs = new VFSResourceLoader("test", root);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (indexed != null) {
+            indexed.close();
+        }
+        VFSUtils.safeClose(mount);
+        VFSUtils.safeClose(tempFileProvider);
+        executor.shutdown();
+        jar.delete();
+    }
+
+    @Test
+    public void testLoadAllClasses() throws Exception {
+        assertEquals(CLASS_COUNT, loadAll(vfs));
+        assertEquals(CLASS_COUNT, loadAll(indexed));
+
+        for (int i = 0; i < CLASS_COUNT; i += 97) {
+            final String name = classFileName(i);
+            assertArrayEquals(vfs.getClassSpec(name).getBytes(), indexed.getClassSpec(name).getBytes());
+        }
+    }
+
+    @Test
+    public void testClosedWithMountHandle() throws Exception {
+        final MountHandle mountHandle = new MountHandle(mount);
+        mountHandle.addResource(indexed);
+        final String name = classFileName(1);
+        assertNotNull(indexed.getClassSpec(name));
+        mountHandle.close();
+        try {
+            indexed.getClassSpec(name);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+        // a loader registered after the mount was closed is closed right away
+        final IndexedJarResourceLoader late = new IndexedJarResourceLoader("late", root, jar);
+        mountHandle.addResource(late);
+        try {
+            late.getClassSpec(name);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testMisses() throws Exception {
+        assertNull(indexed.getClassSpec("test/p0/Missing.class"));
+        assertNull(indexed.getClassSpec("missing/Missing.class"));
+        assertNull(indexed.getResource("test/p0/missing.txt"));
+        assertNull(indexed.getResource("test/p0/../p1/C1.class"));
+        assertNotNull(indexed.getResource("/" + classFileName(1)));
+    }
+
+    @Test
+    public void testPaths() throws Exception {
+        assertEquals(new HashSet<String>(vfs.getPaths()), new HashSet<String>(indexed.getPaths()));
+    }
+
+    @Test
+    public void testResources() throws Exception {
+        final Resource stored = indexed.getResource("test/stored.txt");
+        assertNotNull(stored);
+        assertEquals(STORED_CONTENT.length, stored.getSize());
+        assertArrayEquals(STORED_CONTENT, read(stored.openStream()));
+        assertEquals(vfs.getResource("test/stored.txt").getURL(), stored.getURL());
+
+        final String name = classFileName(42);
+        final Resource deflated = indexed.getResource(name);
+        assertNotNull(deflated);
+        assertEquals(vfs.getResource(name).getSize(), deflated.getSize());
+        assertArrayEquals(read(vfs.getResource(name).openStream()), read(deflated.openStream()));
+
+        assertNotNull(indexed.getResource("test/p3"));
+    }
+
+    @Test
+    public void testPackageSpec() throws Exception {
+        assertEquals("indexed-test", indexed.getPackageSpec("test/p0").getImplTitle());
+    }
+
+    private static int loadAll(final org.jboss.modules.ResourceLoader loader) throws Exception {
+        final DefiningClassLoader classLoader = new DefiningClassLoader();
+        int count = 0;
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            final ClassSpec spec = loader.getClassSpec(classFileName(i));
+            final byte[] bytes = spec.getBytes();
+            final Class<?> clazz = classLoader.define(className(i), bytes);
+            assertEquals(className(i), clazz.getName());
+            count++;
+        }
+        return count;
+    }
+
+    private static String className(final int i) {
+        return "test.p" + (i % 50) + ".C" + i;
+    }
+
+    private static String classFileName(final int i) {
+        return className(i).replace('.', '/') + ".class";
+    }
+
+    private static void writeJar(final File file) throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_TITLE, "indexed-test");
+        final JarOutputStream out = new JarOutputStream(new FileOutputStream(file), manifest);
+        try {
+            out.putNextEntry(new JarEntry("test/"));
+            out.closeEntry();
+            for (int i = 0; i < CLASS_COUNT; i++) {
+                out.putNextEntry(new JarEntry(classFileName(i)));
+                out.write(classBytes(className(i).replace('.', '/')));
+                out.closeEntry();
+            }
+            final JarEntry stored = new JarEntry("test/stored.txt");
+            final CRC32 crc = new CRC32();
+            crc.update(STORED_CONTENT);
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(STORED_CONTENT.length);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(STORED_CONTENT);
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Minimal valid class file: an empty public class extending {@code java.lang.Object}.
+     */
+    private static byte[] classBytes(final String internalName) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(49);
+        out.writeShort(5);
+        out.writeByte(1);
+        out.writeUTF(internalName);
+        out.writeByte(7);
+        out.writeShort(1);
+        out.writeByte(1);
+        out.writeUTF("java/lang/Object");
+        out.writeByte(7);
+        out.writeShort(3);
+        out.writeShort(0x21);
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] read(final InputStream is) throws IOException {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buf = new byte[512];
+            int n;
+            while ((n = is.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            VFSUtils.safeClose(is);
+        }
+    }
+
+    private static final class DefiningClassLoader extends ClassLoader {
+        DefiningClassLoader() {
+            super(DefiningClassLoader.class.getClassLoader());
+        }
+
+        Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
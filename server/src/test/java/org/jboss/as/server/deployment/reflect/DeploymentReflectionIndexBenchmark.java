@@ -0,0 +1,109 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * A rough benchmark of {@link DeploymentReflectionIndex}, with {@value #DEPLOYMENT_COUNT} deployments each being
+ * indexed by {@value #THREAD_COUNT} threads at once.  It is not part of the default test run; run it with
+ * <tt>mvn test -Dtest=DeploymentReflectionIndexBenchmark</tt>.
+ */
+public class DeploymentReflectionIndexBenchmark {
+
+    private static final int DEPLOYMENT_COUNT = 50;
+    private static final int THREAD_COUNT = 8;
+
+    // classes from the boot class loader, which stand in for the classes of the static modules
+    private static final Class<?>[] SHARED_CLASSES = { Object.class, String.class, Integer.class, Long.class,
+            Thread.class, HashMap.class, ArrayList.class, ConcurrentHashMap.class, Executors.class, StringBuilder.class,
+            ClassLoader.class, Throwable.class, Exception.class, RuntimeException.class };
+
+    // classes from the application class loader, which stand in for the classes of a deployment
+    private static final Class<?>[] DEPLOYMENT_CLASSES = { DeploymentReflectionIndexTestCase.Bean.class,
+            DeploymentReflectionIndexBenchmark.class };
+
+    @Test
+    public void testConcurrentDeployments() throws Exception {
+        // warm up once so the timing below is not dominated by the first reflection over each class
+        runDeployments();
+        final long start = System.nanoTime();
+        runDeployments();
+        final long time = System.nanoTime() - start;
+        System.out.println("Indexed " + DEPLOYMENT_COUNT + " deployments on " + THREAD_COUNT + " threads: "
+                + time / 1000000L + "ms");
+    }
+
+    private void runDeployments() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            for (int i = 0; i < DEPLOYMENT_COUNT; i++) {
+                // every thread indexes every class of the deployment, as the deployment processors would
+                final DeploymentReflectionIndex deploymentIndex = DeploymentReflectionIndex.create();
+                final CountDownLatch latch = new CountDownLatch(1);
+                final List<Future<?>> futures = new ArrayList<Future<?>>();
+                for (int j = 0; j < THREAD_COUNT; j++) {
+                    futures.add(executor.submit(new Callable<Void>() {
+                        public Void call() throws Exception {
+                            latch.await();
+                            indexAll(deploymentIndex);
+                            return null;
+                        }
+                    }));
+                }
+                latch.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void indexAll(final DeploymentReflectionIndex deploymentIndex) {
+        for (Class<?> clazz : SHARED_CLASSES) {
+            index(deploymentIndex, clazz);
+        }
+        for (Class<?> clazz : DEPLOYMENT_CLASSES) {
+            index(deploymentIndex, clazz);
+        }
+    }
+
+    private static void index(final DeploymentReflectionIndex deploymentIndex, final Class<?> clazz) {
+        final ClassReflectionIndex<?> index = deploymentIndex.getClassIndex(clazz);
+        // a typical processor looks up a few members rather than walking the whole class
+        index.getMethods("toString");
+        index.getConstructor();
+    }
+}
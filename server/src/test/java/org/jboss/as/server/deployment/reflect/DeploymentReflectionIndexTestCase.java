@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link DeploymentReflectionIndex}.
+ */
+public class DeploymentReflectionIndexTestCase {
+
+    private static final int DEPLOYMENT_COUNT = 50;
+    private static final int THREAD_COUNT = 8;
+
+    // classes from the boot class loader, which stand in for the classes of the static modules
+    private static final Class<?>[] SHARED_CLASSES = { Object.class, String.class, Integer.class, Long.class,
+            Thread.class, HashMap.class, ArrayList.class, ConcurrentHashMap.class, Executors.class, StringBuilder.class,
+            ClassLoader.class, Throwable.class, Exception.class, RuntimeException.class };
+
+    // classes from the application class loader, which stand in for the classes of a deployment
+    private static final Class<?>[] DEPLOYMENT_CLASSES = { Bean.class, DeploymentReflectionIndexTestCase.class };
+
+    @Test
+    public void testLookups() throws Exception {
+        final ClassReflectionIndex<Bean> index = DeploymentReflectionIndex.create().getClassIndex(Bean.class);
+        assertSame(Bean.class, index.getIndexedClass());
+        assertNotNull(index.getField("value"));
+        assertNull(index.getField("missing"));
+        assertEquals(1, index.getFields().size());
+        assertNotNull(index.getMethod(void.class, "setValue", String.class));
+        assertNotNull(index.getMethod(String.class, "getValue"));
+        assertNull(index.getMethod(void.class, "setValue", Integer.class));
+        // the public methods of the superclass are indexed too
+        assertNotNull(index.getMethod(String.class, "toString"));
+        assertNotNull(index.getConstructor());
+        assertNotNull(index.getConstructor(String.class));
+        assertEquals(2, index.getConstructors().size());
+    }
+
+    @Test
+    public void testSharedTier() throws Exception {
+        final DeploymentReflectionIndex first = DeploymentReflectionIndex.create();
+        final DeploymentReflectionIndex second = DeploymentReflectionIndex.create();
+        assertSame(first.getClassIndex(String.class), second.getClassIndex(String.class));
+        assertSame(first.getClassIndex(Bean.class), first.getClassIndex(Bean.class));
+        assertNotSame(first.getClassIndex(Bean.class), second.getClassIndex(Bean.class));
+    }
+
+    @Test
+    public void testConcurrentDeployments() throws Exception {
+        // each deployment is indexed by several threads at once, which must all see the same indexes
+        final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            for (int i = 0; i < DEPLOYMENT_COUNT; i++) {
+                // every thread indexes every class of the deployment, as the deployment processors would
+                final DeploymentReflectionIndex deploymentIndex = DeploymentReflectionIndex.create();
+                final CountDownLatch latch = new CountDownLatch(1);
+                final List<Future<List<ClassReflectionIndex<?>>>> futures = new ArrayList<Future<List<ClassReflectionIndex<?>>>>();
+                for (int j = 0; j < THREAD_COUNT; j++) {
+                    futures.add(executor.submit(new Callable<List<ClassReflectionIndex<?>>>() {
+                        public List<ClassReflectionIndex<?>> call() throws Exception {
+                            latch.await();
+                            return indexAll(deploymentIndex);
+                        }
+                    }));
+                }
+                latch.countDown();
+                final List<ClassReflectionIndex<?>> expected = futures.get(0).get();
+                for (Future<List<ClassReflectionIndex<?>>> future : futures) {
+                    final List<ClassReflectionIndex<?>> indexes = future.get();
+                    for (int k = 0; k < expected.size(); k++) {
+                        assertSame(expected.get(k), indexes.get(k));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<ClassReflectionIndex<?>> indexAll(final DeploymentReflectionIndex deploymentIndex) {
+        final List<ClassReflectionIndex<?>> indexes = new ArrayList<ClassReflectionIndex<?>>();
+        for (Class<?> clazz : SHARED_CLASSES) {
+            indexes.add(index(deploymentIndex, clazz));
+        }
+        for (Class<?> clazz : DEPLOYMENT_CLASSES) {
+            indexes.add(index(deploymentIndex, clazz));
+        }
+        return indexes;
+    }
+
+    private static ClassReflectionIndex<?> index(final DeploymentReflectionIndex deploymentIndex, final Class<?> clazz) {
+        final ClassReflectionIndex<?> index = deploymentIndex.getClassIndex(clazz);
+        // a typical processor looks up a few members rather than walking the whole class
+        index.getMethods("toString");
+        index.getConstructor();
+        return index;
+    }
+
+    public static class Bean {
+        private String value;
+
+        public Bean() {
+        }
+
+        public Bean(final String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(final String value) {
+            this.value = value;
+        }
+    }
+}
@@ -48,6 +48,7 @@ import com.arjuna.ats.arjuna.common.RecoveryEnvironmentBean;
 import com.arjuna.ats.arjuna.common.arjPropertyManager;
 import com.arjuna.ats.arjuna.common.recoveryPropertyManager;
 import com.arjuna.ats.arjuna.tools.osb.mbean.ObjStoreBean;
+import com.arjuna.ats.internal.arjuna.objectstore.LogStore;
 import com.arjuna.ats.internal.arjuna.recovery.AtomicActionRecoveryModule;
 import com.arjuna.ats.internal.arjuna.recovery.ExpiredTransactionStatusManagerScanner;
 import com.arjuna.ats.internal.jta.recovery.arjunacore.JTANodeNameXAResourceOrphanFilter;
@@ -63,6 +64,7 @@ import com.arjuna.ats.jta.common.JTAEnvironmentBean;
 import com.arjuna.ats.jta.common.jtaPropertyManager;
 import com.arjuna.common.internal.util.logging.LoggingEnvironmentBean;
 import com.arjuna.common.internal.util.logging.commonPropertyManager;
+import com.arjuna.common.internal.util.propertyservice.BeanPopulator;
 import com.arjuna.common.internal.util.logging.jakarta.JakartaRelevelingLogFactory;
 import com.arjuna.common.internal.util.logging.jakarta.Log4JLogger;
 
@@ -76,6 +78,9 @@ final class ArjunaTransactionManagerService implements Service<com.arjuna.ats.jb
 
     public static final ServiceName SERVICE_NAME = TxnServices.JBOSS_TXN_ARJUNA_TRANSACTION_MANAGER;
 
+    private static final String STATE_STORE = "stateStore";
+    private static final String COMMUNICATION_STORE = "communicationStore";
+
     private final InjectedValue<JBossXATerminator> xaTerminatorInjector = new InjectedValue<JBossXATerminator>();
     private final InjectedValue<ORB> orbInjector = new InjectedValue<ORB>();
 
@@ -91,12 +96,14 @@ final class ArjunaTransactionManagerService implements Service<com.arjuna.ats.jb
     private int coreSocketProcessIdMaxPorts;
     private boolean coordinatorEnableStatistics;
     private int coordinatorDefaultTimeout;
+    private ObjectStoreType objectStoreType;
 
-    ArjunaTransactionManagerService(final String coreNodeIdentifier, final int coreSocketProcessIdMaxPorts, final boolean coordinatorEnableStatistics, final int coordinatorDefaultTimeout) {
+    ArjunaTransactionManagerService(final String coreNodeIdentifier, final int coreSocketProcessIdMaxPorts, final boolean coordinatorEnableStatistics, final int coordinatorDefaultTimeout, final ObjectStoreType objectStoreType) {
         this.coreNodeIdentifier = coreNodeIdentifier;
         this.coreSocketProcessIdMaxPorts = coreSocketProcessIdMaxPorts;
         this.coordinatorEnableStatistics = coordinatorEnableStatistics;
         this.coordinatorDefaultTimeout = coordinatorDefaultTimeout;
+        this.objectStoreType = objectStoreType;
     }
 
     public synchronized void start(final StartContext context) throws StartException {
@@ -141,8 +148,17 @@ final class ArjunaTransactionManagerService implements Service<com.arjuna.ats.jb
             coordinatorEnvironmentBean.setEnableStatistics(coordinatorEnableStatistics);
             coordinatorEnvironmentBean.setDefaultTimeout(coordinatorDefaultTimeout);
 
-            final ObjectStoreEnvironmentBean objectStoreEnvironmentBean = arjPropertyManager.getObjectStoreEnvironmentBean();
-            objectStoreEnvironmentBean.setObjectStoreDir(pathInjector.getValue());
+            // the default object store bean configures the action store, which holds the transaction logs; the state
+            // and communication stores have named beans of their own, and keep their file based store types
+            final String objectStoreDir = pathInjector.getValue();
+            final ObjectStoreEnvironmentBean actionStoreEnvironmentBean = BeanPopulator.getDefaultInstance(ObjectStoreEnvironmentBean.class);
+            actionStoreEnvironmentBean.setObjectStoreDir(objectStoreDir);
+            if (objectStoreType == ObjectStoreType.JOURNAL) {
+                // append the transaction logs to a shared log file rather than creating and syncing a file per transaction
+                actionStoreEnvironmentBean.setObjectStoreType(LogStore.class.getName());
+            }
+            BeanPopulator.getNamedInstance(ObjectStoreEnvironmentBean.class, STATE_STORE).setObjectStoreDir(objectStoreDir);
+            BeanPopulator.getNamedInstance(ObjectStoreEnvironmentBean.class, COMMUNICATION_STORE).setObjectStoreDir(objectStoreDir);
 
             try {
                 ObjStoreBean.getObjectStoreBrowserBean();
@@ -33,11 +33,18 @@ interface CommonAttributes {
     String DEFAULT_TIMEOUT = "default-timeout";
     String ENABLE_STATISTICS = "enable-statistics";
     String NODE_IDENTIFIER = "node-identifier";
+    String NUMBER_OF_ABORTED_TRANSACTIONS = "number-of-aborted-transactions";
+    String NUMBER_OF_COMMITTED_TRANSACTIONS = "number-of-committed-transactions";
+    String NUMBER_OF_HEURISTICS = "number-of-heuristics";
+    String NUMBER_OF_INFLIGHT_TRANSACTIONS = "number-of-inflight-transactions";
+    String NUMBER_OF_TIMED_OUT_TRANSACTIONS = "number-of-timed-out-transactions";
+    String NUMBER_OF_TRANSACTIONS = "number-of-transactions";
     String OBJECT_STORE = "object-store";
     String PATH = "path";
     String RECOVERY_ENVIRONMENT = "recovery-environment";
     String RELATIVE_TO = "relative-to";
     String SOCKET_PROCESS_ID_MAX_PORTS = "socket-process-id-max-ports";
     String STATUS_BINDING = "status-socket-binding";
+    String TYPE = "type";
 
 }
@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.txn;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The types of transaction object store that can be selected with the {@code type} attribute of the
+ * {@code object-store} element.
+ */
+enum ObjectStoreType {
+    /** The default store, which keeps every transaction log in a file of its own. */
+    DEFAULT("default"),
+    /** An append-only log shared by all the transactions, with deferred removal of completed entries. */
+    JOURNAL("journal"),
+    ;
+
+    private final String name;
+
+    ObjectStoreType(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of this store type.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    private static final Map<String, ObjectStoreType> MAP;
+
+    static {
+        final Map<String, ObjectStoreType> map = new HashMap<String, ObjectStoreType>();
+        for (ObjectStoreType type : values()) {
+            map.put(type.getName(), type);
+        }
+        MAP = map;
+    }
+
+    /**
+     * Get the store type with the given name.
+     *
+     * @param name the name
+     * @return the store type or {@code null} if there is none with that name
+     */
+    public static ObjectStoreType forName(String name) {
+        return MAP.get(name);
+    }
+
+    public String toString() {
+        return getName();
+    }
+}
@@ -29,6 +29,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DES
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+import static org.jboss.as.controller.parsing.ParseUtils.invalidAttributeValue;
 import static org.jboss.as.controller.parsing.ParseUtils.missingRequired;
 import static org.jboss.as.controller.parsing.ParseUtils.missingRequiredElement;
 import static org.jboss.as.controller.parsing.ParseUtils.requireNoContent;
@@ -47,6 +48,7 @@ import static org.jboss.as.txn.CommonAttributes.RECOVERY_ENVIRONMENT;
 import static org.jboss.as.txn.CommonAttributes.RELATIVE_TO;
 import static org.jboss.as.txn.CommonAttributes.SOCKET_PROCESS_ID_MAX_PORTS;
 import static org.jboss.as.txn.CommonAttributes.STATUS_BINDING;
+import static org.jboss.as.txn.CommonAttributes.TYPE;
 
 import java.util.Collections;
 import java.util.EnumSet;
@@ -96,6 +98,9 @@ public class TransactionExtension implements Extension {
         final ModelNodeRegistration registration = subsystem.registerSubsystemModel(TransactionSubsystemProviders.SUBSYSTEM);
         registration.registerOperationHandler(ADD, TransactionSubsystemAdd.INSTANCE, TransactionSubsystemProviders.SUBSYSTEM_ADD, false);
         registration.registerOperationHandler(DESCRIBE, TransactionDescribeHandler.INSTANCE, TransactionDescribeHandler.INSTANCE, false);
+        for (final String attributeName : TransactionMetrics.ATTRIBUTES) {
+            registration.registerMetric(attributeName, TransactionMetrics.INSTANCE);
+        }
         subsystem.registerXMLElementWriter(parser);
     }
 
@@ -188,6 +193,12 @@ public class TransactionExtension implements Extension {
                     case PATH:
                         store.get(PATH).set(value);
                         break;
+                    case TYPE:
+                        if (ObjectStoreType.forName(value) == null) {
+                            throw invalidAttributeValue(reader, i);
+                        }
+                        store.get(TYPE).set(value);
+                        break;
                     default:
                         unexpectedAttribute(reader, i);
                 }
@@ -331,6 +342,9 @@ public class TransactionExtension implements Extension {
                 if (has(env, PATH)) {
                     writeAttribute(writer, Attribute.PATH, env.get(PATH));
                 }
+                if (has(env, TYPE)) {
+                    writeAttribute(writer, Attribute.TYPE, env.get(TYPE));
+                }
                 writer.writeEndElement();
             }
             writer.writeEndElement();
@@ -0,0 +1,135 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.txn;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_ABORTED_TRANSACTIONS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_COMMITTED_TRANSACTIONS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_HEURISTICS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_INFLIGHT_TRANSACTIONS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_TIMED_OUT_TRANSACTIONS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_TRANSACTIONS;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelQueryOperationHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.dmr.ModelNode;
+
+import com.arjuna.ats.arjuna.coordinator.TxStats;
+
+/**
+ * Reads the transaction statistics kept by the transaction manager. The counters are only updated while
+ * {@code enable-statistics} is set on the coordinator environment.
+ */
+class TransactionMetrics implements ModelQueryOperationHandler {
+
+    static final String[] ATTRIBUTES = new String[] { NUMBER_OF_TRANSACTIONS, NUMBER_OF_COMMITTED_TRANSACTIONS,
+            NUMBER_OF_ABORTED_TRANSACTIONS, NUMBER_OF_TIMED_OUT_TRANSACTIONS, NUMBER_OF_HEURISTICS,
+            NUMBER_OF_INFLIGHT_TRANSACTIONS };
+
+    static final TransactionMetrics INSTANCE = new TransactionMetrics(new TxStatistics());
+
+    private final Statistics statistics;
+
+    TransactionMetrics(final Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
+        final String attributeName = operation.require(NAME).asString();
+
+        final ModelNode result = new ModelNode();
+        if (NUMBER_OF_TRANSACTIONS.equals(attributeName)) {
+            result.set(statistics.getNumberOfTransactions());
+        } else if (NUMBER_OF_COMMITTED_TRANSACTIONS.equals(attributeName)) {
+            result.set(statistics.getNumberOfCommittedTransactions());
+        } else if (NUMBER_OF_ABORTED_TRANSACTIONS.equals(attributeName)) {
+            result.set(statistics.getNumberOfAbortedTransactions());
+        } else if (NUMBER_OF_TIMED_OUT_TRANSACTIONS.equals(attributeName)) {
+            result.set(statistics.getNumberOfTimedOutTransactions());
+        } else if (NUMBER_OF_HEURISTICS.equals(attributeName)) {
+            result.set(statistics.getNumberOfHeuristics());
+        } else if (NUMBER_OF_INFLIGHT_TRANSACTIONS.equals(attributeName)) {
+            result.set(statistics.getNumberOfInflightTransactions());
+        } else {
+            throw new OperationFailedException(new ModelNode().set("unknown metric " + attributeName));
+        }
+        resultHandler.handleResultFragment(Util.NO_LOCATION, result);
+        resultHandler.handleResultComplete();
+        return new BasicOperationResult();
+    }
+
+    /**
+     * The transaction counters read by the metrics.
+     */
+    interface Statistics {
+
+        long getNumberOfTransactions();
+
+        long getNumberOfCommittedTransactions();
+
+        long getNumberOfAbortedTransactions();
+
+        long getNumberOfTimedOutTransactions();
+
+        long getNumberOfHeuristics();
+
+        long getNumberOfInflightTransactions();
+    }
+
+    /**
+     * The counters of the transaction manager.
+     */
+    static final class TxStatistics implements Statistics {
+
+        public long getNumberOfTransactions() {
+            return TxStats.getInstance().getNumberOfTransactions();
+        }
+
+        public long getNumberOfCommittedTransactions() {
+            return TxStats.getInstance().getNumberOfCommittedTransactions();
+        }
+
+        public long getNumberOfAbortedTransactions() {
+            return TxStats.getInstance().getNumberOfAbortedTransactions();
+        }
+
+        public long getNumberOfTimedOutTransactions() {
+            return TxStats.getInstance().getNumberOfTimedOutTransactions();
+        }
+
+        public long getNumberOfHeuristics() {
+            return TxStats.getInstance().getNumberOfHeuristics();
+        }
+
+        public long getNumberOfInflightTransactions() {
+            return TxStats.getInstance().getNumberOfInflightTransactions();
+        }
+    }
+}
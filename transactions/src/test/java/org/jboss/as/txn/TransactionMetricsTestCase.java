@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.txn;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_ABORTED_TRANSACTIONS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_COMMITTED_TRANSACTIONS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_HEURISTICS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_INFLIGHT_TRANSACTIONS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_TIMED_OUT_TRANSACTIONS;
+import static org.jboss.as.txn.CommonAttributes.NUMBER_OF_TRANSACTIONS;
+
+import java.util.Arrays;
+
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests reading the transaction statistics through {@link TransactionMetrics}.
+ */
+public class TransactionMetricsTestCase {
+
+    private final TransactionMetrics metrics = new TransactionMetrics(new FixedStatistics());
+
+    @Test
+    public void testMetricsReadStatistics() throws Exception {
+        Assert.assertEquals(11L, read(NUMBER_OF_TRANSACTIONS).asLong());
+        Assert.assertEquals(3L, read(NUMBER_OF_COMMITTED_TRANSACTIONS).asLong());
+        Assert.assertEquals(2L, read(NUMBER_OF_ABORTED_TRANSACTIONS).asLong());
+        Assert.assertEquals(4L, read(NUMBER_OF_TIMED_OUT_TRANSACTIONS).asLong());
+        Assert.assertEquals(1L, read(NUMBER_OF_HEURISTICS).asLong());
+        Assert.assertEquals(5L, read(NUMBER_OF_INFLIGHT_TRANSACTIONS).asLong());
+    }
+
+    @Test
+    public void testEveryRegisteredMetricIsDefined() throws Exception {
+        for (String attributeName : TransactionMetrics.ATTRIBUTES) {
+            Assert.assertTrue(attributeName, read(attributeName).isDefined());
+        }
+    }
+
+    @Test
+    public void testAverageCommitTimeIsNotRegistered() throws Exception {
+        // the transaction manager does not track commit times
+        Assert.assertFalse(Arrays.asList(TransactionMetrics.ATTRIBUTES).contains("average-commit-time"));
+    }
+
+    @Test(expected = OperationFailedException.class)
+    public void testUnknownMetricFails() throws Exception {
+        read("average-commit-time");
+    }
+
+    private ModelNode read(final String attributeName) throws Exception {
+        final ModelNode operation = new ModelNode();
+        operation.get(NAME).set(attributeName);
+        final CollectingResultHandler handler = new CollectingResultHandler();
+        metrics.execute(null, operation, handler);
+        Assert.assertTrue(handler.complete);
+        return handler.result;
+    }
+
+    private static class FixedStatistics implements TransactionMetrics.Statistics {
+
+        public long getNumberOfTransactions() {
+            return 11;
+        }
+
+        public long getNumberOfCommittedTransactions() {
+            return 3;
+        }
+
+        public long getNumberOfAbortedTransactions() {
+            return 2;
+        }
+
+        public long getNumberOfTimedOutTransactions() {
+            return 4;
+        }
+
+        public long getNumberOfHeuristics() {
+            return 1;
+        }
+
+        public long getNumberOfInflightTransactions() {
+            return 5;
+        }
+    }
+
+    private static class CollectingResultHandler implements ResultHandler {
+        private ModelNode result = new ModelNode();
+        private boolean complete;
+
+        public void handleResultFragment(final String[] location, final ModelNode result) {
+            this.result = result;
+        }
+
+        public void handleResultComplete() {
+            complete = true;
+        }
+
+        public void handleFailed(final ModelNode failureDescription) {
+            Assert.fail(failureDescription.toString());
+        }
+
+        public void handleCancellation() {
+            Assert.fail("cancelled");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat Inc., and individual contributors as indicated
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web;
+
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceRegistry;
+
+/**
+ * Message dispatch metrics of a SIP connector using an executor from the threads subsystem.  Connectors without such
+ * an executor report undefined values.
+ */
+class SipConnectorMetrics extends SipMetricsHandler {
+
+    static final SipConnectorMetrics INSTANCE = new SipConnectorMetrics();
+
+    static final String SUBMITTED = "sip-dispatch-submitted-count";
+    static final String COMPLETED = "sip-dispatch-completed-count";
+    static final String ACTIVE = "sip-dispatch-active-count";
+    static final String QUEUED = "sip-dispatch-queued-count";
+    static final String CALLER_RUNS = "sip-dispatch-caller-runs-count";
+    static final String LATENCY = "sip-dispatch-latency";
+    static final String[] ATTRIBUTES = new String[] {SUBMITTED, COMPLETED, ACTIVE, QUEUED, CALLER_RUNS, LATENCY};
+
+    /** {@inheritDoc} */
+    @Override
+    ModelNode getMetric(final ServiceRegistry registry, final PathAddress address, final String attributeName) throws OperationFailedException {
+        checkMetric(ATTRIBUTES, attributeName);
+        final String name = address.getLastElement().getValue();
+        final ServiceController<?> controller = registry
+                .getService(WebSubsystemServices.JBOSS_WEB_CONNECTOR.append(name).append(SipConnectorService.MESSAGE_EXECUTOR));
+        final ModelNode result = new ModelNode();
+        if (controller != null && controller.getState() == ServiceController.State.UP) {
+            final SipMessageExecutor executor = (SipMessageExecutor) controller.getValue();
+            if (SUBMITTED.equals(attributeName)) {
+                result.set(executor.getSubmittedCount());
+            } else if (COMPLETED.equals(attributeName)) {
+                result.set(executor.getCompletedCount());
+            } else if (ACTIVE.equals(attributeName)) {
+                result.set(executor.getActiveCount());
+            } else if (QUEUED.equals(attributeName)) {
+                result.set(executor.getQueuedCount());
+            } else if (CALLER_RUNS.equals(attributeName)) {
+                result.set(executor.getCallerRunsCount());
+            } else {
+                result.set(latency(executor.getDispatchLatency()));
+            }
+        }
+        return result;
+    }
+}
@@ -21,15 +21,18 @@
  */
 package org.jboss.as.web;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.util.concurrent.Executor;
 
 import org.apache.catalina.connector.Connector;
 import org.jboss.as.server.services.net.SocketBinding;
-import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.msc.service.ValueService;
+import org.jboss.msc.value.ImmediateValue;
 import org.jboss.msc.value.InjectedValue;
 import org.mobicents.servlet.sip.SipConnector;
 import org.mobicents.servlet.sip.startup.SipProtocolHandler;
@@ -41,6 +44,9 @@ import org.mobicents.servlet.sip.startup.SipProtocolHandler;
  */
 class SipConnectorService extends WebConnectorService {
 
+    /** The name of the child service holding the {@link SipMessageExecutor} of a connector. */
+    static final String MESSAGE_EXECUTOR = "sip-message-executor";
+
     private String protocol = "SIP/2.0";
     private String scheme = "sip";
 
@@ -92,12 +98,22 @@ class SipConnectorService extends WebConnectorService {
             if(proxyPort != null) connector.setProxyPort(proxyPort);
             if(redirectPort != null) connector.setRedirectPort(redirectPort);
             if(secure != null) connector.setSecure(secure);
-            // TODO set Executor on ProtocolHandler
+            final Executor executor = this.executor.getOptionalValue();
+            if (executor != null) {
+                final SipMessageExecutor messageExecutor = new SipMessageExecutor(executor);
+                setExecutor(sipProtocolHandler, messageExecutor);
+                // expose the executor for the dispatch metrics, the child service goes away with the connector
+                context.getChildTarget().addService(context.getController().getName().append(MESSAGE_EXECUTOR),
+                        new ValueService<SipMessageExecutor>(new ImmediateValue<SipMessageExecutor>(messageExecutor)))
+                        .install();
+            }
             // TODO use server socket factory - or integrate with {@code ManagedBinding}
 
             // Register connector, starts the connector automatically?
             getWebServer().addConnector(connector);
             this.connector = connector;
+        } catch (StartException e) {
+            throw e;
         } catch (Exception e) {
             throw new StartException(e);
         }
@@ -179,6 +195,31 @@ class SipConnectorService extends WebConnectorService {
         return executor;
     }
 
+    /**
+     * Hand the executor to the protocol handler, through the {@code setExecutor(Executor)} coyote protocol handlers
+     * expose.  A connector configured with an executor its protocol handler cannot use fails to start, rather than
+     * silently processing messages on the SIP stack threads.
+     *
+     * @param protocolHandler the protocol handler
+     * @param executor the executor
+     * @throws StartException if the protocol handler does not accept the executor
+     */
+    static void setExecutor(final Object protocolHandler, final Executor executor) throws StartException {
+        final Method setter;
+        try {
+            setter = protocolHandler.getClass().getMethod("setExecutor", Executor.class);
+        } catch (NoSuchMethodException e) {
+            throw new StartException("SIP protocol handler " + protocolHandler.getClass().getName() + " does not accept an executor");
+        }
+        try {
+            setter.invoke(protocolHandler, executor);
+        } catch (InvocationTargetException e) {
+            throw new StartException("Failed to set the executor of SIP protocol handler " + protocolHandler.getClass().getName(), e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new StartException("Failed to set the executor of SIP protocol handler " + protocolHandler.getClass().getName(), e);
+        }
+    }
+
     InjectedValue<SocketBinding> getBinding() {
         return binding;
     }
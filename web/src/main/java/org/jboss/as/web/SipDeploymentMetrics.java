@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat Inc., and individual contributors as indicated
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web;
+
+import org.apache.catalina.Container;
+import org.apache.catalina.Engine;
+import org.apache.catalina.Manager;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceRegistry;
+import org.mobicents.servlet.sip.core.session.SipManager;
+import org.mobicents.servlet.sip.startup.HashedWheelTimer;
+import org.mobicents.servlet.sip.startup.SipContextMetrics;
+import org.mobicents.servlet.sip.startup.SipStandardContext;
+
+/**
+ * Metrics of the SIP deployments, keyed by virtual server and context path, and of the timer wheel they share.
+ */
+class SipDeploymentMetrics extends SipMetricsHandler {
+
+    static final SipDeploymentMetrics INSTANCE = new SipDeploymentMetrics();
+
+    static final String DEPLOYMENTS = "sip-deployments";
+    static final String TIMER_PENDING = "sip-timer-pending-count";
+    static final String[] ATTRIBUTES = new String[] {DEPLOYMENTS, TIMER_PENDING};
+
+    /** {@inheritDoc} */
+    @Override
+    ModelNode getMetric(final ServiceRegistry registry, final PathAddress address, final String attributeName) throws OperationFailedException {
+        checkMetric(ATTRIBUTES, attributeName);
+        final ModelNode result = new ModelNode();
+        final ServiceController<?> controller = registry.getService(WebSubsystemServices.JBOSS_WEB);
+        if (controller == null || controller.getState() != ServiceController.State.UP) {
+            return result;
+        }
+        final WebServerService server = (WebServerService) controller.getValue();
+        if (DEPLOYMENTS.equals(attributeName)) {
+            final Engine engine = server.getEngine();
+            if (engine != null) {
+                result.setEmptyObject();
+                for (Container host : engine.findChildren()) {
+                    for (Container context : host.findChildren()) {
+                        if (context instanceof SipStandardContext) {
+                            result.get(host.getName() + context.getName()).set(getDeploymentMetrics((SipStandardContext) context));
+                        }
+                    }
+                }
+            }
+        } else {
+            final HashedWheelTimer timer = server.getSipTimer();
+            if (timer != null) {
+                result.set(timer.getPendingCount());
+            }
+        }
+        return result;
+    }
+
+    static ModelNode getDeploymentMetrics(final SipStandardContext context) {
+        final ModelNode node = new ModelNode();
+        final Manager manager = context.getManager();
+        if (manager instanceof SipManager) {
+            final SipManager sipManager = (SipManager) manager;
+            node.get("active-sip-application-sessions").set(sipManager.getActiveSipApplicationSessions());
+            node.get("active-sip-sessions").set(sipManager.getActiveSipSessions());
+        }
+        if (manager != null) {
+            node.get("active-http-sessions").set(manager.getActiveSessions());
+        }
+        final SipContextMetrics metrics = context.getSipContextMetrics();
+        node.get("requests").set(counts(metrics.getRequestCounts()));
+        node.get("responses").set(counts(metrics.getResponseCounts()));
+        node.get("processing-latency").set(latency(metrics.getProcessingLatency()));
+        final int pendingTimers = context.getPendingTimerCount();
+        if (pendingTimers >= 0) {
+            node.get("pending-timers").set(pendingTimers);
+        }
+        return node;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat Inc., and individual contributors as indicated
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mobicents.servlet.sip.startup.LatencyHistogram;
+
+/**
+ * Executor handed to a SIP connector for message processing.  It delegates to a thread pool from the threads
+ * subsystem, so SIP signaling runs on a pool which is sized and managed separately from the HTTP connectors, and it
+ * counts the work it dispatches.
+ * <p>
+ * When the pool is saturated and rejects a message, the message is processed on the submitting stack thread
+ * instead.  That slows down the stack's intake of new messages rather than dropping them, which is the back-pressure
+ * a SIP stack needs; a bounded pool configured to block gives the same effect inside the pool.
+ */
+final class SipMessageExecutor implements Executor {
+
+    private final Executor delegate;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+
+    SipMessageExecutor(final Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    public void execute(final Runnable command) {
+        submitted.incrementAndGet();
+        final long start = System.nanoTime();
+        final Runnable task = new Runnable() {
+            public void run() {
+                active.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.incrementAndGet();
+                    dispatchLatency.record(System.nanoTime() - start);
+                }
+            }
+        };
+        try {
+            delegate.execute(task);
+        } catch (RejectedExecutionException e) {
+            callerRuns.incrementAndGet();
+            task.run();
+        }
+    }
+
+    /**
+     * @return the number of messages handed to this executor
+     */
+    long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * @return the number of messages processed
+     */
+    long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * @return the number of messages processed on the submitting thread because the pool was saturated
+     */
+    long getCallerRunsCount() {
+        return callerRuns.get();
+    }
+
+    /**
+     * @return the number of messages being processed right now
+     */
+    int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * @return the time from the hand-off of the messages to the end of their processing, queueing included
+     */
+    LatencyHistogram getDispatchLatency() {
+        return dispatchLatency;
+    }
+
+    /**
+     * @return the number of messages accepted by the pool but not started yet
+     */
+    long getQueuedCount() {
+        return Math.max(0L, submitted.get() - completed.get() - active.get());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat Inc., and individual contributors as indicated
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.web;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.BasicOperationResult;
+import org.jboss.as.controller.ModelQueryOperationHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationResult;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.ResultHandler;
+import org.jboss.as.server.ServerOperationContext;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceRegistry;
+import org.mobicents.servlet.sip.startup.LatencyHistogram;
+
+/**
+ * Base class of the SIP metrics. The metrics only read counters, so they are computed right away from the service
+ * registry instead of from a runtime task, which lets a single {@code read-resource(include-runtime)} return all of
+ * them.
+ */
+abstract class SipMetricsHandler implements ModelQueryOperationHandler {
+
+    /** {@inheritDoc} */
+    @Override
+    public OperationResult execute(final OperationContext context, final ModelNode operation, final ResultHandler resultHandler) throws OperationFailedException {
+        if (context instanceof ServerOperationContext) {
+            final ServiceRegistry registry = ((ServerOperationContext) context).getController().getServiceRegistry();
+            final PathAddress address = PathAddress.pathAddress(operation.require(OP_ADDR));
+            final String attributeName = operation.require(NAME).asString();
+            resultHandler.handleResultFragment(WebConnectorMetrics.NO_LOCATION, getMetric(registry, address, attributeName));
+        } else {
+            resultHandler.handleResultFragment(WebConnectorMetrics.NO_LOCATION, new ModelNode().set("no metrics available"));
+        }
+        resultHandler.handleResultComplete();
+        return new BasicOperationResult();
+    }
+
+    /**
+     * Read a metric.
+     *
+     * @param registry the service registry
+     * @param address the address of the resource
+     * @param attributeName the name of the metric
+     * @return the value, undefined if the metric is not available
+     * @throws OperationFailedException if the metric is unknown
+     */
+    abstract ModelNode getMetric(ServiceRegistry registry, PathAddress address, String attributeName) throws OperationFailedException;
+
+    static ModelNode latency(final LatencyHistogram histogram) {
+        final ModelNode node = new ModelNode();
+        node.get("count").set(histogram.getCount());
+        node.get("mean-micros").set(histogram.getMean(TimeUnit.MICROSECONDS));
+        node.get("max-micros").set(histogram.getMax(TimeUnit.MICROSECONDS));
+        node.get("p50-micros").set(histogram.getPercentile(50, TimeUnit.MICROSECONDS));
+        node.get("p90-micros").set(histogram.getPercentile(90, TimeUnit.MICROSECONDS));
+        node.get("p99-micros").set(histogram.getPercentile(99, TimeUnit.MICROSECONDS));
+        return node;
+    }
+
+    static ModelNode counts(final Map<String, Long> counts) {
+        final ModelNode node = new ModelNode();
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            node.get(entry.getKey()).set(entry.getValue().longValue());
+        }
+        return node;
+    }
+
+    static OperationFailedException unknownMetric(final String attributeName) {
+        return new OperationFailedException(new ModelNode().set("unknown metric " + attributeName));
+    }
+
+    static void checkMetric(final String[] attributes, final String attributeName) throws OperationFailedException {
+        for (String attribute : attributes) {
+            if (attribute.equals(attributeName)) {
+                return;
+            }
+        }
+        throw unknownMetric(attributeName);
+    }
+}
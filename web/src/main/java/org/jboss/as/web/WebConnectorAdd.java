@@ -22,6 +22,8 @@
 
 package org.jboss.as.web;
 
+import java.util.concurrent.Executor;
+
 import org.apache.catalina.connector.Connector;
 import org.jboss.as.controller.BasicOperationResult;
 import org.jboss.as.controller.OperationFailedException;
@@ -49,6 +51,7 @@ import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.ResultHandler;
 import org.jboss.as.controller.operations.common.Util;
 import org.jboss.as.server.services.net.SocketBinding;
+import org.jboss.as.threads.ThreadsServices;
 import org.jboss.dmr.ModelNode;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController.Mode;
@@ -137,6 +140,9 @@ class WebConnectorAdd implements ModelAddOperationHandler {
                             .addDependency(WebSubsystemServices.JBOSS_WEB, WebServer.class, service.getServer())
                             .addDependency(SocketBinding.JBOSS_BINDING_NAME.append(bindingRef), SocketBinding.class, service.getBinding())
                             .setInitialMode(enabled ? Mode.ACTIVE : Mode.NEVER);
+                    if (service instanceof SipConnectorService && operation.hasDefined(EXECUTOR)) {
+                        serviceBuilder.addDependency(ThreadsServices.executorName(operation.get(EXECUTOR).asString()), Executor.class, ((SipConnectorService) service).getExecutor());
+                    }
                     if (enabled) {
                         serviceBuilder.addListener(new ResultHandler.ServiceStartListener(resultHandler));
                         serviceBuilder.install();
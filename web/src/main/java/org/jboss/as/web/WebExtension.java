@@ -57,6 +57,9 @@ public class WebExtension implements Extension {
         registration.registerOperationHandler(ADD, WebSubsystemAdd.INSTANCE, WebSubsystemProviders.SUBSYSTEM_ADD, false);
         registration.registerOperationHandler(DESCRIBE, WebSubsystemDescribe.INSTANCE, WebSubsystemProviders.SUBSYSTEM_DESCRIBE, false);
         subsystem.registerXMLElementWriter(WebSubsystemParser.getInstance());
+        for(final String attributeName : SipDeploymentMetrics.ATTRIBUTES) {
+            registration.registerMetric(attributeName, SipDeploymentMetrics.INSTANCE);
+        }
         // connector
         final ModelNodeRegistration connectors = registration.registerSubModel(connectorPath, WebSubsystemProviders.CONNECTOR);
         connectors.registerOperationHandler(ADD, WebConnectorAdd.INSTANCE, WebSubsystemProviders.CONNECTOR_ADD, false);
@@ -64,6 +67,9 @@ public class WebExtension implements Extension {
         for(final String attributeName : WebConnectorMetrics.ATTRIBUTES) {
             connectors.registerMetric(attributeName, WebConnectorMetrics.INSTANCE);
         }
+        for(final String attributeName : SipConnectorMetrics.ATTRIBUTES) {
+            connectors.registerMetric(attributeName, SipConnectorMetrics.INSTANCE);
+        }
         //hosts
         final ModelNodeRegistration hosts = registration.registerSubModel(hostPath, WebSubsystemProviders.HOST);
         hosts.registerOperationHandler(ADD, WebVirtualHostAdd.INSTANCE, WebSubsystemProviders.HOST_ADD, false);
@@ -39,6 +39,7 @@ import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 import org.mobicents.servlet.sip.core.SipApplicationDispatcherImpl;
+import org.mobicents.servlet.sip.startup.HashedWheelTimer;
 import org.mobicents.servlet.sip.startup.SipStandardEngine;
 import org.mobicents.servlet.sip.startup.SipStandardService;
 
@@ -56,6 +57,7 @@ class WebServerService implements WebServer, Service<WebServer> {
     private Engine engine;
     private Catalina catalina;
     private StandardService service;
+    private HashedWheelTimer sipTimer;
 
     private final InjectedValue<MBeanServer> mbeanServer = new InjectedValue<MBeanServer>();
     private final InjectedValue<String> pathInjector = new InjectedValue<String>();
@@ -93,6 +95,11 @@ class WebServerService implements WebServer, Service<WebServer> {
 
         service.setContainer(engine);
 
+        // SIP servlet and application session timers of all contexts share one timer wheel
+        final HashedWheelTimer sipTimer = HashedWheelTimer.createSharedTimer(JBOSS_WEB + " SIP timer");
+        sipTimer.start();
+        HashedWheelTimer.setSharedTimer(service, sipTimer);
+
         // final AprLifecycleListener apr = new AprLifecycleListener();
         //apr.setSSLEngine("on");
         // server.addLifecycleListener(apr);
@@ -103,8 +110,11 @@ class WebServerService implements WebServer, Service<WebServer> {
             server.initialize();
             catalina.start();
         } catch (Exception e) {
+            HashedWheelTimer.setSharedTimer(service, null);
+            sipTimer.stop();
             throw new StartException(e);
         }
+        this.sipTimer = sipTimer;
         this.catalina = catalina;
         this.service = service;
         this.engine = engine;
@@ -114,6 +124,9 @@ class WebServerService implements WebServer, Service<WebServer> {
     public synchronized void stop(StopContext context) {
         catalina.stop();
         catalina.destroy();
+        HashedWheelTimer.setSharedTimer(service, null);
+        sipTimer.stop();
+        sipTimer = null;
         engine = null;
         service = null;
         catalina = null;
@@ -168,6 +181,14 @@ class WebServerService implements WebServer, Service<WebServer> {
         return pathInjector;
     }
 
+    synchronized Engine getEngine() {
+        return engine;
+    }
+
+    synchronized HashedWheelTimer getSipTimer() {
+        return sipTimer;
+    }
+
     Registry getRegistry() {
         return Registry.getRegistry(null, null);
     }
@@ -22,6 +22,8 @@
 
 package org.jboss.as.web;
 
+import java.io.File;
+
 import org.jboss.as.controller.BasicOperationResult;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.OperationResult;
@@ -38,10 +40,12 @@ import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.ResultHandler;
 import org.jboss.as.server.BootOperationContext;
 import org.jboss.as.server.BootOperationHandler;
+import org.jboss.as.server.ServerEnvironment;
 import org.jboss.as.server.deployment.Phase;
 import org.jboss.as.server.services.path.AbstractPathService;
 import org.jboss.as.web.deployment.JBossWebParsingDeploymentProcessor;
 import org.jboss.as.web.deployment.ServletContainerInitializerDeploymentProcessor;
+import org.jboss.as.web.deployment.TldMetaDataCache;
 import org.jboss.as.web.deployment.TldParsingDeploymentProcessor;
 import org.jboss.as.web.deployment.WarAnnotationDeploymentProcessor;
 import org.jboss.as.web.deployment.WarClassloadingDependencyProcessor;
@@ -66,6 +70,8 @@ class WebSubsystemAdd implements ModelAddOperationHandler, BootOperationHandler
     static final WebSubsystemAdd INSTANCE = new WebSubsystemAdd();
     private static final String DEFAULT_HOST = "localhost";
     private static final String TEMP_DIR = "jboss.server.temp.dir";
+    private static final String TLD_CACHE_DIR = "web" + File.separator + "tld-cache";
+    private static final int TLD_CACHE_SIZE = 1024;
 
     private WebSubsystemAdd() {
         //
@@ -101,13 +107,19 @@ class WebSubsystemAdd implements ModelAddOperationHandler, BootOperationHandler
 
                     final SharedWebMetaDataBuilder sharedWebBuilder = new SharedWebMetaDataBuilder(config.clone());
                     final SharedTldsMetaDataBuilder sharedTldsBuilder = new SharedTldsMetaDataBuilder(config.clone());
+                    final String dataDir = System.getProperty(ServerEnvironment.SERVER_DATA_DIR);
+                    final TldMetaDataCache tldCache = new TldMetaDataCache(dataDir == null ? null : new File(dataDir, TLD_CACHE_DIR),
+                            Runtime.getRuntime().availableProcessors(), TLD_CACHE_SIZE);
+                    context.getServiceTarget().addService(WebSubsystemServices.JBOSS_WEB_TLD_CACHE, tldCache)
+                            .setInitialMode(Mode.ACTIVE)
+                            .install();
 
                     ctx.addDeploymentProcessor(Phase.STRUCTURE, Phase.STRUCTURE_WAR_DEPLOYMENT_INIT, new WarDeploymentInitializingProcessor());
                     ctx.addDeploymentProcessor(Phase.STRUCTURE, Phase.STRUCTURE_WAR, new WarStructureDeploymentProcessor(sharedWebBuilder.create(), sharedTldsBuilder.create()));
                     ctx.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_WEB_DEPLOYMENT, new WebParsingDeploymentProcessor());
                     ctx.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_WEB_DEPLOYMENT_FRAGMENT, new WebFragmentParsingDeploymentProcessor());
                     ctx.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_JBOSS_WEB_DEPLOYMENT, new JBossWebParsingDeploymentProcessor());
-                    ctx.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_TLD_DEPLOYMENT, new TldParsingDeploymentProcessor());
+                    ctx.addDeploymentProcessor(Phase.PARSE, Phase.PARSE_TLD_DEPLOYMENT, new TldParsingDeploymentProcessor(tldCache));
                     ctx.addDeploymentProcessor(Phase.DEPENDENCIES, Phase.DEPENDENCIES_WAR_MODULE, new WarClassloadingDependencyProcessor());
                     ctx.addDeploymentProcessor(Phase.POST_MODULE, Phase.POST_MODULE_ANNOTATION_WAR, new WarAnnotationDeploymentProcessor());
                     ctx.addDeploymentProcessor(Phase.INSTALL, Phase.INSTALL_SERVLET_INIT_DEPLOYMENT, new ServletContainerInitializerDeploymentProcessor());
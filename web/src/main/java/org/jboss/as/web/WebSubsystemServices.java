@@ -20,6 +20,8 @@ public class WebSubsystemServices {
     public static final ServiceName JBOSS_WEB_CONNECTOR = JBOSS_WEB.append("connector");
     /** The base name for jboss.web host services. */
     public static final ServiceName JBOSS_WEB_HOST = JBOSS_WEB.append("host");
+    /** The jboss.web TLD metadata cache, shared by all web deployments. */
+    public static final ServiceName JBOSS_WEB_TLD_CACHE = JBOSS_WEB.append("tld-cache");
 
 
     private WebSubsystemServices() {
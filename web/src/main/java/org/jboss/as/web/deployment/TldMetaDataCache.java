@@ -0,0 +1,414 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.web.deployment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
+import org.jboss.logging.Logger;
+import org.jboss.metadata.parser.jsp.TldMetaDataParser;
+import org.jboss.metadata.parser.util.NoopXmlResolver;
+import org.jboss.metadata.web.spec.TldMetaData;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+
+/**
+ * Cache of parsed TLD metadata keyed by the SHA-1 hash of the TLD content, shared by all web deployments.  WARs which
+ * bundle the same tag library jars find their TLDs already parsed.  Parsed metadata is also written to a cache
+ * directory, if one is given, so it survives restarts.  TLDs which are not cached yet are parsed in parallel while
+ * the cache service is up, and on the calling thread otherwise.
+ * <p>
+ * The in-memory cache holds at most a fixed number of entries, evicting the least recently used ones; evicted entries
+ * are reloaded from the cache directory.  Persisted entries are keyed by the jboss-metadata version as well, since
+ * they are serialized metadata classes.  When the service starts, entries of other versions and leftovers of
+ * interrupted writes are removed from the cache directory.  The directory is held to the same number of entries as
+ * the in-memory cache, dropping the least recently used files first.
+ * <p>
+ * Cached metadata instances are shared, and must be treated as read only.
+ */
+public final class TldMetaDataCache implements Service<TldMetaDataCache> {
+
+    private static final Logger log = Logger.getLogger("org.jboss.as.web");
+
+    private static final String CACHE_SUFFIX = ".tld.ser";
+    private static final String METADATA_VERSION = getMetaDataVersion();
+    private static final String CACHE_FILE_SUFFIX = "-" + METADATA_VERSION + CACHE_SUFFIX;
+
+    private final Map<String, TldMetaData> cache;
+    private final File cacheDir;
+    private final int parallelism;
+    private final int maxEntries;
+    private final AtomicInteger persisted = new AtomicInteger();
+    private volatile ThreadPoolExecutor executor;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param cacheDir the directory parsed metadata is persisted in, or {@code null} to only cache in memory
+     * @param parallelism the maximum number of TLDs parsed concurrently
+     * @param maxEntries the maximum number of entries cached in memory
+     */
+    public TldMetaDataCache(final File cacheDir, final int parallelism, final int maxEntries) {
+        this.cacheDir = cacheDir;
+        this.parallelism = parallelism;
+        this.maxEntries = maxEntries;
+        cache = new LinkedHashMap<String, TldMetaData>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(final Map.Entry<String, TldMetaData> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    public synchronized void start(final StartContext context) throws StartException {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    public Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r, "TLD parser " + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+        prune();
+    }
+
+    /** {@inheritDoc} */
+    public synchronized void stop(final StopContext context) {
+        // let parses already queued for a deployment finish, their callers are waiting on them
+        executor.shutdown();
+        executor = null;
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public TldMetaDataCache getValue() throws IllegalStateException {
+        return this;
+    }
+
+    /**
+     * Get the metadata for the given TLD files, parsing whatever is not cached yet.
+     *
+     * @param tlds the TLD files keyed by location
+     * @return the metadata keyed by location
+     * @throws DeploymentUnitProcessingException if a TLD cannot be read or parsed
+     */
+    Map<String, TldMetaData> getTlds(final Map<String, VirtualFile> tlds) throws DeploymentUnitProcessingException {
+        final Map<String, TldMetaData> result = new HashMap<String, TldMetaData>();
+        final Map<String, ParseTask> misses = new HashMap<String, ParseTask>();
+        for (Map.Entry<String, VirtualFile> entry : tlds.entrySet()) {
+            final VirtualFile tld = entry.getValue();
+            final byte[] bytes = read(tld);
+            final String hash = hash(bytes);
+            TldMetaData metaData = getCached(hash);
+            if (metaData == null) {
+                metaData = load(hash);
+            }
+            if (metaData != null) {
+                result.put(entry.getKey(), metaData);
+            } else {
+                misses.put(entry.getKey(), new ParseTask(tld, bytes, hash));
+            }
+        }
+        final ThreadPoolExecutor executor = this.executor;
+        if (misses.size() == 1 || executor == null) {
+            for (Map.Entry<String, ParseTask> miss : misses.entrySet()) {
+                result.put(miss.getKey(), miss.getValue().call());
+            }
+        } else if (!misses.isEmpty()) {
+            final Map<String, Future<TldMetaData>> pending = new HashMap<String, Future<TldMetaData>>();
+            try {
+                for (Map.Entry<String, ParseTask> miss : misses.entrySet()) {
+                    pending.put(miss.getKey(), executor.submit(miss.getValue()));
+                }
+                for (Map.Entry<String, Future<TldMetaData>> entry : pending.entrySet()) {
+                    result.put(entry.getKey(), get(entry.getValue()));
+                }
+            } finally {
+                for (Future<TldMetaData> future : pending.values()) {
+                    future.cancel(true);
+                }
+            }
+        }
+        return result;
+    }
+
+    private TldMetaData getCached(final String hash) {
+        synchronized (cache) {
+            return cache.get(hash);
+        }
+    }
+
+    private TldMetaData putCached(final String hash, final TldMetaData metaData) {
+        synchronized (cache) {
+            final TldMetaData existing = cache.get(hash);
+            if (existing != null) {
+                return existing;
+            }
+            cache.put(hash, metaData);
+            return metaData;
+        }
+    }
+
+    private static String getMetaDataVersion() {
+        final Package metaDataPackage = TldMetaData.class.getPackage();
+        final String version = metaDataPackage == null ? null : metaDataPackage.getImplementationVersion();
+        return version == null ? "unknown" : version.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private File getCacheFile(final String hash) {
+        return new File(cacheDir, hash + CACHE_FILE_SUFFIX);
+    }
+
+    /**
+     * Remove the persisted entries of other metadata versions and the leftovers of interrupted writes, then trim the
+     * cache directory down to the maximum number of entries.
+     */
+    private void prune() {
+        if (cacheDir == null) {
+            return;
+        }
+        final File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        int count = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(CACHE_FILE_SUFFIX)) {
+                count++;
+            } else if (file.getName().indexOf(CACHE_SUFFIX) != -1) {
+                log.debugf("Removing stale cached TLD metadata %s", file);
+                file.delete();
+            }
+        }
+        persisted.set(count);
+        if (count > maxEntries) {
+            trim();
+        }
+    }
+
+    /**
+     * Delete the least recently used persisted entries until three quarters of the maximum number of entries remain,
+     * so that trimming is not repeated for every new entry.
+     */
+    private synchronized void trim() {
+        final File[] files = cacheDir.listFiles(new FileFilter() {
+            public boolean accept(final File file) {
+                return file.getName().endsWith(CACHE_FILE_SUFFIX);
+            }
+        });
+        if (files == null || files.length <= maxEntries) {
+            return;
+        }
+        final long[] lastModified = new long[files.length];
+        final Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+            order[i] = Integer.valueOf(i);
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(final Integer o1, final Integer o2) {
+                final long m1 = lastModified[o1.intValue()];
+                final long m2 = lastModified[o2.intValue()];
+                return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+            }
+        });
+        final int remove = files.length - maxEntries * 3 / 4;
+        for (int i = 0; i < remove; i++) {
+            final File file = files[order[i].intValue()];
+            log.debugf("Removing least recently used cached TLD metadata %s", file);
+            file.delete();
+        }
+        persisted.set(files.length - remove);
+    }
+
+    private static TldMetaData get(final Future<TldMetaData> future) throws DeploymentUnitProcessingException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeploymentUnitProcessingException("Interrupted while parsing TLDs", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof DeploymentUnitProcessingException) {
+                throw (DeploymentUnitProcessingException) cause;
+            }
+            throw new DeploymentUnitProcessingException(cause);
+        }
+    }
+
+    private static byte[] read(final VirtualFile tld) throws DeploymentUnitProcessingException {
+        InputStream is = null;
+        try {
+            is = tld.openStream();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new DeploymentUnitProcessingException("Failed to read " + tld, e);
+        } finally {
+            VFSUtils.safeClose(is);
+        }
+    }
+
+    private static String hash(final byte[] bytes) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot obtain SHA-1 " + MessageDigest.class.getSimpleName(), e);
+        }
+        final byte[] sha1 = digest.digest(bytes);
+        final StringBuilder builder = new StringBuilder(sha1.length * 2);
+        for (byte b : sha1) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    private TldMetaData load(final String hash) {
+        if (cacheDir == null) {
+            return null;
+        }
+        final File file = getCacheFile(hash);
+        if (!file.isFile()) {
+            return null;
+        }
+        ObjectInputStream in = null;
+        try {
+            in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+            final TldMetaData metaData = putCached(hash, (TldMetaData) in.readObject());
+            // the modification time orders the persisted entries by use
+            file.setLastModified(System.currentTimeMillis());
+            return metaData;
+        } catch (Exception e) {
+            // stale or corrupt, it will be parsed and rewritten
+            log.debugf(e, "Discarding cached TLD metadata %s", file);
+            return null;
+        } finally {
+            VFSUtils.safeClose(in);
+        }
+    }
+
+    private void store(final String hash, final TldMetaData metaData) {
+        if (cacheDir == null) {
+            return;
+        }
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs() && !cacheDir.isDirectory()) {
+            log.debugf("Cannot create TLD cache directory %s", cacheDir);
+            return;
+        }
+        final File file = getCacheFile(hash);
+        final File tmp = new File(cacheDir, file.getName() + "." + Thread.currentThread().getId());
+        ObjectOutputStream out = null;
+        try {
+            out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            out.writeObject(metaData);
+            out.close();
+            out = null;
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+            } else if (persisted.incrementAndGet() > maxEntries) {
+                trim();
+            }
+        } catch (IOException e) {
+            log.debugf(e, "Failed to write cached TLD metadata %s", file);
+            tmp.delete();
+        } finally {
+            VFSUtils.safeClose(out);
+        }
+    }
+
+    private final class ParseTask implements Callable<TldMetaData> {
+        private final VirtualFile tld;
+        private final byte[] bytes;
+        private final String hash;
+
+        ParseTask(final VirtualFile tld, final byte[] bytes, final String hash) {
+            this.tld = tld;
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+
+        public TldMetaData call() throws DeploymentUnitProcessingException {
+            final TldMetaData metaData;
+            try {
+                final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+                inputFactory.setXMLResolver(NoopXmlResolver.create());
+                XMLStreamReader xmlReader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(bytes));
+                metaData = TldMetaDataParser.parse(xmlReader);
+            } catch (Exception e) {
+                throw new DeploymentUnitProcessingException("Failed to parse " + tld, e);
+            }
+            final TldMetaData cached = putCached(hash, metaData);
+            if (cached == metaData) {
+                store(hash, metaData);
+            }
+            return cached;
+        }
+    }
+}
@@ -21,15 +21,11 @@
  */
 package org.jboss.as.web.deployment;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamReader;
-
 import org.jboss.as.ee.structure.DeploymentType;
 import org.jboss.as.ee.structure.DeploymentTypeMarker;
 import org.jboss.as.server.deployment.Attachments;
@@ -38,8 +34,6 @@ import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.as.server.deployment.DeploymentUnitProcessor;
 import org.jboss.as.server.deployment.module.ResourceRoot;
-import org.jboss.metadata.parser.jsp.TldMetaDataParser;
-import org.jboss.metadata.parser.util.NoopXmlResolver;
 import org.jboss.metadata.web.spec.TldMetaData;
 import org.jboss.vfs.VirtualFile;
 
@@ -55,6 +49,12 @@ public class TldParsingDeploymentProcessor implements DeploymentUnitProcessor {
     private static final String LIB = "lib";
     private static final String IMPLICIT_TLD = "implicit.tld";
 
+    private final TldMetaDataCache cache;
+
+    public TldParsingDeploymentProcessor(final TldMetaDataCache cache) {
+        this.cache = cache;
+    }
+
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
         final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
         if (!DeploymentTypeMarker.isType(DeploymentType.WAR, deploymentUnit)) {
@@ -66,8 +66,7 @@ public class TldParsingDeploymentProcessor implements DeploymentUnitProcessor {
             tldsMetaData = new TldsMetaData();
             deploymentUnit.putAttachment(TldsMetaData.ATTACHMENT_KEY, tldsMetaData);
         }
-        Map<String, TldMetaData> tlds = new HashMap<String, TldMetaData>();
-        tldsMetaData.setTlds(tlds);
+        Map<String, VirtualFile> tlds = new HashMap<String, VirtualFile>();
         // TLDs are located in WEB-INF or any subdir (except the top level "classes" and "lib")
         // and in JARs from WEB-INF/lib, in META-INF or any subdir
         List<ResourceRoot> resourceRoots = deploymentUnit.getAttachment(Attachments.RESOURCE_ROOTS);
@@ -84,52 +83,38 @@ public class TldParsingDeploymentProcessor implements DeploymentUnitProcessor {
         if (webInf.exists() && webInf.isDirectory()) {
             for (VirtualFile file : webInf.getChildren()) {
                 if (file.isFile() && file.getLowerCaseName().endsWith(TLD)) {
-                    tlds.put("/" + file.getPathNameRelativeTo(deploymentRoot), parseTLD(file));
+                    tlds.put("/" + file.getPathNameRelativeTo(deploymentRoot), file);
                 } else if (file.isDirectory() && !CLASSES.equals(file.getName()) && !LIB.equals(file.getName())) {
                     processTlds(deploymentRoot, file.getChildren(), tlds);
                 }
             }
         }
+        Map<String, TldMetaData> tldMetaData = new HashMap<String, TldMetaData>();
+        Iterator<Map.Entry<String, VirtualFile>> iterator = tlds.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, VirtualFile> entry = iterator.next();
+            if (IMPLICIT_TLD.equals(entry.getValue().getName())) {
+                // Implicit TLDs are different from regular TLDs
+                tldMetaData.put(entry.getKey(), new TldMetaData());
+                iterator.remove();
+            }
+        }
+        // Everything else comes from the shared cache, which parses what it has not seen yet in parallel
+        tldMetaData.putAll(cache.getTlds(tlds));
+        tldsMetaData.setTlds(tldMetaData);
     }
 
     public void undeploy(final DeploymentUnit context) {
     }
 
-    private void processTlds(VirtualFile root, List<VirtualFile> files, Map<String, TldMetaData> tlds)
-    throws DeploymentUnitProcessingException {
+    private void processTlds(VirtualFile root, List<VirtualFile> files, Map<String, VirtualFile> tlds) {
         for (VirtualFile file : files) {
             if (file.isFile() && file.getLowerCaseName().endsWith(TLD)) {
-                tlds.put("/" + file.getPathNameRelativeTo(root), parseTLD(file));
+                tlds.put("/" + file.getPathNameRelativeTo(root), file);
             } else if (file.isDirectory()) {
                 processTlds(root, file.getChildren(), tlds);
             }
         }
     }
 
-    private TldMetaData parseTLD(VirtualFile tld)
-    throws DeploymentUnitProcessingException {
-        if (IMPLICIT_TLD.equals(tld.getName())) {
-            // Implicit TLDs are different from regular TLDs
-            return new TldMetaData();
-        }
-        InputStream is = null;
-        try {
-            is = tld.openStream();
-            final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
-            inputFactory.setXMLResolver(NoopXmlResolver.create());
-            XMLStreamReader xmlReader = inputFactory.createXMLStreamReader(is);
-            return TldMetaDataParser.parse(xmlReader);
-        } catch (Exception e) {
-            throw new DeploymentUnitProcessingException("Failed to parse " + tld, e);
-        } finally {
-            try {
-                if (is != null) {
-                    is.close();
-                }
-            } catch (IOException e) {
-                // Ignore
-            }
-        }
-    }
-
 }
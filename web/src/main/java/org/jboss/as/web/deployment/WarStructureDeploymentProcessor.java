@@ -44,6 +44,7 @@ import org.jboss.as.server.deployment.module.TempFileProviderService;
 import org.jboss.metadata.web.spec.TldMetaData;
 import org.jboss.metadata.web.spec.WebMetaData;
 import org.jboss.vfs.VFS;
+import org.jboss.vfs.VFSUtils;
 import org.jboss.vfs.VirtualFile;
 import org.jboss.vfs.VirtualFileFilter;
 import org.jboss.vfs.VisitorAttributes;
@@ -127,6 +128,18 @@ public class WarStructureDeploymentProcessor implements DeploymentUnitProcessor
     }
 
     public void undeploy(final DeploymentUnit context) {
+        final ResourceRoot deploymentResourceRoot = context.getAttachment(Attachments.DEPLOYMENT_ROOT);
+        final List<ResourceRoot> resourceRoots = context.getAttachment(Attachments.RESOURCE_ROOTS);
+        if (deploymentResourceRoot == null || resourceRoots == null) {
+            return;
+        }
+        // release the WEB-INF/lib mounts, and the resource loaders reading from them, along with the deployment
+        final VirtualFile webinfLib = deploymentResourceRoot.getRoot().getChild(WEB_INF_LIB);
+        for (ResourceRoot root : resourceRoots) {
+            if (webinfLib.equals(root.getRoot().getParent())) {
+                VFSUtils.safeClose(root.getMountHandle());
+            }
+        }
     }
 
     /**
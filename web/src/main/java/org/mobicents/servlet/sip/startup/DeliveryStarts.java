@@ -0,0 +1,60 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import java.util.Arrays;
+
+/**
+ * Stack of the start times of the message deliveries in progress on one
+ * thread for one sip context. Deliveries nest when an application sends a
+ * message which is routed back to itself on the same thread.
+ * <p>
+ * The dispatcher does not always reach the exit of a delivery, for instance
+ * when the application throws, so the stack can hold starts which are never
+ * popped. Since deliveries only nest as deep as an application routing chain,
+ * a stack reaching {@link #MAX_DEPTH} is taken to hold such abandoned starts
+ * and is cleared, which keeps pooled threads from growing it forever.
+ */
+final class DeliveryStarts {
+
+    static final int MAX_DEPTH = 16;
+
+    private long[] starts = new long[4];
+    private int depth;
+
+    void push(final long start) {
+        if (depth == MAX_DEPTH) {
+            depth = 0;
+        }
+        if (depth == starts.length) {
+            starts = Arrays.copyOf(starts, depth * 2);
+        }
+        starts[depth++] = start;
+    }
+
+    long pop() {
+        return starts[--depth];
+    }
+
+    boolean isEmpty() {
+        return depth == 0;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+}
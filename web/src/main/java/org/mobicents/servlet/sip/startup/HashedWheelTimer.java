@@ -0,0 +1,597 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.apache.catalina.Service;
+
+/**
+ * Hashed timer wheel shared by the SIP contexts of a server for their servlet
+ * timers and application session expiration timers.
+ * <p>
+ * Timers are hashed into a ring of buckets by their deadline, so scheduling and
+ * cancelling a timer costs O(1) whatever the number of timers pending, where a
+ * <tt>ScheduledThreadPoolExecutor</tt> pays O(log n) on its heap for both. In
+ * exchange the deadlines are only as precise as the tick duration: a timer never
+ * fires early, and at most one tick late. SIP application session lifetimes
+ * are counted in minutes and servlet timers are rarely shorter than a second,
+ * so a tick of a few tens of milliseconds loses nothing.
+ * <p>
+ * A single thread advances the wheel and owns the buckets. Scheduling and
+ * cancelling only enqueue the timer, the wheel thread moves it in or out of its
+ * bucket on the next tick. Expired timers run on a small dispatcher pool, never
+ * on the wheel thread.
+ * <p>
+ * Each context schedules through its own {@link #newScope() scope}, a
+ * <tt>ScheduledExecutorService</tt> view of the wheel whose shutdown cancels the
+ * timers of that context only.
+ */
+public final class HashedWheelTimer {
+
+    /**
+     * System property holding the tick duration of the shared timer, in
+     * milliseconds.
+     */
+    public static final String TICK_DURATION_PROPERTY = "jboss.web.sip.timer.tick-duration";
+    /**
+     * System property holding the number of buckets of the shared timer.
+     */
+    public static final String WHEEL_SIZE_PROPERTY = "jboss.web.sip.timer.wheel-size";
+    public static final long DEFAULT_TICK_DURATION = 50;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    /** the same number of threads the per context timer services used */
+    public static final int DEFAULT_DISPATCHER_THREADS = 4;
+
+    /** the most timers moved from the pending queue into the wheel per tick */
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private static final Map<Service, HashedWheelTimer> timers = new ConcurrentHashMap<Service, HashedWheelTimer>();
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final ThreadPoolExecutor dispatcher;
+    private final Queue<Timeout<?>> pendingTimeouts = new ConcurrentLinkedQueue<Timeout<?>>();
+    private final Queue<Timeout<?>> cancelledTimeouts = new ConcurrentLinkedQueue<Timeout<?>>();
+    private final Queue<Scope> purgedScopes = new ConcurrentLinkedQueue<Scope>();
+    private final AtomicInteger timeoutCount = new AtomicInteger();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean stopped;
+
+    /**
+     * Create a timer.
+     *
+     * @param name the name of the timer threads
+     * @param tickDuration the duration between two ticks
+     * @param unit the unit of the tick duration
+     * @param wheelSize the number of buckets, rounded up to a power of two
+     * @param dispatcherThreads the number of threads running the expired timers
+     */
+    public HashedWheelTimer(final String name, final long tickDuration, final TimeUnit unit, final int wheelSize,
+            final int dispatcherThreads) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheelSize out of range: " + wheelSize);
+        }
+        if (dispatcherThreads <= 0) {
+            throw new IllegalArgumentException("dispatcherThreads must be greater than 0: " + dispatcherThreads);
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.dispatcher = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory(name + " dispatcher"));
+        this.worker = new NamedThreadFactory(name).newThread(new Worker());
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * Create the timer shared by the SIP contexts of a server, configured from
+     * the {@link #TICK_DURATION_PROPERTY} and {@link #WHEEL_SIZE_PROPERTY}
+     * system properties.
+     *
+     * @param name the name of the timer threads
+     * @return the timer, not started yet
+     */
+    public static HashedWheelTimer createSharedTimer(final String name) {
+        final long tickDuration = Long.getLong(TICK_DURATION_PROPERTY, DEFAULT_TICK_DURATION).longValue();
+        final int wheelSize = Integer.getInteger(WHEEL_SIZE_PROPERTY, DEFAULT_WHEEL_SIZE).intValue();
+        return new HashedWheelTimer(name, tickDuration, TimeUnit.MILLISECONDS, wheelSize, DEFAULT_DISPATCHER_THREADS);
+    }
+
+    /**
+     * Make a timer the one shared by the SIP contexts of a service.
+     *
+     * @param service the service
+     * @param timer the timer, or {@code null} to remove the current one
+     */
+    public static void setSharedTimer(final Service service, final HashedWheelTimer timer) {
+        if (timer == null) {
+            timers.remove(service);
+        } else {
+            timers.put(service, timer);
+        }
+    }
+
+    /**
+     * Get the timer shared by the SIP contexts of a service.
+     *
+     * @param service the service, may be {@code null}
+     * @return the timer, or {@code null} if the contexts of the service schedule
+     *         on their own executors
+     */
+    public static HashedWheelTimer getSharedTimer(final Service service) {
+        return service == null ? null : timers.get(service);
+    }
+
+    public void start() {
+        worker.start();
+    }
+
+    /**
+     * Stop the wheel and the dispatcher threads. Pending timers never fire.
+     */
+    public void stop() {
+        stopped = true;
+        worker.interrupt();
+        dispatcher.shutdownNow();
+        if (Thread.currentThread() != worker) {
+            boolean interrupted = false;
+            while (worker.isAlive()) {
+                try {
+                    worker.join(100);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Create a new executor view of this timer.
+     *
+     * @return the scope
+     */
+    public Scope newScope() {
+        return new Scope();
+    }
+
+    /**
+     * @return the number of timers scheduled and not expired or cancelled yet
+     */
+    public int getPendingCount() {
+        return timeoutCount.get();
+    }
+
+    public long getTickDuration(final TimeUnit unit) {
+        return unit.convert(tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int getWheelSize() {
+        return wheel.length;
+    }
+
+    private <V> Timeout<V> schedule(final Timeout<V> timeout) {
+        if (stopped) {
+            throw new RejectedExecutionException("Timer stopped");
+        }
+        timeoutCount.incrementAndGet();
+        timeout.scope.active.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void removed(final Timeout<?> timeout) {
+        timeoutCount.decrementAndGet();
+        timeout.scope.taskDone();
+    }
+
+    /**
+     * A timer, linked into the bucket of its deadline. The bucket links and
+     * rounds are only touched by the wheel thread.
+     */
+    private final class Timeout<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+        private final Scope scope;
+        /** 0 for a one shot timer, the rate if positive, the negated delay if negative */
+        private final long period;
+        private volatile long deadline;
+        private volatile int removed;
+        long remainingRounds;
+        Bucket bucket;
+        Timeout<?> prev;
+        Timeout<?> next;
+
+        Timeout(final Scope scope, final Callable<V> callable, final long deadline) {
+            super(callable);
+            this.scope = scope;
+            this.deadline = deadline;
+            this.period = 0L;
+        }
+
+        Timeout(final Scope scope, final Runnable runnable, final V result, final long deadline, final long period) {
+            super(runnable, result);
+            this.scope = scope;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /**
+         * Mark this timer as gone from the wheel, exactly once.
+         */
+        boolean markRemoved() {
+            if (REMOVED_UPDATER.compareAndSet(this, 0, 1)) {
+                removed(this);
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isPeriodic() {
+            return period != 0L;
+        }
+
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        public int compareTo(final Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            final long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+            return diff < 0L ? -1 : diff > 0L ? 1 : 0;
+        }
+
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                cancelledTimeouts.add(this);
+            }
+            return cancelled;
+        }
+
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (!scope.isShutdown() && super.runAndReset() && !scope.isShutdown() && !stopped) {
+                deadline = period > 0L ? deadline + period : System.nanoTime() - period;
+                pendingTimeouts.add(this);
+            } else {
+                cancel(false);
+                markRemoved();
+            }
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Timeout> REMOVED_UPDATER = AtomicIntegerFieldUpdater.newUpdater(
+            Timeout.class, "removed");
+
+    /**
+     * Doubly linked list of the timers hashed to the same slot of the wheel.
+     */
+    private static final class Bucket {
+        Timeout<?> head;
+        Timeout<?> tail;
+
+        void add(final Timeout<?> timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(final Timeout<?> timeout) {
+            final Timeout<?> next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        private long tick;
+
+        public void run() {
+            while (!stopped) {
+                if (!waitForNextTick()) {
+                    break;
+                }
+                processCancelled();
+                processPurges();
+                transferPending();
+                expire(wheel[(int) (tick & mask)]);
+                tick++;
+            }
+        }
+
+        private boolean waitForNextTick() {
+            final long deadline = startTime + (tick + 1) * tickNanos;
+            for (;;) {
+                final long sleepNanos = deadline - System.nanoTime();
+                if (sleepNanos <= 0L) {
+                    return true;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (stopped) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        private void processCancelled() {
+            Timeout<?> timeout;
+            while ((timeout = cancelledTimeouts.poll()) != null) {
+                if (timeout.markRemoved() && timeout.bucket != null) {
+                    timeout.bucket.remove(timeout);
+                }
+            }
+        }
+
+        private void processPurges() {
+            Scope scope;
+            while ((scope = purgedScopes.poll()) != null) {
+                for (Bucket bucket : wheel) {
+                    Timeout<?> timeout = bucket.head;
+                    while (timeout != null) {
+                        final Timeout<?> next = timeout.next;
+                        if (timeout.scope == scope) {
+                            bucket.remove(timeout);
+                            timeout.cancel(false);
+                            timeout.markRemoved();
+                        }
+                        timeout = next;
+                    }
+                }
+            }
+        }
+
+        private void transferPending() {
+            for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+                final Timeout<?> timeout = pendingTimeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.isCancelled() || timeout.scope.purged) {
+                    timeout.cancel(false);
+                    timeout.markRemoved();
+                    continue;
+                }
+                final long calculated = Math.max(0L, (timeout.deadline - startTime) / tickNanos);
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                wheel[(int) (Math.max(calculated, tick) & mask)].add(timeout);
+            }
+        }
+
+        private void expire(final Bucket bucket) {
+            Timeout<?> timeout = bucket.head;
+            while (timeout != null) {
+                final Timeout<?> next = timeout.next;
+                if (timeout.remainingRounds <= 0L) {
+                    bucket.remove(timeout);
+                    if (timeout.isCancelled() || timeout.scope.purged) {
+                        timeout.cancel(false);
+                        timeout.markRemoved();
+                    } else {
+                        if (!timeout.isPeriodic()) {
+                            timeout.markRemoved();
+                        }
+                        try {
+                            dispatcher.execute(timeout);
+                        } catch (RejectedExecutionException e) {
+                            // stopping
+                            timeout.cancel(false);
+                            timeout.markRemoved();
+                        }
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * Executor view of the wheel, for the timers of one SIP context.
+     */
+    public final class Scope extends AbstractExecutorService implements ScheduledExecutorService {
+
+        final AtomicInteger active = new AtomicInteger();
+        private volatile boolean shutdown;
+        volatile boolean purged;
+
+        Scope() {
+        }
+
+        /**
+         * @return the number of timers of this scope scheduled and not expired
+         *         or cancelled yet
+         */
+        public int getPendingCount() {
+            return active.get();
+        }
+
+        private void checkShutdown() {
+            if (shutdown) {
+                throw new RejectedExecutionException("Timer scope shut down");
+            }
+        }
+
+        private long deadline(final long delay, final TimeUnit unit) {
+            return System.nanoTime() + unit.toNanos(Math.max(delay, 0L));
+        }
+
+        void taskDone() {
+            if (active.decrementAndGet() == 0 && shutdown) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+            checkShutdown();
+            return HashedWheelTimer.this.schedule(new Timeout<Object>(this, command, null, deadline(delay, unit), 0L));
+        }
+
+        public <V> ScheduledFuture<V> schedule(final Callable<V> callable, final long delay, final TimeUnit unit) {
+            checkShutdown();
+            return HashedWheelTimer.this.schedule(new Timeout<V>(this, callable, deadline(delay, unit)));
+        }
+
+        public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command, final long initialDelay, final long period,
+                final TimeUnit unit) {
+            if (period <= 0L) {
+                throw new IllegalArgumentException("period must be greater than 0: " + period);
+            }
+            checkShutdown();
+            return HashedWheelTimer.this.schedule(new Timeout<Object>(this, command, null, deadline(initialDelay, unit),
+                    unit.toNanos(period)));
+        }
+
+        public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable command, final long initialDelay,
+                final long delay, final TimeUnit unit) {
+            if (delay <= 0L) {
+                throw new IllegalArgumentException("delay must be greater than 0: " + delay);
+            }
+            checkShutdown();
+            return HashedWheelTimer.this.schedule(new Timeout<Object>(this, command, null, deadline(initialDelay, unit),
+                    -unit.toNanos(delay)));
+        }
+
+        public void execute(final Runnable command) {
+            checkShutdown();
+            dispatcher.execute(command);
+        }
+
+        /**
+         * Stop accepting timers. One shot timers already scheduled still fire,
+         * periodic ones stop after their current run.
+         */
+        public void shutdown() {
+            shutdown = true;
+            if (active.get() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Stop accepting timers and cancel the pending ones. The timers are
+         * removed from the wheel on its next tick, so the returned list is
+         * always empty.
+         */
+        public List<Runnable> shutdownNow() {
+            purged = true;
+            shutdown();
+            purgedScopes.add(this);
+            return Collections.emptyList();
+        }
+
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        public boolean isTerminated() {
+            return shutdown && active.get() == 0;
+        }
+
+        public synchronized boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            long remaining = unit.toNanos(timeout);
+            final long deadline = System.nanoTime() + remaining;
+            while (!isTerminated()) {
+                if (remaining <= 0L) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            return true;
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, name + " " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free latency histogram with power of two microsecond buckets. Recording
+ * a latency costs a few atomic increments, so it can sit on the message
+ * processing path; percentiles are only as precise as the bucket bounds, which
+ * is enough to follow the trend of a latency under load.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Number of buckets. Bucket 0 counts latencies below a microsecond, bucket
+     * <tt>i</tt> latencies from <tt>2^(i-1)</tt> up to <tt>2^i</tt>
+     * microseconds, the last bucket everything longer (about 4 seconds).
+     */
+    public static final int BUCKETS = 24;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0L) {
+            nanos = 0L;
+        }
+        final int bucket = 64 - Long.numberOfLeadingZeros(nanos / 1000L);
+        buckets.incrementAndGet(bucket < BUCKETS ? bucket : BUCKETS - 1);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max;
+        while ((max = maxNanos.get()) < nanos && !maxNanos.compareAndSet(max, nanos)) {
+            // retry
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMean(TimeUnit unit) {
+        final long count = this.count.get();
+        return count == 0L ? 0L : unit.convert(totalNanos.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMax(TimeUnit unit) {
+        return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get an upper bound of a percentile of the recorded latencies.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @param unit the unit of the result
+     * @return the upper bound of the bucket holding the percentile, or 0 if
+     *         nothing was recorded
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        final long[] counts = getBucketCounts();
+        long total = 0L;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        final long rank = (long) Math.ceil(total * percentile / 100.0d);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(unit.convert(1L << i, TimeUnit.MICROSECONDS), getMax(unit));
+            }
+        }
+        return getMax(unit);
+    }
+
+    public long[] getBucketCounts() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Message counters and processing latency of a sip context, updated lock free
+ * by the threads delivering messages to the application.
+ */
+public final class SipContextMetrics {
+
+    private static final String[] METHODS = { "ACK", "BYE", "CANCEL", "INFO",
+            "INVITE", "MESSAGE", "NOTIFY", "OPTIONS", "PRACK", "PUBLISH",
+            "REFER", "REGISTER", "SUBSCRIBE", "UPDATE" };
+    /** counter of the requests with an extension method */
+    public static final String OTHER_METHOD = "OTHER";
+    private static final String[] RESPONSE_CLASSES = { "1xx", "2xx", "3xx",
+            "4xx", "5xx", "6xx" };
+    private static final Map<String, Integer> METHOD_INDEX = new HashMap<String, Integer>();
+    static {
+        for (int i = 0; i < METHODS.length; i++) {
+            METHOD_INDEX.put(METHODS[i], Integer.valueOf(i));
+        }
+    }
+
+    private final AtomicLongArray requests = new AtomicLongArray(METHODS.length + 1);
+    private final AtomicLongArray responses = new AtomicLongArray(RESPONSE_CLASSES.length);
+    private final LatencyHistogram processingLatency = new LatencyHistogram();
+
+    void requestProcessed(String method, long nanos) {
+        final Integer index = method == null ? null : METHOD_INDEX.get(method);
+        requests.incrementAndGet(index == null ? METHODS.length : index.intValue());
+        processingLatency.record(nanos);
+    }
+
+    void responseProcessed(int status, long nanos) {
+        final int index = status / 100 - 1;
+        if (index >= 0 && index < RESPONSE_CLASSES.length) {
+            responses.incrementAndGet(index);
+        }
+        processingLatency.record(nanos);
+    }
+
+    /**
+     * @return the number of requests processed, per method
+     */
+    public Map<String, Long> getRequestCounts() {
+        final Map<String, Long> counts = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < METHODS.length; i++) {
+            counts.put(METHODS[i], Long.valueOf(requests.get(i)));
+        }
+        counts.put(OTHER_METHOD, Long.valueOf(requests.get(METHODS.length)));
+        return counts;
+    }
+
+    /**
+     * @return the number of responses processed, per response class
+     */
+    public Map<String, Long> getResponseCounts() {
+        final Map<String, Long> counts = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < RESPONSE_CLASSES.length; i++) {
+            counts.put(RESPONSE_CLASSES[i], Long.valueOf(responses.get(i)));
+        }
+        return counts;
+    }
+
+    /**
+     * @return the time the application took to process the messages
+     */
+    public LatencyHistogram getProcessingLatency() {
+        return processingLatency;
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dispatch index over the sip servlet mappings of a context. Each mapping rule
+ * expression is analyzed once for the request methods and request URI schemes
+ * it can possibly match, so that servlet selection only has to evaluate the
+ * full rules of the mappings which are candidates for the method and scheme of
+ * a request. Candidates keep the declaration order of the mappings, so the
+ * first candidate whose rule matches is the same mapping a linear scan of all
+ * rules would have selected.
+ * <p>
+ * The analysis is conservative: only top level <tt>and</tt>/<tt>or</tt>
+ * combinations of <tt>request.method</tt> and <tt>request.uri.scheme</tt>
+ * equality conditions narrow the candidates, any other condition (including
+ * <tt>not</tt>) is assumed to match every method and scheme.
+ *
+ * @param <T> the mapping type
+ */
+final class SipServletMappingIndex<T> {
+
+    static final String METHOD = "request.method";
+    static final String SCHEME = "request.uri.scheme";
+
+    // bounds the candidate cache, methods and schemes come from the network
+    private static final int MAX_CACHED_KEYS = 128;
+
+    private final List<T> mappings;
+    private final Constraint[] constraints;
+    private final ConcurrentMap<String, List<T>> candidates = new ConcurrentHashMap<String, List<T>>();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param mappings the mappings, in declaration order
+     * @param expressions the rule expression of each mapping
+     */
+    SipServletMappingIndex(final List<T> mappings, final List<String> expressions) {
+        this.mappings = new ArrayList<T>(mappings);
+        constraints = new Constraint[expressions.size()];
+        for (int i = 0; i < constraints.length; i++) {
+            constraints[i] = analyze(expressions.get(i));
+        }
+    }
+
+    /**
+     * Get the number of mappings indexed.
+     *
+     * @return the number of mappings
+     */
+    int size() {
+        return mappings.size();
+    }
+
+    /**
+     * Get the mappings whose rule can match a request with the given method and
+     * request URI scheme, in declaration order.
+     *
+     * @param method the request method
+     * @param scheme the request URI scheme, or {@code null} if unknown
+     * @return the candidate mappings
+     */
+    List<T> getCandidates(final String method, final String scheme) {
+        final String normalizedMethod = method == null ? null : method.toUpperCase(Locale.ENGLISH);
+        final String normalizedScheme = scheme == null ? null : scheme.toLowerCase(Locale.ENGLISH);
+        final String key = normalizedMethod + ' ' + normalizedScheme;
+        List<T> result = candidates.get(key);
+        if (result == null) {
+            result = computeCandidates(normalizedMethod, normalizedScheme);
+            if (candidates.size() < MAX_CACHED_KEYS) {
+                candidates.putIfAbsent(key, result);
+            }
+        }
+        return result;
+    }
+
+    private List<T> computeCandidates(final String method, final String scheme) {
+        final List<T> result = new ArrayList<T>();
+        for (int i = 0; i < constraints.length; i++) {
+            if (constraints[i].admits(method, scheme)) {
+                result.add(mappings.get(i));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Analyze a rule expression.
+     *
+     * @param expression the expression
+     * @return the constraint on methods and schemes implied by the expression
+     */
+    static Constraint analyze(final String expression) {
+        if (expression == null) {
+            return Constraint.ANY;
+        }
+        String expr = expression.trim();
+        while (isParenthesized(expr)) {
+            expr = expr.substring(1, expr.length() - 1).trim();
+        }
+        final List<String> conjuncts = split(expr, " and ");
+        final List<String> disjuncts = split(expr, " or ");
+        if (conjuncts == null || disjuncts == null) {
+            return Constraint.ANY;
+        }
+        if (conjuncts.size() > 1 && disjuncts.size() > 1) {
+            // mixed operators at one level are not produced by the rule classes
+            return Constraint.ANY;
+        }
+        if (conjuncts.size() > 1) {
+            Constraint result = Constraint.ANY;
+            for (String conjunct : conjuncts) {
+                result = result.and(analyze(conjunct));
+            }
+            return result;
+        }
+        if (disjuncts.size() > 1) {
+            Constraint result = null;
+            for (String disjunct : disjuncts) {
+                final Constraint constraint = analyze(disjunct);
+                result = result == null ? constraint : result.or(constraint);
+            }
+            return result;
+        }
+        return analyzeCondition(expr);
+    }
+
+    private static Constraint analyzeCondition(final String condition) {
+        final String[] parts = condition.split("\\s+");
+        if (parts.length != 3 || !(parts[1].equals("==") || parts[1].equals("equals") || parts[1].equals("equal"))) {
+            return Constraint.ANY;
+        }
+        if (METHOD.equals(parts[0])) {
+            return new Constraint(Collections.singleton(parts[2].toUpperCase(Locale.ENGLISH)), null);
+        }
+        if (SCHEME.equals(parts[0])) {
+            return new Constraint(null, Collections.singleton(parts[2].toLowerCase(Locale.ENGLISH)));
+        }
+        return Constraint.ANY;
+    }
+
+    private static boolean isParenthesized(final String expr) {
+        if (expr.length() < 2 || expr.charAt(0) != '(' || expr.charAt(expr.length() - 1) != ')') {
+            return false;
+        }
+        int depth = 0;
+        for (int i = 0; i < expr.length(); i++) {
+            final char c = expr.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0 && i != expr.length() - 1) {
+                    return false;
+                }
+            }
+        }
+        return depth == 0;
+    }
+
+    /**
+     * Split on an operator at parenthesis depth zero, or return {@code null}
+     * if the parentheses are unbalanced.
+     */
+    private static List<String> split(final String expr, final String operator) {
+        final List<String> parts = new ArrayList<String>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < expr.length(); i++) {
+            final char c = expr.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (--depth < 0) {
+                    return null;
+                }
+            } else if (depth == 0 && expr.startsWith(operator, i)) {
+                parts.add(expr.substring(start, i));
+                start = i + operator.length();
+                i = start - 1;
+            }
+        }
+        if (depth != 0) {
+            return null;
+        }
+        parts.add(expr.substring(start));
+        return parts;
+    }
+
+    /**
+     * The methods and schemes a rule can match, {@code null} meaning any.
+     */
+    static final class Constraint {
+        static final Constraint ANY = new Constraint(null, null);
+
+        private final Set<String> methods;
+        private final Set<String> schemes;
+
+        Constraint(final Set<String> methods, final Set<String> schemes) {
+            this.methods = methods;
+            this.schemes = schemes;
+        }
+
+        Set<String> getMethods() {
+            return methods;
+        }
+
+        Set<String> getSchemes() {
+            return schemes;
+        }
+
+        boolean admits(final String method, final String scheme) {
+            return (methods == null || method != null && methods.contains(method))
+                    && (schemes == null || scheme != null && schemes.contains(scheme));
+        }
+
+        Constraint and(final Constraint other) {
+            return new Constraint(intersect(methods, other.methods), intersect(schemes, other.schemes));
+        }
+
+        Constraint or(final Constraint other) {
+            // a disjunction only constrains what both sides constrain
+            return new Constraint(union(methods, other.methods), union(schemes, other.schemes));
+        }
+
+        private static Set<String> intersect(final Set<String> a, final Set<String> b) {
+            if (a == null) {
+                return b;
+            }
+            if (b == null) {
+                return a;
+            }
+            final Set<String> result = new HashSet<String>(a);
+            result.retainAll(b);
+            return result;
+        }
+
+        private static Set<String> union(final Set<String> a, final Set<String> b) {
+            if (a == null || b == null) {
+                return null;
+            }
+            final Set<String> result = new HashSet<String>(a);
+            result.addAll(b);
+            return result;
+        }
+    }
+}
@@ -139,9 +139,30 @@ public class SipStandardContext extends StandardContext implements SipContext {
      * The set of sip servlet mapping configured for this application.
      */
     protected transient List<SipServletMapping> sipServletMappings = new ArrayList<SipServletMapping>();
+    /**
+     * Dispatch index over {@link #sipServletMappings}, rebuilt lazily after the
+     * mappings change.
+     */
+    private transient volatile SipServletMappingIndex<SipServletMapping> sipServletMappingIndex;
 
     protected transient SipApplicationDispatcher sipApplicationDispatcher = null;
 
+    private final transient SipContextMetrics sipContextMetrics = new SipContextMetrics();
+    /**
+     * Starts of the message deliveries to this context in progress on the
+     * current thread, pushed in {@link #enterSipAppHa(boolean)} and popped in
+     * {@link #exitSipAppHa(SipServletRequestImpl, SipServletResponseImpl)}.
+     * The stack is per context, so a delivery to another application nested in
+     * one to this context, whose exit is skipped by an exception, cannot shift
+     * the timing of this context's deliveries.
+     */
+    private final transient ThreadLocal<DeliveryStarts> deliveryStarts = new ThreadLocal<DeliveryStarts>() {
+        @Override
+        protected DeliveryStarts initialValue() {
+            return new DeliveryStarts();
+        }
+    };
+
     protected transient Map<String, Container> childrenMap;
     protected transient Map<String, Container> childrenMapByClassName;
 
@@ -206,6 +227,8 @@ public class SipStandardContext extends StandardContext implements SipContext {
         // needed when restarting applications through the tomcat manager
         this.getServletContext().setAttribute(
                 javax.servlet.sip.SipServlet.SIP_FACTORY, sipFactoryFacade);
+        // schedule on the timer wheel of the server when there is one
+        final HashedWheelTimer sharedTimer = getSharedTimer();
         if (timerService == null) {
             if (getDistributable() && hasDistributableManager) {
                 if (logger.isInfoEnabled()) {
@@ -214,6 +237,8 @@ public class SipStandardContext extends StandardContext implements SipContext {
                 }
                 timerService = null;// new
                 // FaultTolerantTimerServiceImpl((DistributableSipManager)getSipManager());
+            } else if (sharedTimer != null) {
+                timerService = new WheelTimerService(sharedTimer);
             } else {
                 timerService = new TimerServiceImpl();
             }
@@ -226,6 +251,8 @@ public class SipStandardContext extends StandardContext implements SipContext {
                 sasTimerService = null;// new
                 // FaultTolerantSasTimerService((DistributableSipManager)getSipManager(),
                 // 4);
+            } else if (sharedTimer != null) {
+                sasTimerService = new WheelSipApplicationSessionTimerService(sharedTimer);
             } else {
                 sasTimerService = new StandardSipApplicationSessionTimerService();
             }
@@ -272,6 +299,18 @@ public class SipStandardContext extends StandardContext implements SipContext {
         }
     }
 
+    /**
+     * @return the timer wheel shared by the sip contexts of the server, or null
+     *         if each context schedules on its own timer services
+     */
+    private HashedWheelTimer getSharedTimer() {
+        Container container = getParent() == null ? null : getParent().getParent();
+        if (container instanceof Engine) {
+            return HashedWheelTimer.getSharedTimer(((Engine) container).getService());
+        }
+        return null;
+    }
+
     @Override
     public synchronized void start() throws LifecycleException {
         if (logger.isInfoEnabled()) {
@@ -517,6 +556,7 @@ public class SipStandardContext extends StandardContext implements SipContext {
         sipListeners.deallocateServletsActingAsListeners();
         sipApplicationListeners.clear();
         sipServletMappings.clear();
+        sipServletMappingIndex = null;
         childrenMap.clear();
         childrenMapByClassName.clear();
         if (sipApplicationDispatcher != null) {
@@ -957,6 +997,7 @@ public class SipStandardContext extends StandardContext implements SipContext {
      */
     public void addSipServletMapping(SipServletMapping sipServletMapping) {
         sipServletMappings.add(sipServletMapping);
+        sipServletMappingIndex = null;
         isMainServlet = false;
         if (servletHandler == null) {
             servletHandler = sipServletMapping.getServletName();
@@ -975,15 +1016,19 @@ public class SipStandardContext extends StandardContext implements SipContext {
      */
     public SipServletMapping findSipServletMappings(
             SipServletRequest sipServletRequest) {
-        if (logger.isDebugEnabled()) {
+        final boolean debug = logger.isDebugEnabled();
+        if (debug) {
             logger
                     .debug("Checking sip Servlet Mapping for following request : "
                             + sipServletRequest);
         }
-        for (SipServletMapping sipServletMapping : sipServletMappings) {
+        final String scheme = sipServletRequest.getRequestURI() == null ? null
+                : sipServletRequest.getRequestURI().getScheme();
+        for (SipServletMapping sipServletMapping : getSipServletMappingIndex()
+                .getCandidates(sipServletRequest.getMethod(), scheme)) {
             if (sipServletMapping.getMatchingRule().matches(sipServletRequest)) {
                 return sipServletMapping;
-            } else {
+            } else if (debug) {
                 logger
                         .debug("Following mapping rule didn't match : servletName => "
                                 + sipServletMapping.getServletName()
@@ -995,11 +1040,27 @@ public class SipStandardContext extends StandardContext implements SipContext {
         return null;
     }
 
+    private SipServletMappingIndex<SipServletMapping> getSipServletMappingIndex() {
+        SipServletMappingIndex<SipServletMapping> index = sipServletMappingIndex;
+        // the mapping list is exposed, so also catch changes made to it directly
+        if (index == null || index.size() != sipServletMappings.size()) {
+            final List<SipServletMapping> mappings = new ArrayList<SipServletMapping>(sipServletMappings);
+            final List<String> expressions = new ArrayList<String>(mappings.size());
+            for (SipServletMapping mapping : mappings) {
+                expressions.add(mapping.getMatchingRule().getExpression());
+            }
+            index = new SipServletMappingIndex<SipServletMapping>(mappings, expressions);
+            sipServletMappingIndex = index;
+        }
+        return index;
+    }
+
     /**
      * {@inheritDoc}
      */
     public void removeSipServletMapping(SipServletMapping sipServletMapping) {
         sipServletMappings.remove(sipServletMapping);
+        sipServletMappingIndex = null;
     }
 
     /**
@@ -1073,6 +1134,7 @@ public class SipStandardContext extends StandardContext implements SipContext {
     }
 
     public void enterSipAppHa(boolean startCacheActivity) {
+        deliveryStarts.get().push(System.nanoTime());
         if (getDistributable() && hasDistributableManager) {
             // startBatchTransaction();
             // if(bindSessions) {
@@ -1135,6 +1197,15 @@ public class SipStandardContext extends StandardContext implements SipContext {
 
     public void exitSipAppHa(SipServletRequestImpl request,
             SipServletResponseImpl response) {
+        final DeliveryStarts starts = deliveryStarts.get();
+        if (!starts.isEmpty()) {
+            final long elapsed = System.nanoTime() - starts.pop();
+            if (request != null) {
+                sipContextMetrics.requestProcessed(request.getMethod(), elapsed);
+            } else if (response != null) {
+                sipContextMetrics.responseProcessed(response.getStatus(), elapsed);
+            }
+        }
         if (getDistributable() && hasDistributableManager) {
             if (logger.isInfoEnabled()) {
                 if (request != null) {
@@ -1365,6 +1436,29 @@ public class SipStandardContext extends StandardContext implements SipContext {
         return sasTimerService;
     }
 
+    /**
+     * @return the message counters and processing latency of this context
+     */
+    public SipContextMetrics getSipContextMetrics() {
+        return sipContextMetrics;
+    }
+
+    /**
+     * @return the number of servlet and application session timers of this
+     *         context pending on the timer wheel of the server, or -1 if the
+     *         context schedules them on its own timer services
+     */
+    public int getPendingTimerCount() {
+        final SipServletTimerService timerService = this.timerService;
+        final SipApplicationSessionTimerService sasTimerService = this.sasTimerService;
+        if (!(timerService instanceof WheelTimerService)
+                || !(sasTimerService instanceof WheelSipApplicationSessionTimerService)) {
+            return -1;
+        }
+        return ((WheelTimerService) timerService).getPendingCount()
+                + ((WheelSipApplicationSessionTimerService) sasTimerService).getPendingCount();
+    }
+
     /**
      * @return the hasDistributableManager
      */
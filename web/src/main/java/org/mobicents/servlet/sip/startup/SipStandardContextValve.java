@@ -18,6 +18,8 @@ package org.mobicents.servlet.sip.startup;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
@@ -76,6 +78,8 @@ final class SipStandardContextValve extends
 
     private SipStandardContext context = null;
 
+    private volatile RequestListeners requestListeners;
+
     // ------------------------------------------------------------- Properties
 
     /**
@@ -155,121 +159,177 @@ final class SipStandardContextValve extends
         }
 
         // Normal request processing
-        Object[] instances = context.getApplicationEventListeners();
+        final ServletRequestListener[] requestListeners = getRequestListeners();
 
         ServletRequestEvent event = null;
 
-        if ((instances != null) && (instances.length > 0)) {
+        if (requestListeners.length > 0) {
             event = new ServletRequestEvent(((StandardContext) container)
                     .getServletContext(), request.getRequest());
             // create pre-service event
-            for (int i = 0; i < instances.length; i++) {
-                if (instances[i] == null)
-                    continue;
-                if (!(instances[i] instanceof ServletRequestListener))
-                    continue;
-                ServletRequestListener listener = (ServletRequestListener) instances[i];
+            for (int i = 0; i < requestListeners.length; i++) {
                 try {
-                    listener.requestInitialized(event);
+                    requestListeners[i].requestInitialized(event);
                 } catch (Throwable t) {
                     logger.error(sm.getString(
                             "standardContext.requestListener.requestInit",
-                            instances[i].getClass().getName()), t);
+                            requestListeners[i].getClass().getName()), t);
                     ServletRequest sreq = request.getRequest();
                     sreq.setAttribute("javax.servlet.error.exception", t);
                     return;
                 }
             }
         }
-        context.enterSipAppHa(false);
 
         // the line below was replaced by the whole bunch of code because
         // getting the parameter from the request is causing
         // JRuby-Rails persistence to fail, go figure...
         // String sipApplicationKey =
         // request.getParameter(MobicentsSipApplicationSession.SIP_APPLICATION_KEY_PARAM_NAME);
+        final String sipApplicationKey = getSipApplicationKey(request
+                .getQueryString());
+        // Fix for Issue 882 : HTTP requests to a SIP application always
+        // create an HTTP session, even for static resources
+        // Don't create an http session if not already created
+        final HttpSession httpSession = sipApplicationKey == null ? request
+                .getSession(false) : null;
+
+        if (sipApplicationKey == null && httpSession == null) {
+            // Fast path : no sip application key and no http session, so
+            // there is no converged session to bind the request to
+            wrapper.getPipeline().getFirst().invoke(request, response);
+        } else {
+            invokeConverged(request, response, wrapper, sipApplicationKey,
+                    httpSession);
+        }
 
-        String sipApplicationKey = null;
-        String queryString = request.getQueryString();
-        if (queryString != null) {
-            int indexOfSipAppKey = queryString
-                    .indexOf(MobicentsSipApplicationSession.SIP_APPLICATION_KEY_PARAM_NAME);
-
-            if (indexOfSipAppKey != -1) {
-                // +1 to remove the = sign also
-                String sipAppKeyParam = queryString
-                        .substring(indexOfSipAppKey
-                                + MobicentsSipApplicationSession.SIP_APPLICATION_KEY_PARAM_NAME
-                                        .length() + 1);
-                int indexOfPoundSign = sipAppKeyParam.indexOf("&");
-                if (indexOfPoundSign != -1) {
-                    sipAppKeyParam = sipAppKeyParam.substring(0,
-                            indexOfPoundSign);
+        if (requestListeners.length > 0) {
+            // create post-service event
+            for (int i = 0; i < requestListeners.length; i++) {
+                try {
+                    requestListeners[i].requestDestroyed(event);
+                } catch (Throwable t) {
+                    logger.error(sm.getString(
+                            "standardContext.requestListener.requestDestroy",
+                            requestListeners[i].getClass().getName()), t);
+                    ServletRequest sreq = request.getRequest();
+                    sreq.setAttribute("javax.servlet.error.exception", t);
                 }
-                sipApplicationKey = sipAppKeyParam;
             }
         }
 
-        MobicentsSipApplicationSession sipApplicationSessionImpl = null;
-        if (sipApplicationKey != null && sipApplicationKey.length() > 0) {
-            try {
-                SipApplicationSessionKey sipApplicationSessionKey = SessionManagerUtil
-                        .parseSipApplicationSessionKey(sipApplicationKey);
-                sipApplicationSessionImpl = ((SipManager) context.getManager())
-                        .getSipApplicationSession(sipApplicationSessionKey,
-                                false);
-                sipApplicationSessionImpl.addHttpSession(request.getSession());
-            } catch (ParseException pe) {
-                logger.error(
-                        "Unexpected exception while parsing the sip application session key"
-                                + sipApplicationKey, pe);
-            }
-        } else {
-            // Fix for Issue 882 : HTTP requests to a SIP application always
-            // create an HTTP session, even for static resources
-            // Don't create an http session if not already created
-            final HttpSession httpSession = request.getSession(false);
-            if (httpSession != null) {
+    }
+
+    /**
+     * Invoke the wrapper for a request belonging to a converged session,
+     * designated by a sip application key or reached through an http session.
+     */
+    private void invokeConverged(Request request, Response response,
+            Wrapper wrapper, String sipApplicationKey, HttpSession httpSession)
+            throws IOException, ServletException {
+        context.enterSipAppHa(false);
+        try {
+            MobicentsSipApplicationSession sipApplicationSessionImpl = null;
+            if (sipApplicationKey != null) {
+                try {
+                    SipApplicationSessionKey sipApplicationSessionKey = SessionManagerUtil
+                            .parseSipApplicationSessionKey(sipApplicationKey);
+                    sipApplicationSessionImpl = ((SipManager) context.getManager())
+                            .getSipApplicationSession(sipApplicationSessionKey,
+                                    false);
+                    sipApplicationSessionImpl.addHttpSession(request.getSession());
+                } catch (ParseException pe) {
+                    logger.error(
+                            "Unexpected exception while parsing the sip application session key"
+                                    + sipApplicationKey, pe);
+                }
+            } else {
                 context.getSipFactoryFacade().storeHttpSession(httpSession);
                 ConvergedSession convergedSession = (ConvergedSession) httpSession;
                 sipApplicationSessionImpl = convergedSession
                         .getApplicationSession(false);
             }
-        }
-        // Fix for http://code.google.com/p/mobicents/issues/detail?id=1386 :
-        // Ensure SipApplicationSession concurrency control on converged HTTP
-        // apps
-        context.enterSipApp(sipApplicationSessionImpl, null);
-        try {
-            wrapper.getPipeline().getFirst().invoke(request, response);
+            // Fix for http://code.google.com/p/mobicents/issues/detail?id=1386 :
+            // Ensure SipApplicationSession concurrency control on converged HTTP
+            // apps
+            context.enterSipApp(sipApplicationSessionImpl, null);
+            try {
+                wrapper.getPipeline().getFirst().invoke(request, response);
+            } finally {
+                context.exitSipApp(sipApplicationSessionImpl, null);
+            }
         } finally {
-            context.exitSipApp(sipApplicationSessionImpl, null);
             context.exitSipAppHa(null, null);
         }
         // Fix for Issue 882 :remove the http session from the thread local to
         // avoid any leaking of the session
         context.getSipFactoryFacade().removeHttpSession();
+    }
 
-        if ((instances != null) && (instances.length > 0)) {
-            // create post-service event
-            for (int i = 0; i < instances.length; i++) {
-                if (instances[i] == null)
-                    continue;
-                if (!(instances[i] instanceof ServletRequestListener))
-                    continue;
-                ServletRequestListener listener = (ServletRequestListener) instances[i];
-                try {
-                    listener.requestDestroyed(event);
-                } catch (Throwable t) {
-                    logger.error(sm.getString(
-                            "standardContext.requestListener.requestDestroy",
-                            instances[i].getClass().getName()), t);
-                    ServletRequest sreq = request.getRequest();
-                    sreq.setAttribute("javax.servlet.error.exception", t);
+    /**
+     * Extract the sip application key from a query string.
+     * @param queryString the query string, may be null
+     * @return the key, or null if the query string holds no non empty key
+     */
+    static String getSipApplicationKey(String queryString) {
+        if (queryString == null) {
+            return null;
+        }
+        final int indexOfSipAppKey = queryString
+                .indexOf(MobicentsSipApplicationSession.SIP_APPLICATION_KEY_PARAM_NAME);
+        if (indexOfSipAppKey == -1) {
+            return null;
+        }
+        // +1 to remove the = sign also
+        final int start = indexOfSipAppKey
+                + MobicentsSipApplicationSession.SIP_APPLICATION_KEY_PARAM_NAME
+                        .length() + 1;
+        if (start >= queryString.length()) {
+            return null;
+        }
+        int end = queryString.indexOf('&', start);
+        if (end == -1) {
+            end = queryString.length();
+        }
+        return end > start ? queryString.substring(start, end) : null;
+    }
+
+    /**
+     * Get the request listeners among the application event listeners of the
+     * context. The partition is computed once per listener array, that is
+     * once after the context started its listeners, instead of on every
+     * request.
+     */
+    private ServletRequestListener[] getRequestListeners() {
+        final Object[] instances = context.getApplicationEventListeners();
+        RequestListeners requestListeners = this.requestListeners;
+        if (requestListeners == null || requestListeners.instances != instances) {
+            requestListeners = new RequestListeners(instances);
+            this.requestListeners = requestListeners;
+        }
+        return requestListeners.listeners;
+    }
+
+    /**
+     * The request listeners found in an array of application event listeners.
+     */
+    private static final class RequestListeners {
+        private final Object[] instances;
+        private final ServletRequestListener[] listeners;
+
+        RequestListeners(Object[] instances) {
+            this.instances = instances;
+            final List<ServletRequestListener> listeners = new ArrayList<ServletRequestListener>();
+            if (instances != null) {
+                for (Object instance : instances) {
+                    if (instance instanceof ServletRequestListener) {
+                        listeners.add((ServletRequestListener) instance);
+                    }
                 }
             }
+            this.listeners = listeners
+                    .toArray(new ServletRequestListener[listeners.size()]);
         }
-
     }
 
     /**
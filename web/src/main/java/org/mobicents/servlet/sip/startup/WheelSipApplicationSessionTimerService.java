@@ -0,0 +1,87 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.servlet.sip.core.session.MobicentsSipApplicationSession;
+import org.mobicents.servlet.sip.core.timers.SipApplicationSessionTimerService;
+import org.mobicents.servlet.sip.core.timers.SipApplicationSessionTimerTask;
+import org.mobicents.servlet.sip.core.timers.StandardSasTimerTask;
+
+/**
+ * Sip application session expiration timer service of a context scheduling on
+ * the {@link HashedWheelTimer} shared by the server instead of a thread pool
+ * of its own. Application sessions reset their expiration timer on every
+ * access, the cancel and reschedule of the wheel are constant time. Stopping
+ * the service cancels the timers of its context.
+ */
+class WheelSipApplicationSessionTimerService implements
+        SipApplicationSessionTimerService {
+
+    private final HashedWheelTimer timer;
+    private volatile HashedWheelTimer.Scope scheduledExecutor;
+
+    WheelSipApplicationSessionTimerService(HashedWheelTimer timer) {
+        this.timer = timer;
+        this.scheduledExecutor = timer.newScope();
+    }
+
+    public SipApplicationSessionTimerTask createSipApplicationSessionTimerTask(
+            MobicentsSipApplicationSession sipApplicationSession) {
+        return new StandardSasTimerTask(sipApplicationSession);
+    }
+
+    @SuppressWarnings("unchecked")
+    public SipApplicationSessionTimerTask schedule(
+            SipApplicationSessionTimerTask expirationTimerTask, long delay,
+            TimeUnit unit) {
+        final ScheduledFuture<?> future = scheduledExecutor.schedule(
+                (Runnable) expirationTimerTask, delay, unit);
+        ((StandardSasTimerTask) expirationTimerTask)
+                .setScheduledFuture((ScheduledFuture<MobicentsSipApplicationSession>) future);
+        return expirationTimerTask;
+    }
+
+    public boolean cancel(SipApplicationSessionTimerTask expirationTimerTask) {
+        final ScheduledFuture<MobicentsSipApplicationSession> future = ((StandardSasTimerTask) expirationTimerTask)
+                .getScheduledFuture();
+        return future != null && future.cancel(false);
+    }
+
+    public void start() {
+        if (scheduledExecutor.isShutdown()) {
+            scheduledExecutor = timer.newScope();
+        }
+    }
+
+    public void stop() {
+        scheduledExecutor.shutdownNow();
+    }
+
+    public boolean isStarted() {
+        return !scheduledExecutor.isShutdown();
+    }
+
+    /**
+     * @return the number of timers of the context pending on the wheel
+     */
+    int getPendingCount() {
+        return scheduledExecutor.getPendingCount();
+    }
+}
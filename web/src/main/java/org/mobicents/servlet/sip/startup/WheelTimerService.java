@@ -0,0 +1,123 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import java.io.Serializable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.sip.ServletTimer;
+import javax.servlet.sip.SipApplicationSession;
+import javax.servlet.sip.TimerListener;
+
+import org.mobicents.servlet.sip.core.session.MobicentsSipApplicationSession;
+import org.mobicents.servlet.sip.core.timers.ServletTimerImpl;
+import org.mobicents.servlet.sip.core.timers.SipServletTimerService;
+
+/**
+ * Servlet timer service of a context scheduling on the {@link HashedWheelTimer}
+ * shared by the server instead of a thread pool of its own. Stopping the
+ * service cancels the timers of its context.
+ */
+class WheelTimerService implements SipServletTimerService {
+
+    private final HashedWheelTimer timer;
+    private volatile HashedWheelTimer.Scope scheduledExecutor;
+
+    WheelTimerService(HashedWheelTimer timer) {
+        this.timer = timer;
+        this.scheduledExecutor = timer.newScope();
+    }
+
+    public ServletTimer createTimer(SipApplicationSession appSession,
+            long delay, boolean isPersistent, Serializable info) {
+        final MobicentsSipApplicationSession sipApplicationSession = checkApplicationSession(appSession);
+        final ServletTimerImpl servletTimer = new ServletTimerImpl(info, delay,
+                getTimerListener(sipApplicationSession), sipApplicationSession);
+        final ScheduledFuture<?> future = scheduledExecutor.schedule(
+                servletTimer, delay, TimeUnit.MILLISECONDS);
+        servletTimer.setFuture(future);
+        sipApplicationSession.addServletTimer(servletTimer);
+        return servletTimer;
+    }
+
+    public ServletTimer createTimer(SipApplicationSession appSession,
+            long delay, long period, boolean fixedDelay, boolean isPersistent,
+            Serializable info) {
+        if (period < 1) {
+            throw new IllegalArgumentException(
+                    "Period should be greater than 0");
+        }
+        final MobicentsSipApplicationSession sipApplicationSession = checkApplicationSession(appSession);
+        final ServletTimerImpl servletTimer = new ServletTimerImpl(info, delay,
+                fixedDelay, period, getTimerListener(sipApplicationSession),
+                sipApplicationSession);
+        final ScheduledFuture<?> future;
+        if (fixedDelay) {
+            future = scheduledExecutor.scheduleWithFixedDelay(servletTimer,
+                    delay, period, TimeUnit.MILLISECONDS);
+        } else {
+            future = scheduledExecutor.scheduleAtFixedRate(servletTimer,
+                    delay, period, TimeUnit.MILLISECONDS);
+        }
+        servletTimer.setFuture(future);
+        sipApplicationSession.addServletTimer(servletTimer);
+        return servletTimer;
+    }
+
+    private static MobicentsSipApplicationSession checkApplicationSession(
+            SipApplicationSession appSession) {
+        final MobicentsSipApplicationSession sipApplicationSession = (MobicentsSipApplicationSession) appSession;
+        if (!sipApplicationSession.isValid()) {
+            throw new IllegalStateException(
+                    "Sip application session has been invalidated!!!");
+        }
+        return sipApplicationSession;
+    }
+
+    private static TimerListener getTimerListener(
+            MobicentsSipApplicationSession sipApplicationSession) {
+        final TimerListener listener = sipApplicationSession.getSipContext()
+                .getListeners().getTimerListener();
+        if (listener == null) {
+            throw new IllegalStateException(
+                    "No Timer listeners have been configured for this application ");
+        }
+        return listener;
+    }
+
+    public void start() {
+        if (scheduledExecutor.isShutdown()) {
+            scheduledExecutor = timer.newScope();
+        }
+    }
+
+    public void stop() {
+        scheduledExecutor.shutdownNow();
+    }
+
+    public boolean isStarted() {
+        return !scheduledExecutor.isShutdown();
+    }
+
+    /**
+     * @return the number of timers of the context pending on the wheel
+     */
+    int getPendingCount() {
+        return scheduledExecutor.getPendingCount();
+    }
+}
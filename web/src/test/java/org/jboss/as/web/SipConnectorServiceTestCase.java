@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.web;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Executor;
+
+import org.jboss.msc.service.StartException;
+import org.junit.Test;
+
+/**
+ * Tests handing the connector executor to the SIP protocol handler.
+ */
+public class SipConnectorServiceTestCase {
+
+    private final Executor executor = new Executor() {
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void testExecutorIsSet() throws Exception {
+        final ExecutorProtocolHandler handler = new ExecutorProtocolHandler();
+        SipConnectorService.setExecutor(handler, executor);
+        assertSame(executor, handler.executor);
+    }
+
+    @Test
+    public void testHandlerWithoutExecutorFailsStart() {
+        try {
+            SipConnectorService.setExecutor(new Object(), executor);
+            fail("Expected StartException");
+        } catch (StartException expected) {
+        }
+    }
+
+    @Test
+    public void testSetterFailureFailsStart() {
+        final IllegalStateException failure = new IllegalStateException("started");
+        try {
+            SipConnectorService.setExecutor(new ExecutorProtocolHandler() {
+                @Override
+                public void setExecutor(final Executor executor) {
+                    throw failure;
+                }
+            }, executor);
+            fail("Expected StartException");
+        } catch (StartException expected) {
+            assertSame(failure, expected.getCause());
+        }
+    }
+
+    public static class ExecutorProtocolHandler {
+        private Executor executor;
+
+        public void setExecutor(final Executor executor) {
+            this.executor = executor;
+        }
+    }
+}
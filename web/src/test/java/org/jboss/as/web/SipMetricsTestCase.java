@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.web;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.msc.service.ServiceRegistry;
+import org.junit.Test;
+
+/**
+ * Tests of the SIP metric handlers.
+ */
+public class SipMetricsTestCase {
+
+    private static final PathAddress CONNECTOR = PathAddress.pathAddress(PathElement.pathElement("connector", "sip"));
+
+    // a registry without any service, as before the web server and the connectors are started
+    private final ServiceRegistry emptyRegistry = (ServiceRegistry) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { ServiceRegistry.class }, new InvocationHandler() {
+                public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                    return null;
+                }
+            });
+
+    @Test
+    public void testUnknownConnectorMetric() {
+        try {
+            SipConnectorMetrics.INSTANCE.getMetric(emptyRegistry, CONNECTOR, "no-such-metric");
+            fail("Expected OperationFailedException");
+        } catch (OperationFailedException expected) {
+        }
+    }
+
+    @Test
+    public void testUnknownDeploymentMetric() {
+        try {
+            SipDeploymentMetrics.INSTANCE.getMetric(emptyRegistry, PathAddress.EMPTY_ADDRESS, "no-such-metric");
+            fail("Expected OperationFailedException");
+        } catch (OperationFailedException expected) {
+        }
+    }
+
+    @Test
+    public void testConnectorMetricsWithoutExecutor() throws Exception {
+        for (String attribute : SipConnectorMetrics.ATTRIBUTES) {
+            assertFalse(attribute, SipConnectorMetrics.INSTANCE.getMetric(emptyRegistry, CONNECTOR, attribute).isDefined());
+        }
+    }
+
+    @Test
+    public void testDeploymentMetricsWithoutWebServer() throws Exception {
+        for (String attribute : SipDeploymentMetrics.ATTRIBUTES) {
+            assertFalse(attribute, SipDeploymentMetrics.INSTANCE.getMetric(emptyRegistry, PathAddress.EMPTY_ADDRESS, attribute).isDefined());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.web.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
+import org.jboss.metadata.web.spec.TldMetaData;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link TldMetaDataCache}.
+ */
+public class TldMetaDataCacheTestCase {
+
+    private File root;
+    private File cacheDir;
+    private TldMetaDataCache started;
+
+    @Before
+    public void createDirectories() throws IOException {
+        root = File.createTempFile("tld-cache", "test");
+        root.delete();
+        root.mkdirs();
+        cacheDir = new File(root, "cache");
+    }
+
+    @After
+    public void cleanUp() {
+        if (started != null) {
+            started.stop(null);
+        }
+        delete(root);
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        final TldMetaDataCache cache = new TldMetaDataCache(null, 2, 16);
+        final Map<String, VirtualFile> tlds = new HashMap<String, VirtualFile>();
+        tlds.put("a", createTld("a.tld", "one"));
+        tlds.put("b", createTld("b.tld", "one"));
+        tlds.put("c", createTld("c.tld", "two"));
+        final Map<String, TldMetaData> first = cache.getTlds(tlds);
+        assertEquals("one", first.get("a").getShortName());
+        assertEquals("two", first.get("c").getShortName());
+        // the same content is parsed once, whichever jar it comes from
+        assertSame(first.get("a"), first.get("b"));
+        assertNotSame(first.get("a"), first.get("c"));
+
+        final Map<String, TldMetaData> second = cache.getTlds(tlds);
+        assertSame(first.get("a"), second.get("a"));
+        assertSame(first.get("c"), second.get("c"));
+    }
+
+    @Test
+    public void testPersistedRoundTrip() throws Exception {
+        final Map<String, VirtualFile> tlds = new HashMap<String, VirtualFile>();
+        tlds.put("a", createTld("a.tld", "one"));
+        new TldMetaDataCache(cacheDir, 2, 16).getTlds(tlds);
+        final File[] persisted = listCacheFiles();
+        assertEquals(1, persisted.length);
+        persisted[0].setLastModified(1000L);
+
+        // a new cache, as after a restart, loads the entry instead of parsing it, which marks the file as used
+        final Map<String, TldMetaData> loaded = new TldMetaDataCache(cacheDir, 2, 16).getTlds(tlds);
+        assertEquals("one", loaded.get("a").getShortName());
+        assertTrue(persisted[0].lastModified() > 1000L);
+    }
+
+    @Test
+    public void testParallelParseFailure() throws Exception {
+        started = new TldMetaDataCache(cacheDir, 4, 16);
+        started.start(null);
+        final Map<String, VirtualFile> tlds = new HashMap<String, VirtualFile>();
+        for (int i = 0; i < 8; i++) {
+            tlds.put("good" + i, createTld("good" + i + ".tld", "tag" + i));
+        }
+        tlds.put("broken", createFile("broken.tld", "<not-a-taglib"));
+        try {
+            started.getTlds(tlds);
+            fail("Expected DeploymentUnitProcessingException");
+        } catch (DeploymentUnitProcessingException expected) {
+            assertTrue(expected.getMessage().indexOf("broken.tld") != -1);
+        }
+        tlds.remove("broken");
+        assertEquals(8, started.getTlds(tlds).size());
+    }
+
+    @Test
+    public void testStartRemovesStaleEntries() throws Exception {
+        final Map<String, VirtualFile> tlds = new HashMap<String, VirtualFile>();
+        tlds.put("a", createTld("a.tld", "one"));
+        new TldMetaDataCache(cacheDir, 2, 16).getTlds(tlds);
+        final File current = listCacheFiles()[0];
+        final File otherVersion = createFile(cacheDir, "0123-some-other-version.tld.ser", "stale");
+        final File interrupted = createFile(cacheDir, current.getName() + ".42", "partial");
+        final File unrelated = createFile(cacheDir, "readme.txt", "kept");
+
+        started = new TldMetaDataCache(cacheDir, 2, 16);
+        started.start(null);
+        assertFalse(otherVersion.exists());
+        assertFalse(interrupted.exists());
+        assertTrue(unrelated.exists());
+        assertTrue(current.exists());
+    }
+
+    @Test
+    public void testDirectoryIsCapped() throws Exception {
+        final TldMetaDataCache cache = new TldMetaDataCache(cacheDir, 2, 4);
+        for (int i = 0; i < 10; i++) {
+            final Map<String, VirtualFile> tlds = new HashMap<String, VirtualFile>();
+            tlds.put("tag", createTld("tag" + i + ".tld", "tag" + i));
+            cache.getTlds(tlds);
+            assertTrue(listCacheFiles().length <= 4);
+        }
+    }
+
+    private File[] listCacheFiles() {
+        final File[] files = cacheDir.listFiles(new FilenameFilter() {
+            public boolean accept(final File dir, final String name) {
+                return name.endsWith(".tld.ser");
+            }
+        });
+        return files == null ? new File[0] : files;
+    }
+
+    private VirtualFile createTld(final String name, final String shortName) throws IOException {
+        return createFile(name, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<taglib xmlns=\"http://java.sun.com/xml/ns/javaee\" version=\"2.1\">\n"
+                + "    <tlib-version>1.0</tlib-version>\n"
+                + "    <short-name>" + shortName + "</short-name>\n"
+                + "</taglib>\n");
+    }
+
+    private VirtualFile createFile(final String name, final String content) throws IOException {
+        return VFS.getChild(createFile(root, name, content).getAbsolutePath());
+    }
+
+    private static File createFile(final File dir, final String name, final String content) throws IOException {
+        final File file = new File(dir, name);
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
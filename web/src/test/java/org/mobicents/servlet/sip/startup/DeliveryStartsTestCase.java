@@ -0,0 +1,65 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link DeliveryStarts}.
+ */
+public class DeliveryStartsTestCase {
+
+    @Test
+    public void testNestedDeliveries() {
+        final DeliveryStarts starts = new DeliveryStarts();
+        assertTrue(starts.isEmpty());
+        for (long start = 1L; start <= 10L; start++) {
+            starts.push(start);
+        }
+        for (long start = 10L; start >= 1L; start--) {
+            assertEquals(start, starts.pop());
+        }
+        assertTrue(starts.isEmpty());
+    }
+
+    @Test
+    public void testAbandonedStartsAreCleared() {
+        final DeliveryStarts starts = new DeliveryStarts();
+        // deliveries whose exit was never reached
+        for (int i = 0; i < DeliveryStarts.MAX_DEPTH; i++) {
+            starts.push(i);
+        }
+        starts.push(100L);
+        assertEquals(1, starts.getDepth());
+        assertEquals(100L, starts.pop());
+        assertTrue(starts.isEmpty());
+    }
+
+    @Test
+    public void testAbandonedStartDoesNotShiftLaterDeliveries() {
+        final DeliveryStarts starts = new DeliveryStarts();
+        starts.push(1L);
+        for (long start = 2L; start < 100L; start++) {
+            starts.push(start);
+            assertEquals(start, starts.pop());
+        }
+        assertEquals(1, starts.getDepth());
+    }
+}
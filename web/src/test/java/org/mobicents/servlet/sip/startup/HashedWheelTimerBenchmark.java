@@ -0,0 +1,107 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A rough microbenchmark of {@link HashedWheelTimer}, scheduling and cancelling 500k timers, compared with the
+ * <tt>ScheduledThreadPoolExecutor</tt> the per context timer services use.  It is not part of the default test run;
+ * run it with <tt>mvn test -Dtest=HashedWheelTimerBenchmark</tt>.
+ */
+public class HashedWheelTimerBenchmark {
+
+    private static final int TIMERS = 500000;
+    private static final int ROUNDS = 3;
+
+    private HashedWheelTimer timer;
+
+    @Before
+    public void setUp() {
+        timer = new HashedWheelTimer("benchmark timer", 10, TimeUnit.MILLISECONDS, 64, 2);
+        timer.start();
+    }
+
+    @After
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void testScheduleCancel() throws Exception {
+        final Runnable task = new Runnable() {
+            public void run() {
+            }
+        };
+        final List<ScheduledFuture<?>> futures = new ArrayList<ScheduledFuture<?>>(TIMERS);
+
+        // the last round is reported, the earlier ones warm up
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(HashedWheelTimer.DEFAULT_DISPATCHER_THREADS);
+        long pool = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < TIMERS; i++) {
+                futures.add(executor.schedule(task, 60000 + i, TimeUnit.MILLISECONDS));
+            }
+            for (ScheduledFuture<?> future : futures) {
+                future.cancel(false);
+            }
+            executor.purge();
+            pool = System.nanoTime() - start;
+            futures.clear();
+        }
+        executor.shutdownNow();
+
+        final ScheduledExecutorService scope = timer.newScope();
+        long wheel = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < TIMERS; i++) {
+                futures.add(scope.schedule(task, 60000 + i, TimeUnit.MILLISECONDS));
+            }
+            for (ScheduledFuture<?> future : futures) {
+                future.cancel(false);
+            }
+            wheel = System.nanoTime() - start;
+            futures.clear();
+            waitForPendingCount(0);
+        }
+        System.out.println("Scheduled and cancelled " + TIMERS + " timers: scheduled thread pool "
+                + TimeUnit.NANOSECONDS.toMillis(pool) + "ms, timer wheel " + TimeUnit.NANOSECONDS.toMillis(wheel) + "ms");
+    }
+
+    private void waitForPendingCount(final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (timer.getPendingCount() != count) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("pending count " + timer.getPendingCount() + ", expected " + count);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link HashedWheelTimer}.
+ */
+public class HashedWheelTimerTestCase {
+
+    private static final int TIMERS = 100000;
+
+    private HashedWheelTimer timer;
+
+    @Before
+    public void setUp() {
+        timer = new HashedWheelTimer("test timer", 10, TimeUnit.MILLISECONDS, 64, 2);
+        timer.start();
+    }
+
+    @After
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void testNeverFiresEarly() throws Exception {
+        final ScheduledExecutorService scope = timer.newScope();
+        final long start = System.nanoTime();
+        final ScheduledFuture<Long> future = scope.schedule(new Callable<Long>() {
+            public Long call() {
+                return System.nanoTime();
+            }
+        }, 150, TimeUnit.MILLISECONDS);
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(future.get(5, TimeUnit.SECONDS) - start);
+        assertTrue("fired after " + elapsed + "ms", elapsed >= 150);
+        assertEquals(0, timer.getPendingCount());
+    }
+
+    @Test
+    public void testMultipleRounds() throws Exception {
+        // 64 buckets of 10ms, so a 1s timer goes around the wheel
+        final ScheduledExecutorService scope = timer.newScope();
+        final CountDownLatch latch = new CountDownLatch(2);
+        final long start = System.nanoTime();
+        final List<Long> fired = new ArrayList<Long>();
+        for (final long delay : new long[] { 1000, 50 }) {
+            scope.schedule(new Runnable() {
+                public void run() {
+                    synchronized (fired) {
+                        fired.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                    latch.countDown();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(fired.toString(), fired.get(0) >= 50 && fired.get(0) < 1000);
+        assertTrue(fired.toString(), fired.get(1) >= 1000);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final ScheduledExecutorService scope = timer.newScope();
+        final AtomicInteger runs = new AtomicInteger();
+        final ScheduledFuture<?> future = scope.schedule(new Runnable() {
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+        Thread.sleep(150);
+        assertEquals(0, runs.get());
+        assertEquals(0, timer.getPendingCount());
+    }
+
+    @Test
+    public void testPeriodic() throws Exception {
+        final ScheduledExecutorService scope = timer.newScope();
+        final CountDownLatch latch = new CountDownLatch(5);
+        final ScheduledFuture<?> future = scope.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                latch.countDown();
+            }
+        }, 0, 20, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, timer.getPendingCount());
+        future.cancel(false);
+        waitForPendingCount(0);
+    }
+
+    @Test
+    public void testScopeShutdownNow() throws Exception {
+        final ScheduledExecutorService scope = timer.newScope();
+        final ScheduledExecutorService other = timer.newScope();
+        final AtomicInteger runs = new AtomicInteger();
+        final Runnable task = new Runnable() {
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        for (int i = 0; i < 100; i++) {
+            scope.schedule(task, 100, TimeUnit.MILLISECONDS);
+        }
+        final ScheduledFuture<?> kept = other.schedule(task, 100, TimeUnit.MILLISECONDS);
+        scope.shutdownNow();
+        try {
+            scope.schedule(task, 100, TimeUnit.MILLISECONDS);
+            fail("scope accepted a timer after shutdown");
+        } catch (RejectedExecutionException expected) {
+        }
+        assertTrue(scope.awaitTermination(5, TimeUnit.SECONDS));
+        kept.get(5, TimeUnit.SECONDS);
+        assertEquals(1, runs.get());
+        assertFalse(other.isShutdown());
+        assertEquals(0, timer.getPendingCount());
+    }
+
+    @Test
+    public void testScheduleCancelMany() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final Runnable task = new Runnable() {
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        final List<ScheduledFuture<?>> futures = new ArrayList<ScheduledFuture<?>>(TIMERS);
+        final ScheduledExecutorService scope = timer.newScope();
+        for (int i = 0; i < TIMERS; i++) {
+            futures.add(scope.schedule(task, 60000 + i, TimeUnit.MILLISECONDS));
+        }
+        for (ScheduledFuture<?> future : futures) {
+            assertTrue(future.cancel(false));
+        }
+        waitForPendingCount(0);
+        for (ScheduledFuture<?> future : futures) {
+            assertTrue(future.isCancelled());
+        }
+        assertEquals(0, runs.get());
+    }
+
+    private void waitForPendingCount(final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (timer.getPendingCount() != count) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("pending count " + timer.getPendingCount() + ", expected " + count);
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTestCase {
+
+    @Test
+    public void testBucketBoundaries() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5L);
+        histogram.record(0L);
+        histogram.record(999L);
+        histogram.record(1000L);
+        histogram.record(1999L);
+        histogram.record(2000L);
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(1L << 22) - 1L);
+        histogram.record(TimeUnit.HOURS.toNanos(1L));
+        final long[] counts = histogram.getBucketCounts();
+        assertEquals(LatencyHistogram.BUCKETS, counts.length);
+        // below a microsecond, including the negative latency clamped to 0
+        assertEquals(3L, counts[0]);
+        // [1us, 2us)
+        assertEquals(2L, counts[1]);
+        // [2us, 4us)
+        assertEquals(1L, counts[2]);
+        // [2^21us, 2^22us)
+        assertEquals(1L, counts[22]);
+        // everything longer
+        assertEquals(1L, counts[LatencyHistogram.BUCKETS - 1]);
+        assertEquals(8L, histogram.getCount());
+        assertEquals(TimeUnit.HOURS.toMillis(1L), histogram.getMax(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        // 90 latencies of 5us in [4us, 8us), 10 of 100us in [64us, 128us)
+        for (int i = 0; i < 90; i++) {
+            histogram.record(5000L);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(100000L);
+        }
+        assertEquals(8L, histogram.getPercentile(50, TimeUnit.MICROSECONDS));
+        assertEquals(8L, histogram.getPercentile(90, TimeUnit.MICROSECONDS));
+        // the upper bound of the bucket is capped by the largest latency recorded
+        assertEquals(100L, histogram.getPercentile(91, TimeUnit.MICROSECONDS));
+        assertEquals(100L, histogram.getPercentile(99, TimeUnit.MICROSECONDS));
+        assertEquals(100L, histogram.getPercentile(100, TimeUnit.MICROSECONDS));
+        assertEquals(14L, histogram.getMean(TimeUnit.MICROSECONDS));
+        assertEquals(100L, histogram.getMax(TimeUnit.MICROSECONDS));
+    }
+
+    @Test
+    public void testPercentileOfLongestBucket() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.SECONDS.toNanos(30L));
+        assertEquals(30L, histogram.getPercentile(50, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEmpty() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getMean(TimeUnit.MICROSECONDS));
+        assertEquals(0L, histogram.getMax(TimeUnit.MICROSECONDS));
+        assertEquals(0L, histogram.getPercentile(99, TimeUnit.MICROSECONDS));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link SipContextMetrics}.
+ */
+public class SipContextMetricsTestCase {
+
+    @Test
+    public void testCounts() {
+        final SipContextMetrics metrics = new SipContextMetrics();
+        metrics.requestProcessed("INVITE", 1000L);
+        metrics.requestProcessed("INVITE", 1000L);
+        metrics.requestProcessed("BYE", 1000L);
+        metrics.requestProcessed("FOO", 1000L);
+        metrics.requestProcessed(null, 1000L);
+        metrics.responseProcessed(180, 1000L);
+        metrics.responseProcessed(200, 1000L);
+        metrics.responseProcessed(486, 1000L);
+        metrics.responseProcessed(700, 1000L);
+
+        final Map<String, Long> requests = metrics.getRequestCounts();
+        assertEquals(Long.valueOf(2L), requests.get("INVITE"));
+        assertEquals(Long.valueOf(1L), requests.get("BYE"));
+        assertEquals(Long.valueOf(0L), requests.get("ACK"));
+        assertEquals(Long.valueOf(2L), requests.get(SipContextMetrics.OTHER_METHOD));
+
+        final Map<String, Long> responses = metrics.getResponseCounts();
+        assertEquals(Long.valueOf(1L), responses.get("1xx"));
+        assertEquals(Long.valueOf(1L), responses.get("2xx"));
+        assertEquals(Long.valueOf(0L), responses.get("3xx"));
+        assertEquals(Long.valueOf(1L), responses.get("4xx"));
+        assertEquals(6, responses.size());
+
+        // every delivery is timed, whatever its counter
+        assertEquals(9L, metrics.getProcessingLatency().getCount());
+    }
+}
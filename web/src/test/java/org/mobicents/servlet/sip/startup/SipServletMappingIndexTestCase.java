@@ -0,0 +1,151 @@
+/*
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.mobicents.servlet.sip.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.mobicents.servlet.sip.startup.SipServletMappingIndex.Constraint;
+
+/**
+ * Tests of {@link SipServletMappingIndex}.
+ */
+public class SipServletMappingIndexTestCase {
+
+    private static final String[] METHODS = { "INVITE", "BYE", "REGISTER", "SUBSCRIBE", "NOTIFY", "MESSAGE", "OPTIONS",
+            "INFO", "PUBLISH", "REFER" };
+
+    @Test
+    public void testAnalyze() {
+        assertConstraint(SipServletMappingIndex.analyze("(request.method == INVITE)"), set("INVITE"), null);
+        assertConstraint(SipServletMappingIndex.analyze("(request.method equals invite)"), set("INVITE"), null);
+        assertConstraint(SipServletMappingIndex.analyze("((request.method == INVITE) and (request.uri.scheme == SIPS))"),
+                set("INVITE"), set("sips"));
+        assertConstraint(SipServletMappingIndex.analyze("((request.method == INVITE) or (request.method == BYE))"),
+                set("INVITE", "BYE"), null);
+        assertConstraint(SipServletMappingIndex.analyze("((request.method == INVITE) or (request.from == x))"), null, null);
+        assertConstraint(SipServletMappingIndex.analyze("((request.method == INVITE) and (request.from contains x))"),
+                set("INVITE"), null);
+        assertConstraint(SipServletMappingIndex.analyze("(not (request.method == INVITE))"), null, null);
+        assertConstraint(SipServletMappingIndex.analyze("(request.method == INVITE"), null, null);
+        assertConstraint(SipServletMappingIndex.analyze(null), null, null);
+        assertConstraint(SipServletMappingIndex.analyze("((request.method == INVITE) and (request.method == BYE))"),
+                Collections.<String>emptySet(), null);
+    }
+
+    @Test
+    public void testFirstMatchPreserved() {
+        final List<Rule> rules = new ArrayList<Rule>();
+        rules.add(new Rule("(request.from == alice)", null, "alice"));
+        rules.add(new Rule("(request.method == INVITE)", "INVITE", null));
+        rules.add(new Rule("((request.method == BYE) and (request.from == bob))", "BYE", "bob"));
+        rules.add(new Rule("(request.method == BYE)", "BYE", null));
+        final SipServletMappingIndex<Rule> index = index(rules);
+
+        assertSame(rules.get(0), resolve(index, "INVITE", "sip", "alice"));
+        assertSame(rules.get(1), resolve(index, "INVITE", "sip", "carol"));
+        assertSame(rules.get(2), resolve(index, "BYE", "sip", "bob"));
+        assertSame(rules.get(3), resolve(index, "BYE", "sip", "carol"));
+        assertNull(resolve(index, "MESSAGE", "sip", "carol"));
+        assertEquals(1, index.getCandidates("MESSAGE", "sip").size());
+    }
+
+    @Test
+    public void testResolutionMatchesLinearScan() {
+        // 50 rules, five per method, only the last one of each method matches carol
+        final List<Rule> rules = new ArrayList<Rule>();
+        for (int i = 0; i < 50; i++) {
+            final String method = METHODS[i % METHODS.length];
+            final String from = i >= 40 ? "carol" : "user" + i;
+            rules.add(new Rule("((request.method == " + method + ") and (request.from == " + from + "))", method, from));
+        }
+        final SipServletMappingIndex<Rule> index = index(rules);
+        for (String method : METHODS) {
+            for (String from : new String[] { "carol", "user3", "user42", "dave" }) {
+                assertSame(method + " from " + from, linear(rules, method, "sip", from), resolve(index, method, "sip", from));
+            }
+            assertNotNull(resolve(index, method, "sip", "carol"));
+        }
+    }
+
+    private static Rule linear(final List<Rule> rules, final String method, final String scheme, final String from) {
+        for (Rule rule : rules) {
+            if (rule.matches(method, scheme, from)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static Rule resolve(final SipServletMappingIndex<Rule> index, final String method, final String scheme,
+            final String from) {
+        for (Rule rule : index.getCandidates(method, scheme)) {
+            if (rule.matches(method, scheme, from)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static SipServletMappingIndex<Rule> index(final List<Rule> rules) {
+        final List<String> expressions = new ArrayList<String>();
+        for (Rule rule : rules) {
+            expressions.add(rule.expression);
+        }
+        return new SipServletMappingIndex<Rule>(rules, expressions);
+    }
+
+    private static void assertConstraint(final Constraint constraint, final Object methods, final Object schemes) {
+        assertEquals(methods, constraint.getMethods());
+        assertEquals(schemes, constraint.getSchemes());
+    }
+
+    private static HashSet<String> set(final String... values) {
+        return new HashSet<String>(Arrays.asList(values));
+    }
+
+    /**
+     * Stand-in for a mapping with its matching rule.
+     */
+    private static final class Rule {
+        private final String expression;
+        private final String method;
+        private final String from;
+
+        Rule(final String expression, final String method, final String from) {
+            this.expression = expression;
+            this.method = method;
+            this.from = from;
+        }
+
+        boolean matches(final String method, final String scheme, final String from) {
+            // like the real rules, resolve the variables from the request on every evaluation
+            final String address = "\"Display\" <" + scheme + ":" + from + "@example.com;transport=udp>;tag=1234";
+            final String user = address.substring(address.indexOf(':') + 1, address.indexOf('@'));
+            return (this.method == null || this.method.equalsIgnoreCase(method)) && (this.from == null || this.from.equals(user));
+        }
+    }
+}